@@ -40,6 +40,56 @@ COMMENT ON FUNCTION "RowUpdateTimestamp"()
     IS 'Sets the update_instant column to the current time on row update';
 
 
+-- FUNCTION: ScheduledReviewCountsUpdate()
+
+-- DROP FUNCTION IF EXISTS "ScheduledReviewCountsUpdate"();
+
+CREATE OR REPLACE FUNCTION "ScheduledReviewCountsUpdate"()
+    RETURNS trigger
+    LANGUAGE 'plpgsql'
+    COST 100
+    VOLATILE NOT LEAKPROOF
+AS $BODY$
+DECLARE
+  old_bucket timestamp with time zone;
+  new_bucket timestamp with time zone;
+BEGIN
+  IF TG_OP IN ('UPDATE', 'DELETE') AND OLD.completed IS NOT TRUE THEN
+    old_bucket = date_trunc('hour', OLD.scheduled_test_time AT TIME ZONE 'UTC') AT TIME ZONE 'UTC';
+  END IF;
+  IF TG_OP IN ('INSERT', 'UPDATE') AND NEW.completed IS NOT TRUE THEN
+    new_bucket = date_trunc('hour', NEW.scheduled_test_time AT TIME ZONE 'UTC') AT TIME ZONE 'UTC';
+  END IF;
+
+  IF TG_OP = 'UPDATE' AND old_bucket IS NOT DISTINCT FROM new_bucket AND OLD.owner IS NOT DISTINCT FROM NEW.owner
+      AND OLD.lexicon_id = NEW.lexicon_id AND OLD.test_relationship_id IS NOT DISTINCT FROM NEW.test_relationship_id THEN
+    RETURN NULL;
+  END IF;
+
+  IF old_bucket IS NOT NULL THEN
+    UPDATE scheduled_review_counts
+      SET review_cnt = review_cnt - 1
+      WHERE owner = COALESCE(OLD.owner, '') AND lexicon_id = OLD.lexicon_id
+        AND test_relationship_id = COALESCE(OLD.test_relationship_id, '') AND bucket_start = old_bucket;
+    DELETE FROM scheduled_review_counts
+      WHERE owner = COALESCE(OLD.owner, '') AND lexicon_id = OLD.lexicon_id
+        AND test_relationship_id = COALESCE(OLD.test_relationship_id, '') AND bucket_start = old_bucket AND review_cnt <= 0;
+  END IF;
+  IF new_bucket IS NOT NULL THEN
+    INSERT INTO scheduled_review_counts (owner, lexicon_id, test_relationship_id, bucket_start, review_cnt)
+      VALUES (COALESCE(NEW.owner, ''), NEW.lexicon_id, COALESCE(NEW.test_relationship_id, ''), new_bucket, 1)
+      ON CONFLICT (owner, lexicon_id, test_relationship_id, bucket_start) DO UPDATE
+        SET review_cnt = scheduled_review_counts.review_cnt + 1;
+  END IF;
+
+  RETURN NULL;
+END;
+$BODY$;
+
+COMMENT ON FUNCTION "ScheduledReviewCountsUpdate"()
+    IS 'Keeps scheduled_review_counts in step with the incomplete reviews in scheduled_review';
+
+
 -- Table: audio
 
 -- DROP TABLE IF EXISTS audio;
@@ -228,6 +278,35 @@ CREATE SEQUENCE IF NOT EXISTS words_create_seq_num_seq
 ALTER TABLE IF EXISTS words
     ALTER COLUMN create_seq_num SET DEFAULT nextval('words_create_seq_num_seq'::regclass);
 
+-- Indexes: words_lexicon_kana_trgm, words_lexicon_kanji_trgm, words_lexicon_meaning_trgm
+
+-- DROP INDEX IF EXISTS words_lexicon_kana_trgm;
+-- DROP INDEX IF EXISTS words_lexicon_kanji_trgm;
+-- DROP INDEX IF EXISTS words_lexicon_meaning_trgm;
+
+-- Trigram indexes used to find similar element values within a lexicon. They are only created when the optional
+-- pg_trgm and btree_gist extensions are installed (see README), so run the script again after installing them later.
+DO $BODY$
+DECLARE
+  pg_trgm_schema text;
+  element_column text;
+BEGIN
+  SELECT n.nspname INTO pg_trgm_schema
+    FROM pg_extension e JOIN pg_namespace n ON n.oid = e.extnamespace
+    WHERE e.extname = 'pg_trgm';
+
+  IF pg_trgm_schema IS NULL OR NOT EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'btree_gist') THEN
+    RAISE NOTICE 'pg_trgm and btree_gist extensions are not both installed, trigram indexes on words were not created';
+    RETURN;
+  END IF;
+
+  FOREACH element_column IN ARRAY ARRAY['kana', 'kanji', 'meaning'] LOOP
+    EXECUTE format('CREATE INDEX IF NOT EXISTS %I ON words USING gist (lexicon_id, %I %I.gist_trgm_ops) TABLESPACE pg_default',
+        'words_lexicon_' || element_column || '_trgm', element_column, pg_trgm_schema);
+  END LOOP;
+END;
+$BODY$;
+
 
 -- Table: word_audio
 
@@ -270,6 +349,58 @@ CREATE OR REPLACE TRIGGER "RowUpdateTimestamp"
     EXECUTE FUNCTION "RowUpdateTimestamp"();
 
 
+-- Table: word_similar_values
+
+-- DROP TABLE IF EXISTS word_similar_values;
+
+CREATE TABLE IF NOT EXISTS word_similar_values
+(
+    word_id character varying(64) COLLATE pg_catalog."default" NOT NULL,
+    word_element character varying(64) COLLATE pg_catalog."default" NOT NULL,
+    lexicon_id character varying(64) COLLATE pg_catalog."default" NOT NULL,
+    element_value character varying(255) COLLATE pg_catalog."default" NOT NULL,
+    similar_values text[] NOT NULL,
+    create_instant timestamp with time zone,
+    update_instant timestamp with time zone,
+    CONSTRAINT word_similar_values_pkey PRIMARY KEY (word_id, word_element),
+    CONSTRAINT word_id FOREIGN KEY (word_id)
+        REFERENCES words (id) MATCH SIMPLE
+        ON UPDATE NO ACTION
+        ON DELETE CASCADE
+)
+
+TABLESPACE pg_default;
+-- Index: word_similar_values_lexicon_id
+
+-- DROP INDEX IF EXISTS word_similar_values_lexicon_id;
+
+CREATE INDEX IF NOT EXISTS word_similar_values_lexicon_id
+    ON word_similar_values USING btree
+    (lexicon_id COLLATE pg_catalog."default" ASC NULLS LAST)
+    WITH (deduplicate_items=True)
+    TABLESPACE pg_default;
+
+-- Trigger: RowCreateTimestamp
+
+-- DROP TRIGGER IF EXISTS "RowCreateTimestamp" ON word_similar_values;
+
+CREATE OR REPLACE TRIGGER "RowCreateTimestamp"
+    BEFORE INSERT
+    ON word_similar_values
+    FOR EACH ROW
+    EXECUTE FUNCTION "RowCreateTimestamp"();
+
+-- Trigger: RowUpdateTimestamp
+
+-- DROP TRIGGER IF EXISTS "RowUpdateTimestamp" ON word_similar_values;
+
+CREATE OR REPLACE TRIGGER "RowUpdateTimestamp"
+    BEFORE INSERT OR UPDATE
+    ON word_similar_values
+    FOR EACH ROW
+    EXECUTE FUNCTION "RowUpdateTimestamp"();
+
+
 -- Table: lexicon_header
 
 -- DROP TABLE IF EXISTS lexicon_header;
@@ -496,6 +627,45 @@ CREATE OR REPLACE TRIGGER "RowUpdateTimestamp"
     FOR EACH ROW
     EXECUTE FUNCTION "RowUpdateTimestamp"();
 
+-- Table: scheduled_review_counts
+
+-- DROP TABLE IF EXISTS scheduled_review_counts;
+
+-- Number of incomplete scheduled reviews per hour (UTC) of their scheduled time, maintained by the
+-- ScheduledReviewCounts trigger on scheduled_review
+CREATE TABLE IF NOT EXISTS scheduled_review_counts
+(
+    owner character varying(255) COLLATE pg_catalog."default" NOT NULL,
+    lexicon_id character varying(64) COLLATE pg_catalog."default" NOT NULL,
+    test_relationship_id character varying(64) COLLATE pg_catalog."default" NOT NULL,
+    bucket_start timestamp with time zone NOT NULL,
+    review_cnt integer NOT NULL,
+    CONSTRAINT scheduled_review_counts_pkey PRIMARY KEY (owner, lexicon_id, test_relationship_id, bucket_start)
+)
+
+TABLESPACE pg_default;
+
+ALTER TABLE IF EXISTS scheduled_review_counts
+    OWNER to postgres;
+
+-- Counts for reviews that already exist when the table is created
+INSERT INTO scheduled_review_counts (owner, lexicon_id, test_relationship_id, bucket_start, review_cnt)
+    SELECT COALESCE(owner, ''), lexicon_id, COALESCE(test_relationship_id, ''), date_trunc('hour', scheduled_test_time AT TIME ZONE 'UTC') AT TIME ZONE 'UTC', COUNT(*)
+    FROM scheduled_review
+    WHERE completed IS NOT TRUE
+    GROUP BY 1, 2, 3, 4
+    ON CONFLICT DO NOTHING;
+
+-- Trigger: ScheduledReviewCounts
+
+-- DROP TRIGGER IF EXISTS "ScheduledReviewCounts" ON scheduled_review;
+
+CREATE OR REPLACE TRIGGER "ScheduledReviewCounts"
+    AFTER INSERT OR UPDATE OR DELETE
+    ON scheduled_review
+    FOR EACH ROW
+    EXECUTE FUNCTION "ScheduledReviewCountsUpdate"();
+
 
 
 -- Table: review_events
@@ -521,6 +691,7 @@ CREATE TABLE IF NOT EXISTS review_events
     event_instant timestamp with time zone,
     override boolean,
     scheduled_review_id character varying(64) COLLATE pg_catalog."default",
+    client_event_id character varying(64) COLLATE pg_catalog."default",
     CONSTRAINT review_events_pkey PRIMARY KEY (event_id),
     CONSTRAINT scheduled_review_id FOREIGN KEY (scheduled_review_id)
         REFERENCES scheduled_review (id) MATCH SIMPLE
@@ -537,6 +708,19 @@ TABLESPACE pg_default;
 
 ALTER TABLE IF EXISTS review_events
     OWNER to postgres;
+
+ALTER TABLE IF EXISTS review_events
+    ADD COLUMN IF NOT EXISTS client_event_id character varying(64) COLLATE pg_catalog."default";
+
+-- Index: username_client_event_id
+
+-- DROP INDEX IF EXISTS username_client_event_id;
+
+-- Events resent by the client are ignored rather than saved again
+CREATE UNIQUE INDEX IF NOT EXISTS username_client_event_id
+    ON review_events USING btree
+    (username COLLATE pg_catalog."default" ASC NULLS LAST, client_event_id COLLATE pg_catalog."default" ASC NULLS LAST)
+    TABLESPACE pg_default;
 -- Index: username_lexicon_processed
 
 -- DROP INDEX IF EXISTS username_lexicon_processed;
@@ -645,4 +829,338 @@ CREATE OR REPLACE TRIGGER "RowUpdateTimestamp"
     BEFORE INSERT OR UPDATE 
     ON user_notepad
     FOR EACH ROW
-    EXECUTE FUNCTION "RowUpdateTimestamp"();
\ No newline at end of file
+    EXECUTE FUNCTION "RowUpdateTimestamp"();
+
+-- Time partitioning of review_events and scheduled_review (optional)
+--
+-- Run CALL "PartitionReviewTables"(); once to convert both tables to tables partitioned by create_instant. The daily
+-- maintenance task then drops whole partitions once all of their rows can be purged, deletes the remaining expired rows
+-- from the partitions that couldn't be dropped, and creates partitions ahead of time.
+
+-- Table: time_partition_config
+
+-- DROP TABLE IF EXISTS time_partition_config;
+
+CREATE TABLE IF NOT EXISTS time_partition_config
+(
+    table_name character varying(64) COLLATE pg_catalog."default" NOT NULL,
+    partition_interval interval NOT NULL,
+    premake_interval interval NOT NULL,
+    CONSTRAINT time_partition_config_pkey PRIMARY KEY (table_name),
+    -- Partitions are named after the day they start, so each covers a whole number of days
+    CONSTRAINT partition_interval_days CHECK (partition_interval >= INTERVAL '1 day' AND date_trunc('day', partition_interval) = partition_interval
+        AND date_part('month', partition_interval) = 0 AND date_part('year', partition_interval) = 0)
+)
+
+TABLESPACE pg_default;
+
+ALTER TABLE IF EXISTS time_partition_config
+    OWNER to postgres;
+
+-- Table: review_event_client_id
+
+-- DROP TABLE IF EXISTS review_event_client_id;
+
+-- Events resent by the client are ignored rather than saved again. Used in place of the unique username_client_event_id
+-- index once review_events is partitioned, since a unique index on it would have to include create_instant.
+CREATE TABLE IF NOT EXISTS review_event_client_id
+(
+    username character varying(255) COLLATE pg_catalog."default" NOT NULL,
+    client_event_id character varying(64) COLLATE pg_catalog."default" NOT NULL,
+    create_instant timestamp with time zone NOT NULL DEFAULT now(),
+    CONSTRAINT review_event_client_id_pkey PRIMARY KEY (username, client_event_id)
+)
+
+TABLESPACE pg_default;
+
+ALTER TABLE IF EXISTS review_event_client_id
+    OWNER to postgres;
+
+-- FUNCTION: CreateTimePartitions(text, timestamp with time zone, timestamp with time zone)
+
+-- DROP FUNCTION IF EXISTS "CreateTimePartitions"(text, timestamp with time zone, timestamp with time zone);
+
+CREATE OR REPLACE FUNCTION "CreateTimePartitions"(parent_table text, range_start timestamp with time zone, range_end timestamp with time zone)
+    RETURNS integer
+    LANGUAGE 'plpgsql'
+    COST 100
+    VOLATILE NOT LEAKPROOF
+    SET "TimeZone" = 'UTC'
+AS $BODY$
+DECLARE
+  config time_partition_config%ROWTYPE;
+  partition_start timestamp with time zone;
+  partition_name text;
+  created_cnt integer = 0;
+BEGIN
+  SELECT * INTO STRICT config FROM time_partition_config WHERE table_name = parent_table;
+
+  -- Binned from a Monday, so weekly partitions start on Mondays
+  partition_start = date_bin(config.partition_interval, range_start, TIMESTAMP WITH TIME ZONE '2000-01-03 00:00:00+00');
+  WHILE partition_start < range_end LOOP
+    partition_name = parent_table || '_p' || to_char(partition_start, 'YYYYMMDD');
+    IF to_regclass(quote_ident(partition_name)) IS NULL THEN
+      BEGIN
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+            partition_name, parent_table, partition_start, partition_start + config.partition_interval);
+        created_cnt = created_cnt + 1;
+      EXCEPTION WHEN check_violation THEN
+        -- Rows in the range have already gone to the default partition, which is where the rest of them go as well
+        RAISE WARNING 'Partition % not created, the default partition of % already has rows in its range', partition_name, parent_table;
+      END;
+    END IF;
+    partition_start = partition_start + config.partition_interval;
+  END LOOP;
+
+  RETURN created_cnt;
+END;
+$BODY$;
+
+COMMENT ON FUNCTION "CreateTimePartitions"(text, timestamp with time zone, timestamp with time zone)
+    IS 'Creates any missing partitions of a time partitioned table covering the given range';
+
+-- PROCEDURE: PurgeTimePartitions(text, text, timestamp with time zone, bigint)
+
+-- DROP PROCEDURE IF EXISTS "PurgeTimePartitions"(text, text, timestamp with time zone, bigint);
+
+-- Commits after each step so that locks on the parent table are only held briefly, so this can't be called in a
+-- transaction. A row can be purged once purge_flag_column is true and it hasn't been updated since the cutoff.
+-- An expired partition is only dropped when every row in it can be purged. Otherwise its purgeable rows are deleted
+-- and the rest are kept, the same as an unpartitioned table. Events are processed soon after they are saved, so
+-- review_events partitions are normally dropped. A scheduled review stays incomplete until its test time, so a week of
+-- scheduled_review is kept as long as any review created that week is scheduled in the future, and is mostly purged by
+-- the delete.
+CREATE OR REPLACE PROCEDURE "PurgeTimePartitions"(parent_table text, purge_flag_column text, cutoff timestamp with time zone, INOUT purged_cnt bigint DEFAULT 0)
+    LANGUAGE 'plpgsql'
+AS $BODY$
+DECLARE
+  config time_partition_config%ROWTYPE;
+  purge_condition text;
+  expired_partitions regclass[];
+  expired_partition regclass;
+  has_kept_rows boolean;
+  total_cnt bigint;
+  deleted_cnt bigint;
+BEGIN
+  purged_cnt = 0;
+  SELECT * INTO STRICT config FROM time_partition_config WHERE table_name = parent_table;
+
+  PERFORM "CreateTimePartitions"(parent_table, now(), now() + config.premake_interval);
+  COMMIT;
+
+  purge_condition = format('%I IS TRUE AND (update_instant < %L OR update_instant IS NULL)', purge_flag_column, cutoff);
+
+  -- Partitions that end before the cutoff, oldest first
+  SELECT array_agg(partition_table ORDER BY upper_bound) INTO expired_partitions
+    FROM (
+      SELECT c.oid::regclass AS partition_table,
+          substring(pg_get_expr(c.relpartbound, c.oid) FROM 'TO \(''([^'']+)''\)')::timestamp with time zone AS upper_bound
+        FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+        WHERE i.inhparent = parent_table::regclass
+    ) AS partitions
+    WHERE upper_bound <= cutoff;
+
+  FOREACH expired_partition IN ARRAY COALESCE(expired_partitions, '{}') LOOP
+    BEGIN
+      -- A partition that can't be locked quickly is left to the delete below
+      PERFORM set_config('lock_timeout', '5s', true);
+      EXECUTE format('LOCK TABLE %s IN SHARE MODE', expired_partition);
+      -- Stops at the first row that has to be kept, since most partitions that can't be dropped are checked every day
+      EXECUTE format('SELECT EXISTS (SELECT 1 FROM %s WHERE NOT (%s))', expired_partition, purge_condition) INTO has_kept_rows;
+      IF NOT has_kept_rows THEN
+        EXECUTE format('SELECT count(*) FROM %s', expired_partition) INTO total_cnt;
+        EXECUTE format('ALTER TABLE %I DETACH PARTITION %s', parent_table, expired_partition);
+        EXECUTE format('DROP TABLE %s', expired_partition);
+        purged_cnt = purged_cnt + total_cnt;
+      END IF;
+    EXCEPTION WHEN lock_not_available THEN
+      RAISE WARNING 'Could not lock partition % of %, its expired rows are deleted instead', expired_partition, parent_table;
+    END;
+    COMMIT;
+  END LOOP;
+
+  -- Purgeable rows in the partitions that weren't dropped, including the one the cutoff falls in. A row's
+  -- update_instant is never before its create_instant, so only the partitions that start before the cutoff can have
+  -- rows left to purge.
+  EXECUTE format('DELETE FROM %I WHERE create_instant < %L AND %s', parent_table, cutoff, purge_condition);
+  GET DIAGNOSTICS deleted_cnt = ROW_COUNT;
+  purged_cnt = purged_cnt + deleted_cnt;
+END;
+$BODY$;
+
+COMMENT ON PROCEDURE "PurgeTimePartitions"(text, text, timestamp with time zone, bigint)
+    IS 'Creates upcoming partitions, drops the expired partitions where every row can be purged and deletes the purgeable rows of the other expired partitions of a time partitioned table';
+
+-- PROCEDURE: PartitionReviewTables(interval, interval, interval)
+
+-- DROP PROCEDURE IF EXISTS "PartitionReviewTables"(interval, interval, interval);
+
+-- Recreates review_events and scheduled_review as tables partitioned by create_instant and copies the existing rows.
+-- Unique indexes on a partitioned table have to include the partition key, so:
+--   * The primary keys include create_instant. Upserts of scheduled reviews take an advisory lock on the id instead.
+--   * username_client_event_id is no longer unique. Resent events are caught by review_event_client_id instead.
+--   * review_events no longer has a foreign key to scheduled_review, since it would need a unique key on id alone. An
+--     event's scheduled_review_id can then refer to a review that was deleted or purged, which only means marking that
+--     review complete changes nothing.
+-- The foreign keys to words can't be NOT VALID, so rows referencing deleted words have to be removed first. The
+-- application only checks whether the tables are partitioned when it starts, so it has to be restarted afterwards.
+CREATE OR REPLACE PROCEDURE "PartitionReviewTables"(
+        events_partition_interval interval DEFAULT INTERVAL '1 day',
+        reviews_partition_interval interval DEFAULT INTERVAL '7 days',
+        partitions_ahead interval DEFAULT INTERVAL '14 days')
+    LANGUAGE 'plpgsql'
+AS $BODY$
+BEGIN
+  IF EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'review_events'::regclass) THEN
+    RAISE NOTICE 'review_events and scheduled_review are already partitioned';
+    RETURN;
+  END IF;
+
+  INSERT INTO time_partition_config (table_name, partition_interval, premake_interval)
+    VALUES ('review_events', events_partition_interval, partitions_ahead), ('scheduled_review', reviews_partition_interval, partitions_ahead)
+    ON CONFLICT (table_name) DO UPDATE
+      SET partition_interval = EXCLUDED.partition_interval, premake_interval = EXCLUDED.premake_interval;
+
+  ALTER TABLE review_events RENAME TO review_events_unpartitioned;
+  ALTER TABLE scheduled_review RENAME TO scheduled_review_unpartitioned;
+  ALTER SEQUENCE IF EXISTS review_events_id_seq1 OWNED BY NONE;
+
+  -- create_instant defaults to the same time the RowCreateTimestamp trigger sets, so the trigger never moves a new row
+  -- to another partition
+  CREATE TABLE scheduled_review
+  (
+      id character varying(64) COLLATE pg_catalog."default" NOT NULL,
+      lexicon_id character varying(64) COLLATE pg_catalog."default" NOT NULL,
+      word_id character varying(64) COLLATE pg_catalog."default" NOT NULL,
+      scheduled_test_time timestamp with time zone NOT NULL,
+      completed boolean,
+      test_delay_ms bigint,
+      test_relationship_id character varying(64) COLLATE pg_catalog."default",
+      review_type character varying(64) COLLATE pg_catalog."default",
+      create_instant timestamp with time zone NOT NULL DEFAULT now(),
+      update_instant timestamp with time zone,
+      owner character varying(255) COLLATE pg_catalog."default"
+  ) PARTITION BY RANGE (create_instant);
+
+  ALTER TABLE scheduled_review
+      OWNER to postgres;
+
+  CREATE TABLE scheduled_review_default PARTITION OF scheduled_review DEFAULT;
+  PERFORM "CreateTimePartitions"('scheduled_review',
+      COALESCE((SELECT min(COALESCE(create_instant, update_instant)) FROM scheduled_review_unpartitioned), now()), now() + partitions_ahead);
+
+  CREATE TABLE review_events
+  (
+      event_id bigint NOT NULL DEFAULT nextval('review_events_id_seq1'::regclass),
+      lexicon_id character varying(255) COLLATE pg_catalog."default" NOT NULL,
+      word_id character varying(255) COLLATE pg_catalog."default" NOT NULL,
+      review_type character varying(255) COLLATE pg_catalog."default",
+      review_mode character varying(255) COLLATE pg_catalog."default",
+      test_on character varying(255) COLLATE pg_catalog."default",
+      prompt_with character varying(255) COLLATE pg_catalog."default",
+      correct boolean,
+      near_miss boolean,
+      elapsed_time_ms bigint,
+      processed boolean,
+      create_instant timestamp with time zone NOT NULL DEFAULT now(),
+      update_instant timestamp with time zone,
+      username character varying(255) COLLATE pg_catalog."default",
+      event_instant timestamp with time zone,
+      override boolean,
+      scheduled_review_id character varying(64) COLLATE pg_catalog."default",
+      client_event_id character varying(64) COLLATE pg_catalog."default"
+  ) PARTITION BY RANGE (create_instant);
+
+  ALTER TABLE review_events
+      OWNER to postgres;
+
+  CREATE TABLE review_events_default PARTITION OF review_events DEFAULT;
+  PERFORM "CreateTimePartitions"('review_events',
+      COALESCE((SELECT min(COALESCE(create_instant, update_instant)) FROM review_events_unpartitioned), now()), now() + partitions_ahead);
+
+  -- Copied before the triggers are created, so the timestamps and scheduled_review_counts are left as they are
+  INSERT INTO scheduled_review (id, lexicon_id, word_id, scheduled_test_time, completed, test_delay_ms, test_relationship_id, review_type,
+          create_instant, update_instant, owner)
+    SELECT id, lexicon_id, word_id, scheduled_test_time, completed, test_delay_ms, test_relationship_id, review_type,
+          COALESCE(create_instant, update_instant, now()), update_instant, owner
+    FROM scheduled_review_unpartitioned;
+
+  INSERT INTO review_events (event_id, lexicon_id, word_id, review_type, review_mode, test_on, prompt_with, correct, near_miss, elapsed_time_ms,
+          processed, create_instant, update_instant, username, event_instant, override, scheduled_review_id, client_event_id)
+    SELECT event_id, lexicon_id, word_id, review_type, review_mode, test_on, prompt_with, correct, near_miss, elapsed_time_ms,
+          processed, COALESCE(create_instant, update_instant, now()), update_instant, username, event_instant, override, scheduled_review_id, client_event_id
+    FROM review_events_unpartitioned;
+
+  INSERT INTO review_event_client_id (username, client_event_id, create_instant)
+    SELECT username, client_event_id, min(COALESCE(create_instant, update_instant, now()))
+    FROM review_events_unpartitioned
+    WHERE username IS NOT NULL AND client_event_id IS NOT NULL
+    GROUP BY username, client_event_id
+    ON CONFLICT (username, client_event_id) DO NOTHING;
+
+  DROP TABLE review_events_unpartitioned;
+  DROP TABLE scheduled_review_unpartitioned;
+
+  ALTER SEQUENCE IF EXISTS review_events_id_seq1 OWNED BY review_events.event_id;
+
+  ALTER TABLE scheduled_review
+      ADD CONSTRAINT scheduled_review_pkey PRIMARY KEY (id, create_instant),
+      ADD CONSTRAINT word_id FOREIGN KEY (word_id)
+          REFERENCES words (id) MATCH SIMPLE
+          ON UPDATE NO ACTION
+          ON DELETE NO ACTION;
+
+  CREATE INDEX "lexiconId-scheduledTestTime-completed"
+      ON scheduled_review USING btree
+      (lexicon_id COLLATE pg_catalog."default" ASC NULLS LAST, scheduled_test_time ASC NULLS LAST, completed ASC NULLS LAST);
+
+  ALTER TABLE review_events
+      ADD CONSTRAINT review_events_pkey PRIMARY KEY (event_id, create_instant),
+      ADD CONSTRAINT word_id FOREIGN KEY (word_id)
+          REFERENCES words (id) MATCH SIMPLE
+          ON UPDATE NO ACTION
+          ON DELETE NO ACTION;
+
+  -- Not unique, review_event_client_id catches resent events instead
+  CREATE INDEX username_client_event_id
+      ON review_events USING btree
+      (username COLLATE pg_catalog."default" ASC NULLS LAST, client_event_id COLLATE pg_catalog."default" ASC NULLS LAST);
+
+  CREATE INDEX username_lexicon_processed
+      ON review_events USING btree
+      (username COLLATE pg_catalog."default" ASC NULLS LAST, lexicon_id COLLATE pg_catalog."default" ASC NULLS LAST, processed ASC NULLS LAST);
+
+  CREATE TRIGGER "RowCreateTimestamp"
+      BEFORE INSERT
+      ON scheduled_review
+      FOR EACH ROW
+      EXECUTE FUNCTION "RowCreateTimestamp"();
+
+  CREATE TRIGGER "RowUpdateTimestamp"
+      BEFORE INSERT OR UPDATE
+      ON scheduled_review
+      FOR EACH ROW
+      EXECUTE FUNCTION "RowUpdateTimestamp"();
+
+  CREATE TRIGGER "ScheduledReviewCounts"
+      AFTER INSERT OR UPDATE OR DELETE
+      ON scheduled_review
+      FOR EACH ROW
+      EXECUTE FUNCTION "ScheduledReviewCountsUpdate"();
+
+  CREATE TRIGGER "RowCreateTimestamp"
+      BEFORE INSERT
+      ON review_events
+      FOR EACH ROW
+      EXECUTE FUNCTION "RowCreateTimestamp"();
+
+  CREATE TRIGGER "RowUpdateTimestamp"
+      BEFORE INSERT OR UPDATE
+      ON review_events
+      FOR EACH ROW
+      EXECUTE FUNCTION "RowUpdateTimestamp"();
+END;
+$BODY$;
+
+COMMENT ON PROCEDURE "PartitionReviewTables"(interval, interval, interval)
+    IS 'Converts review_events and scheduled_review to tables partitioned by create_instant';
\ No newline at end of file
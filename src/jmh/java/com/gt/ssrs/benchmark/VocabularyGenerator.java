@@ -0,0 +1,111 @@
+package com.gt.ssrs.benchmark;
+
+import com.gt.ssrs.language.WordElement;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+// Generates synthetic Japanese vocabulary with roughly the shape of real lexicon data: kana readings of 2-8 morae,
+// kanji compounds of 1-4 characters drawn from a few hundred common kanji, and short English meanings. Generation is
+// seeded so that every benchmark run sees the same dataset.
+public class VocabularyGenerator {
+
+    private static final String[] KANA_MORAE = {
+            "あ", "い", "う", "え", "お", "か", "き", "く", "け", "こ", "さ", "し", "す", "せ", "そ", "た", "ち", "つ", "て", "と",
+            "な", "に", "ぬ", "ね", "の", "は", "ひ", "ふ", "へ", "ほ", "ま", "み", "む", "め", "も", "や", "ゆ", "よ",
+            "ら", "り", "る", "れ", "ろ", "わ", "を", "ん", "が", "ぎ", "ぐ", "げ", "ご", "ざ", "じ", "ず", "ぜ", "ぞ",
+            "だ", "で", "ど", "ば", "び", "ぶ", "べ", "ぼ", "ぱ", "ぴ", "ぷ", "ぺ", "ぽ", "きゃ", "きゅ", "きょ", "しゃ",
+            "しゅ", "しょ", "ちゃ", "ちゅ", "ちょ", "にゅ", "ひょ", "りょ", "じゅ", "じょ", "ぎょ", "っ", "う", "い", "ん" };
+
+    private static final String KANJI =
+            "日一国会人年大十二本中長出三同時政事自行社見月分議後前民生連五発間対上部東者党地合市業内相方四定今回新場金員九入" +
+            "選立開手米力学問高代明実円関決子動京全目表戦経通外最言氏現理調体化田当八六約主題下首意法不来作性的要用制治度務強" +
+            "気小七成期公持野協取都和統以機平総加山思家話世受区領多県続進正安設保改数記院女初北午指権心界支第産結百派点教報済" +
+            "書府活原先共得解名交資予川向際査勝面委告軍文反元重近千考判認画海参売利組知案道信策集在件団別物側任引使求所次水半" +
+            "品昨論計死官増係感特情投示変打男基私各始島直両朝革価式確村提運終挙果西勢減台広容必応演電歳住争談能無再位置企真流";
+
+    private static final String[] MEANING_WORDS = {
+            "to", "the", "of", "a", "be", "make", "take", "go", "come", "see", "know", "give", "find", "think", "tell",
+            "become", "leave", "feel", "put", "bring", "begin", "keep", "hold", "write", "stand", "hear", "let", "mean",
+            "set", "meet", "run", "pay", "sit", "speak", "lie", "lead", "read", "grow", "lose", "fall", "send", "build",
+            "understand", "draw", "break", "spend", "cut", "rise", "drive", "buy", "wear", "choose", "seek", "throw",
+            "catch", "deal", "win", "forgive", "time", "person", "year", "way", "day", "thing", "man", "world", "life",
+            "hand", "part", "child", "eye", "woman", "place", "work", "week", "case", "point", "government", "company",
+            "number", "group", "problem", "fact", "light", "heavy", "quick", "slow", "bright", "dark", "deep", "shallow",
+            "strong", "weak", "public", "private", "early", "late", "important", "possible", "national", "natural" };
+
+    private final Random random;
+
+    public VocabularyGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public List<String> generate(WordElement wordElement, int count) {
+        Set<String> values = new LinkedHashSet<>();
+
+        // Short kanji compounds can run out of distinct values before large counts, so allow longer ones when stuck
+        int attemptsWithoutNewValue = 0;
+        while (values.size() < count) {
+            String value = generateValue(wordElement, attemptsWithoutNewValue / 100);
+            if (values.add(value)) {
+                attemptsWithoutNewValue = 0;
+            } else {
+                attemptsWithoutNewValue++;
+            }
+        }
+
+        return new ArrayList<>(values);
+    }
+
+    public String generateValue(WordElement wordElement) {
+        return generateValue(wordElement, 0);
+    }
+
+    private String generateValue(WordElement wordElement, int extraLength) {
+        return switch (wordElement) {
+            case Kanji, AlternateKanji -> generateKanji(extraLength);
+            case Meaning -> generateMeaning(extraLength);
+            default -> generateKana(extraLength);
+        };
+    }
+
+    private String generateKana(int extraLength) {
+        StringBuilder sb = new StringBuilder();
+        int morae = 2 + random.nextInt(7) + extraLength;
+        for (int i = 0; i < morae; i++) {
+            sb.append(KANA_MORAE[random.nextInt(KANA_MORAE.length)]);
+        }
+        return sb.toString();
+    }
+
+    private String generateKanji(int extraLength) {
+        StringBuilder sb = new StringBuilder();
+        int length = weightedLength(extraLength);
+        for (int i = 0; i < length; i++) {
+            sb.append(KANJI.charAt(random.nextInt(KANJI.length())));
+        }
+        return sb.toString();
+    }
+
+    private String generateMeaning(int extraLength) {
+        StringBuilder sb = new StringBuilder();
+        int words = 1 + random.nextInt(3) + extraLength;
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(MEANING_WORDS[random.nextInt(MEANING_WORDS.length)]);
+        }
+        return sb.toString();
+    }
+
+    // Two-character compounds are by far the most common, followed by single characters
+    private int weightedLength(int extraLength) {
+        int roll = random.nextInt(10);
+        int length = roll < 2 ? 1 : roll < 8 ? 2 : roll < 9 ? 3 : 4;
+        return length + extraLength;
+    }
+}
@@ -0,0 +1,52 @@
+package com.gt.ssrs.benchmark.dao;
+
+import com.gt.ssrs.lexicon.LexiconDao;
+import com.gt.ssrs.model.LexiconMetadata;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Map backed lexicon storage so benchmarks can run the services without a database. Not thread safe.
+public class InMemoryLexiconDao implements LexiconDao {
+
+    private final Map<String, LexiconMetadata> lexicons = new LinkedHashMap<>();
+
+    @Override
+    public List<LexiconMetadata> getAllLexiconMetadata(String username) {
+        return lexicons.values().stream().filter(lexicon -> lexicon.owner().equals(username)).toList();
+    }
+
+    @Override
+    public LexiconMetadata getLexiconMetadata(String id) {
+        return lexicons.get(id);
+    }
+
+    @Override
+    public List<LexiconMetadata> getLexiconMetadatas(Collection<String> ids) {
+        return ids.stream().map(lexicons::get).filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public int updateLexiconMetadata(String username, LexiconMetadata lexicon) {
+        LexiconMetadata existing = lexicons.get(lexicon.id());
+        if (existing == null || !existing.owner().equals(username)) {
+            return 0;
+        }
+
+        lexicons.put(lexicon.id(), lexicon);
+        return 1;
+    }
+
+    @Override
+    public int createLexiconMetadata(LexiconMetadata lexicon) {
+        return lexicons.putIfAbsent(lexicon.id(), lexicon) == null ? 1 : 0;
+    }
+
+    @Override
+    public void deleteLexiconMetadata(String lexiconId) {
+        lexicons.remove(lexiconId);
+    }
+}
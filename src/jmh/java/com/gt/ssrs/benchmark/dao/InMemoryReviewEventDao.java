@@ -0,0 +1,120 @@
+package com.gt.ssrs.benchmark.dao;
+
+import com.gt.ssrs.model.ReviewEvent;
+import com.gt.ssrs.reviewSession.ReviewEventDao;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.function.Predicate;
+
+// Map backed review event storage so benchmarks can run the services without a database. Events saved with a client
+// event ID are only saved once. Not thread safe.
+public class InMemoryReviewEventDao implements ReviewEventDao {
+
+    private final Map<String, ReviewEvent> events = new LinkedHashMap<>();
+    private final Map<String, String> eventIdsByClientEventId = new HashMap<>();
+    private final Set<String> processedEventIds = new HashSet<>();
+    private long nextEventId = 1;
+
+    public int size() {
+        return events.size();
+    }
+
+    public void clear() {
+        events.clear();
+        eventIdsByClientEventId.clear();
+        processedEventIds.clear();
+    }
+
+    @Override
+    public boolean saveReviewEvent(ReviewEvent event) {
+        String clientKey = event.clientEventId() == null ? null : event.username() + ":" + event.clientEventId();
+        if (clientKey != null && eventIdsByClientEventId.containsKey(clientKey)) {
+            return true;
+        }
+
+        String eventId = event.eventId() != null ? event.eventId() : Long.toString(nextEventId++);
+        events.put(eventId, withEventId(event, eventId));
+        if (clientKey != null) {
+            eventIdsByClientEventId.put(clientKey, eventId);
+        }
+
+        return true;
+    }
+
+    @Override
+    public int saveReviewEvents(List<ReviewEvent> eventsToSave) {
+        return (int) eventsToSave.stream().filter(this::saveReviewEvent).count();
+    }
+
+    @Override
+    public List<ReviewEvent> loadUnprocessedReviewEventsForUser(String username, String lexiconId) {
+        return events.values().stream()
+                .filter(event -> event.username().equals(username) && event.lexiconId().equals(lexiconId) && !processedEventIds.contains(event.eventId()))
+                .toList();
+    }
+
+    @Override
+    public Optional<Map<String, Set<String>>> loadLexiconIdsWithUnprocessedEvents() {
+        Map<String, Set<String>> lexiconIdsByUsername = new HashMap<>();
+        for (ReviewEvent event : events.values()) {
+            if (!processedEventIds.contains(event.eventId())) {
+                lexiconIdsByUsername.computeIfAbsent(event.username(), username -> new HashSet<>()).add(event.lexiconId());
+            }
+        }
+
+        return Optional.of(lexiconIdsByUsername);
+    }
+
+    @Override
+    public List<String> markEventsAsProcessed(List<ReviewEvent> eventsToMark) {
+        return eventsToMark.stream()
+                .map(ReviewEvent::eventId)
+                .filter(eventId -> events.containsKey(eventId) && processedEventIds.add(eventId))
+                .toList();
+    }
+
+    @Override
+    public void deleteWordReviewEvents(String lexiconId, Collection<String> wordIds) {
+        removeEvents(event -> event.lexiconId().equals(lexiconId) && wordIds.contains(event.wordId()));
+    }
+
+    @Override
+    public void deleteWordReviewEventsForUser(String lexiconId, String username, Collection<String> wordIds) {
+        removeEvents(event -> event.lexiconId().equals(lexiconId) && event.username().equals(username) && wordIds.contains(event.wordId()));
+    }
+
+    @Override
+    public void deleteAllLexiconReviewEvents(String lexiconId) {
+        removeEvents(event -> event.lexiconId().equals(lexiconId));
+    }
+
+    @Override
+    public void deleteAllLexiconReviewEventsForUser(String lexiconId, String username) {
+        removeEvents(event -> event.lexiconId().equals(lexiconId) && event.username().equals(username));
+    }
+
+    @Override
+    public int purgeOldReviewEvents(Instant cutoff) {
+        return removeEvents(event -> processedEventIds.contains(event.eventId()) && event.eventInstant().isBefore(cutoff));
+    }
+
+    private int removeEvents(Predicate<ReviewEvent> filter) {
+        List<ReviewEvent> eventsToRemove = events.values().stream().filter(filter).toList();
+        for (ReviewEvent event : eventsToRemove) {
+            events.remove(event.eventId());
+            processedEventIds.remove(event.eventId());
+            if (event.clientEventId() != null) {
+                eventIdsByClientEventId.remove(event.username() + ":" + event.clientEventId());
+            }
+        }
+
+        return eventsToRemove.size();
+    }
+
+    private static ReviewEvent withEventId(ReviewEvent event, String eventId) {
+        return new ReviewEvent(eventId, event.scheduledReviewId(), event.lexiconId(), event.wordId(), event.username(), event.eventInstant(),
+                event.reviewType(), event.reviewMode(), event.testRelationship(), event.isCorrect(), event.isNearMiss(), event.elapsedTimeMs(),
+                event.override(), event.clientEventId());
+    }
+}
@@ -0,0 +1,47 @@
+package com.gt.ssrs.benchmark.dao;
+
+import com.gt.ssrs.model.ReviewEvent;
+import com.gt.ssrs.model.ScheduledReview;
+import com.gt.ssrs.model.WordReviewHistory;
+import com.gt.ssrs.reviewHistory.WordReviewHistoryDao;
+import com.gt.ssrs.reviewSession.ReviewEventDao;
+import com.gt.ssrs.reviewSession.ReviewResultsDao;
+import com.gt.ssrs.reviewSession.ScheduledReviewDao;
+
+import java.util.Collection;
+import java.util.List;
+
+// Writes processed results through the other in-memory DAOs, in the same order as the DynamoDB implementation
+public class InMemoryReviewResultsDao implements ReviewResultsDao {
+
+    private final WordReviewHistoryDao wordReviewHistoryDao;
+    private final ScheduledReviewDao scheduledReviewDao;
+    private final ReviewEventDao reviewEventDao;
+
+    public InMemoryReviewResultsDao(WordReviewHistoryDao wordReviewHistoryDao, ScheduledReviewDao scheduledReviewDao, ReviewEventDao reviewEventDao) {
+        this.wordReviewHistoryDao = wordReviewHistoryDao;
+        this.scheduledReviewDao = scheduledReviewDao;
+        this.reviewEventDao = reviewEventDao;
+    }
+
+    @Override
+    public void saveProcessedResults(String username, List<WordReviewHistory> wordReviewHistories, List<ScheduledReview> scheduledReviews, List<ReviewEvent> processedEvents) {
+        if (!wordReviewHistories.isEmpty()) {
+            wordReviewHistoryDao.updateWordReviewHistory(username, wordReviewHistories);
+        }
+        if (!scheduledReviews.isEmpty()) {
+            scheduledReviewDao.createScheduledReviewsBatch(scheduledReviews);
+        }
+        reviewEventDao.markEventsAsProcessed(processedEvents);
+    }
+
+    @Override
+    public int saveReviewEvents(List<ReviewEvent> events, Collection<String> completedScheduledReviewIds) {
+        int savedCnt = reviewEventDao.saveReviewEvents(events);
+        if (!completedScheduledReviewIds.isEmpty()) {
+            scheduledReviewDao.markScheduledReviewsComplete(completedScheduledReviewIds);
+        }
+
+        return savedCnt;
+    }
+}
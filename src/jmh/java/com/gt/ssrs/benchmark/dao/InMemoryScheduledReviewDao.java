@@ -0,0 +1,143 @@
+package com.gt.ssrs.benchmark.dao;
+
+import com.gt.ssrs.model.ScheduledReview;
+import com.gt.ssrs.reviewSession.ScheduledReviewDao;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+// Map backed scheduled review storage so benchmarks can run the services without a database. Not thread safe.
+public class InMemoryScheduledReviewDao implements ScheduledReviewDao {
+
+    private final Map<String, ScheduledReview> scheduledReviews = new LinkedHashMap<>();
+
+    public int size() {
+        return scheduledReviews.size();
+    }
+
+    public void clear() {
+        scheduledReviews.clear();
+    }
+
+    @Override
+    public void createScheduledReviewsBatch(List<ScheduledReview> scheduledReviewsToCreate) {
+        scheduledReviewsToCreate.forEach(scheduledReview -> scheduledReviews.put(scheduledReview.id(), scheduledReview));
+    }
+
+    @Override
+    public int markScheduledReviewComplete(String scheduledReviewId) {
+        ScheduledReview scheduledReview = scheduledReviews.get(scheduledReviewId);
+        if (scheduledReview == null || scheduledReview.completed()) {
+            return 0;
+        }
+
+        scheduledReviews.put(scheduledReviewId, withScheduledTestTime(scheduledReview, scheduledReview.scheduledTestTime(), true));
+        return 1;
+    }
+
+    @Override
+    public int markScheduledReviewsComplete(Collection<String> scheduledReviewIds) {
+        return scheduledReviewIds.stream().mapToInt(this::markScheduledReviewComplete).sum();
+    }
+
+    @Override
+    public List<ScheduledReview> loadScheduledReviews(String username, String lexiconId, String testRelationshipId, Optional<Instant> cutoffInstant) {
+        Instant cutoff = cutoffInstant.orElse(Instant.now());
+
+        return scheduledReviews.values().stream()
+                .filter(scheduledReview -> isIncompleteForUser(scheduledReview, username, lexiconId))
+                .filter(scheduledReview -> !StringUtils.hasLength(testRelationshipId) || testRelationshipId.equals(scheduledReview.testRelationshipId()))
+                .filter(scheduledReview -> scheduledReview.scheduledTestTime().isBefore(cutoff))
+                .toList();
+    }
+
+    @Override
+    public List<ScheduledReview> loadDueScheduledReviews(String username, String lexiconId, String testRelationshipId, Optional<Instant> cutoffInstant, double futureEventAllowedRatio, int limit) {
+        Instant now = Instant.now();
+
+        return loadScheduledReviews(username, lexiconId, testRelationshipId, cutoffInstant).stream()
+                .filter(scheduledReview -> !scheduledReview.scheduledTestTime().isAfter(now) || scheduledReview.isEarlyReviewAllowed(now, futureEventAllowedRatio))
+                .sorted(Comparator.comparing(ScheduledReview::scheduledTestTime))
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public Map<String, Map<String, Integer>> countScheduledReviews(String username, Collection<String> lexiconIds, Optional<Instant> cutoffInstant, double futureEventAllowedRatio) {
+        Instant now = Instant.now();
+        Instant cutoff = cutoffInstant.orElse(now);
+
+        Map<String, Map<String, Integer>> counts = new HashMap<>();
+        for (ScheduledReview scheduledReview : scheduledReviews.values()) {
+            if (!scheduledReview.completed() && scheduledReview.username().equals(username) && lexiconIds.contains(scheduledReview.lexiconId())
+                    && scheduledReview.scheduledTestTime().isBefore(cutoff)
+                    && (!scheduledReview.scheduledTestTime().isAfter(now) || scheduledReview.isEarlyReviewAllowed(now, futureEventAllowedRatio))) {
+                counts.computeIfAbsent(scheduledReview.lexiconId(), lexiconId -> new HashMap<>())
+                        .merge(scheduledReview.testRelationshipId(), 1, Integer::sum);
+            }
+        }
+
+        return counts;
+    }
+
+    @Override
+    public List<ScheduledReview> loadScheduledReviewsForWords(String username, String lexiconId, Collection<String> wordIds) {
+        return scheduledReviews.values().stream()
+                .filter(scheduledReview -> isIncompleteForUser(scheduledReview, username, lexiconId) && wordIds.contains(scheduledReview.wordId()))
+                .toList();
+    }
+
+    @Override
+    public void deleteUserScheduledReviewForWords(String lexiconId, Collection<String> wordIds, String username) {
+        scheduledReviews.values().removeIf(scheduledReview -> scheduledReview.lexiconId().equals(lexiconId)
+                && scheduledReview.username().equals(username) && wordIds.contains(scheduledReview.wordId()));
+    }
+
+    @Override
+    public void deleteScheduledReviewsForWords(String lexiconId, Collection<String> wordIds) {
+        scheduledReviews.values().removeIf(scheduledReview -> scheduledReview.lexiconId().equals(lexiconId) && wordIds.contains(scheduledReview.wordId()));
+    }
+
+    @Override
+    public void deleteAllLexiconReviewEventsForUser(String lexiconId, String username) {
+        scheduledReviews.values().removeIf(scheduledReview -> scheduledReview.lexiconId().equals(lexiconId) && scheduledReview.username().equals(username));
+    }
+
+    @Override
+    public void deleteAllLexiconReviewEvents(String lexiconId) {
+        scheduledReviews.values().removeIf(scheduledReview -> scheduledReview.lexiconId().equals(lexiconId));
+    }
+
+    @Override
+    public int adjustNextReviewTimes(String lexiconId, String username, Duration adjustment) {
+        int adjustedCnt = 0;
+        for (Map.Entry<String, ScheduledReview> entry : scheduledReviews.entrySet()) {
+            ScheduledReview scheduledReview = entry.getValue();
+            if (isIncompleteForUser(scheduledReview, username, lexiconId)) {
+                entry.setValue(withScheduledTestTime(scheduledReview, scheduledReview.scheduledTestTime().plus(adjustment), false));
+                adjustedCnt++;
+            }
+        }
+
+        return adjustedCnt;
+    }
+
+    @Override
+    public int purgeOldScheduledReviews(Instant cutoff) {
+        int sizeBefore = scheduledReviews.size();
+        scheduledReviews.values().removeIf(scheduledReview -> scheduledReview.completed() && scheduledReview.scheduledTestTime().isBefore(cutoff));
+
+        return sizeBefore - scheduledReviews.size();
+    }
+
+    private static boolean isIncompleteForUser(ScheduledReview scheduledReview, String username, String lexiconId) {
+        return !scheduledReview.completed() && scheduledReview.username().equals(username) && scheduledReview.lexiconId().equals(lexiconId);
+    }
+
+    private static ScheduledReview withScheduledTestTime(ScheduledReview scheduledReview, Instant scheduledTestTime, boolean completed) {
+        return new ScheduledReview(scheduledReview.id(), scheduledReview.username(), scheduledReview.lexiconId(), scheduledReview.wordId(),
+                scheduledReview.reviewType(), scheduledReview.testRelationshipId(), scheduledTestTime, scheduledReview.testDelay(), completed);
+    }
+}
@@ -0,0 +1,166 @@
+package com.gt.ssrs.benchmark.dao;
+
+import com.gt.ssrs.language.Language;
+import com.gt.ssrs.language.WordElement;
+import com.gt.ssrs.model.Word;
+import com.gt.ssrs.model.WordFilterOptions;
+import com.gt.ssrs.word.WordDao;
+
+import java.time.Instant;
+import java.util.*;
+
+// Map backed word storage so benchmarks can run the services without a database. Filtering and similar value searches
+// aren't supported. Not thread safe.
+public class InMemoryWordDao implements WordDao {
+
+    private final Map<String, Word> words = new LinkedHashMap<>();
+
+    @Override
+    public Word loadWord(String wordId) {
+        return words.get(wordId);
+    }
+
+    @Override
+    public List<Word> loadWords(List<String> wordIds) {
+        return wordIds.stream().map(words::get).filter(Objects::nonNull).toList();
+    }
+
+    @Override
+    public int createWord(Language language, String lexiconId, Word word) {
+        return words.putIfAbsent(word.id(), word) == null ? 1 : 0;
+    }
+
+    @Override
+    public List<Word> createWords(Language language, String lexiconId, List<Word> wordsToCreate) {
+        return wordsToCreate.stream().filter(word -> createWord(language, lexiconId, word) > 0).toList();
+    }
+
+    @Override
+    public Word findDuplicateWords(Language language, List<String> lexiconIdsToCheck, String owner, Word word) {
+        for (Word existing : words.values()) {
+            if (lexiconIdsToCheck.contains(existing.lexiconId()) && isDuplicate(language, existing, word)) {
+                return existing;
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public int updateWord(Language language, Word word) {
+        return words.replace(word.id(), word) == null ? 0 : 1;
+    }
+
+    @Override
+    public List<Word> getLexiconWordsBatch(String lexiconId, String username, int count, int offset, Word lastWord) {
+        return wordsInLexicon(lexiconId).stream().skip(offset).limit(count).toList();
+    }
+
+    @Override
+    public List<Word> getLexiconWordsBatchWithFilter(String lexiconId, String username, int count, int offset, Word lastWord, WordFilterOptions wordFilterOptions) {
+        throw new UnsupportedOperationException("Filtering is not supported by the in-memory word DAO");
+    }
+
+    @Override
+    public List<String> getAudioFileNamesForWord(String wordId) {
+        Word word = words.get(wordId);
+        return word == null || word.audioFiles() == null ? List.of() : word.audioFiles();
+    }
+
+    @Override
+    public Map<String, List<String>> getAudioFileNamesForWordBatch(List<String> wordIds) {
+        Map<String, List<String>> audioFileNames = new HashMap<>();
+        wordIds.forEach(wordId -> audioFileNames.put(wordId, getAudioFileNamesForWord(wordId)));
+
+        return audioFileNames;
+    }
+
+    @Override
+    public int setAudioFileNameForWord(String wordId, String audioFileName) {
+        Word word = words.get(wordId);
+        if (word == null) {
+            return 0;
+        }
+
+        List<String> audioFiles = new ArrayList<>(getAudioFileNamesForWord(wordId));
+        audioFiles.add(audioFileName);
+        words.put(wordId, withAudioFiles(word, audioFiles));
+        return 1;
+    }
+
+    @Override
+    public void setAudioFileNameForWords(Map<String, List<String>> audioFileNamesByWordId) {
+        audioFileNamesByWordId.forEach((wordId, audioFileNames) -> audioFileNames.forEach(audioFileName -> setAudioFileNameForWord(wordId, audioFileName)));
+    }
+
+    @Override
+    public int deleteAudioFileName(String wordId, String audioFileName) {
+        Word word = words.get(wordId);
+        if (word == null) {
+            return 0;
+        }
+
+        List<String> audioFiles = new ArrayList<>(getAudioFileNamesForWord(wordId));
+        boolean removed = audioFiles.remove(audioFileName);
+        words.put(wordId, withAudioFiles(word, audioFiles));
+        return removed ? 1 : 0;
+    }
+
+    @Override
+    public List<String> getWordsUniqueToLexicon(String lexiconId) {
+        return wordsInLexicon(lexiconId).stream().map(Word::id).toList();
+    }
+
+    @Override
+    public int getTotalLexiconWordCount(String lexiconId) {
+        return wordsInLexicon(lexiconId).size();
+    }
+
+    @Override
+    public List<String> getUniqueElementValues(String lexiconId, WordElement wordElement, int limit) {
+        return wordsInLexicon(lexiconId).stream()
+                .map(word -> word.elements().get(wordElement.getId()))
+                .filter(Objects::nonNull)
+                .distinct()
+                .limit(limit)
+                .toList();
+    }
+
+    @Override
+    public boolean isSimilarElementValueSearchSupported() {
+        return false;
+    }
+
+    @Override
+    public Optional<Map<String, List<String>>> findSimilarElementValues(String lexiconId, WordElement wordElement, Collection<String> targetValues, int limit, int maxDistance) {
+        return Optional.empty();
+    }
+
+    @Override
+    public void deleteWords(Collection<String> wordIds) {
+        wordIds.forEach(words::remove);
+    }
+
+    @Override
+    public void deleteAllLexiconWords(String lexiconId) {
+        words.values().removeIf(word -> word.lexiconId().equals(lexiconId));
+    }
+
+    private List<Word> wordsInLexicon(String lexiconId) {
+        return words.values().stream().filter(word -> word.lexiconId().equals(lexiconId)).toList();
+    }
+
+    private static boolean isDuplicate(Language language, Word existing, Word word) {
+        for (WordElement element : language.getDedupeElements()) {
+            if (!Objects.equals(existing.elements().get(element.getId()), word.elements().get(element.getId()))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static Word withAudioFiles(Word word, List<String> audioFiles) {
+        return new Word(word.id(), word.lexiconId(), word.owner(), word.elements(), word.attributes(), audioFiles, word.createInstant(), Instant.now());
+    }
+}
@@ -0,0 +1,113 @@
+package com.gt.ssrs.benchmark.dao;
+
+import com.gt.ssrs.model.WordReviewHistory;
+import com.gt.ssrs.reviewHistory.WordReviewHistoryDao;
+import com.gt.ssrs.reviewHistory.model.LearnedStatus;
+
+import java.util.*;
+
+// Map backed review history storage so benchmarks can run the services without a database. Not thread safe.
+public class InMemoryWordReviewHistoryDao implements WordReviewHistoryDao {
+
+    private final Map<HistoryKey, WordReviewHistory> histories = new LinkedHashMap<>();
+
+    public int size() {
+        return histories.size();
+    }
+
+    public void clear() {
+        histories.clear();
+    }
+
+    @Override
+    public List<WordReviewHistory> createWordReviewHistory(String username, List<WordReviewHistory> wordReviewHistories) {
+        return wordReviewHistories.stream()
+                .filter(history -> histories.putIfAbsent(HistoryKey.of(username, history), history) == null)
+                .toList();
+    }
+
+    @Override
+    public List<WordReviewHistory> getWordReviewHistory(String lexiconId, String username, Collection<String> wordIds) {
+        return wordIds.stream()
+                .map(wordId -> histories.get(new HistoryKey(lexiconId, username, wordId)))
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    public List<WordReviewHistory> updateWordReviewHistory(String username, List<WordReviewHistory> wordReviewHistories) {
+        wordReviewHistories.forEach(history -> histories.put(HistoryKey.of(username, history), history));
+
+        return wordReviewHistories;
+    }
+
+    @Override
+    public List<String> getIdsForWordsToLearn(String lexiconId, String username, int wordCnt) {
+        return userHistories(lexiconId, username).stream()
+                .filter(history -> !history.learned())
+                .map(WordReviewHistory::wordId)
+                .limit(wordCnt)
+                .toList();
+    }
+
+    @Override
+    public Set<String> getLexiconIdsWithWordsToLearn(String username, Collection<String> lexiconIds) {
+        Set<String> lexiconIdsWithWordsToLearn = new HashSet<>();
+        histories.forEach((key, history) -> {
+            if (key.username().equals(username) && lexiconIds.contains(key.lexiconId()) && !history.learned()) {
+                lexiconIdsWithWordsToLearn.add(key.lexiconId());
+            }
+        });
+
+        return lexiconIdsWithWordsToLearn;
+    }
+
+    @Override
+    public void deleteUserWordReviewHistories(String lexiconId, String username, Collection<String> wordIds) {
+        wordIds.forEach(wordId -> histories.remove(new HistoryKey(lexiconId, username, wordId)));
+    }
+
+    @Override
+    public void deleteWordReviewHistories(String lexiconId, Collection<String> wordIds) {
+        histories.keySet().removeIf(key -> key.lexiconId().equals(lexiconId) && wordIds.contains(key.wordId()));
+    }
+
+    @Override
+    public void deleteLexiconWordReviewHistoryForUser(String lexiconId, String username) {
+        histories.keySet().removeIf(key -> key.lexiconId().equals(lexiconId) && key.username().equals(username));
+    }
+
+    @Override
+    public void deleteLexiconWordReviewHistory(String lexiconId) {
+        histories.keySet().removeIf(key -> key.lexiconId().equals(lexiconId));
+    }
+
+    @Override
+    public int getTotalLearnedWordCount(String lexiconId, String username) {
+        return (int) userHistories(lexiconId, username).stream().filter(WordReviewHistory::learned).count();
+    }
+
+    @Override
+    public Map<LearnedStatus, List<String>> getWordIdsForUserByLearned(String lexiconId, String username) {
+        Map<LearnedStatus, List<String>> wordIdsByLearned = new HashMap<>();
+        for (WordReviewHistory history : userHistories(lexiconId, username)) {
+            wordIdsByLearned.computeIfAbsent(history.learned() ? LearnedStatus.Learned : LearnedStatus.ReadyToLearn, status -> new ArrayList<>())
+                    .add(history.wordId());
+        }
+
+        return wordIdsByLearned;
+    }
+
+    private List<WordReviewHistory> userHistories(String lexiconId, String username) {
+        return histories.entrySet().stream()
+                .filter(entry -> entry.getKey().lexiconId().equals(lexiconId) && entry.getKey().username().equals(username))
+                .map(Map.Entry::getValue)
+                .toList();
+    }
+
+    private record HistoryKey(String lexiconId, String username, String wordId) {
+        private static HistoryKey of(String username, WordReviewHistory history) {
+            return new HistoryKey(history.lexiconId(), username, history.wordId());
+        }
+    }
+}
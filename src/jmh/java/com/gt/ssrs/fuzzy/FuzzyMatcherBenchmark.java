@@ -0,0 +1,64 @@
+package com.gt.ssrs.fuzzy;
+
+import com.gt.ssrs.benchmark.VocabularyGenerator;
+import com.gt.ssrs.language.WordElement;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Throughput of building a matcher and of finding similar values, across dataset sizes, elements, and index modes.
+// Run with the gc profiler (configured in build.gradle) to also compare allocation rates.
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FuzzyMatcherBenchmark {
+
+    private static final int TARGET_CNT = 256;
+    private static final int SIMILAR_WORD_CNT = 20;
+    private static final int MAX_DISTANCE = 6;
+
+    @Param({"1000", "10000", "50000"})
+    private int datasetSize;
+
+    @Param({"Kana", "Kanji", "Meaning"})
+    private WordElement wordElement;
+
+    @Param({"LinearScan", "BKTree"})
+    private FuzzyIndexMode indexMode;
+
+    // Only applies to LinearScan
+    @Param({"Scalar", "Vector"})
+    private FuzzyDistanceBackend distanceBackend;
+
+    private List<String> dataset;
+    private String[] targets;
+    private DatasetFuzzyMatcher matcher;
+    private int targetIdx = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        VocabularyGenerator generator = new VocabularyGenerator(datasetSize);
+        dataset = generator.generate(wordElement, datasetSize);
+
+        // Half the targets come from the dataset, as they do when generating sessions, and half are unseen values
+        targets = new String[TARGET_CNT];
+        for (int i = 0; i < TARGET_CNT; i++) {
+            targets[i] = i % 2 == 0 ? dataset.get((i * 7919) % dataset.size()) : generator.generateValue(wordElement);
+        }
+
+        matcher = new DatasetFuzzyMatcher(dataset, indexMode, distanceBackend);
+    }
+
+    @Benchmark
+    public DatasetFuzzyMatcher construct() {
+        return new DatasetFuzzyMatcher(dataset, indexMode, distanceBackend);
+    }
+
+    @Benchmark
+    public List<String> findSimilarTo() {
+        String target = targets[targetIdx];
+        targetIdx = (targetIdx + 1) % TARGET_CNT;
+
+        return matcher.findSimilarTo(target, SIMILAR_WORD_CNT, MAX_DISTANCE);
+    }
+}
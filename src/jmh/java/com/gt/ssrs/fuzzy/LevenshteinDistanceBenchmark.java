@@ -0,0 +1,44 @@
+package com.gt.ssrs.fuzzy;
+
+import com.gt.ssrs.benchmark.VocabularyGenerator;
+import com.gt.ssrs.language.WordElement;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Throughput of a single distance calculation, with and without a tight bound on the distance
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class LevenshteinDistanceBenchmark {
+
+    private static final int PAIR_CNT = 1024;
+
+    @Param({"Kana", "Kanji", "Meaning"})
+    private WordElement wordElement;
+
+    @Param({"2", "6", "2147483646"})
+    private int maxDistance;
+
+    private DatasetFuzzyMatcher matcher;
+    private String[] lefts;
+    private String[] rights;
+    private int pairIdx = 0;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<String> values = new VocabularyGenerator(PAIR_CNT).generate(wordElement, PAIR_CNT * 2);
+
+        lefts = values.subList(0, PAIR_CNT).toArray(new String[0]);
+        rights = values.subList(PAIR_CNT, PAIR_CNT * 2).toArray(new String[0]);
+        matcher = new DatasetFuzzyMatcher(List.of());
+    }
+
+    @Benchmark
+    public int levenshteinDistance() {
+        int idx = pairIdx;
+        pairIdx = (pairIdx + 1) % PAIR_CNT;
+
+        return matcher.levenshteinDistance(lefts[idx], rights[idx], maxDistance);
+    }
+}
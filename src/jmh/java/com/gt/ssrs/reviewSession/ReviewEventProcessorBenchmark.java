@@ -0,0 +1,173 @@
+package com.gt.ssrs.reviewSession;
+
+import com.gt.ssrs.benchmark.VocabularyGenerator;
+import com.gt.ssrs.benchmark.dao.*;
+import com.gt.ssrs.language.Language;
+import com.gt.ssrs.language.TestRelationship;
+import com.gt.ssrs.language.WordElement;
+import com.gt.ssrs.lexicon.LexiconService;
+import com.gt.ssrs.model.*;
+import com.gt.ssrs.reviewHistory.WordReviewHistoryService;
+import com.gt.ssrs.word.WordService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Throughput of processing a backlog of saved review events for one lexicon, with the DAOs replaced by in-memory
+// implementations so only the processing itself is measured. Events are generated for about two per word, with the
+// review workloads mixing correct, incorrect, near miss and override results. The events counter reports events/s;
+// allocated bytes per event is gc.alloc.rate.norm divided by eventCnt.
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ReviewEventProcessorBenchmark {
+
+    private static final String USERNAME = "benchmarkUser";
+    private static final String LEXICON_ID = "benchmarkLexicon";
+    private static final int EVENTS_PER_WORD = 2;
+    private static final Instant BASE_INSTANT = Instant.parse("2025-01-01T00:00:00Z");
+
+    private static final double INCORRECT_RATIO = 0.15;
+    private static final double NEAR_MISS_RATIO = 0.1;
+    private static final double OVERRIDE_RATIO = 0.05;
+
+    public enum Workload { Learn, Review, Mixed }
+
+    @Param({"100", "1000", "10000"})
+    private int eventCnt;
+
+    @Param({"Learn", "Review", "Mixed"})
+    private Workload workload;
+
+    private InMemoryReviewEventDao reviewEventDao;
+    private InMemoryScheduledReviewDao scheduledReviewDao;
+    private InMemoryWordReviewHistoryDao wordReviewHistoryDao;
+    private ReviewEventProcessor reviewEventProcessor;
+
+    private List<WordReviewHistory> initialHistories;
+    private List<ReviewEvent> events;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class EventCounters {
+        public long events;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        InMemoryLexiconDao lexiconDao = new InMemoryLexiconDao();
+        InMemoryWordDao wordDao = new InMemoryWordDao();
+        reviewEventDao = new InMemoryReviewEventDao();
+        scheduledReviewDao = new InMemoryScheduledReviewDao();
+        wordReviewHistoryDao = new InMemoryWordReviewHistoryDao();
+
+        // Only the methods used when processing events are called, so the blob, audio and similarity services aren't provided
+        LexiconService lexiconService = new LexiconService(lexiconDao, null);
+        WordReviewHistoryService wordReviewHistoryService = new WordReviewHistoryService(wordReviewHistoryDao);
+        WordService wordService = new WordService(lexiconService, wordReviewHistoryService, null, wordDao, null, null, null);
+        reviewEventProcessor = new ReviewEventProcessor(reviewEventDao, scheduledReviewDao,
+                new InMemoryReviewResultsDao(wordReviewHistoryDao, scheduledReviewDao, reviewEventDao),
+                new DueReviewCache(scheduledReviewDao, false, 0, 1),
+                lexiconService, wordService, wordReviewHistoryService, 14400, 86400, 2, 3, 10000);
+
+        lexiconDao.createLexiconMetadata(new LexiconMetadata(LEXICON_ID, USERNAME, "Benchmark", "", Language.Japanese.getId(), "", null));
+
+        Random random = new Random(eventCnt);
+        VocabularyGenerator generator = new VocabularyGenerator(eventCnt);
+        int wordCnt = Math.max(1, eventCnt / EVENTS_PER_WORD);
+
+        List<Word> words = new ArrayList<>();
+        initialHistories = new ArrayList<>();
+        for (int i = 0; i < wordCnt; i++) {
+            Word word = newWord("word" + i, generator);
+            words.add(word);
+            initialHistories.add(newHistory(word.id(), isLearned(i), random));
+        }
+        wordDao.createWords(Language.Japanese, LEXICON_ID, words);
+
+        events = new ArrayList<>();
+        for (int i = 0; i < eventCnt; i++) {
+            int wordIdx = i % wordCnt;
+            events.add(newEvent(i, words.get(wordIdx).id(), initialHistories.get(wordIdx).learned(), i >= wordCnt, random));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void resetData() {
+        reviewEventDao.clear();
+        scheduledReviewDao.clear();
+        wordReviewHistoryDao.clear();
+
+        wordReviewHistoryDao.createWordReviewHistory(USERNAME, initialHistories);
+        reviewEventDao.saveReviewEvents(events);
+    }
+
+    @Benchmark
+    public int processEvents(EventCounters counters) {
+        reviewEventProcessor.processEvents(USERNAME, LEXICON_ID);
+        counters.events += eventCnt;
+
+        return scheduledReviewDao.size();
+    }
+
+    private boolean isLearned(int wordIdx) {
+        return switch (workload) {
+            case Learn -> false;
+            case Review -> true;
+            case Mixed -> wordIdx % 4 != 0;
+        };
+    }
+
+    private static Word newWord(String wordId, VocabularyGenerator generator) {
+        Map<String, String> elements = new HashMap<>();
+        elements.put(WordElement.Kana.getId(), generator.generateValue(WordElement.Kana));
+        elements.put(WordElement.Meaning.getId(), generator.generateValue(WordElement.Meaning));
+        elements.put(WordElement.Kanji.getId(), generator.generateValue(WordElement.Kanji));
+
+        return new Word(wordId, LEXICON_ID, USERNAME, elements, "", List.of(), BASE_INSTANT, BASE_INSTANT);
+    }
+
+    private static WordReviewHistory newHistory(String wordId, boolean learned, Random random) {
+        if (!learned) {
+            return new WordReviewHistory(LEXICON_ID, USERNAME, wordId, false, null, null, Duration.ZERO, 1, Duration.ZERO, Map.of());
+        }
+
+        Map<String, TestHistory> testHistory = new HashMap<>();
+        for (TestRelationship relationship : Language.Japanese.getReviewTestRelationships()) {
+            int totalTests = 1 + random.nextInt(20);
+            int correct = random.nextInt(totalTests + 1);
+            testHistory.put(relationship.getId(), new TestHistory(totalTests, correct, random.nextInt(correct + 1)));
+        }
+
+        List<TestRelationship> relationships = Language.Japanese.getReviewTestRelationships();
+        boolean boosted = random.nextDouble() < 0.2;
+        return new WordReviewHistory(LEXICON_ID, USERNAME, wordId, true,
+                BASE_INSTANT.minus(Duration.ofDays(1 + random.nextInt(30))),
+                relationships.get(random.nextInt(relationships.size())).getId(),
+                Duration.ofHours(4 + random.nextInt(24 * 60)),
+                boosted ? 2 : 1,
+                boosted ? Duration.ofDays(random.nextInt(14)) : Duration.ZERO,
+                testHistory);
+    }
+
+    // Events after the first for a word can override its result, as when the user marks a typo as correct
+    private static ReviewEvent newEvent(int eventIdx, String wordId, boolean learned, boolean repeatForWord, Random random) {
+        ReviewType reviewType = learned ? ReviewType.Review : ReviewType.Learn;
+        ReviewMode reviewMode = random.nextBoolean() ? ReviewMode.TypingTest : ReviewMode.MultipleChoiceTest;
+        List<TestRelationship> relationships = Language.Japanese.getReviewTestRelationships();
+        TestRelationship relationship = relationships.get(random.nextInt(relationships.size()));
+
+        boolean isCorrect = !learned || random.nextDouble() >= INCORRECT_RATIO;
+        boolean isNearMiss = learned && random.nextDouble() < NEAR_MISS_RATIO;
+        boolean override = learned && repeatForWord && random.nextDouble() < OVERRIDE_RATIO;
+
+        return new ReviewEvent(Integer.toString(eventIdx), null, LEXICON_ID, wordId, USERNAME, BASE_INSTANT.plusSeconds(eventIdx),
+                reviewType, reviewMode, relationship, isCorrect, isNearMiss, 1000 + random.nextInt(10000), override, null);
+    }
+}
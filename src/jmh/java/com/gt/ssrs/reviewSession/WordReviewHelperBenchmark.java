@@ -0,0 +1,72 @@
+package com.gt.ssrs.reviewSession;
+
+import com.gt.ssrs.benchmark.VocabularyGenerator;
+import com.gt.ssrs.fuzzy.DatasetFuzzyMatcher;
+import com.gt.ssrs.fuzzy.FuzzyDistanceBackend;
+import com.gt.ssrs.fuzzy.FuzzyIndexMode;
+import com.gt.ssrs.fuzzy.FuzzyMatcherCache;
+import com.gt.ssrs.language.WordElement;
+import com.gt.ssrs.model.Word;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Throughput of the per-word work done when building typing tests from the similar values found by the matcher
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class WordReviewHelperBenchmark {
+
+    private static final int WORD_CNT = 256;
+    private static final int DATASET_SIZE = 10000;
+
+    private WordReviewHelper wordReviewHelper;
+    private Word[] words;
+    private List<String>[] similarValues;
+    private int wordIdx = 0;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        // Only the methods that don't touch the services are benchmarked, so none are provided
+        wordReviewHelper = new WordReviewHelper(null, null, null,
+                new FuzzyMatcherCache(0, 0, FuzzyIndexMode.LinearScan, FuzzyDistanceBackend.Scalar), null,
+                10, 2, 10, 6, 8, 0, 1);
+
+        VocabularyGenerator generator = new VocabularyGenerator(DATASET_SIZE);
+        List<String> kana = generator.generate(WordElement.Kana, DATASET_SIZE);
+        DatasetFuzzyMatcher matcher = new DatasetFuzzyMatcher(kana);
+
+        words = new Word[WORD_CNT];
+        similarValues = new List[WORD_CNT];
+        for (int i = 0; i < WORD_CNT; i++) {
+            String kanaValue = kana.get((i * 7919) % kana.size());
+            words[i] = new Word("word" + i, "lexicon", "user", Map.of(WordElement.Kana.getId(), kanaValue), "", List.of(), Instant.EPOCH, Instant.EPOCH);
+            similarValues[i] = matcher.findSimilarTo(kanaValue, WordReviewHelper.SIMILAR_WORD_CNT, WordReviewHelper.MAX_DISTANCE);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        wordReviewHelper.shutdown();
+    }
+
+    @Benchmark
+    public List<String> getSimilarCharacterSelection() {
+        int idx = nextWordIdx();
+        return wordReviewHelper.getSimilarCharacterSelection(words[idx], WordElement.Kana, similarValues[idx]);
+    }
+
+    @Benchmark
+    public List<String> toCharList() {
+        return WordReviewHelper.toCharList(words[nextWordIdx()].elements().get(WordElement.Kana.getId()));
+    }
+
+    private int nextWordIdx() {
+        int idx = wordIdx;
+        wordIdx = (wordIdx + 1) % WORD_CNT;
+        return idx;
+    }
+}
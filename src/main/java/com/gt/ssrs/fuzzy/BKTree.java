@@ -0,0 +1,99 @@
+package com.gt.ssrs.fuzzy;
+
+import java.util.*;
+
+// Burkhard-Keller tree over a fixed dataset. Each child is keyed by its edit distance from the parent, so when
+// searching for values within maxDistance of a target, only children with a key within maxDistance of the
+// target-to-parent distance can contain a match (triangle inequality). Nodes reference values by their index in
+// the dataset so that results can be ordered the same way a linear scan would order them.
+class BKTree {
+
+    static final int UNBOUNDED_DISTANCE = Integer.MAX_VALUE - 1;
+
+    private final List<String> dataset;
+    private final DistanceFunction distanceFunction;
+    private final Node root;
+
+    BKTree(List<String> dataset, DistanceFunction distanceFunction) {
+        this.dataset = dataset;
+        this.distanceFunction = distanceFunction;
+
+        Node root = null;
+        for (int index = 0; index < dataset.size(); index++) {
+            if (root == null) {
+                root = new Node(index);
+            } else {
+                insert(root, index);
+            }
+        }
+        this.root = root;
+    }
+
+    // Returns all values within maxDistance of the target, ordered by distance and then by position in the dataset
+    List<Match> findWithin(String target, int maxDistance) {
+        List<Match> matches = new ArrayList<>();
+        if (root == null) {
+            return matches;
+        }
+
+        Deque<Node> nodesToVisit = new ArrayDeque<>();
+        nodesToVisit.push(root);
+
+        while (!nodesToVisit.isEmpty()) {
+            Node node = nodesToVisit.pop();
+
+            // The exact distance is only needed up to the point where it still selects a child, so the distance
+            // calculation can stop early once it is known to exceed that.
+            int distance = distanceFunction.distance(target, dataset.get(node.index), maxDistance + node.maxChildDistance);
+            if (distance <= maxDistance) {
+                matches.add(new Match(node.index, distance));
+            }
+
+            if (node.children != null) {
+                for (Node child : node.children.subMap(distance - maxDistance, true, distance + maxDistance, true).values()) {
+                    nodesToVisit.push(child);
+                }
+            }
+        }
+
+        matches.sort(Comparator.comparingInt(Match::distance).thenComparingInt(Match::index));
+        return matches;
+    }
+
+    private void insert(Node root, int index) {
+        String value = dataset.get(index);
+        Node node = root;
+
+        while (true) {
+            int distance = distanceFunction.distance(value, dataset.get(node.index), UNBOUNDED_DISTANCE);
+            if (node.children == null) {
+                node.children = new TreeMap<>();
+            }
+
+            Node child = node.children.get(distance);
+            if (child == null) {
+                node.children.put(distance, new Node(index));
+                node.maxChildDistance = Math.max(node.maxChildDistance, distance);
+                return;
+            }
+
+            node = child;
+        }
+    }
+
+    interface DistanceFunction {
+        int distance(String left, String right, int maxDistance);
+    }
+
+    record Match(int index, int distance) { }
+
+    private static class Node {
+        private final int index;
+        private TreeMap<Integer, Node> children;
+        private int maxChildDistance;
+
+        private Node(int index) {
+            this.index = index;
+        }
+    }
+}
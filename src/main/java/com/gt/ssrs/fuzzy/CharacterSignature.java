@@ -0,0 +1,50 @@
+package com.gt.ssrs.fuzzy;
+
+// Compact character histogram used to rule out candidates before calculating their edit distance. Characters are
+// hashed into 16 buckets, each holding a 4-bit count that saturates at 15, packed into a single long.
+//
+// Every insertion, deletion, or substitution changes at most one bucket count up and one bucket count down by one, and
+// hashing and saturation can only hide differences, never add them. So the larger of the total surplus and the total
+// deficit between two signatures is a lower bound on the edit distance between the strings.
+final class CharacterSignature {
+
+    private static final int BUCKET_BITS = 4;
+    private static final int BUCKET_COUNT = Long.SIZE / BUCKET_BITS;
+    private static final long BUCKET_MASK = (1L << BUCKET_BITS) - 1;
+
+    private CharacterSignature() { }
+
+    static long of(String value) {
+        long signature = 0L;
+
+        for (int i = 0; i < value.length(); i++) {
+            int shift = bucket(value.charAt(i)) * BUCKET_BITS;
+            if (((signature >>> shift) & BUCKET_MASK) != BUCKET_MASK) {
+                signature += 1L << shift;
+            }
+        }
+
+        return signature;
+    }
+
+    static int distanceLowerBound(long left, long right) {
+        int surplus = 0;
+        int deficit = 0;
+
+        for (int shift = 0; shift < Long.SIZE; shift += BUCKET_BITS) {
+            int diff = (int)((left >>> shift) & BUCKET_MASK) - (int)((right >>> shift) & BUCKET_MASK);
+            if (diff > 0) {
+                surplus += diff;
+            } else {
+                deficit -= diff;
+            }
+        }
+
+        return Math.max(surplus, deficit);
+    }
+
+    private static int bucket(char c) {
+        // Fibonacci hashing, so that runs of adjacent code points (e.g. kana) spread across buckets
+        return (c * 0x9E3779B1) >>> (Integer.SIZE - Integer.numberOfTrailingZeros(BUCKET_COUNT));
+    }
+}
@@ -1,69 +1,371 @@
 package com.gt.ssrs.fuzzy;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
+// Finds the values in a dataset closest to a target by edit distance. The dataset and index are immutable once built
+// and the stats counters are thread-safe, so a single matcher can safely be shared between threads.
 public class DatasetFuzzyMatcher {
 
-    private List<String> dataset;
+    private static final Logger log = LoggerFactory.getLogger(DatasetFuzzyMatcher.class);
+
+    private static final int[] NO_INDEXES = new int[0];
+
+    private final List<String> dataset;
+    private final BKTree bkTree;
+
+    // Prefilter for linear scans: dataset indexes bucketed by value length (in dataset order within each bucket), and a
+    // character signature per value
+    private final int[][] indexesByLength;
+    private final long[] signatures;
 
-    private List<Integer> v0 = new ArrayList<>();
-    private List<Integer> v1 = new ArrayList<>();
+    // Values packed by length bucket for the vector backend, or null if the scalar kernel is used
+    private final short[][] packedByLength;
+
+    private final LongAdder lengthPruned = new LongAdder();
+    private final LongAdder signaturePruned = new LongAdder();
+    private final LongAdder distanceCalculations = new LongAdder();
 
     public DatasetFuzzyMatcher(Collection<String> dataSet1) {
+        this(dataSet1, FuzzyIndexMode.LinearScan);
+    }
+
+    public DatasetFuzzyMatcher(Collection<String> dataSet1, FuzzyIndexMode indexMode) {
+        this(dataSet1, indexMode, FuzzyDistanceBackend.Scalar);
+    }
+
+    // The vector backend only applies to linear scans, and falls back to the scalar kernel if the JVM was not started
+    // with the jdk.incubator.vector module
+    public DatasetFuzzyMatcher(Collection<String> dataSet1, FuzzyIndexMode indexMode, FuzzyDistanceBackend distanceBackend) {
         this.dataset = dataSet1.stream().distinct().collect(Collectors.toUnmodifiableList());
+        this.bkTree = indexMode == FuzzyIndexMode.BKTree ? new BKTree(dataset, LevenshteinDistance::compute) : null;
+
+        this.indexesByLength = bkTree == null ? buildLengthBuckets(dataset) : null;
+        this.signatures = bkTree == null ? buildSignatures(dataset) : null;
+        this.packedByLength = bkTree == null && distanceBackend == FuzzyDistanceBackend.Vector && VectorSupport.AVAILABLE
+                ? buildPackedBuckets(dataset, indexesByLength)
+                : null;
     }
 
+    // Returns up to count values ordered by distance from the target. Values further than maxDistance are all treated
+    // as equally distant, and are only included (in dataset order) if there are not enough values within maxDistance.
     public List<String> findSimilarTo(String target, int count, int maxDistance) {
-        return dataset.stream()
-                .filter(datum -> !datum.equals(target))  // don't include the target as similar if it's in the dataset
-                .map(datum -> new DistanceAndDatum(levenshteinDistance(target, datum, maxDistance), datum))
-                .sorted(Comparator.comparingInt(l -> l.distance))
-                .limit(count)
-                .map(dnd -> dnd.datum)
-                .collect(Collectors.toUnmodifiableList());
+        if (bkTree != null) {
+            return findSimilarToWithIndex(target, count, maxDistance);
+        }
+
+        return findSimilarToWithScan(target, count, maxDistance);
     }
 
-    int levenshteinDistance(String left, String right, int maxDistance) {
-        initalizeLists(right.length() + 1);
+    private List<String> findSimilarToWithScan(String target, int count, int maxDistance) {
+        if (count <= 0) {
+            return List.of();
+        }
 
-        for (int i = 0; i < left.length(); i++) {
-            v1.set(0, i + 1);
+        NearestCandidates candidates = new NearestCandidates(count);
+        long targetSignature = CharacterSignature.of(target);
+        int minLength = (int)Math.max(0L, (long)target.length() - maxDistance);
+        int maxLength = (int)Math.min(indexesByLength.length - 1L, (long)target.length() + maxDistance);
 
-            for (int j = 0; j < right.length(); j++) {
-                int delCost = v0.get(j + 1) + 1;
-                int insertCost = v1.get(j) + 1;
-                int subCost = left.charAt(i) == right.charAt(j) ? v0.get(j) : v0.get(j) + 1;
+        // Each extra character costs at least one insertion, so only values in the length buckets within maxDistance of
+        // the target's length can be within maxDistance
+        ScanCounts counts = new ScanCounts();
+        boolean vectorize = packedByLength != null && maxDistance <= VectorizedLevenshtein.MAX_SUPPORTED_DISTANCE;
+        for (int length = minLength; length <= maxLength; length++) {
+            if (vectorize) {
+                scanBucketVectorized(target, targetSignature, length, maxDistance, candidates, counts);
+            } else {
+                scanBucket(target, targetSignature, length, maxDistance, candidates, counts);
+            }
+        }
 
-                int curDistance = Integer.min(Integer.min(delCost, insertCost), subCost);
+        lengthPruned.add(dataset.size() - counts.bucketed);
+        signaturePruned.add(counts.signaturePruned);
+        distanceCalculations.add(counts.distanceCalculations);
 
-                v1.set(j + 1, curDistance);
+        List<String> similar = new ArrayList<>(count);
+        BitSet matchedIndexes = new BitSet(dataset.size());
+        for (int index : candidates.toSortedIndexes()) {
+            similar.add(dataset.get(index));
+            matchedIndexes.set(index);
+        }
+
+        // Everything else is further than maxDistance, so pad with the remaining values in dataset order
+        for (int index = 0; index < dataset.size() && similar.size() < count; index++) {
+            if (!matchedIndexes.get(index) && !dataset.get(index).equals(target)) {
+                similar.add(dataset.get(index));
             }
+        }
 
-            if (Collections.min(v1) > maxDistance) {
-                return maxDistance + 1;
+        return Collections.unmodifiableList(similar);
+    }
+
+    private void scanBucket(String target, long targetSignature, int length, int maxDistance, NearestCandidates candidates, ScanCounts counts) {
+        for (int index : indexesByLength[length]) {
+            counts.bucketed++;
+
+            String datum = dataset.get(index);
+            if (datum.equals(target)) {
+                continue;  // don't include the target as similar if it's in the dataset
+            }
+
+            // Once the candidates are full, the cutoff tightens to whatever would displace the furthest candidate
+            int cutoff = candidates.isFull() ? candidates.cutoffFor(index, maxDistance) : maxDistance;
+            if (CharacterSignature.distanceLowerBound(targetSignature, signatures[index]) > cutoff) {
+                counts.signaturePruned++;
+                continue;
             }
 
-            swapLists();
+            counts.distanceCalculations++;
+            int distance = levenshteinDistance(target, datum, cutoff);
+            if (distance <= cutoff) {
+                candidates.offer(distance, index);
+            }
         }
+    }
 
-        return v0.get(right.length());
+    // Same as scanBucket, but calculates the distances for a whole lane group at once. A group is only skipped if the
+    // signature rules out every value in it.
+    private void scanBucketVectorized(String target, long targetSignature, int length, int maxDistance, NearestCandidates candidates, ScanCounts counts) {
+        int[] bucket = indexesByLength[length];
+        short[] distances = counts.laneDistances();
+
+        for (int groupStart = 0; groupStart < bucket.length; groupStart += VectorizedLevenshtein.LANES) {
+            int groupEnd = Math.min(bucket.length, groupStart + VectorizedLevenshtein.LANES);
+            counts.bucketed += groupEnd - groupStart;
+
+            int groupCutoff = candidates.isFull() ? candidates.loosestCutoff(maxDistance) : maxDistance;
+            boolean anyPossibleMatch = false;
+            for (int pos = groupStart; pos < groupEnd && !anyPossibleMatch; pos++) {
+                anyPossibleMatch = CharacterSignature.distanceLowerBound(targetSignature, signatures[bucket[pos]]) <= groupCutoff;
+            }
+            if (!anyPossibleMatch) {
+                counts.signaturePruned += groupEnd - groupStart;
+                continue;
+            }
+
+            counts.distanceCalculations += groupEnd - groupStart;
+            VectorizedLevenshtein.distances(target, packedByLength[length], VectorizedLevenshtein.groupOffset(groupStart / VectorizedLevenshtein.LANES, length), length, groupCutoff, distances);
+
+            for (int pos = groupStart; pos < groupEnd; pos++) {
+                int index = bucket[pos];
+                int distance = distances[pos - groupStart];
+                if (distance == 0) {
+                    continue;  // the target itself
+                }
+
+                int cutoff = candidates.isFull() ? candidates.cutoffFor(index, maxDistance) : maxDistance;
+                if (distance <= cutoff) {
+                    candidates.offer(distance, index);
+                }
+            }
+        }
     }
 
-    private void initalizeLists(int size) {
-        v0.clear();
-        v1.clear();
-        for (int i = 0; i < size; i++) {
-            v0.add(i);
-            v1.add(0);
+    private List<String> findSimilarToWithIndex(String target, int count, int maxDistance) {
+        List<String> similar = new ArrayList<>();
+        BitSet matchedIndexes = new BitSet(dataset.size());
+
+        for (BKTree.Match match : bkTree.findWithin(target, maxDistance)) {
+            String datum = dataset.get(match.index());
+            if (similar.size() < count && !datum.equals(target)) {
+                similar.add(datum);
+            }
+            matchedIndexes.set(match.index());
+        }
+
+        for (int index = 0; index < dataset.size() && similar.size() < count; index++) {
+            if (!matchedIndexes.get(index)) {
+                similar.add(dataset.get(index));
+            }
         }
+
+        return Collections.unmodifiableList(similar);
     }
 
-    private void swapLists() {
-        List<Integer> temp = v0;
-        v0 = v1;
-        v1 = temp;
+    int levenshteinDistance(String left, String right, int maxDistance) {
+        return LevenshteinDistance.compute(left, right, maxDistance);
     }
 
-    private record DistanceAndDatum(int distance, String datum) {  }
+    public FuzzyMatcherStats getStats() {
+        return new FuzzyMatcherStats(lengthPruned.sum(), signaturePruned.sum(), distanceCalculations.sum());
+    }
+
+    private static int[][] buildLengthBuckets(List<String> dataset) {
+        int maxLength = dataset.stream().mapToInt(String::length).max().orElse(0);
+
+        int[] bucketSizes = new int[maxLength + 1];
+        for (String datum : dataset) {
+            bucketSizes[datum.length()]++;
+        }
+
+        int[][] indexesByLength = new int[maxLength + 1][];
+        for (int length = 0; length <= maxLength; length++) {
+            indexesByLength[length] = bucketSizes[length] > 0 ? new int[bucketSizes[length]] : NO_INDEXES;
+            bucketSizes[length] = 0;
+        }
+
+        for (int index = 0; index < dataset.size(); index++) {
+            int length = dataset.get(index).length();
+            indexesByLength[length][bucketSizes[length]++] = index;
+        }
+
+        return indexesByLength;
+    }
+
+    private static short[][] buildPackedBuckets(List<String> dataset, int[][] indexesByLength) {
+        short[][] packedByLength = new short[indexesByLength.length][];
+        for (int length = 0; length < indexesByLength.length; length++) {
+            packedByLength[length] = VectorizedLevenshtein.packGroups(dataset, indexesByLength[length], length);
+        }
+        return packedByLength;
+    }
+
+    private static long[] buildSignatures(List<String> dataset) {
+        long[] signatures = new long[dataset.size()];
+        for (int index = 0; index < dataset.size(); index++) {
+            signatures[index] = CharacterSignature.of(dataset.get(index));
+        }
+        return signatures;
+    }
+
+    // Bounded max-heap of the closest values found so far, ordered by distance and then dataset position. Values may be
+    // offered in any order, so ties on distance are broken by dataset position when deciding what gets displaced.
+    private static class NearestCandidates {
+        private final int[] distances;
+        private final int[] indexes;
+        private int size = 0;
+
+        private NearestCandidates(int capacity) {
+            distances = new int[capacity];
+            indexes = new int[capacity];
+        }
+
+        private boolean isFull() {
+            return size == distances.length;
+        }
+
+        // Largest distance any value could have and still displace the furthest candidate
+        private int loosestCutoff(int maxDistance) {
+            return Math.min(maxDistance, distances[0]);
+        }
+
+        // Largest distance a value at the given index could have and still displace the furthest candidate
+        private int cutoffFor(int index, int maxDistance) {
+            int furthestDistance = distances[0];
+            return Math.min(maxDistance, index < indexes[0] ? furthestDistance : furthestDistance - 1);
+        }
+
+        private void offer(int distance, int index) {
+            if (isFull()) {
+                replaceFurthest(distance, index);
+            } else {
+                add(distance, index);
+            }
+        }
+
+        private void add(int distance, int index) {
+            int pos = size++;
+            distances[pos] = distance;
+            indexes[pos] = index;
+
+            while (pos > 0) {
+                int parent = (pos - 1) / 2;
+                if (compare(pos, parent) <= 0) {
+                    break;
+                }
+                swap(pos, parent);
+                pos = parent;
+            }
+        }
+
+        private void replaceFurthest(int distance, int index) {
+            distances[0] = distance;
+            indexes[0] = index;
+
+            int pos = 0;
+            while (true) {
+                int largest = pos;
+                int left = pos * 2 + 1;
+                int right = left + 1;
+
+                if (left < size && compare(left, largest) > 0) {
+                    largest = left;
+                }
+                if (right < size && compare(right, largest) > 0) {
+                    largest = right;
+                }
+                if (largest == pos) {
+                    return;
+                }
+
+                swap(pos, largest);
+                pos = largest;
+            }
+        }
+
+        private int[] toSortedIndexes() {
+            long[] sortKeys = new long[size];
+            for (int i = 0; i < size; i++) {
+                sortKeys[i] = ((long)distances[i] << 32) | indexes[i];
+            }
+            Arrays.sort(sortKeys);
+
+            int[] sortedIndexes = new int[size];
+            for (int i = 0; i < size; i++) {
+                sortedIndexes[i] = (int)sortKeys[i];
+            }
+
+            return sortedIndexes;
+        }
+
+        private int compare(int left, int right) {
+            if (distances[left] != distances[right]) {
+                return Integer.compare(distances[left], distances[right]);
+            }
+            return Integer.compare(indexes[left], indexes[right]);
+        }
+
+        private void swap(int left, int right) {
+            int tempDistance = distances[left];
+            distances[left] = distances[right];
+            distances[right] = tempDistance;
+
+            int tempIndex = indexes[left];
+            indexes[left] = indexes[right];
+            indexes[right] = tempIndex;
+        }
+    }
+
+    private static class ScanCounts {
+        private int bucketed = 0;
+        private int signaturePruned = 0;
+        private int distanceCalculations = 0;
+        private short[] laneDistances;
+
+        private short[] laneDistances() {
+            if (laneDistances == null) {
+                laneDistances = new short[VectorizedLevenshtein.LANES];
+            }
+            return laneDistances;
+        }
+    }
+
+    // Checked once, since touching VectorizedLevenshtein throws if the jdk.incubator.vector module is not available
+    private static class VectorSupport {
+        private static final boolean AVAILABLE = checkAvailable();
+
+        private static boolean checkAvailable() {
+            try {
+                return VectorizedLevenshtein.LANES > 1;
+            } catch (LinkageError ex) {
+                log.warn("Vector API is unavailable, falling back to scalar edit distance. Start the JVM with --add-modules jdk.incubator.vector to enable it. {}", ex.toString());
+                return false;
+            }
+        }
+    }
 }
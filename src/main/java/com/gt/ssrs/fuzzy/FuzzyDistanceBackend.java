@@ -0,0 +1,6 @@
+package com.gt.ssrs.fuzzy;
+
+public enum FuzzyDistanceBackend {
+    Scalar,     // compare the target against one candidate at a time
+    Vector;     // compare the target against a lane-width group of same-length candidates at once (jdk.incubator.vector)
+}
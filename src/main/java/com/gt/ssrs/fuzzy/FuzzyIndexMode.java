@@ -0,0 +1,6 @@
+package com.gt.ssrs.fuzzy;
+
+public enum FuzzyIndexMode {
+    LinearScan,     // compare the target against every value in the dataset
+    BKTree;         // build a BK-tree once and only visit subtrees allowed by the triangle inequality
+}
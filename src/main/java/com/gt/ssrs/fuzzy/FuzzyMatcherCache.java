@@ -0,0 +1,130 @@
+package com.gt.ssrs.fuzzy;
+
+import com.gt.ssrs.language.WordElement;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Caches the fuzzy matcher built for each lexicon/element so that repeated sessions on the same lexicon skip both the
+// query for the element values and building the matcher. Entries are dropped when the lexicon's words are changed
+// through WordService, when they are older than the TTL, or when they are the least recently used entry and the cache
+// is full. The TTL also bounds how stale an entry can get if words are changed by another server instance.
+@Component
+public class FuzzyMatcherCache {
+
+    private static final Logger log = LoggerFactory.getLogger(FuzzyMatcherCache.class);
+
+    private static final int DEFAULT_MAX_ENTRIES = 64;
+    private static final int DEFAULT_TTL_SEC = 3600;
+
+    private final int maxEntries;
+    private final Duration ttl;
+    private final FuzzyIndexMode indexMode;
+    private final FuzzyDistanceBackend distanceBackend;
+
+    private final Map<MatcherKey, CachedMatcher> matchers = new ConcurrentHashMap<>();
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    @Autowired
+    public FuzzyMatcherCache(@Value("${ssrs.fuzzy.cache.maxEntries:" + DEFAULT_MAX_ENTRIES + "}") int maxEntries,
+                             @Value("${ssrs.fuzzy.cache.ttlSec:" + DEFAULT_TTL_SEC + "}") int ttlSec,
+                             @Value("${ssrs.fuzzy.indexMode:LinearScan}") FuzzyIndexMode indexMode,
+                             @Value("${ssrs.fuzzy.distanceBackend:Scalar}") FuzzyDistanceBackend distanceBackend) {
+        this.maxEntries = maxEntries;
+        this.ttl = Duration.ofSeconds(ttlSec);
+        this.indexMode = indexMode;
+        this.distanceBackend = distanceBackend;
+    }
+
+    public DatasetFuzzyMatcher getMatcher(String lexiconId, WordElement wordElement, Supplier<? extends Collection<String>> valuesSupplier) {
+        DatasetFuzzyMatcher cachedMatcher = getCachedMatcher(lexiconId, wordElement);
+        if (cachedMatcher != null) {
+            return cachedMatcher;
+        }
+
+        // Built outside of any lock since it requires a DB query. If an invalidation happens while the matcher is
+        // being built, the matcher may be missing the change, so it is used for this request but not cached. The check
+        // is made inside compute, and invalidations remove entries by key, so an invalidation either sees the new entry
+        // and removes it or has already changed the count by the time it is checked.
+        long invalidationCountBeforeLoad = invalidationCount.get();
+        DatasetFuzzyMatcher matcher = new DatasetFuzzyMatcher(valuesSupplier.get(), indexMode, distanceBackend);
+
+        if (maxEntries > 0) {
+            matchers.compute(new MatcherKey(lexiconId, wordElement), (key, existing) ->
+                    invalidationCount.get() == invalidationCountBeforeLoad ? new CachedMatcher(matcher, Instant.now()) : existing);
+            evictIfFull();
+        }
+
+        return matcher;
+    }
+
+    // Returns the cached matcher without building one, or null if there isn't an unexpired one
+    public DatasetFuzzyMatcher getCachedMatcher(String lexiconId, WordElement wordElement) {
+        MatcherKey key = new MatcherKey(lexiconId, wordElement);
+        CachedMatcher cachedMatcher = matchers.get(key);
+        if (cachedMatcher == null) {
+            return null;
+        }
+
+        Instant now = Instant.now();
+        if (cachedMatcher.loadedInstant.plus(ttl).isAfter(now)) {
+            cachedMatcher.lastAccessInstant = now;
+            return cachedMatcher.matcher;
+        }
+
+        matchers.remove(key, cachedMatcher);
+        return null;
+    }
+
+    public void invalidateLexicon(String lexiconId) {
+        invalidationCount.incrementAndGet();
+        for (WordElement wordElement : WordElement.values()) {
+            matchers.remove(new MatcherKey(lexiconId, wordElement));
+        }
+    }
+
+    public void invalidateAll() {
+        invalidationCount.incrementAndGet();
+        matchers.clear();
+    }
+
+    int size() {
+        return matchers.size();
+    }
+
+    private void evictIfFull() {
+        while (matchers.size() > maxEntries) {
+            matchers.entrySet().stream()
+                    .min(Comparator.comparing(entry -> entry.getValue().lastAccessInstant))
+                    .ifPresent(entry -> {
+                        log.debug("Evicting fuzzy matcher for lexicon {}, element {}", entry.getKey().lexiconId(), entry.getKey().wordElement());
+                        matchers.remove(entry.getKey(), entry.getValue());
+                    });
+        }
+    }
+
+    private record MatcherKey(String lexiconId, WordElement wordElement) { }
+
+    private static class CachedMatcher {
+        private final DatasetFuzzyMatcher matcher;
+        private final Instant loadedInstant;
+        private volatile Instant lastAccessInstant;
+
+        private CachedMatcher(DatasetFuzzyMatcher matcher, Instant loadedInstant) {
+            this.matcher = matcher;
+            this.loadedInstant = loadedInstant;
+            this.lastAccessInstant = loadedInstant;
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package com.gt.ssrs.fuzzy;
+
+// Running totals for a DatasetFuzzyMatcher's linear scans: candidates ruled out by the length buckets, candidates ruled
+// out by the character signature, and candidates that needed a full edit distance calculation
+public record FuzzyMatcherStats(long lengthPruned, long signaturePruned, long distanceCalculations) { }
@@ -0,0 +1,179 @@
+package com.gt.ssrs.fuzzy;
+
+import java.util.Arrays;
+
+// Levenshtein distance kernel used by the fuzzy matchers. Scratch space is kept per thread and reused between calls,
+// so calculating a distance does not allocate and the kernel can be called from any number of threads at once.
+//
+// When the shorter of the two strings is at most 64 characters (which covers nearly all kana, kanji, and meaning
+// values), the distance is calculated with the Myers/Hyyro bit-vector algorithm, which processes a whole column of
+// the DP matrix per step. Longer strings fall back to the standard two-row DP.
+public final class LevenshteinDistance {
+
+    static final int MAX_BIT_PARALLEL_LENGTH = Long.SIZE;
+
+    private static final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    private LevenshteinDistance() { }
+
+    // Returns the edit distance between left and right, or maxDistance + 1 if the distance is greater than maxDistance
+    public static int compute(String left, String right, int maxDistance) {
+        String pattern = left.length() <= right.length() ? left : right;
+        String text = pattern == left ? right : left;
+
+        if (text.length() - pattern.length() > maxDistance) {
+            return maxDistance + 1;   // each extra character costs at least one insertion
+        }
+
+        if (pattern.length() <= MAX_BIT_PARALLEL_LENGTH) {
+            return bitParallelDistance(pattern, text, maxDistance);
+        }
+
+        return dynamicProgrammingDistance(pattern, text, maxDistance);
+    }
+
+    static int dynamicProgrammingDistance(String left, String right, int maxDistance) {
+        Scratch rows = scratch.get();
+        int[] v0 = rows.row0(right.length() + 1);
+        int[] v1 = rows.row1(right.length() + 1);
+
+        for (int j = 0; j <= right.length(); j++) {
+            v0[j] = j;
+        }
+
+        for (int i = 0; i < left.length(); i++) {
+            char leftChar = left.charAt(i);
+            v1[0] = i + 1;
+            int rowMin = v1[0];
+
+            for (int j = 0; j < right.length(); j++) {
+                int delCost = v0[j + 1] + 1;
+                int insertCost = v1[j] + 1;
+                int subCost = leftChar == right.charAt(j) ? v0[j] : v0[j] + 1;
+
+                int curDistance = Math.min(Math.min(delCost, insertCost), subCost);
+                v1[j + 1] = curDistance;
+                rowMin = Math.min(rowMin, curDistance);
+            }
+
+            if (rowMin > maxDistance) {
+                return maxDistance + 1;
+            }
+
+            int[] temp = v0;
+            v0 = v1;
+            v1 = temp;
+        }
+
+        return Math.min(v0[right.length()], maxDistance + 1);
+    }
+
+    // Myers' bit-vector algorithm, using Hyyro's formulation for the full (global) edit distance. Bit i of the vertical
+    // delta vectors Pv/Mv records whether D[i+1][j] - D[i][j] is +1/-1 for the current column j of the DP matrix.
+    static int bitParallelDistance(String pattern, String text, int maxDistance) {
+        int patternLength = pattern.length();
+        int textLength = text.length();
+
+        if (patternLength == 0) {
+            return Math.min(textLength, maxDistance + 1);
+        }
+
+        Scratch peq = scratch.get();
+        peq.loadPattern(pattern);
+
+        long pv = -1L;
+        long mv = 0L;
+        long lastBit = 1L << (patternLength - 1);
+        int score = patternLength;
+
+        for (int j = 0; j < textLength; j++) {
+            long eq = peq.mask(text.charAt(j));
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+
+            if ((ph & lastBit) != 0) {
+                score++;
+            } else if ((mh & lastBit) != 0) {
+                score--;
+            }
+
+            ph = (ph << 1) | 1L;
+            mh = mh << 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+
+            // Each remaining column can lower the score by at most one
+            if (score - (textLength - j - 1) > maxDistance) {
+                return maxDistance + 1;
+            }
+        }
+
+        return Math.min(score, maxDistance + 1);
+    }
+
+    private static class Scratch {
+        private static final int PEQ_TABLE_SIZE = 128;     // at least twice the max pattern length so probing stays short
+
+        private int[] row0 = new int[32];
+        private int[] row1 = new int[32];
+
+        // Open-addressed table of character -> match mask for the current pattern. Entries are only valid if their
+        // generation matches the current generation, which avoids clearing the table for every pattern.
+        private final char[] peqChars = new char[PEQ_TABLE_SIZE];
+        private final long[] peqMasks = new long[PEQ_TABLE_SIZE];
+        private final int[] peqGenerations = new int[PEQ_TABLE_SIZE];
+        private int generation = 0;
+
+        private int[] row0(int size) {
+            if (row0.length < size) {
+                row0 = new int[Math.max(size, row0.length * 2)];
+            }
+            return row0;
+        }
+
+        private int[] row1(int size) {
+            if (row1.length < size) {
+                row1 = new int[Math.max(size, row1.length * 2)];
+            }
+            return row1;
+        }
+
+        private void loadPattern(String pattern) {
+            if (++generation == 0) {
+                Arrays.fill(peqGenerations, 0);
+                generation = 1;
+            }
+
+            for (int i = 0; i < pattern.length(); i++) {
+                char c = pattern.charAt(i);
+                int slot = c & (PEQ_TABLE_SIZE - 1);
+
+                while (peqGenerations[slot] == generation && peqChars[slot] != c) {
+                    slot = (slot + 1) & (PEQ_TABLE_SIZE - 1);
+                }
+
+                if (peqGenerations[slot] != generation) {
+                    peqGenerations[slot] = generation;
+                    peqChars[slot] = c;
+                    peqMasks[slot] = 0L;
+                }
+                peqMasks[slot] |= 1L << i;
+            }
+        }
+
+        private long mask(char c) {
+            int slot = c & (PEQ_TABLE_SIZE - 1);
+
+            while (peqGenerations[slot] == generation) {
+                if (peqChars[slot] == c) {
+                    return peqMasks[slot];
+                }
+                slot = (slot + 1) & (PEQ_TABLE_SIZE - 1);
+            }
+
+            return 0L;
+        }
+    }
+}
@@ -6,7 +6,7 @@ import com.gt.ssrs.model.LexiconMetadata;
 import com.gt.ssrs.model.Word;
 import com.gt.ssrs.model.WordFilterOptions;
 import com.gt.ssrs.reviewHistory.WordReviewHistoryService;
-import com.gt.ssrs.reviewSession.ReviewEventProcessor;
+import com.gt.ssrs.reviewSession.ReviewEventProcessingQueue;
 import com.gt.ssrs.reviewSession.ScheduledReviewService;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -34,7 +34,7 @@ public class LexiconController {
     private final WordReviewHistoryService wordReviewHistoryService;
     private final DeletionService deletionService;
     private final ScheduledReviewService scheduledReviewService;
-    private final ReviewEventProcessor reviewEventProcessor;
+    private final ReviewEventProcessingQueue reviewEventProcessingQueue;
 
     @Autowired
     public LexiconController(LexiconService lexiconService,
@@ -42,13 +42,13 @@ public class LexiconController {
                              WordReviewHistoryService wordReviewHistoryService,
                              DeletionService deletionService,
                              ScheduledReviewService scheduledReviewService,
-                             ReviewEventProcessor reviewEventProcessor) {
+                             ReviewEventProcessingQueue reviewEventProcessingQueue) {
         this.lexiconService = lexiconService;
         this.wordService = wordService;
         this.wordReviewHistoryService = wordReviewHistoryService;
         this.deletionService = deletionService;
         this.scheduledReviewService = scheduledReviewService;
-        this.reviewEventProcessor = reviewEventProcessor;
+        this.reviewEventProcessingQueue = reviewEventProcessingQueue;
     }
 
     @GetMapping(value = "/allLexiconMetadata", produces = "application/json")
@@ -58,16 +58,22 @@ public class LexiconController {
 
     @GetMapping(value = "/allLexiconMetadataAndScheduledCounts", produces = "application/json")
     public List<LexiconMetadataAndScheduledCounts> getAllLexiconMetadataAndScheduledCounts(@RequestParam(value = "cutoff") Optional<Instant> cutoffInstant,
+                                                                                           @RequestParam(value = "fresh", defaultValue = "false") boolean fresh,
                                                                                            @AuthenticatedUser String username,
                                                                                            HttpServletResponse response) {
-        List<LexiconMetadataAndScheduledCounts> lexiconMetadataAndScheduledCounts = new ArrayList<>();
+        List<LexiconMetadata> allLexiconMetadata = lexiconService.getAllLexiconMetadata(username);
+        List<String> lexiconIds = allLexiconMetadata.stream().map(LexiconMetadata::id).toList();
+
+        reviewEventProcessingQueue.ensureProcessed(username, lexiconIds, fresh);
+        Map<String, Map<String, Integer>> scheduledReviewCounts = scheduledReviewService.getScheduledReviewCounts(username, lexiconIds, cutoffInstant);
+        Set<String> lexiconIdsWithWordsToLearn = wordReviewHistoryService.getLexiconIdsWithWordsToLearn(username, lexiconIds);
 
-        for(LexiconMetadata lexiconMetadata : lexiconService.getAllLexiconMetadata(username)) {
-            reviewEventProcessor.processEvents(username, lexiconMetadata.id());
+        List<LexiconMetadataAndScheduledCounts> lexiconMetadataAndScheduledCounts = new ArrayList<>();
+        for(LexiconMetadata lexiconMetadata : allLexiconMetadata) {
             lexiconMetadataAndScheduledCounts.add(new LexiconMetadataAndScheduledCounts(
                     lexiconMetadata,
-                    scheduledReviewService.getScheduledReviewCounts(username, lexiconMetadata.id(), cutoffInstant),
-                    wordReviewHistoryService.hasWordsToLearn(lexiconMetadata.id(), username)));
+                    scheduledReviewCounts.getOrDefault(lexiconMetadata.id(), Map.of()),
+                    lexiconIdsWithWordsToLearn.contains(lexiconMetadata.id())));
         }
 
         return lexiconMetadataAndScheduledCounts;
@@ -2,6 +2,7 @@ package com.gt.ssrs.lexicon.aws;
 
 import com.gt.ssrs.lexicon.LexiconDao;
 import com.gt.ssrs.model.LexiconMetadata;
+import com.gt.ssrs.util.aws.DDBBatchExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,12 +24,15 @@ public class LexiconDaoDDB implements LexiconDao {
     private static final Logger log = LoggerFactory.getLogger(LexiconDaoDDB.class);
 
     private final DynamoDbEnhancedClient dynamoDbEnhancedClient;
+    private final DDBBatchExecutor batchExecutor;
 
     private final DynamoDbTable<DDBLexiconMetadata> lexiconTable;
 
     @Autowired
-    public LexiconDaoDDB(DynamoDbEnhancedClient dynamoDbEnhancedClient) {
+    public LexiconDaoDDB(DynamoDbEnhancedClient dynamoDbEnhancedClient,
+                         DDBBatchExecutor batchExecutor) {
         this.dynamoDbEnhancedClient = dynamoDbEnhancedClient;
+        this.batchExecutor = batchExecutor;
 
         this.lexiconTable = dynamoDbEnhancedClient.table(DDBLexiconMetadata.TABLE_NAME, TableSchema.fromImmutableClass(DDBLexiconMetadata.class));
     }
@@ -61,12 +65,11 @@ public class LexiconDaoDDB implements LexiconDao {
 
     @Override
     public List<LexiconMetadata> getLexiconMetadatas(Collection<String> ids) {
-        ReadBatch.Builder<DDBLexiconMetadata> batchBuilder = ReadBatch.builder(DDBLexiconMetadata.class).mappedTableResource(lexiconTable);
-        ids.forEach(id -> batchBuilder.addGetItem(Key.builder().partitionValue(id).build()));
+        List<Key> keys = ids.stream()
+                .map(id -> Key.builder().partitionValue(id).build())
+                .toList();
 
-        BatchGetResultPageIterable resultPages = dynamoDbEnhancedClient.batchGetItem(b -> b.addReadBatch(batchBuilder.build()));
-
-        return resultPages.resultsForTable(lexiconTable).stream()
+        return batchExecutor.loadItems(lexiconTable, keys).stream()
                 .map(ddbLexiconMetadata -> DDBLexiconConverter.convertDDBLexiconMetadata(ddbLexiconMetadata))
                 .collect(Collectors.toUnmodifiableList());
     }
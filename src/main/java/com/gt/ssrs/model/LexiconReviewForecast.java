@@ -0,0 +1,8 @@
+package com.gt.ssrs.model;
+
+import java.time.Instant;
+
+// Number of reviews expected in each interval starting at forecastStart, split between reviews that are already
+// scheduled and reviews inferred from the word's history assuming every test is passed
+public record LexiconReviewForecast(int totalWords, int learnedWords, Instant forecastStart, ReviewForecastInterval interval,
+                                    int[] scheduledReviewCnts, int[] inferredReviewCnts) { }
@@ -7,7 +7,7 @@ import java.time.Instant;
 
 public record ReviewEvent(String eventId, String scheduledReviewId, String lexiconId, String wordId, String username,
                           Instant eventInstant, ReviewType reviewType, ReviewMode reviewMode, TestRelationship testRelationship,
-                          boolean isCorrect, boolean isNearMiss, long elapsedTimeMs, boolean override) {
+                          boolean isCorrect, boolean isNearMiss, long elapsedTimeMs, boolean override, String clientEventId) {
 
     public static ReviewEvent fromClientReviewEvent(ClientReviewEvent reviewEvent, String username, Instant eventInstant) {
         return fromClientReviewEvent(reviewEvent, null, username, eventInstant);
@@ -29,6 +29,7 @@ public record ReviewEvent(String eventId, String scheduledReviewId, String lexic
                 reviewEvent.isCorrect(),
                 reviewEvent.isNearMiss(),
                 reviewEvent.elapsedTimeMs(),
-                reviewEvent.override());
+                reviewEvent.override(),
+                reviewEvent.clientEventId());
     }
 }
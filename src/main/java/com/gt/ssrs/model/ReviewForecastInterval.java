@@ -0,0 +1,18 @@
+package com.gt.ssrs.model;
+
+import java.time.Duration;
+
+public enum ReviewForecastInterval {
+    Hour(Duration.ofHours(1)),
+    Day(Duration.ofDays(1));
+
+    private Duration duration;
+
+    ReviewForecastInterval(Duration duration) {
+        this.duration = duration;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+}
@@ -11,4 +11,10 @@ public record ScheduledReview(String id,
                               String testRelationshipId,
                               Instant scheduledTestTime,
                               Duration testDelay,
-                              boolean completed) { }
+                              boolean completed) {
+
+    // A review scheduled after now can be done early once enough of its delay has passed
+    public boolean isEarlyReviewAllowed(Instant now, double futureEventAllowedRatio) {
+        return (scheduledTestTime.toEpochMilli() - now.toEpochMilli()) < (testDelay.toMillis() * (1 - futureEventAllowedRatio));
+    }
+}
@@ -6,6 +6,7 @@ import com.gt.ssrs.reviewHistory.model.LearnedStatus;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 public interface WordReviewHistoryDao {
 
@@ -17,6 +18,8 @@ public interface WordReviewHistoryDao {
 
     List<String> getIdsForWordsToLearn(String lexiconId, String username, int wordCnt);
 
+    Set<String> getLexiconIdsWithWordsToLearn(String username, Collection<String> lexiconIds);
+
     void deleteUserWordReviewHistories(String lexiconId, String username, Collection<String> wordIds);
 
     void deleteWordReviewHistories(String lexiconId, Collection<String> wordIds);
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Component;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Component
@@ -64,6 +65,14 @@ public class WordReviewHistoryService {
         return wordToLearn != null && wordToLearn.size() > 0;
     }
 
+    public Set<String> getLexiconIdsWithWordsToLearn(String username, Collection<String> lexiconIds) {
+        if (lexiconIds.isEmpty()) {
+            return Set.of();
+        }
+
+        return wordReviewHistoryDao.getLexiconIdsWithWordsToLearn(username, lexiconIds);
+    }
+
     public List<String> getIdsForWordsToLearn(String lexiconId, String username, int wordCnt) {
         return wordReviewHistoryDao.getIdsForWordsToLearn(lexiconId, username, wordCnt);
     }
@@ -3,11 +3,10 @@ package com.gt.ssrs.reviewHistory.aws;
 import com.gt.ssrs.model.WordReviewHistory;
 import com.gt.ssrs.reviewHistory.WordReviewHistoryDao;
 import com.gt.ssrs.reviewHistory.model.LearnedStatus;
-import com.gt.ssrs.util.ListUtil;
+import com.gt.ssrs.util.aws.DDBBatchExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import software.amazon.awssdk.core.pagination.sync.SdkIterable;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
@@ -29,104 +28,71 @@ public class WordReviewHistoryDaoDDB implements WordReviewHistoryDao {
 
     private final DynamoDbClient dynamoDbClient;
     private final DynamoDbEnhancedClient dynamoDbEnhancedClient;
-    private final int maxWriteBatchSize;
+    private final DDBBatchExecutor batchExecutor;
 
     private final DynamoDbTable<DDBWordReviewHistory> wordReviewHistoryTable;
 
     @Autowired
     public WordReviewHistoryDaoDDB(DynamoDbClient dynamoDbClient,
                                    DynamoDbEnhancedClient dynamoDbEnhancedClient,
-                                   @Value("${aws.dynamodb.maxWriteBatchSize}") int maxWriteBatchSize) {
+                                   DDBBatchExecutor batchExecutor) {
         this.dynamoDbClient = dynamoDbClient;
         this.dynamoDbEnhancedClient = dynamoDbEnhancedClient;
-        this.maxWriteBatchSize = maxWriteBatchSize;
+        this.batchExecutor = batchExecutor;
 
         wordReviewHistoryTable = dynamoDbEnhancedClient.table(DDBWordReviewHistory.TABLE_NAME, TableSchema.fromImmutableClass(DDBWordReviewHistory.class));
     }
 
     @Override
     public List<WordReviewHistory> createWordReviewHistory(String username, List<WordReviewHistory> wordReviewHistories) {
-        List<WordReviewHistory> updatedWordReviewHistory = new ArrayList<>();
-
-        for (List<WordReviewHistory> subList : ListUtil.partitionList(wordReviewHistories, maxWriteBatchSize)) {
-            updatedWordReviewHistory.addAll(createWordReviewHistoryBatch(username, subList));
-        }
-
-        return updatedWordReviewHistory;
-    }
-
-
-    private List<WordReviewHistory> createWordReviewHistoryBatch(String username, List<WordReviewHistory> wordReviewHistories) {
-        WriteBatch.Builder<DDBWordReviewHistory> batchBuilder = WriteBatch.builder(DDBWordReviewHistory.class).mappedTableResource(wordReviewHistoryTable);
+        List<DDBWordReviewHistory> historiesToSave = new ArrayList<>();
         Instant createInstant = Instant.now();
 
         for (WordReviewHistory wordReviewHistory : wordReviewHistories) {
             if (wordReviewHistory.username().equals(username)) {
-                batchBuilder.addPutItem(DDBWordReviewHistoryConverter.convertWordReviewHistory(wordReviewHistory, createInstant));
+                historiesToSave.add(DDBWordReviewHistoryConverter.convertWordReviewHistory(wordReviewHistory, createInstant));
                 createInstant = createInstant.plusMillis(1);
             }
         }
 
-        BatchWriteResult result = dynamoDbEnhancedClient.batchWriteItem(b -> b.addWriteBatch(batchBuilder.build()));
-
-        return filterNotSaved(wordReviewHistories, result.unprocessedPutItemsForTable(wordReviewHistoryTable));
+        return filterNotSaved(wordReviewHistories, batchExecutor.putItems(wordReviewHistoryTable, historiesToSave));
     }
 
     @Override
     public List<WordReviewHistory> getWordReviewHistory(String lexiconId, String username, Collection<String> wordIds) {
-        List<WordReviewHistory> wordReviewHistories = new ArrayList<>();
-
-        for (List<String> subList : ListUtil.partitionList(List.copyOf(wordIds), maxWriteBatchSize)) {
-            wordReviewHistories.addAll(DDBWordReviewHistoryConverter.convertDDBWordReviewHistoryBatch(getDDBWordReviewHistoryBatch(lexiconId, username, subList)));
-        }
+        List<Key> keys = wordIds.stream()
+                .map(wordId -> buildKey(lexiconId, username, wordId))
+                .toList();
 
-        return wordReviewHistories;
+        return DDBWordReviewHistoryConverter.convertDDBWordReviewHistoryBatch(batchExecutor.loadItems(wordReviewHistoryTable, keys));
     }
 
     @Override
     public List<WordReviewHistory> updateWordReviewHistory(String username, List<WordReviewHistory> wordReviewHistoriesToUpdate) {
-        List<WordReviewHistory> updatedWordReviewHistory = new ArrayList<>();
-
-        for (List<WordReviewHistory> subList : ListUtil.partitionList(wordReviewHistoriesToUpdate, maxWriteBatchSize)) {
-            updatedWordReviewHistory.addAll(updateWordReviewHistoryBatch(username, subList));
-        }
-
-        return updatedWordReviewHistory;
-    }
-
-    private List<WordReviewHistory> updateWordReviewHistoryBatch(String username, List<WordReviewHistory> wordReviewHistoriesToUpdate) {
-        List<WordReviewHistory> savedWordReviewHistories = new ArrayList<>();
-
-        Map<String, List<String>> wordIdsByLexiconId = wordReviewHistoriesToUpdate
-                .stream()
+        List<WordReviewHistory> userWordReviewHistories = wordReviewHistoriesToUpdate.stream()
                 .filter(wordReviewHistory -> wordReviewHistory.username().equals(username))
-                .collect(Collectors.groupingBy(WordReviewHistory::lexiconId, Collectors.collectingAndThen(Collectors.toList(), wordReviewHistory -> wordReviewHistory
-                        .stream()
-                        .map(w -> w.wordId())
-                        .distinct()
-                        .toList())));
-
-        for (String lexiconId : wordIdsByLexiconId.keySet()) {
-            Map<String, DDBWordReviewHistory> existingDDBWordReviewHistoryByWordId = getDDBWordReviewHistoryBatch(lexiconId, username, wordIdsByLexiconId.get(lexiconId))
-                    .stream()
-                    .filter(ddbWordReviewHistory -> ddbWordReviewHistory.username().equals(username))
-                    .collect(Collectors.toMap(ddbWordReviewHistory -> ddbWordReviewHistory.wordId(),
-                                              ddbWordReviewHistory -> ddbWordReviewHistory));
-
+                .toList();
 
-            WriteBatch.Builder<DDBWordReviewHistory> batchBuilder = WriteBatch.builder(DDBWordReviewHistory.class).mappedTableResource(wordReviewHistoryTable);
-            for (WordReviewHistory wordReviewHistory : wordReviewHistoriesToUpdate) {
-                DDBWordReviewHistory existingDDBWordReviewHistory = existingDDBWordReviewHistoryByWordId.get(wordReviewHistory.wordId());
-                Instant createInstant = existingDDBWordReviewHistory == null || existingDDBWordReviewHistory.createInstant() == null ? Instant.now() : existingDDBWordReviewHistory.createInstant();
+        // The existing histories are loaded to keep their create instants
+        List<Key> keys = userWordReviewHistories.stream()
+                .map(wordReviewHistory -> buildKey(wordReviewHistory.lexiconId(), username, wordReviewHistory.wordId()))
+                .toList();
+        Map<Key, DDBWordReviewHistory> existingDDBWordReviewHistoryByKey = batchExecutor.loadItems(wordReviewHistoryTable, keys)
+                .stream()
+                .filter(ddbWordReviewHistory -> ddbWordReviewHistory.username().equals(username))
+                .collect(Collectors.toMap(ddbWordReviewHistory -> buildKey(ddbWordReviewHistory.lexiconId(), ddbWordReviewHistory.username(), ddbWordReviewHistory.wordId()),
+                                          ddbWordReviewHistory -> ddbWordReviewHistory));
 
-                batchBuilder.addPutItem(DDBWordReviewHistoryConverter.convertWordReviewHistory(wordReviewHistory, createInstant));
-            }
+        Instant now = Instant.now();
+        List<DDBWordReviewHistory> historiesToSave = new ArrayList<>();
+        for (WordReviewHistory wordReviewHistory : userWordReviewHistories) {
+            DDBWordReviewHistory existingDDBWordReviewHistory = existingDDBWordReviewHistoryByKey.get(buildKey(wordReviewHistory.lexiconId(), username, wordReviewHistory.wordId()));
+            Instant createInstant = existingDDBWordReviewHistory == null || existingDDBWordReviewHistory.createInstant() == null ? now : existingDDBWordReviewHistory.createInstant();
 
-            BatchWriteResult result = dynamoDbEnhancedClient.batchWriteItem(b -> b.addWriteBatch(batchBuilder.build()));
-            savedWordReviewHistories.addAll(filterNotSaved(wordReviewHistoriesToUpdate, result.unprocessedPutItemsForTable(wordReviewHistoryTable)));
+            historiesToSave.add(DDBWordReviewHistoryConverter.convertWordReviewHistory(wordReviewHistory, createInstant));
         }
 
-        return savedWordReviewHistories;
+        return filterNotSaved(userWordReviewHistories, batchExecutor.putItems(wordReviewHistoryTable, historiesToSave));
     }
 
     @Override
@@ -135,42 +101,50 @@ public class WordReviewHistoryDaoDDB implements WordReviewHistoryDao {
     }
 
     @Override
-    public void deleteUserWordReviewHistories(String lexiconId, String username, Collection<String> wordIds) {
-        for(String wordId : wordIds) {
-            wordReviewHistoryTable.deleteItem(Key.builder()
-                    .partitionValue(DDBWordReviewHistoryConverter.buildId(lexiconId, username))
-                    .sortValue(wordId)
-                    .build());
+    public Set<String> getLexiconIdsWithWordsToLearn(String username, Collection<String> lexiconIds) {
+        // The history is partitioned by lexicon and user, so there is a query per lexicon
+        Set<String> lexiconIdsWithWordsToLearn = new HashSet<>();
+        for (String lexiconId : lexiconIds) {
+            if (!getIdsForWordsToLearn(lexiconId, username, 1).isEmpty()) {
+                lexiconIdsWithWordsToLearn.add(lexiconId);
+            }
         }
+
+        return lexiconIdsWithWordsToLearn;
+    }
+
+    @Override
+    public void deleteUserWordReviewHistories(String lexiconId, String username, Collection<String> wordIds) {
+        batchExecutor.deleteAllItems(wordReviewHistoryTable, wordIds.stream()
+                .map(wordId -> buildKey(lexiconId, username, wordId))
+                .toList());
     }
 
     @Override
     public void deleteWordReviewHistories(String lexiconId, Collection<String> wordIds) {
         Set<String> wordIdsSet = wordIds.stream().collect(Collectors.toUnmodifiableSet());
 
-        for(UserWordIdTuple userWordIdTuple : getUserAndWordIdsForLexicon(lexiconId)) {
-            if (wordIdsSet.contains(userWordIdTuple.wordId)) {
-                wordReviewHistoryTable.deleteItem(Key.builder().partitionValue(DDBWordReviewHistoryConverter.buildId(lexiconId, userWordIdTuple.username)).sortValue(userWordIdTuple.wordId).build());
-            }
-        }
+        batchExecutor.deleteAllItems(wordReviewHistoryTable, getUserAndWordIdsForLexicon(lexiconId).stream()
+                .filter(userWordIdTuple -> wordIdsSet.contains(userWordIdTuple.wordId))
+                .map(userWordIdTuple -> buildKey(lexiconId, userWordIdTuple.username, userWordIdTuple.wordId))
+                .toList());
     }
 
     @Override
     public void deleteLexiconWordReviewHistoryForUser(String lexiconId, String username) {
         Map<LearnedStatus, List<String>> wordIdsToDeleteByLearned = getWordIdsForUserByLearned(lexiconId, username);
 
-        for (LearnedStatus learnedStatus : wordIdsToDeleteByLearned.keySet()) {
-            for (String wordId : wordIdsToDeleteByLearned.get(learnedStatus)) {
-                wordReviewHistoryTable.deleteItem(Key.builder().partitionValue(DDBWordReviewHistoryConverter.buildId(lexiconId, username)).sortValue(wordId).build());
-            }
-        }
+        batchExecutor.deleteAllItems(wordReviewHistoryTable, wordIdsToDeleteByLearned.values().stream()
+                .flatMap(wordIds -> wordIds.stream())
+                .map(wordId -> buildKey(lexiconId, username, wordId))
+                .toList());
     }
 
     @Override
     public void deleteLexiconWordReviewHistory(String lexiconId) {
-        for(UserWordIdTuple userWordIdTuple : getUserAndWordIdsForLexicon(lexiconId)) {
-            wordReviewHistoryTable.deleteItem(Key.builder().partitionValue(DDBWordReviewHistoryConverter.buildId(lexiconId, userWordIdTuple.username)).sortValue(userWordIdTuple.wordId).build());
-        }
+        batchExecutor.deleteAllItems(wordReviewHistoryTable, getUserAndWordIdsForLexicon(lexiconId).stream()
+                .map(userWordIdTuple -> buildKey(lexiconId, userWordIdTuple.username, userWordIdTuple.wordId))
+                .toList());
     }
 
     @Override
@@ -269,13 +243,8 @@ public class WordReviewHistoryDaoDDB implements WordReviewHistoryDao {
                 .toList();
     }
 
-    private List<DDBWordReviewHistory> getDDBWordReviewHistoryBatch(String lexiconId, String username, Collection<String> wordIds) {
-        ReadBatch.Builder<DDBWordReviewHistory> batchBuilder = ReadBatch.builder(DDBWordReviewHistory.class).mappedTableResource(wordReviewHistoryTable);
-        wordIds.forEach(wordId -> batchBuilder.addGetItem(Key.builder().partitionValue(DDBWordReviewHistoryConverter.buildId(lexiconId, username)).sortValue(wordId).build()));
-
-        BatchGetResultPageIterable resultPages = dynamoDbEnhancedClient.batchGetItem(b -> b.addReadBatch(batchBuilder.build()));
-
-        return resultPages.resultsForTable(wordReviewHistoryTable).stream().toList();
+    private static Key buildKey(String lexiconId, String username, String wordId) {
+        return Key.builder().partitionValue(DDBWordReviewHistoryConverter.buildId(lexiconId, username)).sortValue(wordId).build();
     }
 
     private static List<WordReviewHistory> filterNotSaved(List<WordReviewHistory> original, List<DDBWordReviewHistory> notSaved) {
@@ -10,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.SqlArrayValue;
 import org.springframework.stereotype.Component;
 
 import java.sql.Timestamp;
@@ -58,6 +59,11 @@ public class WordReviewHistoryDaoPG implements WordReviewHistoryDao {
             "ORDER BY create_seq_num asc " +
             "LIMIT :wordCnt";
 
+    private static final String GET_LEXICON_IDS_WITH_WORDS_TO_LEARN_SQL =
+            "SELECT l.lexicon_id " +
+            "FROM unnest(:lexiconIds) AS l(lexicon_id) " +
+            "WHERE EXISTS (SELECT 1 FROM lexicon_review_history h WHERE h.lexicon_id = l.lexicon_id AND h.username = :username AND h.learned IS FALSE)";
+
     private static final String DELETE_USER_WORD_REVIEW_HISTORY_SQL =
             "DELETE FROM lexicon_review_history WHERE lexicon_id = :lexiconId AND username = :username AND word_id IN (:wordIds); " +
             "DELETE FROM lexicon_word_test_history WHERE lexicon_id = :lexiconId AND username = :username AND word_id IN (:wordIds); ";
@@ -183,6 +189,19 @@ public class WordReviewHistoryDaoPG implements WordReviewHistoryDao {
                 (rs, rowNum) -> rs.getString("word_id"));
     }
 
+    @Override
+    public Set<String> getLexiconIdsWithWordsToLearn(String username, Collection<String> lexiconIds) {
+        if (lexiconIds.isEmpty()) {
+            return Set.of();
+        }
+
+        return Set.copyOf(template.query(
+                GET_LEXICON_IDS_WITH_WORDS_TO_LEARN_SQL,
+                Map.of("lexiconIds", new SqlArrayValue("varchar", lexiconIds.toArray()),
+                       "username", username),
+                (rs, rowNum) -> rs.getString("lexicon_id")));
+    }
+
     @Override
     public void deleteUserWordReviewHistories(String lexiconId, String username, Collection<String> wordIds) {
         template.update(DELETE_USER_WORD_REVIEW_HISTORY_SQL,
@@ -0,0 +1,236 @@
+package com.gt.ssrs.reviewSession;
+
+import com.gt.ssrs.model.ReviewEvent;
+import com.gt.ssrs.model.ScheduledReview;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+// Keeps the incomplete scheduled reviews of recently active user/lexicons in memory, ordered by scheduled time, so that
+// due counts and the reviews for a session can be found without querying the database. A user/lexicon is loaded the
+// first time it is read and dropped once it hasn't been read for the idle time. Writes made through this instance are
+// applied to loaded user/lexicons after they are saved; any write that isn't is invisible to the cache, so it is only
+// safe when this is the only instance writing scheduled reviews. Disabled by default.
+@Component
+public class DueReviewCache {
+
+    private static final Logger log = LoggerFactory.getLogger(DueReviewCache.class);
+
+    // Far enough in the future to load every incomplete review, while still fitting in a database timestamp
+    private static final Instant LOAD_ALL_CUTOFF = Instant.parse("9999-01-01T00:00:00Z");
+
+    private static final Comparator<ScheduledReview> BY_SCHEDULED_TIME =
+            Comparator.comparing(ScheduledReview::scheduledTestTime).thenComparing(ScheduledReview::id);
+
+    private final ScheduledReviewDao scheduledReviewDao;
+    private final boolean enabled;
+    private final long idleNanos;
+    private final int maxEntries;
+
+    private final Map<EntryKey, Entry> entries = new ConcurrentHashMap<>();
+    private volatile long lastSweepNanos = System.nanoTime();
+
+    @Autowired
+    public DueReviewCache(ScheduledReviewDao scheduledReviewDao,
+                          @Value("${ssrs.review.dueReviewCache.enabled:false}") boolean enabled,
+                          @Value("${ssrs.review.dueReviewCache.idleSeconds:1800}") long idleSeconds,
+                          @Value("${ssrs.review.dueReviewCache.maxEntries:10000}") int maxEntries) {
+        this.scheduledReviewDao = scheduledReviewDao;
+        this.enabled = enabled;
+        this.idleNanos = TimeUnit.SECONDS.toNanos(idleSeconds);
+        this.maxEntries = Math.max(1, maxEntries);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean isLoaded(String username, String lexiconId) {
+        Entry entry = entries.get(new EntryKey(username, lexiconId));
+        return entry != null && entry.loaded;
+    }
+
+    // Same results as ScheduledReviewDao.loadDueScheduledReviews
+    public List<ScheduledReview> loadDueScheduledReviews(String username, String lexiconId, String testRelationshipId, Optional<Instant> cutoffInstant, double futureEventAllowedRatio, int limit) {
+        Instant now = Instant.now();
+        Instant cutoff = cutoffInstant.orElse(now);
+        boolean filterRelationship = StringUtils.hasLength(testRelationshipId);
+
+        List<ScheduledReview> dueReviews = new ArrayList<>();
+        withLoadedEntry(username, lexiconId, entry -> {
+            for (ScheduledReview scheduledReview : entry.byScheduledTime) {
+                if (dueReviews.size() >= limit || !scheduledReview.scheduledTestTime().isBefore(cutoff)) {
+                    break;
+                }
+
+                if ((!filterRelationship || testRelationshipId.equals(scheduledReview.testRelationshipId())) && isDue(scheduledReview, now, futureEventAllowedRatio)) {
+                    dueReviews.add(scheduledReview);
+                }
+            }
+        });
+
+        return dueReviews;
+    }
+
+    // Due review counts by test relationship, same as one lexicon of ScheduledReviewDao.countScheduledReviews
+    public Map<String, Integer> countDueScheduledReviews(String username, String lexiconId, Optional<Instant> cutoffInstant, double futureEventAllowedRatio) {
+        Instant now = Instant.now();
+        Instant cutoff = cutoffInstant.orElse(now);
+
+        Map<String, Integer> counts = new HashMap<>();
+        withLoadedEntry(username, lexiconId, entry -> {
+            for (ScheduledReview scheduledReview : entry.byScheduledTime) {
+                if (!scheduledReview.scheduledTestTime().isBefore(cutoff)) {
+                    break;
+                }
+
+                if (isDue(scheduledReview, now, futureEventAllowedRatio)) {
+                    counts.merge(scheduledReview.testRelationshipId(), 1, Integer::sum);
+                }
+            }
+        });
+
+        return counts;
+    }
+
+    // Called after the reviews have been saved. Completed reviews are removed, anything else is added or replaced.
+    public void onScheduledReviewsSaved(Collection<ScheduledReview> scheduledReviews) {
+        if (!enabled || scheduledReviews.isEmpty()) {
+            return;
+        }
+
+        for (ScheduledReview scheduledReview : scheduledReviews) {
+            updateIfLoaded(scheduledReview.username(), scheduledReview.lexiconId(), entry -> {
+                entry.remove(scheduledReview.id());
+                if (!scheduledReview.completed()) {
+                    entry.add(scheduledReview);
+                }
+            });
+        }
+    }
+
+    // Called after the events have been saved and their scheduled reviews marked complete
+    public void onReviewEventsSaved(Collection<ReviewEvent> events) {
+        if (!enabled) {
+            return;
+        }
+
+        for (ReviewEvent event : events) {
+            if (StringUtils.hasLength(event.scheduledReviewId())) {
+                updateIfLoaded(event.username(), event.lexiconId(), entry -> entry.remove(event.scheduledReviewId()));
+            }
+        }
+    }
+
+    // For writes that can't be applied directly, the user/lexicon is loaded again the next time it is read
+    public void invalidate(String username, String lexiconId) {
+        if (enabled) {
+            entries.remove(new EntryKey(username, lexiconId));
+        }
+    }
+
+    public void invalidateLexicon(String lexiconId) {
+        if (enabled) {
+            entries.keySet().removeIf(key -> key.lexiconId().equals(lexiconId));
+        }
+    }
+
+    private static boolean isDue(ScheduledReview scheduledReview, Instant now, double futureEventAllowedRatio) {
+        return !scheduledReview.scheduledTestTime().isAfter(now) || scheduledReview.isEarlyReviewAllowed(now, futureEventAllowedRatio);
+    }
+
+    private void withLoadedEntry(String username, String lexiconId, Consumer<Entry> reader) {
+        evictIfNeeded();
+
+        Entry entry = entries.computeIfAbsent(new EntryKey(username, lexiconId), key -> new Entry());
+        entry.lastAccessNanos = System.nanoTime();
+
+        // Writes wait for the load, and are applied afterward. Applying a write that the load already saw has no effect.
+        entry.lock.lock();
+        try {
+            if (!entry.loaded) {
+                scheduledReviewDao.loadScheduledReviews(username, lexiconId, "", Optional.of(LOAD_ALL_CUTOFF)).forEach(entry::add);
+                entry.loaded = true;
+            }
+
+            reader.accept(entry);
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+
+    private void updateIfLoaded(String username, String lexiconId, Consumer<Entry> writer) {
+        // A user/lexicon that isn't loaded reads the write from the database when it is
+        Entry entry = entries.get(new EntryKey(username, lexiconId));
+        if (entry == null) {
+            return;
+        }
+
+        entry.lock.lock();
+        try {
+            if (entry.loaded) {
+                writer.accept(entry);
+            }
+        } finally {
+            entry.lock.unlock();
+        }
+    }
+
+    private void evictIfNeeded() {
+        long nowNanos = System.nanoTime();
+        if (nowNanos - lastSweepNanos < idleNanos / 4 && entries.size() < maxEntries) {
+            return;
+        }
+        lastSweepNanos = nowNanos;
+
+        entries.values().removeIf(entry -> nowNanos - entry.lastAccessNanos >= idleNanos);
+
+        // Still full, so make room by dropping the least recently read
+        int overflow = entries.size() - maxEntries + 1;
+        if (overflow > 0) {
+            entries.entrySet().stream()
+                    .sorted(Comparator.comparingLong(mapEntry -> mapEntry.getValue().lastAccessNanos))
+                    .limit(overflow)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(entries::remove);
+
+            log.debug("Due review cache full, dropped {} user/lexicons", overflow);
+        }
+    }
+
+    private record EntryKey(String username, String lexiconId) { }
+
+    private static final class Entry {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final NavigableSet<ScheduledReview> byScheduledTime = new TreeSet<>(BY_SCHEDULED_TIME);
+        private final Map<String, ScheduledReview> byId = new HashMap<>();
+        private volatile boolean loaded = false;
+        private volatile long lastAccessNanos;
+
+        private void add(ScheduledReview scheduledReview) {
+            ScheduledReview replaced = byId.put(scheduledReview.id(), scheduledReview);
+            if (replaced != null) {
+                byScheduledTime.remove(replaced);
+            }
+            byScheduledTime.add(scheduledReview);
+        }
+
+        private void remove(String scheduledReviewId) {
+            ScheduledReview removed = byId.remove(scheduledReviewId);
+            if (removed != null) {
+                byScheduledTime.remove(removed);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.gt.ssrs.reviewSession;
+
+import com.gt.ssrs.language.Language;
+
+// Calculates review delays in whole seconds. After a successful test the delay is multiplied by 2^(boost / testsToDouble),
+// and the boost is always one of the configured values (or no boost), so the multipliers are calculated once per
+// language and boost rather than with Math.pow for every review. Any other boost, e.g. one saved under an old
+// configuration, falls back to calculating its multiplier. Results are identical to calculating them each time.
+public final class ReviewDelayCalculator {
+
+    private static final double NO_BOOST = 1;
+
+    private final double[] boosts;
+    private final double[] standardMultipliers;    // by language ordinal
+    private final double[][] boostedMultipliers;   // by language ordinal, then boost index
+
+    public ReviewDelayCalculator(double... boosts) {
+        this.boosts = boosts.clone();
+
+        Language[] languages = Language.values();
+        this.standardMultipliers = new double[languages.length];
+        this.boostedMultipliers = new double[languages.length][boosts.length];
+        for (Language language : languages) {
+            double testsToDoubleDelay = getTestsToDoubleDelay(language);
+
+            standardMultipliers[language.ordinal()] = getDelayMultiplier(NO_BOOST, testsToDoubleDelay);
+            for (int boostIdx = 0; boostIdx < boosts.length; boostIdx++) {
+                boostedMultipliers[language.ordinal()][boostIdx] = getDelayMultiplier(boosts[boostIdx], testsToDoubleDelay);
+            }
+        }
+    }
+
+    // A boost of 1 or less means there is no boost
+    public long getNextDelaySecAfterSuccessfulTest(Language language, long currentTestDelaySec, double currentBoost, long boostExpirationDelaySec) {
+        long standardDelaySec = (long)(currentTestDelaySec * standardMultipliers[language.ordinal()]);
+
+        if (currentBoost > NO_BOOST) {
+            long boostedDelaySec = (long)(currentTestDelaySec * getBoostedMultiplier(language, currentBoost));
+
+            // If boosted but expired, return either the standard delay or the expiration delay, whichever is greater
+            if (boostedDelaySec > boostExpirationDelaySec) {
+                if (standardDelaySec < boostExpirationDelaySec) {
+                    return boostExpirationDelaySec;
+                }
+            } else {
+                return boostedDelaySec;
+            }
+        }
+
+        return standardDelaySec;
+    }
+
+    private double getBoostedMultiplier(Language language, double boost) {
+        for (int boostIdx = 0; boostIdx < boosts.length; boostIdx++) {
+            if (boosts[boostIdx] == boost) {
+                return boostedMultipliers[language.ordinal()][boostIdx];
+            }
+        }
+
+        return getDelayMultiplier(boost, getTestsToDoubleDelay(language));
+    }
+
+    private static double getDelayMultiplier(double boost, double testsToDoubleDelay) {
+        return Math.pow(2, boost / testsToDoubleDelay);
+    }
+
+    private static double getTestsToDoubleDelay(Language language) {
+        return language.getTestsToDouble() <= 0 ? 1 : language.getTestsToDouble();  // guard against 0 since it would cause a divide-by-zero error
+    }
+}
@@ -5,13 +5,21 @@ import com.gt.ssrs.model.ReviewEvent;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 public interface ReviewEventDao {
 
     boolean saveReviewEvent(ReviewEvent event);
 
+    int saveReviewEvents(List<ReviewEvent> events);
+
     List<ReviewEvent> loadUnprocessedReviewEventsForUser(String username, String lexiconId);
 
+    // Lexicon IDs with at least one unprocessed event, by username. Empty if they can't be found without reading every event.
+    Optional<Map<String, Set<String>>> loadLexiconIdsWithUnprocessedEvents();
+
     List<String> markEventsAsProcessed(List<ReviewEvent> events);
 
     void deleteWordReviewEvents(String lexiconId, Collection<String> wordIds);
@@ -0,0 +1,246 @@
+package com.gt.ssrs.reviewSession;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Processes saved review events in the background so that requests reading review data don't pay for it. Saving an
+// event marks its user/lexicon as dirty and queues it for the worker pool; any number of events saved before the worker
+// starts are covered by that one run. Clean user/lexicons skip loading events entirely. On startup, the user/lexicons
+// with unprocessed events are loaded with one query if the DAO can do that cheaply; until that completes (or if it
+// fails or isn't possible, as with DynamoDB), a user/lexicon is only considered clean once it has been processed by this
+// instance. Only events saved through this instance make a user/lexicon dirty, so reads that require freshness still
+// check the database for unprocessed events unless this is configured as the only instance saving events.
+// Background threads don't run between invocations inside a lambda, so async processing can be disabled (and is by
+// default in the Lambda build), in which case events are processed synchronously whenever they are checked, regardless
+// of whether freshness was requested.
+@Component
+public class ReviewEventProcessingQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewEventProcessingQueue.class);
+
+    private static final int SHUTDOWN_WAIT_SEC = 30;
+    private static final int KEY_LOCK_STRIPES = 64;
+
+    private final ReviewEventProcessor reviewEventProcessor;
+    private final ReviewEventDao reviewEventDao;
+    private final boolean asyncEnabled;
+    private final boolean singleInstance;
+    private final ThreadPoolExecutor processingExecutor;
+
+    private final Set<WorkKey> dirtyKeys = ConcurrentHashMap.newKeySet();
+    private final Set<WorkKey> cleanKeys = ConcurrentHashMap.newKeySet();
+    private volatile boolean dirtyKeysLoaded = false;
+    private final Set<WorkKey> queuedKeys = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock[] keyLocks = new ReentrantLock[KEY_LOCK_STRIPES];
+    private final int maxParallelLexicons;
+
+    @Autowired
+    public ReviewEventProcessingQueue(ReviewEventProcessor reviewEventProcessor,
+                                      ReviewEventDao reviewEventDao,
+                                      @Value("${ssrs.review.asyncProcessing.enabled:true}") boolean asyncEnabled,
+                                      @Value("${ssrs.review.asyncProcessing.singleInstance:false}") boolean singleInstance,
+                                      @Value("${ssrs.review.asyncProcessing.threads:2}") int threads,
+                                      @Value("${ssrs.review.asyncProcessing.queueCapacity:1000}") int queueCapacity,
+                                      @Value("${ssrs.review.processing.maxParallelLexicons:4}") int maxParallelLexicons) {
+        this.reviewEventProcessor = reviewEventProcessor;
+        this.reviewEventDao = reviewEventDao;
+        this.asyncEnabled = asyncEnabled;
+        this.singleInstance = singleInstance;
+        this.maxParallelLexicons = Math.max(1, maxParallelLexicons);
+        for (int index = 0; index < keyLocks.length; index++) {
+            keyLocks[index] = new ReentrantLock();
+        }
+
+        if (asyncEnabled) {
+            this.processingExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), Thread.ofPlatform().name("review-event-processing-", 0).daemon().factory());
+            this.processingExecutor.allowCoreThreadTimeOut(true);
+        } else {
+            this.processingExecutor = null;
+        }
+    }
+
+    @PostConstruct
+    public void loadDirtyKeys() {
+        if (!asyncEnabled) {
+            return;
+        }
+
+        try {
+            // Anything processed while loading may still be included, which only costs an extra (empty) check
+            Optional<Map<String, Set<String>>> lexiconIdsByUsername = reviewEventDao.loadLexiconIdsWithUnprocessedEvents();
+            if (lexiconIdsByUsername.isEmpty()) {
+                log.info("User/lexicons with unprocessed review events can't be preloaded, all are treated as dirty until processed");
+                return;
+            }
+
+            lexiconIdsByUsername.get().forEach((username, lexiconIds) ->
+                    lexiconIds.forEach(lexiconId -> dirtyKeys.add(new WorkKey(username, lexiconId))));
+            dirtyKeysLoaded = true;
+            cleanKeys.clear();
+
+            log.info("Loaded {} user/lexicons with unprocessed review events", dirtyKeys.size());
+        } catch (RuntimeException ex) {
+            log.warn("Failed to load user/lexicons with unprocessed review events, all are treated as dirty until processed", ex);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (processingExecutor != null) {
+            // Let in-progress work finish so that histories and schedules aren't left partially written. Anything
+            // still queued has its events saved and is processed after restart.
+            processingExecutor.shutdown();
+            try {
+                if (!processingExecutor.awaitTermination(SHUTDOWN_WAIT_SEC, TimeUnit.SECONDS)) {
+                    log.warn("Review event processing did not finish before shutdown");
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Called after an event has been saved
+    public void enqueue(String username, String lexiconId) {
+        if (!asyncEnabled) {
+            return;
+        }
+
+        WorkKey key = new WorkKey(username, lexiconId);
+        markDirty(key);
+
+        if (queuedKeys.add(key)) {
+            try {
+                processingExecutor.execute(() -> {
+                    queuedKeys.remove(key);
+                    try {
+                        process(key, true);
+                    } catch (RuntimeException ex) {
+                        log.error("Failed to process review events for user {}, lexicon {}", username, lexiconId, ex);
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                // Still dirty, so the events are processed the next time fresh data is requested
+                queuedKeys.remove(key);
+                log.warn("Review event processing queue is full, unable to queue user {}, lexicon {}", username, lexiconId);
+            }
+        }
+    }
+
+    // Processes the events synchronously if freshness is requested and there may be unprocessed events. Otherwise,
+    // makes sure that any unprocessed events are queued.
+    public void ensureProcessed(String username, String lexiconId, boolean freshnessRequired) {
+        if (!asyncEnabled || (freshnessRequired && !singleInstance)) {
+            processNow(username, lexiconId);
+        } else if (isDirty(username, lexiconId)) {
+            if (freshnessRequired) {
+                process(new WorkKey(username, lexiconId), true);
+            } else {
+                enqueue(username, lexiconId);
+            }
+        }
+    }
+
+    // Same as checking each lexicon individually, except that any lexicons processed synchronously are processed
+    // concurrently, up to the configured limit
+    public void ensureProcessed(String username, List<String> lexiconIds, boolean freshnessRequired) {
+        List<String> lexiconIdsToProcess = (!asyncEnabled || freshnessRequired)
+                ? lexiconIds.stream().filter(lexiconId -> !asyncEnabled || !singleInstance || isDirty(username, lexiconId)).toList()
+                : List.of();
+
+        if (lexiconIdsToProcess.size() <= 1) {
+            lexiconIds.forEach(lexiconId -> ensureProcessed(username, lexiconId, freshnessRequired));
+            return;
+        }
+
+        List<Future<?>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(Math.min(maxParallelLexicons, lexiconIdsToProcess.size()), Thread.ofVirtual().factory())) {
+            for (String lexiconId : lexiconIdsToProcess) {
+                results.add(executor.submit(() -> ensureProcessed(username, lexiconId, freshnessRequired)));
+            }
+        }
+
+        for (Future<?> result : results) {
+            try {
+                result.get();
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException(ex.getCause());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+
+    public void processNow(String username, String lexiconId) {
+        process(new WorkKey(username, lexiconId), false);
+    }
+
+    public boolean isDirty(String username, String lexiconId) {
+        return isDirty(new WorkKey(username, lexiconId));
+    }
+
+    private boolean isDirty(WorkKey key) {
+        return dirtyKeys.contains(key) || (!dirtyKeysLoaded && !cleanKeys.contains(key));
+    }
+
+    private void markDirty(WorkKey key) {
+        dirtyKeys.add(key);
+        cleanKeys.remove(key);
+    }
+
+    // Returns whether the key was dirty
+    private boolean markClean(WorkKey key) {
+        boolean dirty = isDirty(key);
+        dirtyKeys.remove(key);
+        if (!dirtyKeysLoaded) {
+            cleanKeys.add(key);
+        }
+
+        return dirty;
+    }
+
+    private void process(WorkKey key, boolean skipIfClean) {
+        // Serialized per user/lexicon so the same events are never processed twice. If the key was processed while
+        // waiting for the lock, there is nothing left to do.
+        // A lock rather than synchronized so that virtual threads waiting on it don't pin their carrier thread. The locks
+        // are striped so there is a fixed number of them however many user/lexicons are processed; keys sharing a stripe
+        // are just processed one at a time.
+        ReentrantLock keyLock = keyLocks[Math.floorMod(key.hashCode(), keyLocks.length)];
+        keyLock.lock();
+        try {
+            // Marked clean before loading the events, so an event saved while processing makes the key dirty again
+            if (!markClean(key) && skipIfClean) {
+                return;
+            }
+
+            try {
+                reviewEventProcessor.processEvents(key.username(), key.lexiconId());
+            } catch (RuntimeException ex) {
+                markDirty(key);
+                throw ex;
+            }
+        } finally {
+            keyLock.unlock();
+        }
+    }
+
+    private record WorkKey(String username, String lexiconId) { }
+}
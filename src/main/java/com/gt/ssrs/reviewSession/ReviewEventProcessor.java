@@ -27,6 +27,8 @@ public class ReviewEventProcessor {
 
     private final ReviewEventDao reviewEventDao;
     private final ScheduledReviewDao scheduledReviewDao;
+    private final ReviewResultsDao reviewResultsDao;
+    private final DueReviewCache dueReviewCache;
     private final LexiconService lexiconService;
     private final WordService wordService;
     private final WordReviewHistoryService wordReviewHistoryService;
@@ -34,19 +36,26 @@ public class ReviewEventProcessor {
     private final int nearMissCorrectDelaySec;
     private final double standardIncorrectBoost;
     private final double nearMissBoost;
+    private final int maxForecastBuckets;
+    private final ReviewDelayCalculator reviewDelayCalculator;
 
     @Autowired
     public ReviewEventProcessor(ReviewEventDao reviewEventDao,
                                 ScheduledReviewDao scheduledReviewDao,
+                                ReviewResultsDao reviewResultsDao,
+                                DueReviewCache dueReviewCache,
                                 LexiconService lexiconService,
                                 WordService wordService,
                                 WordReviewHistoryService wordReviewHistoryService,
                                 @Value("${ssrs.learning.initialLearningDelaySec}") int initialLearningDelaySec,
                                 @Value("${ssrs.learning.nearMissCorrectLearningDelaySec}") int nearMissCorrectDelaySec,
                                 @Value("${ssrs.learning.standardIncorrectBoost}") double standardIncorrectBoost,
-                                @Value("${ssrs.learning.nearMissBoost}") double nearMissBoost) {
+                                @Value("${ssrs.learning.nearMissBoost}") double nearMissBoost,
+                                @Value("${ssrs.review.forecast.maxBuckets:10000}") int maxForecastBuckets) {
         this.reviewEventDao = reviewEventDao;
         this.scheduledReviewDao = scheduledReviewDao;
+        this.reviewResultsDao = reviewResultsDao;
+        this.dueReviewCache = dueReviewCache;
         this.lexiconService = lexiconService;
         this.wordService = wordService;
         this.wordReviewHistoryService = wordReviewHistoryService;
@@ -55,6 +64,8 @@ public class ReviewEventProcessor {
         this.nearMissCorrectDelaySec = nearMissCorrectDelaySec;
         this.standardIncorrectBoost = standardIncorrectBoost;
         this.nearMissBoost = nearMissBoost;
+        this.maxForecastBuckets = maxForecastBuckets;
+        this.reviewDelayCalculator = new ReviewDelayCalculator(standardIncorrectBoost, nearMissBoost);
     }
 
 
@@ -85,14 +96,69 @@ public class ReviewEventProcessor {
                 }
             });
 
-            if (newWordHistories.size() > 0) {
-                wordReviewHistoryService.updateWordReviewHistoryBatch(username, newWordHistories);
-            }
-            if (newScheduledReviews.size() > 0) {
-                scheduledReviewDao.createScheduledReviewsBatch(newScheduledReviews);
+            reviewResultsDao.saveProcessedResults(username, newWordHistories, newScheduledReviews, allEvents);
+            dueReviewCache.onScheduledReviewsSaved(newScheduledReviews);
+        }
+    }
+
+    public LexiconReviewForecast getLexiconReviewForecast(String lexiconId, String username, Instant forecastStart, Instant cutoff, ReviewForecastInterval interval) {
+        long startMs = forecastStart.toEpochMilli();
+        long cutoffMs = cutoff.toEpochMilli();
+        long intervalMs = interval.getDuration().toMillis();
+
+        long bucketCnt = cutoffMs > startMs ? (cutoffMs - startMs + intervalMs - 1) / intervalMs : 0;
+        if (bucketCnt > maxForecastBuckets) {
+            throw new IllegalArgumentException("Forecast of " + bucketCnt + " intervals exceeds the maximum of " + maxForecastBuckets);
+        }
+        int[] scheduledReviewCnts = new int[(int)bucketCnt];
+        int[] inferredReviewCnts = new int[(int)bucketCnt];
+
+        Map<LearnedStatus, List<String>> wordIdsByLearned = wordReviewHistoryService.getWordIdsForUserByLearned(lexiconId, username);
+        int totalWords = (int)wordIdsByLearned.values().stream().flatMap(wordIdList -> wordIdList.stream()).count();
+        int learnedWords = wordIdsByLearned.getOrDefault(LearnedStatus.Learned, List.of()).size();
+
+        if (bucketCnt > 0) {
+            LexiconMetadata lexiconMetadata = lexiconService.getLexiconMetadata(lexiconId);
+            Language language = Language.getLanguageById(lexiconMetadata.languageId());
+
+            List<ScheduledReview> scheduledReviews = scheduledReviewDao.loadScheduledReviews(username, lexiconId, "", Optional.of(cutoff));
+            Map<String, WordReviewHistory> reviewHistoryByWordId = wordReviewHistoryService.getWordReviewHistory(lexiconId, username,
+                            scheduledReviews.stream().map(review -> review.wordId()).toList())
+                    .stream().collect(Collectors.toMap(history -> history.wordId(), history -> history));
+
+            long nowMs = Instant.now().toEpochMilli();
+            for (ScheduledReview scheduledReview : scheduledReviews) {
+                long reviewMs = Math.max(scheduledReview.scheduledTestTime().toEpochMilli(), nowMs);
+                if (reviewMs >= cutoffMs) {
+                    continue;
+                }
+                scheduledReviewCnts[getForecastBucket(reviewMs, startMs, intervalMs)]++;
+
+                WordReviewHistory reviewHistory = reviewHistoryByWordId.get(scheduledReview.wordId());
+                if (scheduledReview.reviewType() == ReviewType.Review && reviewHistory != null) {
+                    // Same schedule as inferFutureReviewEvents, but counted in place rather than creating an event per review
+                    double boost = reviewHistory.currentBoost();
+                    long boostExpirationDelaySec = reviewHistory.currentBoostExpirationDelay().getSeconds();
+
+                    long delaySec = reviewDelayCalculator.getNextDelaySecAfterSuccessfulTest(language, reviewHistory.currentTestDelay().getSeconds(), boost, boostExpirationDelaySec);
+                    reviewMs += delaySec * 1000;
+
+                    while (delaySec > 0 && reviewMs < cutoffMs) {
+                        inferredReviewCnts[getForecastBucket(reviewMs, startMs, intervalMs)]++;
+
+                        delaySec = reviewDelayCalculator.getNextDelaySecAfterSuccessfulTest(language, delaySec, boost, boostExpirationDelaySec);
+                        reviewMs += delaySec * 1000;
+                    }
+                }
             }
-            markEventsAsProcessed(allEvents);
         }
+
+        return new LexiconReviewForecast(totalWords, learnedWords, forecastStart, interval, scheduledReviewCnts, inferredReviewCnts);
+    }
+
+    private static int getForecastBucket(long reviewMs, long startMs, long intervalMs) {
+        // Anything due before the start of the forecast is counted in the first interval
+        return reviewMs < startMs ? 0 : (int)((reviewMs - startMs) / intervalMs);
     }
 
     public LexiconReviewSummary getLexiconReviewSummary(String lexiconId, String username, Instant futureEventCutoff) {
@@ -130,14 +196,17 @@ public class ReviewEventProcessor {
         List<FutureReviewEvent> futureReviewEvents = new ArrayList<>();
 
         if (scheduledReview.reviewType() == ReviewType.Review) {
-            Duration nextReviewDelay = calculateNextDelayAfterSuccessfulTest(language, reviewHistory.currentTestDelay(), reviewHistory.currentBoost(), reviewHistory.currentBoostExpirationDelay());
-            Instant nextReviewTime = reviewTime.plus(nextReviewDelay);
+            double boost = reviewHistory.currentBoost();
+            long boostExpirationDelaySec = reviewHistory.currentBoostExpirationDelay().getSeconds();
+
+            long nextReviewDelaySec = reviewDelayCalculator.getNextDelaySecAfterSuccessfulTest(language, reviewHistory.currentTestDelay().getSeconds(), boost, boostExpirationDelaySec);
+            Instant nextReviewTime = reviewTime.plusSeconds(nextReviewDelaySec);
 
-            while (nextReviewTime.isBefore(cutoff)) {
+            while (nextReviewDelaySec > 0 && nextReviewTime.isBefore(cutoff)) {
                 futureReviewEvents.add(new FutureReviewEvent(lexiconId, reviewHistory.wordId(), nextReviewTime, true));
 
-                nextReviewDelay = calculateNextDelayAfterSuccessfulTest(language, nextReviewDelay, reviewHistory.currentBoost(), reviewHistory.currentBoostExpirationDelay());
-                nextReviewTime = nextReviewTime.plus(nextReviewDelay);
+                nextReviewDelaySec = reviewDelayCalculator.getNextDelaySecAfterSuccessfulTest(language, nextReviewDelaySec, boost, boostExpirationDelaySec);
+                nextReviewTime = nextReviewTime.plusSeconds(nextReviewDelaySec);
             }
         }
 
@@ -291,37 +360,12 @@ public class ReviewEventProcessor {
         return new ProcessedHistoryAndNextReview(newLexiconReviewHistory, newScheduledReview);
     }
 
-    private List<String> markEventsAsProcessed(List<ReviewEvent> reviewEvents) {
-        return reviewEventDao.markEventsAsProcessed(reviewEvents);
-    }
-
+    // Delays are whole seconds
     private Duration calculateNextDelayAfterSuccessfulTest(Language language, WordReviewHistory lexiconReviewHistory) {
-        return calculateNextDelayAfterSuccessfulTest(language, lexiconReviewHistory.currentTestDelay(), lexiconReviewHistory.currentBoost(), lexiconReviewHistory.currentBoostExpirationDelay());
-    }
-
-    private Duration calculateNextDelayAfterSuccessfulTest(Language language, Duration currentTestDelay, double currentBoost, Duration currentBoostExpirationDelay) {
-        double testsToDoubleDelay = language.getTestsToDouble() <= 0 ? 1 : language.getTestsToDouble();  // guard against 0 since it would cause a divide-by-zero error
-        Duration standardDelay = calculateNextDelayWithBoost(currentTestDelay, 1, testsToDoubleDelay);
-
-        double boost = currentBoost > 1 ? currentBoost : 1;
-        if (boost > 1) {
-            Duration boostedDelay = calculateNextDelayWithBoost(currentTestDelay, boost, testsToDoubleDelay);
-
-            // If boosted but expired, return either the standard delay or the expiration delay, whichever is greater
-            if (boostedDelay.compareTo(currentBoostExpirationDelay) > 0) {
-                if (standardDelay.compareTo(currentBoostExpirationDelay) < 0) {
-                    return currentBoostExpirationDelay;
-                }
-            } else {
-                return boostedDelay;
-            }
-        }
-
-        return standardDelay;
-    }
-
-    private Duration calculateNextDelayWithBoost(Duration currentTestDelay, double boost, double testsToDoubleDelay) {
-        return Duration.ofSeconds((long)(currentTestDelay.getSeconds() * Math.pow(2, boost / testsToDoubleDelay)));
+        return Duration.ofSeconds(reviewDelayCalculator.getNextDelaySecAfterSuccessfulTest(language,
+                lexiconReviewHistory.currentTestDelay().getSeconds(),
+                lexiconReviewHistory.currentBoost(),
+                lexiconReviewHistory.currentBoostExpirationDelay().getSeconds()));
     }
 
     private ScheduledReview buildScheduledReview(Language language, String lexiconId, String username, Word word, ReviewEvent reviewEvent, Duration newTestDelay, WordReviewHistory history) {
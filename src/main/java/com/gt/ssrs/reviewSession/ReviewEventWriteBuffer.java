@@ -0,0 +1,253 @@
+package com.gt.ssrs.reviewSession;
+
+import com.gt.ssrs.model.ReviewEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+
+// Group commits review events saved one at a time. When enabled, saved events are held for up to the configured window
+// (or until the batch is full) and then written for all users with one batched insert, along with one update marking
+// their scheduled reviews complete, in one transaction on Postgres. The caller is blocked until its batch has been
+// written, so a successful return still means the event is stored. If a batch fails, its events are written one at a
+// time so that only the callers whose events can't be written get the error. On shutdown, new events are written
+// directly and anything queued is flushed.
+@Component
+public class ReviewEventWriteBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewEventWriteBuffer.class);
+
+    private static final long IDLE_POLL_MS = 100;
+    private static final long SHUTDOWN_WAIT_MS = 30000;
+
+    private final ReviewEventDao reviewEventDao;
+    private final ScheduledReviewDao scheduledReviewDao;
+    private final ReviewResultsDao reviewResultsDao;
+    private final DueReviewCache dueReviewCache;
+    private final long windowNanos;
+    private final int maxBatchSize;
+
+    private final BlockingQueue<PendingEvent> pendingEvents;
+    private final Thread flushThread;
+    private final Object acceptLock = new Object();
+    private volatile boolean accepting;
+
+    private final AtomicLong flushCnt = new AtomicLong();
+    private final AtomicLong flushedEventCnt = new AtomicLong();
+    private final AtomicLong totalFlushNanos = new AtomicLong();
+    private final LongAccumulator maxFlushNanos = new LongAccumulator(Long::max, 0);
+    private final LongAccumulator maxFlushedBatchSize = new LongAccumulator(Long::max, 0);
+
+    @Autowired
+    public ReviewEventWriteBuffer(ReviewEventDao reviewEventDao,
+                                  ScheduledReviewDao scheduledReviewDao,
+                                  ReviewResultsDao reviewResultsDao,
+                                  DueReviewCache dueReviewCache,
+                                  @Value("${ssrs.review.writeBuffer.enabled:false}") boolean bufferEnabled,
+                                  @Value("${ssrs.review.writeBuffer.windowMs:10}") long windowMs,
+                                  @Value("${ssrs.review.writeBuffer.maxBatchSize:500}") int maxBatchSize,
+                                  @Value("${ssrs.review.writeBuffer.capacity:10000}") int capacity) {
+        this.reviewEventDao = reviewEventDao;
+        this.scheduledReviewDao = scheduledReviewDao;
+        this.reviewResultsDao = reviewResultsDao;
+        this.dueReviewCache = dueReviewCache;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.maxBatchSize = maxBatchSize;
+
+        if (bufferEnabled) {
+            this.pendingEvents = new ArrayBlockingQueue<>(capacity);
+            this.accepting = true;
+            this.flushThread = Thread.ofPlatform().name("review-event-write-buffer").daemon().start(this::runFlushLoop);
+        } else {
+            this.pendingEvents = null;
+            this.accepting = false;
+            this.flushThread = null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (flushThread == null) {
+            return;
+        }
+
+        synchronized (acceptLock) {
+            accepting = false;
+        }
+
+        try {
+            flushThread.join(SHUTDOWN_WAIT_MS);
+            if (flushThread.isAlive()) {
+                log.warn("Review event write buffer did not finish flushing before shutdown, {} events still queued", pendingEvents.size());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        ReviewEventWriteBufferStats stats = getStats();
+        log.info("Review event write buffer flushed {} events in {} batches, average batch size {}, average flush {} ms",
+                stats.flushedEventCnt(), stats.flushCnt(), String.format("%.1f", stats.averageBatchSize()), String.format("%.2f", stats.averageFlushMillis()));
+    }
+
+    // Returns once the event and the completion of its scheduled review have been written
+    public boolean saveReviewEvent(ReviewEvent event) {
+        PendingEvent pendingEvent = new PendingEvent(event, new CompletableFuture<>());
+
+        boolean queued;
+        synchronized (acceptLock) {
+            queued = accepting && pendingEvents.offer(pendingEvent);
+        }
+
+        if (!queued) {
+            return writeDirectly(event);
+        }
+
+        try {
+            return pendingEvent.saved().join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw ex;
+        }
+    }
+
+    public ReviewEventWriteBufferStats getStats() {
+        return new ReviewEventWriteBufferStats(
+                pendingEvents == null ? 0 : pendingEvents.size(),
+                flushCnt.get(),
+                flushedEventCnt.get(),
+                (int) maxFlushedBatchSize.get(),
+                totalFlushNanos.get(),
+                maxFlushNanos.get());
+    }
+
+    private boolean writeDirectly(ReviewEvent event) {
+        boolean saved = reviewEventDao.saveReviewEvent(event);
+        if (StringUtils.hasLength(event.scheduledReviewId())) {
+            scheduledReviewDao.markScheduledReviewComplete(event.scheduledReviewId());
+        }
+        dueReviewCache.onReviewEventsSaved(List.of(event));
+
+        return saved;
+    }
+
+    private void runFlushLoop() {
+        while (accepting || !pendingEvents.isEmpty()) {
+            try {
+                List<PendingEvent> batch = collectBatch();
+                if (!batch.isEmpty()) {
+                    flush(batch);
+                }
+            } catch (InterruptedException ex) {
+                log.warn("Review event write buffer interrupted, {} events still queued", pendingEvents.size());
+                synchronized (acceptLock) {
+                    accepting = false;
+                }
+                failPending(ex);
+                return;
+            }
+        }
+    }
+
+    private List<PendingEvent> collectBatch() throws InterruptedException {
+        List<PendingEvent> batch = new ArrayList<>();
+
+        PendingEvent firstEvent = pendingEvents.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+        if (firstEvent == null) {
+            return batch;
+        }
+        batch.add(firstEvent);
+
+        // The window starts with the first event, so no event waits longer than the window before it is written
+        long deadline = System.nanoTime() + windowNanos;
+        while (batch.size() < maxBatchSize) {
+            long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0) {
+                break;
+            }
+
+            try {
+                PendingEvent nextEvent = pendingEvents.poll(remainingNanos, TimeUnit.NANOSECONDS);
+                if (nextEvent == null) {
+                    break;
+                }
+                batch.add(nextEvent);
+            } catch (InterruptedException ex) {
+                // Events already taken from the queue are still written, the interrupt is handled on the next poll
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        return batch;
+    }
+
+    private void flush(List<PendingEvent> batch) {
+        long startNanos = System.nanoTime();
+
+        try {
+            List<ReviewEvent> events = batch.stream().map(PendingEvent::event).toList();
+            boolean allSaved = saveEvents(events) == events.size();
+            dueReviewCache.onReviewEventsSaved(events);
+
+            batch.forEach(pendingEvent -> pendingEvent.saved().complete(allSaved));
+        } catch (RuntimeException ex) {
+            if (batch.size() == 1) {
+                log.error("Failed to write review event", ex);
+                batch.get(0).saved().completeExceptionally(ex);
+            } else {
+                log.warn("Failed to write batch of {} review events, writing them individually", batch.size(), ex);
+                batch.forEach(this::flushIndividually);
+            }
+        }
+
+        long flushNanos = System.nanoTime() - startNanos;
+        flushCnt.incrementAndGet();
+        flushedEventCnt.addAndGet(batch.size());
+        totalFlushNanos.addAndGet(flushNanos);
+        maxFlushNanos.accumulate(flushNanos);
+        maxFlushedBatchSize.accumulate(batch.size());
+
+        log.debug("Wrote batch of {} review events in {} ms, {} events queued", batch.size(), flushNanos / 1_000_000, pendingEvents.size());
+    }
+
+    private void flushIndividually(PendingEvent pendingEvent) {
+        try {
+            boolean saved = saveEvents(List.of(pendingEvent.event())) == 1;
+            dueReviewCache.onReviewEventsSaved(List.of(pendingEvent.event()));
+
+            pendingEvent.saved().complete(saved);
+        } catch (RuntimeException ex) {
+            log.error("Failed to write review event for user {}, lexicon {}", pendingEvent.event().username(), pendingEvent.event().lexiconId(), ex);
+            pendingEvent.saved().completeExceptionally(ex);
+        }
+    }
+
+    private int saveEvents(List<ReviewEvent> events) {
+        List<String> completedScheduledReviewIds = events.stream()
+                .map(ReviewEvent::scheduledReviewId)
+                .filter(StringUtils::hasLength)
+                .distinct()
+                .toList();
+
+        return reviewResultsDao.saveReviewEvents(events, completedScheduledReviewIds);
+    }
+
+    private void failPending(Exception ex) {
+        List<PendingEvent> remaining = new ArrayList<>();
+        pendingEvents.drainTo(remaining);
+        remaining.forEach(pendingEvent -> pendingEvent.saved().completeExceptionally(ex));
+    }
+
+    private record PendingEvent(ReviewEvent event, CompletableFuture<Boolean> saved) { }
+}
@@ -0,0 +1,12 @@
+package com.gt.ssrs.reviewSession;
+
+public record ReviewEventWriteBufferStats(int queueDepth, long flushCnt, long flushedEventCnt, int maxBatchSize, long totalFlushNanos, long maxFlushNanos) {
+
+    public double averageBatchSize() {
+        return flushCnt == 0 ? 0 : (double) flushedEventCnt / flushCnt;
+    }
+
+    public double averageFlushMillis() {
+        return flushCnt == 0 ? 0 : totalFlushNanos / 1_000_000.0 / flushCnt;
+    }
+}
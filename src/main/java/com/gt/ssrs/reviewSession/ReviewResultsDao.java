@@ -0,0 +1,19 @@
+package com.gt.ssrs.reviewSession;
+
+import com.gt.ssrs.model.ReviewEvent;
+import com.gt.ssrs.model.ScheduledReview;
+import com.gt.ssrs.model.WordReviewHistory;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ReviewResultsDao {
+
+    // Saves the results of processing review events and marks the events as processed. The events are marked last, so
+    // if anything fails they are processed again.
+    void saveProcessedResults(String username, List<WordReviewHistory> wordReviewHistories, List<ScheduledReview> scheduledReviews, List<ReviewEvent> processedEvents);
+
+    // Saves new review events and marks the scheduled reviews they complete, in one transaction where the database
+    // supports it. Returns the number of events saved.
+    int saveReviewEvents(List<ReviewEvent> events, Collection<String> completedScheduledReviewIds);
+}
@@ -6,6 +6,7 @@ import com.gt.ssrs.reviewSession.model.ClientReviewEvent;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Duration;
@@ -18,16 +19,24 @@ public class ReviewSessionController {
 
     private static final Logger log = LoggerFactory.getLogger(ReviewSessionController.class);
 
+    private static final int DEFAULT_MAX_BATCH_EVENTS = 2000;
+
     private final ReviewSessionService reviewSessionService;
     private final ReviewEventProcessor reviewEventProcessor;
+    private final ReviewEventProcessingQueue reviewEventProcessingQueue;
     private final ScheduledReviewService scheduledReviewService;
+    private final int maxBatchEvents;
 
     public ReviewSessionController(ReviewSessionService reviewSessionService,
                                    ReviewEventProcessor reviewEventProcessor,
-                                   ScheduledReviewService scheduledReviewService) {
+                                   ReviewEventProcessingQueue reviewEventProcessingQueue,
+                                   ScheduledReviewService scheduledReviewService,
+                                   @Value("${ssrs.review.maxBatchEvents:" + DEFAULT_MAX_BATCH_EVENTS + "}") int maxBatchEvents) {
         this.reviewSessionService = reviewSessionService;
         this.reviewEventProcessor = reviewEventProcessor;
+        this.reviewEventProcessingQueue = reviewEventProcessingQueue;
         this.scheduledReviewService = scheduledReviewService;
+        this.maxBatchEvents = maxBatchEvents;
     }
 
     @PostMapping("saveEvent")
@@ -36,11 +45,24 @@ public class ReviewSessionController {
         this.reviewSessionService.saveReviewEvent(event, username, Instant.now());
     }
 
+    @PostMapping("saveEvents")
+    public void saveReviewEvents(@RequestBody List<ClientReviewEvent> events,
+                                 @AuthenticatedUser String username,
+                                 HttpServletResponse response) {
+        if (events == null || events.size() > maxBatchEvents) {
+            log.warn("Rejected batch of {} review events from {}, the maximum is {}", events == null ? 0 : events.size(), username, maxBatchEvents);
+            response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+
+        this.reviewSessionService.saveReviewEvents(events, username, Instant.now());
+    }
+
     @PostMapping("processManualEvent")
     public void processManualEvent(@RequestBody ClientReviewEvent event,
                                    @AuthenticatedUser String username) {
         this.reviewSessionService.recordManualEvent(event, username);
-        reviewEventProcessor.processEvents(username, event.lexiconId());
+        reviewEventProcessingQueue.processNow(username, event.lexiconId());
     }
 
     @PostMapping("generateLearningSession")
@@ -74,10 +96,24 @@ public class ReviewSessionController {
     @GetMapping(value = "/lexiconReviewSummary", produces = "application/json")
     public LexiconReviewSummary getLexiconReviewSummary(@RequestParam(value = "lexiconId") String lexiconId,
                                                         @RequestParam(value = "futureEventCutoff") Instant futureEventCutoff,
+                                                        @RequestParam(value = "fresh", defaultValue = "false") boolean fresh,
                                                         @AuthenticatedUser String username) {
+        reviewEventProcessingQueue.ensureProcessed(username, lexiconId, fresh);
         return reviewEventProcessor.getLexiconReviewSummary(lexiconId, username, futureEventCutoff);
     }
 
+    @GetMapping(value = "/lexiconReviewForecast", produces = "application/json")
+    public LexiconReviewForecast getLexiconReviewForecast(@RequestParam(value = "lexiconId") String lexiconId,
+                                                          @RequestParam(value = "futureEventCutoff") Instant futureEventCutoff,
+                                                          @RequestParam(value = "forecastStart", required = false) Instant forecastStart,
+                                                          @RequestParam(value = "interval", defaultValue = "Day") ReviewForecastInterval interval,
+                                                          @RequestParam(value = "fresh", defaultValue = "false") boolean fresh,
+                                                          @AuthenticatedUser String username) {
+        reviewEventProcessingQueue.ensureProcessed(username, lexiconId, fresh);
+        return reviewEventProcessor.getLexiconReviewForecast(lexiconId, username,
+                forecastStart == null ? Instant.now() : forecastStart, futureEventCutoff, interval);
+    }
+
     @PostMapping(value = "/scheduledReviewForWords", produces = "application/json")
     public List<ScheduledReview> getScheduledReviewForWords(@RequestBody GetScheduledReviewForWordsRequest request,
                                                             @AuthenticatedUser String username) {
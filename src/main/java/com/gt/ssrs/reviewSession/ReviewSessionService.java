@@ -17,6 +17,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -29,35 +30,78 @@ public class ReviewSessionService {
     private static final int MAX_FALLBACK_ATTEMPTS = 3;
 
     private final ReviewEventDao reviewEventDao;
-    private final ScheduledReviewDao scheduledReviewDao;
+    private final ReviewResultsDao reviewResultsDao;
     private final LexiconService lexiconService;
     private final WordService wordService;
     private final ScheduledReviewService scheduledReviewService;
     private final WordReviewHelper wordReviewHelper;
+    private final ReviewEventProcessingQueue reviewEventProcessingQueue;
+    private final ReviewEventWriteBuffer reviewEventWriteBuffer;
+    private final DueReviewCache dueReviewCache;
 
 
     @Autowired
     public ReviewSessionService(ReviewEventDao reviewEventDao,
-                                ScheduledReviewDao scheduledReviewDao,
+                                ReviewResultsDao reviewResultsDao,
                                 LexiconService lexiconService,
                                 WordService wordService,
                                 ScheduledReviewService scheduledReviewService,
-                                WordReviewHelper wordReviewHelper) {
+                                WordReviewHelper wordReviewHelper,
+                                ReviewEventProcessingQueue reviewEventProcessingQueue,
+                                ReviewEventWriteBuffer reviewEventWriteBuffer,
+                                DueReviewCache dueReviewCache) {
         this.reviewEventDao = reviewEventDao;
-        this.scheduledReviewDao = scheduledReviewDao;
+        this.reviewResultsDao = reviewResultsDao;
         this.lexiconService = lexiconService;
         this.wordService = wordService;
         this.scheduledReviewService = scheduledReviewService;
         this.wordReviewHelper = wordReviewHelper;
+        this.reviewEventProcessingQueue = reviewEventProcessingQueue;
+        this.reviewEventWriteBuffer = reviewEventWriteBuffer;
+        this.dueReviewCache = dueReviewCache;
     }
 
     public void saveReviewEvent(ClientReviewEvent event, String username, Instant eventInstant) {
         ReviewEvent reviewEvent = ReviewEvent.fromClientReviewEvent(event, username, eventInstant);
 
-        reviewEventDao.saveReviewEvent(reviewEvent);
-        if (StringUtils.hasLength(reviewEvent.scheduledReviewId())) {
-            scheduledReviewDao.markScheduledReviewComplete(reviewEvent.scheduledReviewId());
+        reviewEventWriteBuffer.saveReviewEvent(reviewEvent);
+        reviewEventProcessingQueue.enqueue(username, reviewEvent.lexiconId());
+    }
+
+    public void saveReviewEvents(List<ClientReviewEvent> events, String username, Instant receivedInstant) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        // A batch can be a session answered offline, so events keep the time the client answered them, unless it's
+        // missing or later than the batch was received. Events for the same word are processed in the order of their
+        // instants, so each event is also moved after the one before it to keep the order the client sent them in.
+        List<ReviewEvent> reviewEvents = new ArrayList<>(events.size());
+        Instant previousInstant = null;
+        for (ClientReviewEvent event : events) {
+            Instant eventInstant = event.eventInstant() != null && !event.eventInstant().isAfter(receivedInstant)
+                    ? event.eventInstant()
+                    : receivedInstant;
+            if (previousInstant != null && !eventInstant.isAfter(previousInstant)) {
+                eventInstant = previousInstant.plus(1, ChronoUnit.MICROS);
+            }
+
+            reviewEvents.add(ReviewEvent.fromClientReviewEvent(event, username, eventInstant));
+            previousInstant = eventInstant;
         }
+
+        List<String> completedScheduledReviewIds = reviewEvents.stream()
+                .map(ReviewEvent::scheduledReviewId)
+                .filter(StringUtils::hasLength)
+                .distinct()
+                .toList();
+        reviewResultsDao.saveReviewEvents(reviewEvents, completedScheduledReviewIds);
+        dueReviewCache.onReviewEventsSaved(reviewEvents);
+
+        reviewEvents.stream()
+                .map(ReviewEvent::lexiconId)
+                .distinct()
+                .forEach(lexiconId -> reviewEventProcessingQueue.enqueue(username, lexiconId));
     }
 
     public void recordManualEvent(ClientReviewEvent event, String username) {
@@ -83,7 +127,9 @@ public class ReviewSessionService {
                 event.isCorrect(),
                 event.isNearMiss(),
                 0,
-                false);
+                false,
+                event.clientEventId(),
+                null);
 
         saveReviewEvent(reviewEventToSave, username, Instant.now());
     }
@@ -188,16 +234,13 @@ public class ReviewSessionService {
             maxWordCnt = MAX_REVIEW_SIZE;
         }
 
-        List<ScheduledReview> scheduledReviewWords = scheduledReviewService.getCurrentScheduledReviewForLexicon(lexiconId, username, reviewRelationShip, cutoffInstant);
+        // Only the reviews that fit in the session are loaded, earliest first
+        List<ScheduledReview> scheduledReviewWords = scheduledReviewService.getCurrentScheduledReviewForLexicon(lexiconId, username, reviewRelationShip, cutoffInstant, maxWordCnt);
 
         if (scheduledReviewWords == null || scheduledReviewWords.size() == 0) {
             return List.of();
         }
 
-        if (scheduledReviewWords.size() > maxWordCnt) {
-            scheduledReviewWords = scheduledReviewWords.subList(0, maxWordCnt);
-        }
-
         return toWordReview(language, lexiconId, scheduledReviewWords);
     }
 
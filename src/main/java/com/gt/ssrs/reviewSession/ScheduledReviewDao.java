@@ -6,6 +6,7 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface ScheduledReviewDao {
@@ -14,8 +15,18 @@ public interface ScheduledReviewDao {
 
     int markScheduledReviewComplete(String scheduledReviewId);
 
+    int markScheduledReviewsComplete(Collection<String> scheduledReviewIds);
+
     List<ScheduledReview> loadScheduledReviews(String username, String lexiconId, String testRelationshipId, Optional<Instant> cutoffInstant);
 
+    // Up to the limit of the incomplete reviews scheduled before the cutoff, earliest first. If the cutoff is in the
+    // future, reviews scheduled after now are only included if they can be done early.
+    List<ScheduledReview> loadDueScheduledReviews(String username, String lexiconId, String testRelationshipId, Optional<Instant> cutoffInstant, double futureEventAllowedRatio, int limit);
+
+    // Counts of incomplete reviews scheduled before the cutoff, keyed by lexicon ID and then test relationship ID. If the
+    // cutoff is in the future, reviews scheduled after now are only counted if they can be done early.
+    Map<String, Map<String, Integer>> countScheduledReviews(String username, Collection<String> lexiconIds, Optional<Instant> cutoffInstant, double futureEventAllowedRatio);
+
     List<ScheduledReview> loadScheduledReviewsForWords(String username, String lexiconId, Collection<String> wordIds);
 
     void deleteUserScheduledReviewForWords(String lexiconId, Collection<String> wordIds, String username);
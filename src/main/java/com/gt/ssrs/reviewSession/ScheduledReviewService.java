@@ -22,14 +22,17 @@ public class ScheduledReviewService {
 
     private final LexiconService lexiconService;
     private final ScheduledReviewDao scheduledReviewDao;
+    private final DueReviewCache dueReviewCache;
     private final double futureEventAllowedRatio;
 
     @Autowired
     public ScheduledReviewService(LexiconService lexiconService,
                                   ScheduledReviewDao scheduledReviewDao,
+                                  DueReviewCache dueReviewCache,
                                   @Value("${ssrs.review.futureEventAllowedRatio}") double futureEventAllowedRatio) {
         this.lexiconService = lexiconService;
         this.scheduledReviewDao = scheduledReviewDao;
+        this.dueReviewCache = dueReviewCache;
 
         this.futureEventAllowedRatio = futureEventAllowedRatio;
     }
@@ -92,6 +95,7 @@ public class ScheduledReviewService {
         }
 
         scheduledReviewDao.createScheduledReviewsBatch(reviewsToSave);
+        dueReviewCache.onScheduledReviewsSaved(reviewsToSave);
 
         return reviewsToSave.size();
     }
@@ -110,6 +114,10 @@ public class ScheduledReviewService {
     }
 
     public Map<String, Integer> getScheduledReviewCounts(String username, String lexiconId, Optional<Instant> cutoffInstant) {
+        if (dueReviewCache.isEnabled()) {
+            return dueReviewCache.countDueScheduledReviews(username, lexiconId, cutoffInstant, futureEventAllowedRatio);
+        }
+
         Map<String, Integer> scheduledReviewCounts = new HashMap<>();
 
         for (ScheduledReview scheduledReview : getCurrentScheduledReviewForLexicon(lexiconId, username,Optional.empty(), cutoffInstant)) {
@@ -119,6 +127,39 @@ public class ScheduledReviewService {
         return scheduledReviewCounts;
     }
 
+    // Scheduled review counts by test relationship for each of the lexicons, keyed by lexicon ID. Lexicons without any
+    // scheduled reviews are not included.
+    public Map<String, Map<String, Integer>> getScheduledReviewCounts(String username, Collection<String> lexiconIds, Optional<Instant> cutoffInstant) {
+        if (lexiconIds.isEmpty()) {
+            return Map.of();
+        }
+
+        if (!dueReviewCache.isEnabled()) {
+            return scheduledReviewDao.countScheduledReviews(username, lexiconIds, cutoffInstant, futureEventAllowedRatio);
+        }
+
+        // Lexicons already in the cache are counted from it, the rest are still counted with one query rather than
+        // loading every lexicon the user has
+        Map<String, Map<String, Integer>> scheduledReviewCounts = new HashMap<>();
+        List<String> uncachedLexiconIds = new ArrayList<>();
+        for (String lexiconId : lexiconIds) {
+            if (dueReviewCache.isLoaded(username, lexiconId)) {
+                Map<String, Integer> lexiconCounts = dueReviewCache.countDueScheduledReviews(username, lexiconId, cutoffInstant, futureEventAllowedRatio);
+                if (!lexiconCounts.isEmpty()) {
+                    scheduledReviewCounts.put(lexiconId, lexiconCounts);
+                }
+            } else {
+                uncachedLexiconIds.add(lexiconId);
+            }
+        }
+
+        if (!uncachedLexiconIds.isEmpty()) {
+            scheduledReviewCounts.putAll(scheduledReviewDao.countScheduledReviews(username, uncachedLexiconIds, cutoffInstant, futureEventAllowedRatio));
+        }
+
+        return scheduledReviewCounts;
+    }
+
     public List<ScheduledReview> getScheduledReviewForWords(String username, String lexiconId, List<String> wordIds) {
         return scheduledReviewDao.loadScheduledReviewsForWords(username, lexiconId, wordIds);
     }
@@ -127,22 +168,27 @@ public class ScheduledReviewService {
         verifyUserAccessAllowed(lexiconId, username);
 
         scheduledReviewDao.adjustNextReviewTimes(lexiconId, username, adjustment);
+        dueReviewCache.invalidate(username, lexiconId);
     }
 
     public void deleteUserScheduledReviewForWords(String lexiconId, Collection<String> wordIds, String username) {
         scheduledReviewDao.deleteUserScheduledReviewForWords(lexiconId, wordIds, username);
+        dueReviewCache.invalidate(username, lexiconId);
     }
 
     public void deleteScheduledReviewsForWords(String lexiconId, Collection<String> wordIds) {
         scheduledReviewDao.deleteScheduledReviewsForWords(lexiconId, wordIds);
+        dueReviewCache.invalidateLexicon(lexiconId);
     }
 
     public void deleteAllLexiconReviewEventsForUser(String lexiconId, String username) {
         scheduledReviewDao.deleteAllLexiconReviewEventsForUser(lexiconId, username);
+        dueReviewCache.invalidate(username, lexiconId);
     }
 
     public void deleteAllLexiconReviewEvents(String lexiconId) {
         scheduledReviewDao.deleteAllLexiconReviewEvents(lexiconId);
+        dueReviewCache.invalidateLexicon(lexiconId);
     }
 
     private String getIdToUse(ScheduledReview newScheduledReview, List<ScheduledReview> existingScheduledReviews) {
@@ -170,6 +216,10 @@ public class ScheduledReviewService {
     }
 
     public List<ScheduledReview> getCurrentScheduledReviewForLexicon(String lexiconId, String username, Optional<String> reviewRelationship, Optional<Instant> cutoffInstant) {
+        if (dueReviewCache.isEnabled()) {
+            return dueReviewCache.loadDueScheduledReviews(username, lexiconId, reviewRelationship.orElse(""), cutoffInstant, futureEventAllowedRatio, Integer.MAX_VALUE);
+        }
+
         Instant now = Instant.now();
 
         List<ScheduledReview> scheduledReviews = scheduledReviewDao.loadScheduledReviews(username, lexiconId, reviewRelationship.orElse(""), cutoffInstant);
@@ -182,8 +232,17 @@ public class ScheduledReviewService {
         return scheduledReviews;
     }
 
+    // Same as above, but only the earliest reviews up to the limit are loaded
+    public List<ScheduledReview> getCurrentScheduledReviewForLexicon(String lexiconId, String username, Optional<String> reviewRelationship, Optional<Instant> cutoffInstant, int limit) {
+        if (dueReviewCache.isEnabled()) {
+            return dueReviewCache.loadDueScheduledReviews(username, lexiconId, reviewRelationship.orElse(""), cutoffInstant, futureEventAllowedRatio, limit);
+        }
+
+        return scheduledReviewDao.loadDueScheduledReviews(username, lexiconId, reviewRelationship.orElse(""), cutoffInstant, futureEventAllowedRatio, limit);
+    }
+
     private boolean isFutureEventAllowed(ScheduledReview dbScheduledReview, Instant now) {
-        return (dbScheduledReview.scheduledTestTime().toEpochMilli() - now.toEpochMilli()) < (dbScheduledReview.testDelay().toMillis() * (1 - futureEventAllowedRatio));
+        return dbScheduledReview.isEarlyReviewAllowed(now, futureEventAllowedRatio);
     }
 
     private void verifyUserAccessAllowed(String lexiconId, String username) {
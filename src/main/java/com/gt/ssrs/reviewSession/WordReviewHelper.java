@@ -1,23 +1,31 @@
 package com.gt.ssrs.reviewSession;
 
 import com.gt.ssrs.fuzzy.DatasetFuzzyMatcher;
+import com.gt.ssrs.fuzzy.FuzzyMatcherCache;
 import com.gt.ssrs.language.Language;
 import com.gt.ssrs.language.TestRelationship;
 import com.gt.ssrs.language.WordElement;
 import com.gt.ssrs.lexicon.LexiconService;
 import com.gt.ssrs.word.WordService;
+import com.gt.ssrs.word.WordSimilarValuesService;
 import com.gt.ssrs.word.model.TestOnWordPair;
 import com.gt.ssrs.model.ReviewMode;
 import com.gt.ssrs.model.Word;
 import com.gt.ssrs.model.WordReviewHistory;
 import com.gt.ssrs.reviewHistory.WordReviewHistoryService;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 @Component
@@ -25,40 +33,66 @@ public class WordReviewHelper {
 
     private static final Logger log = LoggerFactory.getLogger(WordReviewHelper.class);
 
-    static final int MAX_VALUES_FOR_FUZZY_MATCHING = 10000;
-    static final int MAX_DISTANCE = 6;
-    static final int SIMILAR_WORD_CNT = 20;
+    static final int MAX_VALUES_FOR_FUZZY_MATCHING = WordSimilarValuesService.MAX_VALUES_FOR_FUZZY_MATCHING;
+    static final int MAX_DISTANCE = WordSimilarValuesService.MAX_DISTANCE;
+    static final int SIMILAR_WORD_CNT = WordSimilarValuesService.SIMILAR_VALUE_CNT;
     private static final int DEFAULT_MIN_TYPING_TEST_CHARACTERS = 10;
     private static final int DEFAULT_MIN_TYPING_TEST_ADDL_CHARACTERS = 6;
     private static final int DEFAULT_MAX_TYPING_TEST_ADDL_CHARACTERS = 8;
+    private static final int DEFAULT_FUZZY_PARALLEL_THRESHOLD = 8;
+    private static final int DEFAULT_FUZZY_PARALLELISM = 0;     // 0 uses the number of available processors
+    // Shorter values share too few trigrams with their neighbours for the database's trigram candidates to hold the
+    // nearest values by edit distance
+    static final int MIN_DATABASE_SEARCH_LENGTH = 3;
 
     private final WordReviewHistoryService wordReviewHistoryService;
     private final LexiconService lexiconService;
     private final WordService wordService;
+    private final FuzzyMatcherCache fuzzyMatcherCache;
+    private final WordSimilarValuesService wordSimilarValuesService;
     private final int testBaseTimeSec;
     private final int testAdditionalTimePerChar;
     private final int minTypingTestChars;
     private final int minTypingTestAddlChars;
     private final int maxTypingTestAddlChars;
+    private final int fuzzyParallelThreshold;
+    private final ForkJoinPool fuzzyMatchingPool;
 
     @Autowired
     public WordReviewHelper(WordReviewHistoryService wordReviewHistoryService,
                             WordService wordService,
                             LexiconService lexiconService,
+                            FuzzyMatcherCache fuzzyMatcherCache,
+                            WordSimilarValuesService wordSimilarValuesService,
                             @Value("${ssrs.review.testBaseTimeSec}") int testBaseTimeSec,
                             @Value("${ssrs.review.testAdditionalTimePerChar}") int testAdditionalTimePerChar,
                             @Value("${ssrs.review.minTypingTestChars:" + DEFAULT_MIN_TYPING_TEST_CHARACTERS + "}") int minTypingTestChars,
                             @Value("${ssrs.review.minTypingTestAddlChars:" + DEFAULT_MIN_TYPING_TEST_ADDL_CHARACTERS + "}") int minTypingTestAddlChars,
-                            @Value("${ssrs.review.maxTypingTestAddlChars:" + DEFAULT_MAX_TYPING_TEST_ADDL_CHARACTERS + "}") int maxTypingTestAddlChars) {
+                            @Value("${ssrs.review.maxTypingTestAddlChars:" + DEFAULT_MAX_TYPING_TEST_ADDL_CHARACTERS + "}") int maxTypingTestAddlChars,
+                            @Value("${ssrs.fuzzy.parallelThreshold:" + DEFAULT_FUZZY_PARALLEL_THRESHOLD + "}") int fuzzyParallelThreshold,
+                            @Value("${ssrs.fuzzy.parallelism:" + DEFAULT_FUZZY_PARALLELISM + "}") int fuzzyParallelism) {
         this.wordReviewHistoryService = wordReviewHistoryService;
         this.lexiconService = lexiconService;
         this.wordService = wordService;
+        this.fuzzyMatcherCache = fuzzyMatcherCache;
+        this.wordSimilarValuesService = wordSimilarValuesService;
 
         this.testBaseTimeSec = testBaseTimeSec;
         this.testAdditionalTimePerChar = testAdditionalTimePerChar;
         this.minTypingTestChars = minTypingTestChars;
         this.minTypingTestAddlChars = minTypingTestAddlChars;
         this.maxTypingTestAddlChars = maxTypingTestAddlChars;
+        this.fuzzyParallelThreshold = fuzzyParallelThreshold;
+
+        int parallelism = fuzzyParallelism > 0 ? fuzzyParallelism : Runtime.getRuntime().availableProcessors();
+        this.fuzzyMatchingPool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (fuzzyMatchingPool != null) {
+            fuzzyMatchingPool.shutdownNow();
+        }
     }
 
     public List<Word> getWordsToLearn(String lexiconId, String username, int wordCnt) {
@@ -68,23 +102,134 @@ public class WordReviewHelper {
     }
 
     public Map<WordElement, Map<Word, List<String>>> findSimilarWordElementValues(String lexiconId, Collection<TestOnWordPair> testOnWordPairs) {
-        Map<WordElement, Map<Word, List<String>>> similarWordElementValues = new HashMap<>();
+        // Similar values found so far, keyed by element and then word ID
+        Map<WordElement, Map<String, List<String>>> knownSimilarValues = new HashMap<>();
+        wordSimilarValuesService.loadSimilarValues(testOnWordPairs)
+                .forEach((wordElement, similarValues) -> knownSimilarValues.put(wordElement, new HashMap<>(similarValues)));
+
+        List<TestOnWordPair> pairsWithoutPrecomputedValues = withoutKnownSimilarValues(testOnWordPairs, knownSimilarValues);
+
+        if (!pairsWithoutPrecomputedValues.isEmpty() && wordService.isSimilarElementValueSearchSupported()) {
+            findSimilarValuesInDatabase(lexiconId, pairsWithoutPrecomputedValues, knownSimilarValues);
+        }
+
+        List<TestOnWordPair> pairsToMatch = withoutKnownSimilarValues(pairsWithoutPrecomputedValues, knownSimilarValues);
+
+        // Matchers are loaded up front on the request thread since loading one may require a DB query
         Map<WordElement, DatasetFuzzyMatcher> fuzzyMatchers = new HashMap<>();
+        for (TestOnWordPair pair : pairsToMatch) {
+            fuzzyMatchers.computeIfAbsent(pair.testOn(), k -> getFuzzyMatcher(lexiconId, pair.testOn()));
+        }
+
+        List<List<String>> similarValues = useParallelFuzzyMatching(pairsToMatch)
+                ? findSimilarValuesInParallel(pairsToMatch, fuzzyMatchers)
+                : pairsToMatch.stream().map(pair -> findSimilarValues(pair, fuzzyMatchers)).toList();
 
+        Map<WordElement, Map<Word, List<String>>> similarWordElementValues = new HashMap<>();
+        Iterator<List<String>> similarValuesIter = similarValues.iterator();
         for (TestOnWordPair pair : testOnWordPairs) {
+            List<String> knownValues = getKnownSimilarValues(knownSimilarValues, pair);
             similarWordElementValues
-                    .computeIfAbsent(pair.testOn(),
-                                     k -> new HashMap<>())
-                    .put(pair.word(),
-                         fuzzyMatchers
-                                 .computeIfAbsent(pair.testOn(),
-                                                  k -> new DatasetFuzzyMatcher(wordService.getUniqueElementValues(lexiconId, pair.testOn(), MAX_VALUES_FOR_FUZZY_MATCHING)))
-                                 .findSimilarTo(pair.word().elements().get(pair.testOn().getId()), SIMILAR_WORD_CNT, MAX_DISTANCE));
+                    .computeIfAbsent(pair.testOn(), k -> new HashMap<>())
+                    .put(pair.word(), knownValues != null ? knownValues : similarValuesIter.next());
+        }
+
+        // Words saved before the lexicon was last refreshed (or before precomputing was enabled) catch up in the background.
+        // Blank values never get a row, so they aren't asked for.
+        List<String> wordIdsToRefresh = pairsWithoutPrecomputedValues.stream()
+                .filter(pair -> StringUtils.hasText(pair.word().elements().get(pair.testOn().getId())))
+                .map(pair -> pair.word().id())
+                .distinct()
+                .toList();
+        if (!wordIdsToRefresh.isEmpty()) {
+            log.debug("{} of {} word elements had no up-to-date precomputed similar values", pairsWithoutPrecomputedValues.size(), testOnWordPairs.size());
+            wordSimilarValuesService.refreshWordSimilarValuesAsync(lexiconId, wordIdsToRefresh);
         }
 
         return similarWordElementValues;
     }
 
+    // Elements that already have a cached matcher are left to be matched in memory, which avoids a query entirely, as
+    // are values too short to search for by trigram
+    private void findSimilarValuesInDatabase(String lexiconId, List<TestOnWordPair> testOnWordPairs, Map<WordElement, Map<String, List<String>>> knownSimilarValues) {
+        Map<WordElement, List<TestOnWordPair>> pairsByElement = testOnWordPairs.stream()
+                .filter(pair -> fuzzyMatcherCache.getCachedMatcher(lexiconId, pair.testOn()) == null)
+                .filter(WordReviewHelper::isDatabaseSearchable)
+                .collect(Collectors.groupingBy(TestOnWordPair::testOn));
+
+        for (Map.Entry<WordElement, List<TestOnWordPair>> entry : pairsByElement.entrySet()) {
+            WordElement wordElement = entry.getKey();
+            List<String> targetValues = entry.getValue().stream()
+                    .map(pair -> pair.word().elements().get(wordElement.getId()))
+                    .distinct()
+                    .toList();
+
+            // Pairs that can't be searched for are left to be matched in memory
+            Optional<Map<String, List<String>>> similarValuesByTarget = wordService.findSimilarElementValues(lexiconId, wordElement, targetValues, SIMILAR_WORD_CNT, MAX_DISTANCE);
+            if (similarValuesByTarget.isEmpty()) {
+                continue;
+            }
+
+            Map<String, List<String>> elementSimilarValues = knownSimilarValues.computeIfAbsent(wordElement, k -> new HashMap<>());
+            for (TestOnWordPair pair : entry.getValue()) {
+                elementSimilarValues.put(pair.word().id(), similarValuesByTarget.get().getOrDefault(pair.word().elements().get(wordElement.getId()), List.of()));
+            }
+        }
+    }
+
+    private static boolean isDatabaseSearchable(TestOnWordPair pair) {
+        String value = pair.word().elements().get(pair.testOn().getId());
+        return value != null && value.codePointCount(0, value.length()) >= MIN_DATABASE_SEARCH_LENGTH;
+    }
+
+    private static List<TestOnWordPair> withoutKnownSimilarValues(Collection<TestOnWordPair> testOnWordPairs, Map<WordElement, Map<String, List<String>>> knownSimilarValues) {
+        return testOnWordPairs.stream()
+                .filter(pair -> getKnownSimilarValues(knownSimilarValues, pair) == null)
+                .toList();
+    }
+
+    private static List<String> getKnownSimilarValues(Map<WordElement, Map<String, List<String>>> knownSimilarValues, TestOnWordPair pair) {
+        Map<String, List<String>> elementSimilarValues = knownSimilarValues.get(pair.testOn());
+        return elementSimilarValues == null ? null : elementSimilarValues.get(pair.word().id());
+    }
+
+    private boolean useParallelFuzzyMatching(Collection<TestOnWordPair> testOnWordPairs) {
+        return fuzzyMatchingPool != null && fuzzyParallelThreshold > 0 && testOnWordPairs.size() >= fuzzyParallelThreshold;
+    }
+
+    // DatasetFuzzyMatcher is immutable and the distance kernel only uses per-thread scratch space, so pairs can be
+    // matched concurrently against the same matcher
+    private List<List<String>> findSimilarValuesInParallel(Collection<TestOnWordPair> testOnWordPairs, Map<WordElement, DatasetFuzzyMatcher> fuzzyMatchers) {
+        List<Callable<List<String>>> tasks = testOnWordPairs.stream()
+                .map(pair -> (Callable<List<String>>) () -> findSimilarValues(pair, fuzzyMatchers))
+                .toList();
+
+        try {
+            List<List<String>> similarValues = new ArrayList<>(tasks.size());
+            for (Future<List<String>> future : fuzzyMatchingPool.invokeAll(tasks)) {
+                similarValues.add(future.get());
+            }
+            return similarValues;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while finding similar word element values", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Failed to find similar word element values", ex.getCause());
+        }
+    }
+
+    private List<String> findSimilarValues(TestOnWordPair pair, Map<WordElement, DatasetFuzzyMatcher> fuzzyMatchers) {
+        return fuzzyMatchers.get(pair.testOn()).findSimilarTo(pair.word().elements().get(pair.testOn().getId()), SIMILAR_WORD_CNT, MAX_DISTANCE);
+    }
+
+    private DatasetFuzzyMatcher getFuzzyMatcher(String lexiconId, WordElement wordElement) {
+        return fuzzyMatcherCache.getMatcher(lexiconId, wordElement,
+                () -> wordService.getUniqueElementValues(lexiconId, wordElement, MAX_VALUES_FOR_FUZZY_MATCHING));
+    }
+
     public List<String> getSimilarCharacterSelection(Word word, WordElement testOn, List<String> similarElementValues) {
         String elementValue = word.elements().get(testOn.getId());
         List<String> characters = new ArrayList<>(toCharList(elementValue).stream().distinct().toList());
@@ -32,6 +32,7 @@ public class DDBReviewEvent {
     public static final String EVENT_INSTANT_ATTRIBUTE_NAME = "eventInstant";
     public static final String OVERRIDE_ATTRIBUTE_NAME = "override";
     public static final String DELETE_AFTER_INSTANT_ATTRIBUTE_NAME = "deleteAfterInstant";
+    public static final String CLIENT_EVENT_ID_ATTRIBUTE_NAME = "clientEventId";
 
     private final String id;
     private final String scheduledReviewId;
@@ -48,6 +49,7 @@ public class DDBReviewEvent {
     private final Instant eventInstant;
     private final boolean override;
     private final Instant deleteAfterInstant;
+    private final String clientEventId;
 
     private DDBReviewEvent(Builder builder) {
         this.id = builder.id;
@@ -65,6 +67,7 @@ public class DDBReviewEvent {
         this.eventInstant = builder.eventInstant;
         this.override = builder.override;
         this.deleteAfterInstant = builder.deleteAfterInstant;
+        this.clientEventId = builder.clientEventId;
     }
 
     public static Builder builder() {
@@ -150,6 +153,11 @@ public class DDBReviewEvent {
         return deleteAfterInstant;
     }
 
+    @DynamoDbAttribute(CLIENT_EVENT_ID_ATTRIBUTE_NAME)
+    public String clientEventId() {
+        return clientEventId;
+    }
+
     @Override
     public String toString() {
         return "DDBReviewEvent{" +
@@ -168,6 +176,7 @@ public class DDBReviewEvent {
                 ", eventInstant=" + eventInstant +
                 ", override=" + override +
                 ", deleteAfterInstant=" + deleteAfterInstant +
+                ", clientEventId='" + clientEventId + '\'' +
                 '}';
     }
 
@@ -187,6 +196,7 @@ public class DDBReviewEvent {
         private Instant eventInstant;
         private boolean override;
         private Instant deleteAfterInstant;
+        private String clientEventId;
 
         private Builder() { }
 
@@ -268,5 +278,10 @@ public class DDBReviewEvent {
             this.deleteAfterInstant = deleteAfterInstant;
             return this;
         }
+
+        public Builder clientEventId(String clientEventId) {
+            this.clientEventId = clientEventId;
+            return this;
+        }
     }
 }
\ No newline at end of file
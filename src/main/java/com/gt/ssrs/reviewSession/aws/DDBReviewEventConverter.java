@@ -16,7 +16,7 @@ public class DDBReviewEventConverter {
 
     public static DDBReviewEvent convertReviewEvent(ReviewEvent reviewEvent, boolean processed, Instant deleteAfterInstant) {
         return DDBReviewEvent.builder()
-                .id(reviewEvent.eventId() == null || reviewEvent.eventId().isBlank() ? UUID.randomUUID().toString() : reviewEvent.eventId())
+                .id(getId(reviewEvent))
                 .scheduledReviewId(reviewEvent.scheduledReviewId())
                 .lexiconId(reviewEvent.lexiconId())
                 .username(reviewEvent.username())
@@ -31,9 +31,22 @@ public class DDBReviewEventConverter {
                 .eventInstant(reviewEvent.eventInstant())
                 .override(reviewEvent.override())
                 .deleteAfterInstant(deleteAfterInstant)
+                .clientEventId(reviewEvent.clientEventId())
                 .build();
     }
 
+    // Events the client may resend are keyed by the client's ID, so that a resent event can be detected
+    private static String getId(ReviewEvent reviewEvent) {
+        if (reviewEvent.eventId() != null && !reviewEvent.eventId().isBlank()) {
+            return reviewEvent.eventId();
+        }
+        if (reviewEvent.clientEventId() != null && !reviewEvent.clientEventId().isBlank()) {
+            return reviewEvent.username() + ":" + reviewEvent.clientEventId();
+        }
+
+        return UUID.randomUUID().toString();
+    }
+
     public static ReviewEvent convertDDBReviewEvent(DDBReviewEvent ddbReviewEvent) {
         return new ReviewEvent(
                 ddbReviewEvent.id(),
@@ -48,6 +61,7 @@ public class DDBReviewEventConverter {
                 ddbReviewEvent.correct(),
                 ddbReviewEvent.nearMiss(),
                 ddbReviewEvent.elapsedTime() == null ? null : ddbReviewEvent.elapsedTime().toMillis(),
-                ddbReviewEvent.override());
+                ddbReviewEvent.override(),
+                ddbReviewEvent.clientEventId());
     }
 }
@@ -4,6 +4,7 @@ import com.gt.ssrs.reviewSession.ReviewEventDao;
 import com.gt.ssrs.model.ReviewEvent;
 import com.gt.ssrs.reviewSession.model.ReviewEventStatus;
 import com.gt.ssrs.util.ListUtil;
+import com.gt.ssrs.util.aws.DDBBatchExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -24,19 +25,23 @@ public class ReviewEventDaoDDB implements ReviewEventDao {
 
     private static final Logger log = LoggerFactory.getLogger(ReviewEventDaoDDB.class);
 
+    private static final int MAX_TRANSACTION_ITEMS = 100;
+    private static final String CONDITIONAL_CHECK_FAILED_CODE = "ConditionalCheckFailed";
+    private static final String NO_FAILURE_CODE = "None";
+
     private final DynamoDbEnhancedClient dynamoDbEnhancedClient;
+    private final DDBBatchExecutor batchExecutor;
     private final int deleteAfterDays;
-    private final int maxWriteBatchSize;
 
     private final DynamoDbTable<DDBReviewEvent> reviewEventsTable;
 
     @Autowired
     public ReviewEventDaoDDB(DynamoDbEnhancedClient dynamoDbEnhancedClient,
-                             @Value("${aws.dynamodb.reviews.deleteAfterDays}") int deleteAfterDays,
-                             @Value("${aws.dynamodb.maxWriteBatchSize}") int maxWriteBatchSize) {
+                             DDBBatchExecutor batchExecutor,
+                             @Value("${aws.dynamodb.reviews.deleteAfterDays}") int deleteAfterDays) {
         this.dynamoDbEnhancedClient = dynamoDbEnhancedClient;
+        this.batchExecutor = batchExecutor;
         this.deleteAfterDays = deleteAfterDays;
-        this.maxWriteBatchSize = maxWriteBatchSize;
 
         reviewEventsTable = dynamoDbEnhancedClient.table(DDBReviewEvent.TABLE_NAME, TableSchema.fromImmutableClass(DDBReviewEvent.class));
     }
@@ -44,6 +49,9 @@ public class ReviewEventDaoDDB implements ReviewEventDao {
     @Override
     public boolean saveReviewEvent(ReviewEvent event) {
         try {
+            if (hasClientEventId(event)) {
+                return saveClientReviewEvent(event);
+            }
             reviewEventsTable.putItem(DDBReviewEventConverter.convertReviewEvent(event));
         } catch (DynamoDbException ex) {
             log.error("Failed to save review event", ex);
@@ -53,6 +61,117 @@ public class ReviewEventDaoDDB implements ReviewEventDao {
         return true;
     }
 
+    // Only written if the client hasn't already sent the event. Otherwise, a resent event would overwrite the original
+    // and mark it unprocessed again.
+    private boolean saveClientReviewEvent(ReviewEvent event) {
+        try {
+            reviewEventsTable.putItem(PutItemEnhancedRequest.builder(DDBReviewEvent.class)
+                    .item(DDBReviewEventConverter.convertReviewEvent(event))
+                    .conditionExpression(Expression.builder()
+                            .expression("attribute_not_exists(#id)")
+                            .putExpressionName("#id", DDBReviewEvent.ID_ATTRIBUTE_NAME)
+                            .build())
+                    .build());
+        } catch (ConditionalCheckFailedException ex) {
+            log.debug("Review event {} already saved for user {}", event.clientEventId(), event.username());
+        }
+
+        return true;
+    }
+
+    // Batch writes can't be conditional, so these are written in transactions instead. A transaction is cancelled if any
+    // event in it was already saved; those count as saved, and the rest are written again without them.
+    private int saveClientReviewEvents(List<ReviewEvent> events) {
+        List<DDBReviewEvent> ddbReviewEvents = events.stream()
+                .map(reviewEvent -> DDBReviewEventConverter.convertReviewEvent(reviewEvent))
+                .toList();
+
+        // An item can only appear once in a transaction, so an event repeated within the batch is saved along with the first
+        Map<String, DDBReviewEvent> eventsById = new LinkedHashMap<>();
+        ddbReviewEvents.forEach(ddbReviewEvent -> eventsById.putIfAbsent(ddbReviewEvent.id(), ddbReviewEvent));
+
+        Set<String> savedIds = new HashSet<>();
+        for (List<DDBReviewEvent> chunk : ListUtil.partitionList(List.copyOf(eventsById.values()), MAX_TRANSACTION_ITEMS)) {
+            try {
+                saveClientReviewEventChunk(chunk);
+                chunk.forEach(ddbReviewEvent -> savedIds.add(ddbReviewEvent.id()));
+            } catch (DynamoDbException ex) {
+                log.error("Failed to write transaction of {} review events", chunk.size(), ex);
+            }
+        }
+
+        return (int) ddbReviewEvents.stream().filter(ddbReviewEvent -> savedIds.contains(ddbReviewEvent.id())).count();
+    }
+
+    private void saveClientReviewEventChunk(List<DDBReviewEvent> ddbReviewEvents) {
+        List<DDBReviewEvent> eventsToWrite = ddbReviewEvents;
+
+        while (!eventsToWrite.isEmpty()) {
+            TransactWriteItemsEnhancedRequest.Builder requestBuilder = TransactWriteItemsEnhancedRequest.builder();
+            eventsToWrite.forEach(ddbReviewEvent -> requestBuilder.addPutItem(reviewEventsTable, TransactPutItemEnhancedRequest.builder(DDBReviewEvent.class)
+                    .item(ddbReviewEvent)
+                    .conditionExpression(Expression.builder()
+                            .expression("attribute_not_exists(#id)")
+                            .putExpressionName("#id", DDBReviewEvent.ID_ATTRIBUTE_NAME)
+                            .build())
+                    .build()));
+
+            try {
+                dynamoDbEnhancedClient.transactWriteItems(requestBuilder.build());
+                return;
+            } catch (TransactionCanceledException ex) {
+                // The reasons are in the same order as the items. Anything other than an event already existing means
+                // the transaction itself failed.
+                List<DDBReviewEvent> eventsToRetry = new ArrayList<>();
+                for (int index = 0; index < eventsToWrite.size(); index++) {
+                    String code = ex.hasCancellationReasons() && index < ex.cancellationReasons().size() ? ex.cancellationReasons().get(index).code() : null;
+                    if (CONDITIONAL_CHECK_FAILED_CODE.equals(code)) {
+                        log.debug("Review event {} already saved", eventsToWrite.get(index).id());
+                    } else if (NO_FAILURE_CODE.equals(code)) {
+                        eventsToRetry.add(eventsToWrite.get(index));
+                    } else {
+                        throw ex;
+                    }
+                }
+
+                if (eventsToRetry.size() == eventsToWrite.size()) {
+                    throw ex;
+                }
+                eventsToWrite = eventsToRetry;
+            }
+        }
+    }
+
+    private static boolean hasClientEventId(ReviewEvent event) {
+        return event.clientEventId() != null && !event.clientEventId().isBlank();
+    }
+
+    @Override
+    public int saveReviewEvents(List<ReviewEvent> events) {
+        List<ReviewEvent> eventsToBatch = new ArrayList<>();
+        List<ReviewEvent> clientEvents = new ArrayList<>();
+        for (ReviewEvent event : events) {
+            (hasClientEventId(event) ? clientEvents : eventsToBatch).add(event);
+        }
+
+        int savedCnt = saveClientReviewEvents(clientEvents);
+
+        List<DDBReviewEvent> eventsToSave = eventsToBatch.stream()
+                .map(reviewEvent -> DDBReviewEventConverter.convertReviewEvent(reviewEvent))
+                .collect(Collectors.toList());
+        try {
+            savedCnt += eventsToSave.size() - batchExecutor.putItems(reviewEventsTable, eventsToSave).size();
+        } catch (DynamoDbException ex) {
+            log.error("Failed to write review event batch", ex);
+        }
+
+        if (savedCnt < events.size()) {
+            log.error("Failed to save {} of {} review events", events.size() - savedCnt, events.size());
+        }
+
+        return savedCnt;
+    }
+
     @Override
     public List<ReviewEvent> loadUnprocessedReviewEventsForUser(String username, String lexiconId) {
         QueryEnhancedRequest request = QueryEnhancedRequest.builder()
@@ -71,25 +190,21 @@ public class ReviewEventDaoDDB implements ReviewEventDao {
                 .collect(Collectors.toList());
     }
 
+    // There is no index across lexicons, so this would have to scan the whole table. Every user/lexicon is treated as
+    // possibly having unprocessed events instead.
     @Override
-    public List<String> markEventsAsProcessed(List<ReviewEvent> events) {
-        List<String> processEvents = new ArrayList<>();
-
-        for (List<ReviewEvent> subList : ListUtil.partitionList(events, maxWriteBatchSize)) {
-            processEvents.addAll(markEventsAsProcessedBatch(subList));
-        }
-
-        return processEvents;
+    public Optional<Map<String, Set<String>>> loadLexiconIdsWithUnprocessedEvents() {
+        return Optional.empty();
     }
 
-    private List<String> markEventsAsProcessedBatch(List<ReviewEvent> events) {
+    @Override
+    public List<String> markEventsAsProcessed(List<ReviewEvent> events) {
         Instant deleteAfterInstant = Instant.now().plus(Duration.ofDays(deleteAfterDays));
-        WriteBatch.Builder<DDBReviewEvent> batchBuilder = WriteBatch.builder(DDBReviewEvent.class).mappedTableResource(reviewEventsTable);
-        events.forEach(reviewEvent -> batchBuilder.addPutItem(DDBReviewEventConverter.convertReviewEvent(reviewEvent, true, deleteAfterInstant)));
-
-        BatchWriteResult batchWriteResult = dynamoDbEnhancedClient.batchWriteItem(b -> b.writeBatches(batchBuilder.build()));
+        List<DDBReviewEvent> eventsToSave = events.stream()
+                .map(reviewEvent -> DDBReviewEventConverter.convertReviewEvent(reviewEvent, true, deleteAfterInstant))
+                .toList();
 
-        Set<String> skippedIds = batchWriteResult.unprocessedPutItemsForTable(reviewEventsTable).stream()
+        Set<String> skippedIds = batchExecutor.putItems(reviewEventsTable, eventsToSave).stream()
                 .map(ddbReviewEvent -> ddbReviewEvent.id())
                 .collect(Collectors.toSet());
 
@@ -101,30 +216,28 @@ public class ReviewEventDaoDDB implements ReviewEventDao {
 
     @Override
     public void deleteWordReviewEvents(String lexiconId, Collection<String> wordIds) {
-        for (String eventId : getEventIdsForWords(lexiconId, Optional.empty(), Optional.of(wordIds))) {
-            reviewEventsTable.deleteItem(Key.builder().partitionValue(eventId).build());
-        }
+        deleteEvents(getEventIdsForWords(lexiconId, Optional.empty(), Optional.of(wordIds)));
     }
 
     @Override
     public void deleteWordReviewEventsForUser(String lexiconId, String username, Collection<String> wordIds) {
-        for (String eventId : getEventIdsForWords(lexiconId, Optional.of(username), Optional.of(wordIds))) {
-            reviewEventsTable.deleteItem(Key.builder().partitionValue(eventId).build());
-        }
+        deleteEvents(getEventIdsForWords(lexiconId, Optional.of(username), Optional.of(wordIds)));
     }
 
     @Override
     public void deleteAllLexiconReviewEvents(String lexiconId) {
-        for (String eventId : getEventIdsForWords(lexiconId, Optional.empty(),Optional.empty())) {
-            reviewEventsTable.deleteItem(Key.builder().partitionValue(eventId).build());
-        }
+        deleteEvents(getEventIdsForWords(lexiconId, Optional.empty(),Optional.empty()));
     }
 
     @Override
     public void deleteAllLexiconReviewEventsForUser(String lexiconId, String username) {
-        for (String entryId : getEventIdsForWords(lexiconId, Optional.of(username), Optional.empty())) {
-            reviewEventsTable.deleteItem(Key.builder().partitionValue(entryId).build());
-        }
+        deleteEvents(getEventIdsForWords(lexiconId, Optional.of(username), Optional.empty()));
+    }
+
+    private void deleteEvents(List<String> eventIds) {
+        batchExecutor.deleteAllItems(reviewEventsTable, eventIds.stream()
+                .map(eventId -> Key.builder().partitionValue(eventId).build())
+                .toList());
     }
 
     private List<String> getEventIdsForWords(String lexiconId, Optional<String> username, Optional<Collection<String>> wordIds) {
@@ -0,0 +1,55 @@
+package com.gt.ssrs.reviewSession.aws;
+
+import com.gt.ssrs.model.ReviewEvent;
+import com.gt.ssrs.model.ScheduledReview;
+import com.gt.ssrs.model.WordReviewHistory;
+import com.gt.ssrs.reviewHistory.WordReviewHistoryDao;
+import com.gt.ssrs.reviewSession.ReviewEventDao;
+import com.gt.ssrs.reviewSession.ReviewResultsDao;
+import com.gt.ssrs.reviewSession.ScheduledReviewDao;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+// DynamoDB transactions are limited to 100 items, so the results are written with the batch writes of each table
+@Component
+public class ReviewResultsDaoDDB implements ReviewResultsDao {
+
+    private final WordReviewHistoryDao wordReviewHistoryDao;
+    private final ScheduledReviewDao scheduledReviewDao;
+    private final ReviewEventDao reviewEventDao;
+
+    @Autowired
+    public ReviewResultsDaoDDB(WordReviewHistoryDao wordReviewHistoryDao,
+                               ScheduledReviewDao scheduledReviewDao,
+                               ReviewEventDao reviewEventDao) {
+        this.wordReviewHistoryDao = wordReviewHistoryDao;
+        this.scheduledReviewDao = scheduledReviewDao;
+        this.reviewEventDao = reviewEventDao;
+    }
+
+    @Override
+    public void saveProcessedResults(String username, List<WordReviewHistory> wordReviewHistories, List<ScheduledReview> scheduledReviews, List<ReviewEvent> processedEvents) {
+        if (!wordReviewHistories.isEmpty()) {
+            wordReviewHistoryDao.updateWordReviewHistory(username, wordReviewHistories);
+        }
+        if (!scheduledReviews.isEmpty()) {
+            scheduledReviewDao.createScheduledReviewsBatch(scheduledReviews);
+        }
+        if (!processedEvents.isEmpty()) {
+            reviewEventDao.markEventsAsProcessed(processedEvents);
+        }
+    }
+
+    @Override
+    public int saveReviewEvents(List<ReviewEvent> events, Collection<String> completedScheduledReviewIds) {
+        int savedCnt = reviewEventDao.saveReviewEvents(events);
+        if (!completedScheduledReviewIds.isEmpty()) {
+            scheduledReviewDao.markScheduledReviewsComplete(completedScheduledReviewIds);
+        }
+
+        return savedCnt;
+    }
+}
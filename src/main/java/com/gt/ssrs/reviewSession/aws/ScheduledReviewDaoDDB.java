@@ -3,7 +3,7 @@ package com.gt.ssrs.reviewSession.aws;
 import com.gt.ssrs.model.ScheduledReview;
 import com.gt.ssrs.reviewSession.ScheduledReviewDao;
 import com.gt.ssrs.reviewSession.model.ScheduledReviewStatus;
-import com.gt.ssrs.util.ListUtil;
+import com.gt.ssrs.util.aws.DDBBatchExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,35 +25,29 @@ public class ScheduledReviewDaoDDB implements ScheduledReviewDao {
     private static final Logger log = LoggerFactory.getLogger(ScheduledReviewDaoDDB.class);
 
     private final DynamoDbEnhancedClient dynamoDbEnhancedClient;
+    private final DDBBatchExecutor batchExecutor;
     private final int deleteAfterDays;
-    private final int maxWriteBatchSize;
-    private final int maxReadBatchSize;
 
     private final DynamoDbTable<DDBScheduledReview> scheduledReviewTable;
 
     @Autowired
     public ScheduledReviewDaoDDB(DynamoDbEnhancedClient dynamoDbEnhancedClient,
-                                 @Value("${aws.dynamodb.reviews.deleteAfterDays}") int deleteAfterDays,
-                                 @Value("${aws.dynamodb.maxWriteBatchSize}") int maxWriteBatchSize,
-                                 @Value("${aws.dynamodb.maxReadBatchSize}") int maxReadBatchSize) {
+                                 DDBBatchExecutor batchExecutor,
+                                 @Value("${aws.dynamodb.reviews.deleteAfterDays}") int deleteAfterDays) {
         this.dynamoDbEnhancedClient = dynamoDbEnhancedClient;
+        this.batchExecutor = batchExecutor;
         this.deleteAfterDays = deleteAfterDays;
-        this.maxWriteBatchSize = maxWriteBatchSize;
-        this.maxReadBatchSize = maxReadBatchSize;
 
         scheduledReviewTable = dynamoDbEnhancedClient.table(DDBScheduledReview.TABLE_NAME, TableSchema.fromImmutableClass(DDBScheduledReview.class));
     }
 
     @Override
     public void createScheduledReviewsBatch(List<ScheduledReview> scheduledReviews) {
-        for (List<ScheduledReview> subList : ListUtil.partitionList(scheduledReviews, maxWriteBatchSize)) {
-            WriteBatch.Builder<DDBScheduledReview> batchBuilder = WriteBatch.builder(DDBScheduledReview.class).mappedTableResource(scheduledReviewTable);
-            subList.forEach(scheduledReview -> batchBuilder.addPutItem(DDBScheduledReviewConverter.convertScheduledReview(scheduledReview)));
+        List<DDBScheduledReview> reviewsToSave = scheduledReviews.stream()
+                .map(scheduledReview -> DDBScheduledReviewConverter.convertScheduledReview(scheduledReview))
+                .toList();
 
-            dynamoDbEnhancedClient.batchWriteItem(b -> b.writeBatches(batchBuilder.build()));
-
-            // TODO: Handle unprocessed items?
-        }
+        batchExecutor.putAllItems(scheduledReviewTable, reviewsToSave);
     }
 
     @Override
@@ -78,42 +72,76 @@ public class ScheduledReviewDaoDDB implements ScheduledReviewDao {
         return 1;
     }
 
+    @Override
+    public int markScheduledReviewsComplete(Collection<String> scheduledReviewIds) {
+        // BatchWriteItem can only put whole items, so the reviews are updated one at a time to avoid overwriting any
+        // other changes made to them
+        int updatedCnt = 0;
+        for (String scheduledReviewId : scheduledReviewIds) {
+            updatedCnt += markScheduledReviewComplete(scheduledReviewId);
+        }
+
+        return updatedCnt;
+    }
+
     @Override
     public List<ScheduledReview> loadScheduledReviews(String username, String lexiconId, String testRelationshipId, Optional<Instant> cutoffInstant) {
-        QueryEnhancedRequest.Builder requestBuilder = QueryEnhancedRequest.builder()
-                        .queryConditional(QueryConditional.sortLessThanOrEqualTo(Key.builder()
-                                .partitionValue(lexiconId)
-                                .addSortValue(username)
-                                .addSortValue(ScheduledReviewStatus.SCHEDULED.name())
-                                .addSortValue(cutoffInstant.orElse(Instant.now()).toString())
-                                .build()))
-                .scanIndexForward(true);
+        QueryEnhancedRequest.Builder requestBuilder = buildScheduledReviewsQuery(username, lexiconId, testRelationshipId, cutoffInstant.orElse(Instant.now()));
 
-        if (testRelationshipId != null && !testRelationshipId.isBlank()) {
-            requestBuilder.filterExpression(Expression.builder()
-                    .expression("#testRelationshipId = :testRelationshipId")
-                    .expressionNames(Map.of("#testRelationshipId", DDBScheduledReview.TEST_RELATIONSHIP_ID_ATTRIBUTE_NAME))
-                    .expressionValues(Map.of(":testRelationshipId", AttributeValue.builder().s(testRelationshipId).build()))
-                    .build());
+        SdkIterable<Page<DDBScheduledReview>> result = scheduledReviewTable.index(DDBScheduledReview.SCHEDULED_REVIEW_BY_LEXICON_INDEX_NAME).query(requestBuilder.build());
+
+        return result.stream()
+                .flatMap(page -> page.items().stream())
+                .map(ddbScheduledReview -> DDBScheduledReviewConverter.convertDDBScheduledReview(ddbScheduledReview))
+                .collect(Collectors.toUnmodifiableList());
+    }
+
+    @Override
+    public List<ScheduledReview> loadDueScheduledReviews(String username, String lexiconId, String testRelationshipId, Optional<Instant> cutoffInstant, double futureEventAllowedRatio, int limit) {
+        if (limit <= 0) {
+            return List.of();
         }
 
+        // The index is sorted by scheduled time, so pages are only read until there are enough reviews. The early review
+        // check compares the delay with the current time, which a filter expression can't do, so it's done here.
+        Instant now = Instant.now();
+        QueryEnhancedRequest.Builder requestBuilder = buildScheduledReviewsQuery(username, lexiconId, testRelationshipId, cutoffInstant.orElse(now))
+                .limit(limit);
+
         SdkIterable<Page<DDBScheduledReview>> result = scheduledReviewTable.index(DDBScheduledReview.SCHEDULED_REVIEW_BY_LEXICON_INDEX_NAME).query(requestBuilder.build());
 
         return result.stream()
                 .flatMap(page -> page.items().stream())
                 .map(ddbScheduledReview -> DDBScheduledReviewConverter.convertDDBScheduledReview(ddbScheduledReview))
+                .filter(scheduledReview -> !scheduledReview.scheduledTestTime().isAfter(now) || scheduledReview.isEarlyReviewAllowed(now, futureEventAllowedRatio))
+                .limit(limit)
                 .collect(Collectors.toUnmodifiableList());
     }
 
     @Override
-    public List<ScheduledReview> loadScheduledReviewsForWords(String username, String lexiconId, Collection<String> wordIds) {
-        List<ScheduledReview> scheduledReviews = new ArrayList<>();
-
-        for (List<String> wordIdBatch : ListUtil.partitionList(List.copyOf(wordIds), maxReadBatchSize)) {
-            scheduledReviews.addAll(loadScheduledReviewsForWordsBatch(username, lexiconId, wordIdBatch));
+    public Map<String, Map<String, Integer>> countScheduledReviews(String username, Collection<String> lexiconIds, Optional<Instant> cutoffInstant, double futureEventAllowedRatio) {
+        // Each lexicon is a separate partition of the index, so there is a query per lexicon
+        Instant now = Instant.now();
+        Instant cutoff = cutoffInstant.orElse(now);
+        Map<String, Map<String, Integer>> scheduledReviewCounts = new HashMap<>();
+
+        for (String lexiconId : lexiconIds) {
+            for (ScheduledReview scheduledReview : loadScheduledReviews(username, lexiconId, "", Optional.of(cutoff))) {
+                if (!scheduledReview.scheduledTestTime().isAfter(now) || scheduledReview.isEarlyReviewAllowed(now, futureEventAllowedRatio)) {
+                    scheduledReviewCounts.computeIfAbsent(lexiconId, k -> new HashMap<>())
+                            .merge(scheduledReview.testRelationshipId(), 1, Integer::sum);
+                }
+            }
         }
 
-        return scheduledReviews;
+        return scheduledReviewCounts;
+    }
+
+    @Override
+    public List<ScheduledReview> loadScheduledReviewsForWords(String username, String lexiconId, Collection<String> wordIds) {
+        // The word IDs are split up to keep the filter expressions within DynamoDB's limits
+        return batchExecutor.mapBatches(List.copyOf(wordIds), batchExecutor.maxReadBatchSize(),
+                wordIdBatch -> loadScheduledReviewsForWordsBatch(username, lexiconId, wordIdBatch));
     }
 
     public List<ScheduledReview> loadScheduledReviewsForWordsBatch(String username, String lexiconId, Collection<String> wordIds) {
@@ -178,17 +206,7 @@ public class ScheduledReviewDaoDDB implements ScheduledReviewDao {
                         .build())
                 .collect(Collectors.toUnmodifiableList());
 
-        int processedCnt = 0;
-        if (reviewsToSave.size() > 0) {
-            for (List<DDBScheduledReview> subList : ListUtil.partitionList(reviewsToSave, maxWriteBatchSize)) {
-                WriteBatch.Builder<DDBScheduledReview> batchBuilder = WriteBatch.builder(DDBScheduledReview.class).mappedTableResource(scheduledReviewTable);
-                subList.forEach(ddbScheduledReview -> batchBuilder.addPutItem(ddbScheduledReview));
-
-                BatchWriteResult result = dynamoDbEnhancedClient.batchWriteItem(b -> b.writeBatches(batchBuilder.build()));
-                processedCnt += reviewsToSave.size() - result.unprocessedPutItemsForTable(scheduledReviewTable).size();
-            }
-        }
-        return processedCnt;
+        return reviewsToSave.size() - batchExecutor.putItems(scheduledReviewTable, reviewsToSave).size();
     }
 
     @Override
@@ -197,6 +215,27 @@ public class ScheduledReviewDaoDDB implements ScheduledReviewDao {
         return 0;
     }
 
+    private QueryEnhancedRequest.Builder buildScheduledReviewsQuery(String username, String lexiconId, String testRelationshipId, Instant cutoff) {
+        QueryEnhancedRequest.Builder requestBuilder = QueryEnhancedRequest.builder()
+                        .queryConditional(QueryConditional.sortLessThanOrEqualTo(Key.builder()
+                                .partitionValue(lexiconId)
+                                .addSortValue(username)
+                                .addSortValue(ScheduledReviewStatus.SCHEDULED.name())
+                                .addSortValue(cutoff.toString())
+                                .build()))
+                .scanIndexForward(true);
+
+        if (testRelationshipId != null && !testRelationshipId.isBlank()) {
+            requestBuilder.filterExpression(Expression.builder()
+                    .expression("#testRelationshipId = :testRelationshipId")
+                    .expressionNames(Map.of("#testRelationshipId", DDBScheduledReview.TEST_RELATIONSHIP_ID_ATTRIBUTE_NAME))
+                    .expressionValues(Map.of(":testRelationshipId", AttributeValue.builder().s(testRelationshipId).build()))
+                    .build());
+        }
+
+        return requestBuilder;
+    }
+
     private List<String> getScheduledReviewIdsFor(String lexiconId, String username, Collection<String> wordIds) {
         Key key;
         if (username == null || username.isEmpty()) {
@@ -247,8 +286,8 @@ public class ScheduledReviewDaoDDB implements ScheduledReviewDao {
     }
 
     private void batchDelete(List<String> ids) {
-        for (String id : ids) {
-            scheduledReviewTable.deleteItem(Key.builder().partitionValue(id).build());
-        }
+        batchExecutor.deleteAllItems(scheduledReviewTable, ids.stream()
+                .map(id -> Key.builder().partitionValue(id).build())
+                .toList());
     }
 }
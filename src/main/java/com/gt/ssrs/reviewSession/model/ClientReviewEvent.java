@@ -3,6 +3,8 @@ package com.gt.ssrs.reviewSession.model;
 import com.gt.ssrs.model.ReviewMode;
 import com.gt.ssrs.model.ReviewType;
 
+import java.time.Instant;
+
 public record ClientReviewEvent(String scheduledEventId,
                                 String lexiconId,
                                 String wordId,
@@ -12,4 +14,6 @@ public record ClientReviewEvent(String scheduledEventId,
                                 boolean isCorrect,
                                 boolean isNearMiss,
                                 long elapsedTimeMs,
-                                boolean override) { }
+                                boolean override,
+                                String clientEventId,
+                                Instant eventInstant) { }
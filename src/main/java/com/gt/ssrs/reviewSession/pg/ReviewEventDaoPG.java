@@ -10,13 +10,19 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.stereotype.Component;
 
+import java.sql.Statement;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
 @Component
 public class ReviewEventDaoPG implements ReviewEventDao {
@@ -25,15 +31,37 @@ public class ReviewEventDaoPG implements ReviewEventDao {
 
     private static final String INSERT_REVIEW_EVENT_SQL =
             "INSERT INTO review_events " +
-                    "(lexicon_id, word_id, review_type, review_mode, test_on, prompt_with, correct, near_miss, elapsed_time_ms, username, event_instant, override, processed, scheduled_review_id) " +
+                    "(lexicon_id, word_id, review_type, review_mode, test_on, prompt_with, correct, near_miss, elapsed_time_ms, username, event_instant, override, processed, scheduled_review_id, client_event_id) " +
             "VALUES " +
-                    "(:lexiconId, :wordId, :reviewType, :reviewMode, :testOn, :promptWith, :isCorrect, :isNearMiss, :elapsedTimeMs, :username, :eventInstant, :override, false, :scheduledReviewId);";
+                    "(:lexiconId, :wordId, :reviewType, :reviewMode, :testOn, :promptWith, :isCorrect, :isNearMiss, :elapsedTimeMs, :username, :eventInstant, :override, false, :scheduledReviewId, :clientEventId) " +
+            "ON CONFLICT (username, client_event_id) DO NOTHING;";
+
+    // Once the table is partitioned, username_client_event_id can't be unique, so resent events are caught by the unique
+    // key of review_event_client_id instead. The event is only inserted if its client id was.
+    private static final String INSERT_PARTITIONED_REVIEW_EVENT_SQL =
+            "WITH client_event AS (" +
+                    "INSERT INTO review_event_client_id (username, client_event_id) " +
+                    "SELECT :username, :clientEventId WHERE CAST(:clientEventId AS varchar) IS NOT NULL " +
+                    "ON CONFLICT (username, client_event_id) DO NOTHING " +
+                    "RETURNING client_event_id" +
+            ") " +
+            "INSERT INTO review_events " +
+                    "(lexicon_id, word_id, review_type, review_mode, test_on, prompt_with, correct, near_miss, elapsed_time_ms, username, event_instant, override, processed, scheduled_review_id, client_event_id) " +
+            "SELECT " +
+                    ":lexiconId, :wordId, :reviewType, :reviewMode, :testOn, :promptWith, :isCorrect, :isNearMiss, :elapsedTimeMs, :username, " +
+                    "CAST(:eventInstant AS timestamp with time zone), :override, false, :scheduledReviewId, :clientEventId " +
+            "WHERE CAST(:clientEventId AS varchar) IS NULL OR EXISTS (SELECT 1 FROM client_event);";
 
     private static final String LOAD_UNPROCESSED_EVENTS_FOR_USER =
-            "SELECT event_id, scheduled_review_id, lexicon_id, word_id, username, event_instant, review_type, review_mode, test_on, prompt_with, correct, near_miss, elapsed_time_ms, override " +
+            "SELECT event_id, scheduled_review_id, lexicon_id, word_id, username, event_instant, review_type, review_mode, test_on, prompt_with, correct, near_miss, elapsed_time_ms, override, client_event_id " +
             "FROM review_events " +
             "WHERE username = :username AND lexicon_id = :lexiconId AND processed IS NOT TRUE ";
 
+    private static final String LOAD_LEXICONS_WITH_UNPROCESSED_EVENTS =
+            "SELECT DISTINCT username, lexicon_id " +
+            "FROM review_events " +
+            "WHERE processed IS NOT TRUE";
+
     private static final String MARK_EVENTS_AS_PROCESSED =
             "UPDATE review_events " +
             "SET processed = true " +
@@ -54,15 +82,60 @@ public class ReviewEventDaoPG implements ReviewEventDao {
     private static final String PURGE_OLD_REVIEW_EVENTS_SQL =
             "DELETE FROM review_events WHERE processed IS TRUE AND (update_instant < :cutoff OR update_instant IS NULL);";
 
+    // Drops the expired partitions where every event can be purged and deletes the rest. The procedure commits as it
+    // goes, so it can't be called in a transaction.
+    private static final String PURGE_OLD_REVIEW_EVENT_PARTITIONS_SQL =
+            "CALL \"PurgeTimePartitions\"('review_events', 'processed', :cutoff, NULL)";
+
+    // Client ids are kept as long as their event is, and a while after if the event was deleted rather than purged
+    private static final String PURGE_OLD_REVIEW_EVENT_CLIENT_IDS_SQL =
+            "DELETE FROM review_event_client_id c " +
+            "WHERE c.create_instant < :cutoff " +
+                    "AND NOT EXISTS (SELECT 1 FROM review_events e WHERE e.username = c.username AND e.client_event_id = c.client_event_id);";
+
     private final NamedParameterJdbcTemplate template;
+    private final ReviewTablePartitioning reviewTablePartitioning;
 
     @Autowired
-    public ReviewEventDaoPG(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+    public ReviewEventDaoPG(NamedParameterJdbcTemplate namedParameterJdbcTemplate, ReviewTablePartitioning reviewTablePartitioning) {
         this.template = namedParameterJdbcTemplate;
+        this.reviewTablePartitioning = reviewTablePartitioning;
     }
 
     @Override
     public boolean saveReviewEvent(ReviewEvent event) {
+        // Nothing is inserted if the client already sent the event, which still counts as saved
+        return template.update(insertReviewEventSql(), toInsertParams(event)) > 0 || event.clientEventId() != null;
+    }
+
+    @Override
+    public int saveReviewEvents(List<ReviewEvent> events) {
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        SqlParameterSource paramsArray[] = new SqlParameterSource[events.size()];
+        for (int index = 0; index < events.size(); index++) {
+            paramsArray[index] = toInsertParams(events.get(index));
+        }
+
+        int savedCnt = 0;
+        int[] updateCnts = template.batchUpdate(insertReviewEventSql(), paramsArray);
+        for (int index = 0; index < updateCnts.length; index++) {
+            // The driver may not report row counts for batched statements, but a failed insert throws
+            if (updateCnts[index] == Statement.SUCCESS_NO_INFO || updateCnts[index] > 0 || events.get(index).clientEventId() != null) {
+                savedCnt++;
+            }
+        }
+
+        return savedCnt;
+    }
+
+    private String insertReviewEventSql() {
+        return reviewTablePartitioning.isPartitioned(ReviewTablePartitioning.REVIEW_EVENTS_TABLE) ? INSERT_PARTITIONED_REVIEW_EVENT_SQL : INSERT_REVIEW_EVENT_SQL;
+    }
+
+    private static MapSqlParameterSource toInsertParams(ReviewEvent event) {
         MapSqlParameterSource params = new MapSqlParameterSource();
         params.addValue("lexiconId", event.lexiconId());
         params.addValue("wordId", event.wordId());
@@ -77,8 +150,9 @@ public class ReviewEventDaoPG implements ReviewEventDao {
         params.addValue("eventInstant", Timestamp.from(event.eventInstant()));
         params.addValue("override", event.override());
         params.addValue("scheduledReviewId", event.scheduledReviewId());
+        params.addValue("clientEventId", event.clientEventId());
 
-        return template.update(INSERT_REVIEW_EVENT_SQL, params) > 0;
+        return params;
     }
 
     @Override
@@ -100,10 +174,22 @@ public class ReviewEventDaoPG implements ReviewEventDao {
                             rs.getBoolean("correct"),
                             rs.getBoolean("near_miss"),
                             rs.getLong("elapsed_time_ms"),
-                            rs.getBoolean("override"));
+                            rs.getBoolean("override"),
+                            rs.getString("client_event_id"));
                 });
     }
 
+    @Override
+    public Optional<Map<String, Set<String>>> loadLexiconIdsWithUnprocessedEvents() {
+        Map<String, Set<String>> lexiconIdsByUsername = new HashMap<>();
+
+        template.query(LOAD_LEXICONS_WITH_UNPROCESSED_EVENTS, Map.of(), rs -> {
+            lexiconIdsByUsername.computeIfAbsent(rs.getString("username"), username -> new HashSet<>()).add(rs.getString("lexicon_id"));
+        });
+
+        return Optional.of(lexiconIdsByUsername);
+    }
+
     @Override
     public List<String> markEventsAsProcessed(List<ReviewEvent> events) {
         List<Integer> eventIds = events.stream().map(event -> Integer.parseInt(event.eventId())).toList();
@@ -146,6 +232,12 @@ public class ReviewEventDaoPG implements ReviewEventDao {
 
     @Override
     public int purgeOldReviewEvents(Instant cutoff) {
+        if (reviewTablePartitioning.isPartitioned(ReviewTablePartitioning.REVIEW_EVENTS_TABLE)) {
+            int purgedCnt = template.queryForObject(PURGE_OLD_REVIEW_EVENT_PARTITIONS_SQL, Map.of("cutoff", Timestamp.from(cutoff)), Long.class).intValue();
+            template.update(PURGE_OLD_REVIEW_EVENT_CLIENT_IDS_SQL, Map.of("cutoff", Timestamp.from(cutoff)));
+            return purgedCnt;
+        }
+
         return template.update(PURGE_OLD_REVIEW_EVENTS_SQL, Map.of("cutoff", Timestamp.from(cutoff)));
     }
 
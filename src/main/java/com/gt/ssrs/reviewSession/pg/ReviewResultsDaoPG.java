@@ -0,0 +1,215 @@
+package com.gt.ssrs.reviewSession.pg;
+
+import com.gt.ssrs.model.ReviewEvent;
+import com.gt.ssrs.model.ScheduledReview;
+import com.gt.ssrs.model.TestHistory;
+import com.gt.ssrs.model.WordReviewHistory;
+import com.gt.ssrs.reviewSession.ReviewEventDao;
+import com.gt.ssrs.reviewSession.ReviewResultsDao;
+import com.gt.ssrs.reviewSession.ScheduledReviewDao;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.SqlArrayValue;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Writes all the results of a processing pass in one transaction, with one set-based statement per table. Each list is
+// bound as an array and expanded with unnest, so the number of round trips doesn't depend on the number of words.
+// Times are bound as epoch milliseconds since timestamp arrays are sent as text without a time zone.
+@Component
+public class ReviewResultsDaoPG implements ReviewResultsDao {
+
+    private static final Logger log = LoggerFactory.getLogger(ReviewResultsDaoPG.class);
+
+    private static final String UPSERT_LEXICON_REVIEW_HISTORY_SQL =
+            "INSERT INTO lexicon_review_history " +
+                    "(lexicon_id, word_id, username, learned, most_recent_test_time, most_recent_test_relationship_id, current_test_delay_sec, " +
+                    " current_boost, current_boost_expiration_delay_sec) " +
+            "SELECT h.lexicon_id, h.word_id, :username, h.learned, to_timestamp(h.most_recent_test_time_ms / 1000.0), h.most_recent_test_relationship_id, " +
+                    "h.current_test_delay_sec, h.current_boost, h.current_boost_expiration_delay_sec " +
+            "FROM unnest(:lexiconIds, :wordIds, :learned, :mostRecentTestTimeMs, :mostRecentTestRelationshipIds, :currentTestDelaySecs, " +
+                    ":currentBoosts, :currentBoostExpirationDelaySecs) " +
+                    "AS h(lexicon_id, word_id, learned, most_recent_test_time_ms, most_recent_test_relationship_id, current_test_delay_sec, " +
+                    "current_boost, current_boost_expiration_delay_sec) " +
+            "ON CONFLICT (lexicon_id, word_id, username) " +
+            "DO UPDATE SET " +
+                    "learned = EXCLUDED.learned, most_recent_test_time = EXCLUDED.most_recent_test_time, " +
+                    "most_recent_test_relationship_id = EXCLUDED.most_recent_test_relationship_id, current_test_delay_sec = EXCLUDED.current_test_delay_sec, " +
+                    "current_boost = EXCLUDED.current_boost, current_boost_expiration_delay_sec = EXCLUDED.current_boost_expiration_delay_sec";
+
+    private static final String UPSERT_LEXICON_WORD_TEST_HISTORY_SQL =
+            "INSERT INTO lexicon_word_test_history " +
+                    "(lexicon_id, word_id, relationship_id, username, total_tests, correct_tests, correct_streak) " +
+            "SELECT t.lexicon_id, t.word_id, t.relationship_id, :username, t.total_tests, t.correct_tests, t.correct_streak " +
+            "FROM unnest(:lexiconIds, :wordIds, :relationshipIds, :totalTests, :correctTests, :correctStreaks) " +
+                    "AS t(lexicon_id, word_id, relationship_id, total_tests, correct_tests, correct_streak) " +
+            "ON CONFLICT (lexicon_id, word_id, relationship_id, username) " +
+            "DO UPDATE " +
+            "SET total_tests = EXCLUDED.total_tests, correct_tests = EXCLUDED.correct_tests, correct_streak = EXCLUDED.correct_streak";
+
+    private static final String UPSERT_SCHEDULED_REVIEWS_SQL =
+            "INSERT INTO scheduled_review " +
+                    "(id, owner, lexicon_id, word_id, review_type, test_relationship_id, scheduled_test_time, test_delay_ms, completed) " +
+            "SELECT s.id, s.owner, s.lexicon_id, s.word_id, s.review_type, s.test_relationship_id, to_timestamp(s.scheduled_test_time_ms / 1000.0), " +
+                    "s.test_delay_ms, s.completed " +
+            "FROM unnest(:ids, :owners, :lexiconIds, :wordIds, :reviewTypes, :testRelationshipIds, :scheduledTestTimeMs, :testDelayMs, :completed) " +
+                    "AS s(id, owner, lexicon_id, word_id, review_type, test_relationship_id, scheduled_test_time_ms, test_delay_ms, completed) " +
+            "ON CONFLICT (id) DO UPDATE " +
+                    "SET owner = EXCLUDED.owner, lexicon_id = EXCLUDED.lexicon_id, word_id = EXCLUDED.word_id, review_type = EXCLUDED.review_type, " +
+                    "test_relationship_id = EXCLUDED.test_relationship_id, scheduled_test_time = EXCLUDED.scheduled_test_time, " +
+                    "test_delay_ms = EXCLUDED.test_delay_ms, completed = EXCLUDED.completed";
+
+    // Once scheduled_review is partitioned, id alone can't be unique, so existing reviews are updated and the rest
+    // inserted. Only safe while holding the locks on their ids.
+    private static final String UPSERT_PARTITIONED_SCHEDULED_REVIEWS_SQL =
+            "WITH reviews AS (" +
+                    "SELECT s.id, s.owner, s.lexicon_id, s.word_id, s.review_type, s.test_relationship_id, " +
+                            "to_timestamp(s.scheduled_test_time_ms / 1000.0) AS scheduled_test_time, s.test_delay_ms, s.completed " +
+                    "FROM unnest(:ids, :owners, :lexiconIds, :wordIds, :reviewTypes, :testRelationshipIds, :scheduledTestTimeMs, :testDelayMs, :completed) " +
+                            "AS s(id, owner, lexicon_id, word_id, review_type, test_relationship_id, scheduled_test_time_ms, test_delay_ms, completed)" +
+            "), updated AS (" +
+                    "UPDATE scheduled_review r " +
+                    "SET owner = reviews.owner, lexicon_id = reviews.lexicon_id, word_id = reviews.word_id, review_type = reviews.review_type, " +
+                            "test_relationship_id = reviews.test_relationship_id, scheduled_test_time = reviews.scheduled_test_time, " +
+                            "test_delay_ms = reviews.test_delay_ms, completed = reviews.completed " +
+                    "FROM reviews " +
+                    "WHERE r.id = reviews.id " +
+                    "RETURNING r.id" +
+            ") " +
+            "INSERT INTO scheduled_review " +
+                    "(id, owner, lexicon_id, word_id, review_type, test_relationship_id, scheduled_test_time, test_delay_ms, completed) " +
+            "SELECT id, owner, lexicon_id, word_id, review_type, test_relationship_id, scheduled_test_time, test_delay_ms, completed " +
+            "FROM reviews " +
+            "WHERE NOT EXISTS (SELECT 1 FROM updated WHERE updated.id = reviews.id)";
+
+    private static final String MARK_EVENTS_AS_PROCESSED_SQL =
+            "UPDATE review_events " +
+            "SET processed = true " +
+            "WHERE event_id = ANY(:eventIds)";
+
+    private final NamedParameterJdbcTemplate template;
+    private final TransactionTemplate transactionTemplate;
+    private final ReviewTablePartitioning reviewTablePartitioning;
+    private final ReviewEventDao reviewEventDao;
+    private final ScheduledReviewDao scheduledReviewDao;
+
+    @Autowired
+    public ReviewResultsDaoPG(NamedParameterJdbcTemplate template,
+                              ReviewTablePartitioning reviewTablePartitioning,
+                              ReviewEventDao reviewEventDao,
+                              ScheduledReviewDao scheduledReviewDao) {
+        this.template = template;
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(template.getJdbcTemplate().getDataSource()));
+        this.reviewTablePartitioning = reviewTablePartitioning;
+        this.reviewEventDao = reviewEventDao;
+        this.scheduledReviewDao = scheduledReviewDao;
+    }
+
+    @Override
+    public void saveProcessedResults(String username, List<WordReviewHistory> wordReviewHistories, List<ScheduledReview> scheduledReviews, List<ReviewEvent> processedEvents) {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!wordReviewHistories.isEmpty()) {
+                saveWordReviewHistories(username, wordReviewHistories);
+            }
+            if (!scheduledReviews.isEmpty()) {
+                saveScheduledReviews(scheduledReviews);
+            }
+            if (!processedEvents.isEmpty()) {
+                template.update(MARK_EVENTS_AS_PROCESSED_SQL, Map.of("eventIds",
+                        new SqlArrayValue("int8", processedEvents.stream().map(event -> Long.parseLong(event.eventId())).toArray())));
+            }
+        });
+
+        log.debug("Saved {} histories and {} scheduled reviews for {} processed events", wordReviewHistories.size(), scheduledReviews.size(), processedEvents.size());
+    }
+
+    // The DAOs use the same data source, so their statements run in this transaction
+    @Override
+    public int saveReviewEvents(List<ReviewEvent> events, Collection<String> completedScheduledReviewIds) {
+        return transactionTemplate.execute(status -> {
+            int savedCnt = reviewEventDao.saveReviewEvents(events);
+            if (!completedScheduledReviewIds.isEmpty()) {
+                scheduledReviewDao.markScheduledReviewsComplete(completedScheduledReviewIds);
+            }
+
+            return savedCnt;
+        });
+    }
+
+    private void saveWordReviewHistories(String username, List<WordReviewHistory> wordReviewHistories) {
+        MapSqlParameterSource historyParams = new MapSqlParameterSource("username", username)
+                .addValue("lexiconIds", toArray("varchar", wordReviewHistories, WordReviewHistory::lexiconId))
+                .addValue("wordIds", toArray("varchar", wordReviewHistories, WordReviewHistory::wordId))
+                .addValue("learned", toArray("bool", wordReviewHistories, WordReviewHistory::learned))
+                .addValue("mostRecentTestTimeMs", toArray("int8", wordReviewHistories, history -> toEpochMilli(history.mostRecentTestTime())))
+                .addValue("mostRecentTestRelationshipIds", toArray("varchar", wordReviewHistories, WordReviewHistory::mostRecentTestRelationshipId))
+                .addValue("currentTestDelaySecs", toArray("int8", wordReviewHistories, history -> toSeconds(history.currentTestDelay())))
+                .addValue("currentBoosts", toArray("float8", wordReviewHistories, WordReviewHistory::currentBoost))
+                .addValue("currentBoostExpirationDelaySecs", toArray("int8", wordReviewHistories, history -> toSeconds(history.currentBoostExpirationDelay())));
+
+        List<TestHistoryRow> testHistoryRows = new ArrayList<>();
+        for (WordReviewHistory wordHistory : wordReviewHistories) {
+            if (wordHistory.testHistory() != null) {
+                wordHistory.testHistory().forEach((relationshipId, testHistory) ->
+                        testHistoryRows.add(new TestHistoryRow(wordHistory.lexiconId(), wordHistory.wordId(), relationshipId, testHistory)));
+            }
+        }
+
+        template.update(UPSERT_LEXICON_REVIEW_HISTORY_SQL, historyParams);
+
+        if (!testHistoryRows.isEmpty()) {
+            template.update(UPSERT_LEXICON_WORD_TEST_HISTORY_SQL, new MapSqlParameterSource("username", username)
+                    .addValue("lexiconIds", toArray("varchar", testHistoryRows, TestHistoryRow::lexiconId))
+                    .addValue("wordIds", toArray("varchar", testHistoryRows, TestHistoryRow::wordId))
+                    .addValue("relationshipIds", toArray("varchar", testHistoryRows, TestHistoryRow::relationshipId))
+                    .addValue("totalTests", toArray("int8", testHistoryRows, row -> (long)row.testHistory().totalTests()))
+                    .addValue("correctTests", toArray("int8", testHistoryRows, row -> (long)row.testHistory().correct()))
+                    .addValue("correctStreaks", toArray("int8", testHistoryRows, row -> (long)row.testHistory().correctStreak())));
+        }
+    }
+
+    private void saveScheduledReviews(List<ScheduledReview> scheduledReviews) {
+        String upsertSql = UPSERT_SCHEDULED_REVIEWS_SQL;
+        if (reviewTablePartitioning.isPartitioned(ReviewTablePartitioning.SCHEDULED_REVIEW_TABLE)) {
+            reviewTablePartitioning.lockScheduledReviewIds(scheduledReviews.stream().map(ScheduledReview::id).toList());
+            upsertSql = UPSERT_PARTITIONED_SCHEDULED_REVIEWS_SQL;
+        }
+
+        template.update(upsertSql, new MapSqlParameterSource()
+                .addValue("ids", toArray("varchar", scheduledReviews, ScheduledReview::id))
+                .addValue("owners", toArray("varchar", scheduledReviews, ScheduledReview::username))
+                .addValue("lexiconIds", toArray("varchar", scheduledReviews, ScheduledReview::lexiconId))
+                .addValue("wordIds", toArray("varchar", scheduledReviews, ScheduledReview::wordId))
+                .addValue("reviewTypes", toArray("varchar", scheduledReviews, review -> review.reviewType().toString()))
+                .addValue("testRelationshipIds", toArray("varchar", scheduledReviews, ScheduledReview::testRelationshipId))
+                .addValue("scheduledTestTimeMs", toArray("int8", scheduledReviews, review -> review.scheduledTestTime().toEpochMilli()))
+                .addValue("testDelayMs", toArray("int8", scheduledReviews, review -> review.testDelay().toMillis()))
+                .addValue("completed", toArray("bool", scheduledReviews, ScheduledReview::completed)));
+    }
+
+    private static <T> SqlArrayValue toArray(String typeName, List<T> rows, Function<T, Object> getValue) {
+        return new SqlArrayValue(typeName, rows.stream().map(getValue).toArray());
+    }
+
+    private static Long toEpochMilli(Instant instant) {
+        return instant == null ? null : instant.toEpochMilli();
+    }
+
+    private static Long toSeconds(Duration duration) {
+        return duration == null ? null : duration.getSeconds();
+    }
+
+    private record TestHistoryRow(String lexiconId, String wordId, String relationshipId, TestHistory testHistory) { }
+}
@@ -0,0 +1,49 @@
+package com.gt.ssrs.reviewSession.pg;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.SqlArrayValue;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Whether review_events and scheduled_review have been converted by "PartitionReviewTables". Unique indexes on a
+// partitioned table have to include the partition key, so the DAOs can only use ON CONFLICT on the unconverted tables.
+// Each table is only checked once, so the application has to be restarted after converting them.
+@Component
+public class ReviewTablePartitioning {
+
+    public static final String REVIEW_EVENTS_TABLE = "review_events";
+    public static final String SCHEDULED_REVIEW_TABLE = "scheduled_review";
+
+    private static final String IS_PARTITIONED_SQL =
+            "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = to_regclass(:tableName))";
+
+    // Locked in a consistent order so that two batches sharing ids can't deadlock
+    private static final String LOCK_SCHEDULED_REVIEW_IDS_SQL =
+            "SELECT pg_advisory_xact_lock(hashtext('scheduled_review'), id_hash) " +
+            "FROM (SELECT DISTINCT hashtext(id) AS id_hash FROM unnest(:ids) AS id) AS ids " +
+            "ORDER BY id_hash";
+
+    private final NamedParameterJdbcTemplate template;
+    private final Map<String, Boolean> partitionedByTable = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ReviewTablePartitioning(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.template = namedParameterJdbcTemplate;
+    }
+
+    public boolean isPartitioned(String tableName) {
+        return partitionedByTable.computeIfAbsent(tableName,
+                name -> Boolean.TRUE.equals(template.queryForObject(IS_PARTITIONED_SQL, Map.of("tableName", name), Boolean.class)));
+    }
+
+    // Stands in for the unique index on id of the partitioned scheduled_review, so that two transactions can't both find
+    // no review and insert it. Has to be called in the transaction that upserts the reviews, before the upsert, so the
+    // upsert sees any review committed by a transaction it waited for. The locks are released when it commits.
+    public void lockScheduledReviewIds(Collection<String> scheduledReviewIds) {
+        template.query(LOCK_SCHEDULED_REVIEW_IDS_SQL, Map.of("ids", new SqlArrayValue("varchar", scheduledReviewIds.toArray())), rs -> { });
+    }
+}
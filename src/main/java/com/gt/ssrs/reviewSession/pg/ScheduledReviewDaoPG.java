@@ -10,14 +10,19 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.SqlArrayValue;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.Duration;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -35,16 +40,64 @@ public class ScheduledReviewDaoPG implements ScheduledReviewDao {
                     "SET owner = :owner, lexicon_id = :lexiconId, word_id = :wordId, review_type = :reviewType, test_relationship_id = :testRelationshipId, " +
                     "scheduled_test_time = :scheduledTestTime, test_delay_ms = :testDelayMs, completed = :completed";
 
+    // Once the table is partitioned, id alone can't be unique, so the review is updated, then inserted if it didn't exist.
+    // Only safe while holding the lock on its id.
+    private static final String CREATE_PARTITIONED_SCHEDULED_REVIEW_SQL =
+            "WITH updated AS (" +
+                    "UPDATE scheduled_review " +
+                    "SET owner = :owner, lexicon_id = :lexiconId, word_id = :wordId, review_type = :reviewType, test_relationship_id = :testRelationshipId, " +
+                            "scheduled_test_time = :scheduledTestTime, test_delay_ms = :testDelayMs, completed = :completed " +
+                    "WHERE id = :id " +
+                    "RETURNING id" +
+            ") " +
+            "INSERT INTO scheduled_review " +
+                    "(id, owner, lexicon_id, word_id, review_type, test_relationship_id, scheduled_test_time, test_delay_ms, completed) " +
+            "SELECT :id, :owner, :lexiconId, :wordId, :reviewType, :testRelationshipId, CAST(:scheduledTestTime AS timestamp with time zone), :testDelayMs, :completed " +
+            "WHERE NOT EXISTS (SELECT 1 FROM updated)";
+
     private static final String MARK_SCHEDULED_REVIEW_COMPLETE_SQL =
             "UPDATE scheduled_review " +
             "SET completed = true " +
             "WHERE id = :scheduledReviewId";
 
+    private static final String MARK_SCHEDULED_REVIEWS_COMPLETE_SQL =
+            "UPDATE scheduled_review " +
+            "SET completed = true " +
+            "WHERE id = ANY(:scheduledReviewIds)";
+
     private static final String LOAD_SCHEDULED_REVIEWS_SQL =
             "SELECT id, owner, lexicon_id, word_id, review_type, test_relationship_id, scheduled_test_time, test_delay_ms, completed " +
             "FROM scheduled_review " +
             "WHERE lexicon_id = :lexiconId AND owner = :owner AND scheduled_test_time < :cutoffInstant AND completed IS NOT TRUE AND (:testRelationshipId = '' OR test_relationship_id = :testRelationshipId)";
 
+    // Ordered by the lexiconId-scheduledTestTime-completed index, so only up to the limit of rows are read
+    private static final String LOAD_DUE_SCHEDULED_REVIEWS_SQL =
+            "SELECT id, owner, lexicon_id, word_id, review_type, test_relationship_id, scheduled_test_time, test_delay_ms, completed " +
+            "FROM scheduled_review " +
+            "WHERE lexicon_id = :lexiconId AND owner = :owner AND scheduled_test_time < :cutoffInstant AND completed IS NOT TRUE " +
+                    "AND (:testRelationshipId = '' OR test_relationship_id = :testRelationshipId) " +
+                    "AND (scheduled_test_time <= :now OR EXTRACT(EPOCH FROM (scheduled_test_time - :now)) * 1000 < test_delay_ms * :earlyReviewDelayRatio) " +
+            "ORDER BY scheduled_test_time " +
+            "LIMIT :limit";
+
+    // Whole hours before the bucket cutoff are summed from the counts kept by the ScheduledReviewCounts trigger, so only
+    // the reviews in the current, partial hour (and any early reviews) are counted from scheduled_review
+    private static final String COUNT_SCHEDULED_REVIEWS_SQL =
+            "SELECT lexicon_id, NULLIF(test_relationship_id, '') AS test_relationship_id, SUM(review_cnt) AS review_cnt " +
+            "FROM (" +
+                    "SELECT lexicon_id, test_relationship_id, review_cnt " +
+                    "FROM scheduled_review_counts " +
+                    "WHERE lexicon_id = ANY(:lexiconIds) AND owner = :owner AND bucket_start < :bucketCutoffInstant " +
+                    "UNION ALL " +
+                    "SELECT lexicon_id, COALESCE(test_relationship_id, ''), 1 " +
+                    "FROM scheduled_review " +
+                    "WHERE lexicon_id = ANY(:lexiconIds) AND owner = :owner AND scheduled_test_time >= :bucketCutoffInstant " +
+                            "AND scheduled_test_time < :cutoffInstant AND completed IS NOT TRUE " +
+                            "AND (scheduled_test_time <= :now OR EXTRACT(EPOCH FROM (scheduled_test_time - :now)) * 1000 < test_delay_ms * :earlyReviewDelayRatio)" +
+            ") AS review_counts " +
+            "GROUP BY lexicon_id, test_relationship_id " +
+            "HAVING SUM(review_cnt) > 0";
+
     private static final String LOAD_SCHEDULED_REVIEWS_FOR_WORDS_SQL =
             "SELECT id, owner, lexicon_id, word_id, review_type, test_relationship_id, scheduled_test_time, test_delay_ms, completed " +
             "FROM scheduled_review " +
@@ -70,11 +123,21 @@ public class ScheduledReviewDaoPG implements ScheduledReviewDao {
     private static final String PURGE_OLD_SCHEDULED_REVIEWS_SQL =
             "DELETE FROM scheduled_review WHERE completed IS TRUE AND (update_instant < :cutoff OR update_instant IS NULL);";
 
+    // Drops the expired partitions where every review can be purged, and deletes the purgeable reviews from the rest. A
+    // partition is kept while any review created in it is incomplete, so most reviews are still purged by deleting them.
+    // The procedure commits as it goes, so it can't be called in a transaction.
+    private static final String PURGE_OLD_SCHEDULED_REVIEW_PARTITIONS_SQL =
+            "CALL \"PurgeTimePartitions\"('scheduled_review', 'completed', :cutoff, NULL)";
+
     private final NamedParameterJdbcTemplate template;
+    private final TransactionTemplate transactionTemplate;
+    private final ReviewTablePartitioning reviewTablePartitioning;
 
     @Autowired
-    public ScheduledReviewDaoPG(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+    public ScheduledReviewDaoPG(NamedParameterJdbcTemplate namedParameterJdbcTemplate, ReviewTablePartitioning reviewTablePartitioning) {
         this.template = namedParameterJdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(namedParameterJdbcTemplate.getJdbcTemplate().getDataSource()));
+        this.reviewTablePartitioning = reviewTablePartitioning;
     }
 
     @Override
@@ -94,7 +157,15 @@ public class ScheduledReviewDaoPG implements ScheduledReviewDao {
                     "completed", scheduledReviews.get(index).completed()));
         }
 
-        template.batchUpdate(CREATE_SCHEDULED_REVIEW_SQL, paramsArray);
+        if (!reviewTablePartitioning.isPartitioned(ReviewTablePartitioning.SCHEDULED_REVIEW_TABLE)) {
+            template.batchUpdate(CREATE_SCHEDULED_REVIEW_SQL, paramsArray);
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            reviewTablePartitioning.lockScheduledReviewIds(scheduledReviews.stream().map(ScheduledReview::id).toList());
+            template.batchUpdate(CREATE_PARTITIONED_SCHEDULED_REVIEW_SQL, paramsArray);
+        });
     }
 
     @Override
@@ -102,6 +173,16 @@ public class ScheduledReviewDaoPG implements ScheduledReviewDao {
         return template.update(MARK_SCHEDULED_REVIEW_COMPLETE_SQL, Map.of("scheduledReviewId", scheduledReviewId));
     }
 
+    @Override
+    public int markScheduledReviewsComplete(Collection<String> scheduledReviewIds) {
+        if (scheduledReviewIds.isEmpty()) {
+            return 0;
+        }
+
+        return template.update(MARK_SCHEDULED_REVIEWS_COMPLETE_SQL,
+                Map.of("scheduledReviewIds", new SqlArrayValue("varchar", scheduledReviewIds.toArray())));
+    }
+
     @Override
     public List<ScheduledReview> loadScheduledReviews(String username, String lexiconId, String testRelationshipId, Optional<Instant> cutoffInstant) {
 
@@ -112,6 +193,43 @@ public class ScheduledReviewDaoPG implements ScheduledReviewDao {
                 ScheduledReviewDaoPG::getDBScheduledReviewFromResultSet);
     }
 
+    @Override
+    public List<ScheduledReview> loadDueScheduledReviews(String username, String lexiconId, String testRelationshipId, Optional<Instant> cutoffInstant, double futureEventAllowedRatio, int limit) {
+        Instant now = Instant.now();
+
+        return template.query(LOAD_DUE_SCHEDULED_REVIEWS_SQL, Map.of("owner", username,
+                        "lexiconId", lexiconId,
+                        "testRelationshipId", testRelationshipId == null ? "" : testRelationshipId,   // needs to be blank if not being used as a filter
+                        "cutoffInstant", Timestamp.from(cutoffInstant.orElse(now)),
+                        "now", Timestamp.from(now),
+                        "earlyReviewDelayRatio", 1 - futureEventAllowedRatio,
+                        "limit", limit),
+                ScheduledReviewDaoPG::getDBScheduledReviewFromResultSet);
+    }
+
+    @Override
+    public Map<String, Map<String, Integer>> countScheduledReviews(String username, Collection<String> lexiconIds, Optional<Instant> cutoffInstant, double futureEventAllowedRatio) {
+        Instant now = Instant.now();
+        Instant cutoff = cutoffInstant.orElse(now);
+        Map<String, Map<String, Integer>> scheduledReviewCounts = new HashMap<>();
+
+        // Every review in an hour before both the cutoff and now is due, so those hours can come from the counts
+        Instant bucketCutoff = (cutoff.isBefore(now) ? cutoff : now).truncatedTo(ChronoUnit.HOURS);
+
+        template.query(COUNT_SCHEDULED_REVIEWS_SQL, Map.of("owner", username,
+                        "lexiconIds", new SqlArrayValue("varchar", lexiconIds.toArray()),
+                        "cutoffInstant", Timestamp.from(cutoff),
+                        "bucketCutoffInstant", Timestamp.from(bucketCutoff),
+                        "now", Timestamp.from(now),
+                        "earlyReviewDelayRatio", 1 - futureEventAllowedRatio),
+                rs -> {
+                    scheduledReviewCounts.computeIfAbsent(rs.getString("lexicon_id"), lexiconId -> new HashMap<>())
+                            .put(rs.getString("test_relationship_id"), rs.getInt("review_cnt"));
+                });
+
+        return scheduledReviewCounts;
+    }
+
     @Override
     public List<ScheduledReview> loadScheduledReviewsForWords(String username, String lexiconId, Collection<String> wordIds) {
         return template.query(LOAD_SCHEDULED_REVIEWS_FOR_WORDS_SQL, Map.of("owner", username,
@@ -128,6 +246,10 @@ public class ScheduledReviewDaoPG implements ScheduledReviewDao {
     }
 
     public int purgeOldScheduledReviews(Instant cutoff) {
+        if (reviewTablePartitioning.isPartitioned(ReviewTablePartitioning.SCHEDULED_REVIEW_TABLE)) {
+            return template.queryForObject(PURGE_OLD_SCHEDULED_REVIEW_PARTITIONS_SQL, Map.of("cutoff", Timestamp.from(cutoff)), Long.class).intValue();
+        }
+
         return template.update(PURGE_OLD_SCHEDULED_REVIEWS_SQL, Map.of("cutoff", Timestamp.from(cutoff)));
     }
 
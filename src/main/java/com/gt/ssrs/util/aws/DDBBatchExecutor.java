@@ -0,0 +1,241 @@
+package com.gt.ssrs.util.aws;
+
+import com.gt.ssrs.exception.DaoException;
+import com.gt.ssrs.util.ListUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.MappedTableResource;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchGetResultPage;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
+import software.amazon.awssdk.enhanced.dynamodb.model.ReadBatch;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Runs DynamoDB batch reads and writes for any number of items. The items are split into batches of the maximum size,
+// which are sent concurrently up to the configured limit. When DynamoDB is throttling, it returns the items it didn't
+// get to, which are resubmitted after a jittered, exponentially increasing delay. Anything still unprocessed after the
+// last attempt is returned to the caller.
+@Component
+public class DDBBatchExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(DDBBatchExecutor.class);
+
+    private final DynamoDbEnhancedClient dynamoDbEnhancedClient;
+    private final int maxReadBatchSize;
+    private final int maxWriteBatchSize;
+    private final int maxInFlightBatches;
+    private final int maxAttempts;
+    private final long retryBaseDelayMs;
+    private final long retryMaxDelayMs;
+
+    private final AtomicLong batchCnt = new AtomicLong();
+    private final AtomicLong throttledBatchCnt = new AtomicLong();
+    private final AtomicLong retriedItemCnt = new AtomicLong();
+    private final AtomicLong unprocessedItemCnt = new AtomicLong();
+
+    @Autowired
+    public DDBBatchExecutor(DynamoDbEnhancedClient dynamoDbEnhancedClient,
+                            @Value("${aws.dynamodb.maxReadBatchSize}") int maxReadBatchSize,
+                            @Value("${aws.dynamodb.maxWriteBatchSize}") int maxWriteBatchSize,
+                            @Value("${aws.dynamodb.batch.maxInFlight:4}") int maxInFlightBatches,
+                            @Value("${aws.dynamodb.batch.maxAttempts:5}") int maxAttempts,
+                            @Value("${aws.dynamodb.batch.retryBaseDelayMs:50}") long retryBaseDelayMs,
+                            @Value("${aws.dynamodb.batch.retryMaxDelayMs:2000}") long retryMaxDelayMs) {
+        this.dynamoDbEnhancedClient = dynamoDbEnhancedClient;
+        this.maxReadBatchSize = maxReadBatchSize;
+        this.maxWriteBatchSize = maxWriteBatchSize;
+        this.maxInFlightBatches = Math.max(1, maxInFlightBatches);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBaseDelayMs = retryBaseDelayMs;
+        this.retryMaxDelayMs = retryMaxDelayMs;
+    }
+
+    public int maxReadBatchSize() {
+        return maxReadBatchSize;
+    }
+
+    public DDBBatchExecutorStats getStats() {
+        return new DDBBatchExecutorStats(batchCnt.get(), throttledBatchCnt.get(), retriedItemCnt.get(), unprocessedItemCnt.get());
+    }
+
+    // Items that weren't found, or were still unprocessed after the last attempt, aren't included
+    public <T> List<T> loadItems(MappedTableResource<T> table, Collection<Key> keys) {
+        return mapBatches(keys.stream().distinct().toList(), maxReadBatchSize, batch -> loadBatch(table, batch));
+    }
+
+    // Returns the items that were not written
+    public <T> List<T> putItems(MappedTableResource<T> table, List<T> items) {
+        return mapBatches(items, maxWriteBatchSize, batch -> writeBatch(table, batch, List.of()).unprocessedItems());
+    }
+
+    // Returns the keys of the items that were not deleted
+    public <T> List<Key> deleteItems(MappedTableResource<T> table, Collection<Key> keys) {
+        return mapBatches(keys.stream().distinct().toList(), maxWriteBatchSize, batch -> writeBatch(table, List.of(), batch).unprocessedKeys());
+    }
+
+    // For callers that can't carry on with a partial write. The items that were written stay written, so retrying the
+    // whole call has to be safe.
+    public <T> void putAllItems(MappedTableResource<T> table, List<T> items) {
+        List<T> unprocessedItems = putItems(table, items);
+        if (!unprocessedItems.isEmpty()) {
+            throw new DaoException(unprocessedItems.size() + " of " + items.size() + " items for table " + table.tableName() + " were not written");
+        }
+    }
+
+    public <T> void deleteAllItems(MappedTableResource<T> table, Collection<Key> keys) {
+        List<Key> unprocessedKeys = deleteItems(table, keys);
+        if (!unprocessedKeys.isEmpty()) {
+            throw new DaoException(unprocessedKeys.size() + " items for table " + table.tableName() + " were not deleted");
+        }
+    }
+
+    // Applies the function to each batch of items, concurrently if there is more than one. Any failure is thrown once
+    // all the batches have finished.
+    public <T, R> List<R> mapBatches(List<T> items, int batchSize, Function<List<T>, List<R>> batchFunction) {
+        if (items.isEmpty()) {
+            return List.of();
+        }
+
+        List<List<T>> batches = ListUtil.partitionList(items, batchSize);
+        if (batches.size() == 1) {
+            return batchFunction.apply(batches.get(0));
+        }
+
+        List<Future<List<R>>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(Math.min(maxInFlightBatches, batches.size()), Thread.ofVirtual().factory())) {
+            for (List<T> batch : batches) {
+                results.add(executor.submit(() -> batchFunction.apply(batch)));
+            }
+        }
+
+        List<R> combinedResults = new ArrayList<>();
+        for (Future<List<R>> result : results) {
+            try {
+                combinedResults.addAll(result.get());
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException(ex.getCause());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        return combinedResults;
+    }
+
+    private <T> List<T> loadBatch(MappedTableResource<T> table, List<Key> keys) {
+        List<T> loadedItems = new ArrayList<>();
+        List<Key> unprocessedKeys = keys;
+
+        for (int attempt = 0; attempt < maxAttempts && !unprocessedKeys.isEmpty(); attempt++) {
+            if (attempt > 0 && !sleepBeforeRetry(attempt)) {
+                break;
+            }
+
+            ReadBatch.Builder<T> batchBuilder = ReadBatch.builder(table.tableSchema().itemType().rawClass()).mappedTableResource(table);
+            unprocessedKeys.forEach(batchBuilder::addGetItem);
+
+            // Only the first page is read, since the later pages would resubmit the unprocessed keys without a delay
+            try {
+                BatchGetResultPage resultPage = dynamoDbEnhancedClient.batchGetItem(b -> b.addReadBatch(batchBuilder.build())).iterator().next();
+                loadedItems.addAll(resultPage.resultsForTable(table));
+                unprocessedKeys = recordUnprocessed(table, unprocessedKeys.size(), resultPage.unprocessedKeysForTable(table));
+            } catch (DynamoDbException ex) {
+                handleFailedBatch(table, attempt, ex);
+            }
+        }
+
+        recordAbandoned(table, unprocessedKeys.size());
+        return loadedItems;
+    }
+
+    private <T> WriteOutcome<T> writeBatch(MappedTableResource<T> table, List<T> itemsToPut, List<Key> keysToDelete) {
+        List<T> unprocessedItems = itemsToPut;
+        List<Key> unprocessedKeys = keysToDelete;
+
+        for (int attempt = 0; attempt < maxAttempts && (!unprocessedItems.isEmpty() || !unprocessedKeys.isEmpty()); attempt++) {
+            if (attempt > 0 && !sleepBeforeRetry(attempt)) {
+                break;
+            }
+
+            WriteBatch.Builder<T> batchBuilder = WriteBatch.builder(table.tableSchema().itemType().rawClass()).mappedTableResource(table);
+            unprocessedItems.forEach(batchBuilder::addPutItem);
+            unprocessedKeys.forEach(batchBuilder::addDeleteItem);
+
+            try {
+                BatchWriteResult result = dynamoDbEnhancedClient.batchWriteItem(b -> b.addWriteBatch(batchBuilder.build()));
+                int submittedCnt = unprocessedItems.size() + unprocessedKeys.size();
+                unprocessedItems = result.unprocessedPutItemsForTable(table);
+                unprocessedKeys = result.unprocessedDeleteItemsForTable(table);
+                recordUnprocessed(table, submittedCnt, unprocessedItems.size() + unprocessedKeys.size());
+            } catch (DynamoDbException ex) {
+                handleFailedBatch(table, attempt, ex);
+            }
+        }
+
+        recordAbandoned(table, unprocessedItems.size() + unprocessedKeys.size());
+        return new WriteOutcome<>(unprocessedItems, unprocessedKeys);
+    }
+
+    private <T, K> List<K> recordUnprocessed(MappedTableResource<T> table, int submittedCnt, List<K> unprocessed) {
+        recordUnprocessed(table, submittedCnt, unprocessed.size());
+        return unprocessed;
+    }
+
+    private void recordUnprocessed(MappedTableResource<?> table, int submittedCnt, int unprocessedCnt) {
+        batchCnt.incrementAndGet();
+        if (unprocessedCnt > 0) {
+            throttledBatchCnt.incrementAndGet();
+            retriedItemCnt.addAndGet(unprocessedCnt);
+            log.debug("DynamoDB throttled batch for table {}, {} of {} items unprocessed", table.tableName(), unprocessedCnt, submittedCnt);
+        }
+    }
+
+    // The client has already retried throttling errors by the time they get here, so those get the same delay as
+    // unprocessed items before trying again. Anything else is a problem with the request itself.
+    private void handleFailedBatch(MappedTableResource<?> table, int attempt, DynamoDbException ex) {
+        batchCnt.incrementAndGet();
+        if (!ex.isThrottlingException() || attempt + 1 >= maxAttempts) {
+            throw ex;
+        }
+
+        throttledBatchCnt.incrementAndGet();
+        log.debug("DynamoDB throttled batch for table {}, attempt {} of {}", table.tableName(), attempt + 1, maxAttempts, ex);
+    }
+
+    private void recordAbandoned(MappedTableResource<?> table, int unprocessedCnt) {
+        if (unprocessedCnt > 0) {
+            unprocessedItemCnt.addAndGet(unprocessedCnt);
+            log.warn("{} items for table {} were still unprocessed after {} attempts", unprocessedCnt, table.tableName(), maxAttempts);
+        }
+    }
+
+    // Full jitter, so that batches throttled at the same time don't all retry at the same time
+    private boolean sleepBeforeRetry(int attempt) {
+        long maxDelayMs = Math.min(retryMaxDelayMs, retryBaseDelayMs << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(maxDelayMs + 1));
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record WriteOutcome<T>(List<T> unprocessedItems, List<Key> unprocessedKeys) { }
+}
@@ -0,0 +1,8 @@
+package com.gt.ssrs.util.aws;
+
+public record DDBBatchExecutorStats(long batchCnt, long throttledBatchCnt, long retriedItemCnt, long unprocessedItemCnt) {
+
+    public double throttledBatchRatio() {
+        return batchCnt == 0 ? 0 : (double) throttledBatchCnt / batchCnt;
+    }
+}
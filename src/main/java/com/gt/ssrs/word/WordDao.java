@@ -8,6 +8,7 @@ import com.gt.ssrs.model.WordFilterOptions;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 public interface WordDao {
 
@@ -43,6 +44,11 @@ public interface WordDao {
 
     List<String> getUniqueElementValues(String lexiconId, WordElement wordElement, int limit);
 
+    boolean isSimilarElementValueSearchSupported();
+
+    // Similar values for each target value that has any. Empty if similar element value search isn't supported.
+    Optional<Map<String, List<String>>> findSimilarElementValues(String lexiconId, WordElement wordElement, Collection<String> targetValues, int limit, int maxDistance);
+
     void deleteWords(Collection<String> wordId);
 
     void deleteAllLexiconWords(String lexiconId);
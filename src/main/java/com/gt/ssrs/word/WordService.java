@@ -3,6 +3,7 @@ package com.gt.ssrs.word;
 import com.gt.ssrs.audio.AudioService;
 import com.gt.ssrs.blob.BlobDao;
 import com.gt.ssrs.exception.UserAccessException;
+import com.gt.ssrs.fuzzy.FuzzyMatcherCache;
 import com.gt.ssrs.language.Language;
 import com.gt.ssrs.language.WordElement;
 import com.gt.ssrs.lexicon.LexiconService;
@@ -31,18 +32,24 @@ public class WordService {
     private final AudioService audioService;
     private final WordDao wordDao;
     private final BlobDao blobDao;
+    private final FuzzyMatcherCache fuzzyMatcherCache;
+    private final WordSimilarValuesService wordSimilarValuesService;
 
     @Autowired
     public WordService(LexiconService lexiconService,
                        WordReviewHistoryService wordReviewHistoryService,
                        AudioService audioService,
                        WordDao wordDao,
-                       BlobDao blobDao) {
+                       BlobDao blobDao,
+                       FuzzyMatcherCache fuzzyMatcherCache,
+                       WordSimilarValuesService wordSimilarValuesService) {
         this.lexiconService = lexiconService;
         this.wordReviewHistoryService = wordReviewHistoryService;
         this.audioService = audioService;
         this.wordDao = wordDao;
         this.blobDao = blobDao;
+        this.fuzzyMatcherCache = fuzzyMatcherCache;
+        this.wordSimilarValuesService = wordSimilarValuesService;
     }
 
     public Word loadWord(String id) {
@@ -64,6 +71,7 @@ public class WordService {
 
         Word wordToSave = withUsername(word, username);
         if (saveExistingWord(language, wordToSave)) {
+            onLexiconWordsChanged(wordToSave.lexiconId(), oldWord == null ? List.of() : List.of(oldWord), List.of(wordToSave));
             return wordToSave;
         }
 
@@ -78,6 +86,7 @@ public class WordService {
         List<String> ownedLexiconIds = getOwnedLexiconIds(username);
 
         List<Word> wordsToSave = new ArrayList<>();
+        List<Word> existingWordsToSave = new ArrayList<>();
         Set<String> newWordIds = new HashSet<>();
 
         for(Word word : words) {
@@ -112,6 +121,9 @@ public class WordService {
 
             if (wordToSave != null && (force || validateWord(language, wordToSave))) {
                 wordsToSave.add(wordToSave);
+                if (existingWord != null) {
+                    existingWordsToSave.add(existingWord);
+                }
             }
         }
 
@@ -121,6 +133,7 @@ public class WordService {
         }
         if (!wordsToSave.isEmpty()) {
             savedWords = wordDao.createWords(language, lexiconId, wordsToSave);
+            onLexiconWordsChanged(lexiconId, existingWordsToSave, savedWords);
 
             wordReviewHistoryService.createEmptyWordReviewHistoryForWords(username,
                     savedWords.stream()
@@ -188,9 +201,18 @@ public class WordService {
             }
         }
 
-        wordDao.deleteWords(wordsToDelete.stream()
+        List<String> wordIdsToDelete = wordsToDelete.stream()
                 .map(word -> word.id())
-                .collect(Collectors.toUnmodifiableList()));
+                .collect(Collectors.toUnmodifiableList());
+
+        wordSimilarValuesService.deleteWordSimilarValues(wordIdsToDelete);
+        wordDao.deleteWords(wordIdsToDelete);
+        onLexiconWordsChanged(lexiconId, wordsToDelete, List.of());
+    }
+
+    private void onLexiconWordsChanged(String lexiconId, List<Word> oldWords, List<Word> newWords) {
+        fuzzyMatcherCache.invalidateLexicon(lexiconId);
+        wordSimilarValuesService.refreshChangedWordSimilarValuesAsync(lexiconId, oldWords, newWords);
     }
 
     private boolean validateWord(Language language, Word word) {
@@ -231,6 +253,14 @@ public class WordService {
         return wordDao.getUniqueElementValues(lexiconId, wordElement, limit);
     }
 
+    public boolean isSimilarElementValueSearchSupported() {
+        return wordDao.isSimilarElementValueSearchSupported();
+    }
+
+    public Optional<Map<String, List<String>>> findSimilarElementValues(String lexiconId, WordElement wordElement, Collection<String> targetValues, int limit, int maxDistance) {
+        return wordDao.findSimilarElementValues(lexiconId, wordElement, targetValues, limit, maxDistance);
+    }
+
     private boolean isWordFilterOptionsEmpty(WordFilterOptions wordFilterOptions) {
         if (wordFilterOptions == null) {
             return true;
@@ -255,7 +285,9 @@ public class WordService {
 
     public void deleteLexiconWords(String lexiconId, String username) {
         deleteLexiconAudio(lexiconId);
+        wordSimilarValuesService.deleteLexiconSimilarValues(lexiconId);
         wordDao.deleteAllLexiconWords(lexiconId);
+        fuzzyMatcherCache.invalidateLexicon(lexiconId);
     }
 
     private void deleteLexiconAudio(String lexiconId) {
@@ -0,0 +1,20 @@
+package com.gt.ssrs.word;
+
+import com.gt.ssrs.language.WordElement;
+import com.gt.ssrs.word.model.WordSimilarValues;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface WordSimilarValuesDao {
+
+    List<WordSimilarValues> loadSimilarValues(Collection<String> wordIds, Collection<WordElement> wordElements);
+
+    List<WordSimilarValues> loadLexiconSimilarValues(String lexiconId);
+
+    void saveSimilarValues(List<WordSimilarValues> wordSimilarValues);
+
+    void deleteSimilarValues(Collection<String> wordIds);
+
+    void deleteLexiconSimilarValues(String lexiconId);
+}
@@ -0,0 +1,322 @@
+package com.gt.ssrs.word;
+
+import com.gt.ssrs.fuzzy.DatasetFuzzyMatcher;
+import com.gt.ssrs.fuzzy.FuzzyMatcherCache;
+import com.gt.ssrs.fuzzy.LevenshteinDistance;
+import com.gt.ssrs.language.Language;
+import com.gt.ssrs.language.TestRelationship;
+import com.gt.ssrs.language.WordElement;
+import com.gt.ssrs.lexicon.LexiconService;
+import com.gt.ssrs.model.Word;
+import com.gt.ssrs.util.ListUtil;
+import com.gt.ssrs.word.model.TestOnWordPair;
+import com.gt.ssrs.word.model.WordSimilarValues;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+// Maintains a precomputed list of similar values for each word element that can be tested on, so that building a review
+// session only needs to look the lists up. Adding, changing or removing a word can change the closest matches of other
+// words in the lexicon, so the changed words and every word whose list could hold one of their old or new values are
+// recomputed in the background whenever words change. Until that refresh finishes, a word may have no row or a row computed for an old value of the element. Rows for old
+// values are dropped when loading, and callers fall back to fuzzy matching on the fly for anything not returned and
+// have just those words filled in.
+@Component
+public class WordSimilarValuesService {
+
+    private static final Logger log = LoggerFactory.getLogger(WordSimilarValuesService.class);
+
+    public static final int MAX_VALUES_FOR_FUZZY_MATCHING = 10000;
+    public static final int MAX_DISTANCE = 6;
+    public static final int SIMILAR_VALUE_CNT = 20;
+    private static final int REFRESH_BATCH_SIZE = 500;
+    private static final int MAX_CHANGED_WORDS_FOR_PARTIAL_REFRESH = 500;
+
+    private final WordDao wordDao;
+    private final WordSimilarValuesDao wordSimilarValuesDao;
+    private final LexiconService lexiconService;
+    private final FuzzyMatcherCache fuzzyMatcherCache;
+    private final boolean precomputeEnabled;
+    private final ExecutorService refreshExecutor;
+    private final Set<String> pendingRefreshLexiconIds = ConcurrentHashMap.newKeySet();
+    private final Set<PendingWord> pendingRefreshWords = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public WordSimilarValuesService(WordDao wordDao,
+                                    WordSimilarValuesDao wordSimilarValuesDao,
+                                    LexiconService lexiconService,
+                                    FuzzyMatcherCache fuzzyMatcherCache,
+                                    @Value("${ssrs.fuzzy.precompute.enabled:true}") boolean precomputeEnabled) {
+        this.wordDao = wordDao;
+        this.wordSimilarValuesDao = wordSimilarValuesDao;
+        this.lexiconService = lexiconService;
+        this.fuzzyMatcherCache = fuzzyMatcherCache;
+        this.precomputeEnabled = precomputeEnabled;
+
+        // A single thread so that refreshes never compete with review sessions for more than one core
+        this.refreshExecutor = precomputeEnabled
+                ? Executors.newSingleThreadExecutor(Thread.ofPlatform().name("similar-values-refresh").daemon().factory())
+                : null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+        }
+    }
+
+    // Returns the precomputed similar values for each pair that has an up-to-date row, keyed by element and then word ID
+    public Map<WordElement, Map<String, List<String>>> loadSimilarValues(Collection<TestOnWordPair> testOnWordPairs) {
+        if (!precomputeEnabled || testOnWordPairs.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, Word> wordsById = testOnWordPairs.stream()
+                .map(TestOnWordPair::word)
+                .collect(Collectors.toMap(Word::id, word -> word, (word1, word2) -> word1));
+        Set<WordElement> testOnElements = testOnWordPairs.stream()
+                .map(TestOnWordPair::testOn)
+                .collect(Collectors.toSet());
+
+        List<WordSimilarValues> loadedSimilarValues;
+        try {
+            loadedSimilarValues = wordSimilarValuesDao.loadSimilarValues(wordsById.keySet(), testOnElements);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to load precomputed similar values, values will be computed instead", ex);
+            return Map.of();
+        }
+
+        Map<WordElement, Map<String, List<String>>> similarValues = new HashMap<>();
+        for (WordSimilarValues wordSimilarValues : loadedSimilarValues) {
+            Word word = wordsById.get(wordSimilarValues.wordId());
+            if (word != null && wordSimilarValues.wordElement() != null
+                    && Objects.equals(word.elements().get(wordSimilarValues.wordElement().getId()), wordSimilarValues.elementValue())) {
+                similarValues.computeIfAbsent(wordSimilarValues.wordElement(), k -> new HashMap<>())
+                        .put(wordSimilarValues.wordId(), wordSimilarValues.similarValues());
+            }
+        }
+
+        return similarValues;
+    }
+
+    public void refreshLexiconSimilarValuesAsync(String lexiconId) {
+        if (!precomputeEnabled) {
+            return;
+        }
+
+        // Any number of changes made before a queued refresh starts are covered by that one refresh
+        if (pendingRefreshLexiconIds.add(lexiconId)) {
+            try {
+                refreshExecutor.execute(() -> {
+                    pendingRefreshLexiconIds.remove(lexiconId);
+                    try {
+                        refreshLexiconSimilarValues(lexiconId);
+                    } catch (RuntimeException ex) {
+                        log.error("Failed to refresh similar values for lexicon {}", lexiconId, ex);
+                    }
+                });
+            } catch (RejectedExecutionException ex) {
+                pendingRefreshLexiconIds.remove(lexiconId);
+                log.warn("Unable to schedule similar values refresh for lexicon {}", lexiconId);
+            }
+        }
+    }
+
+    // Refreshes the rows that can be affected by words changing from oldWords to newWords. New words have no old word,
+    // and deleted words have no new word. Changing more words than that at once recomputes the whole lexicon instead,
+    // since most of its rows would be recomputed anyway.
+    public void refreshChangedWordSimilarValuesAsync(String lexiconId, Collection<Word> oldWords, Collection<Word> newWords) {
+        if (!precomputeEnabled) {
+            return;
+        }
+
+        if (oldWords.size() + newWords.size() > MAX_CHANGED_WORDS_FOR_PARTIAL_REFRESH) {
+            refreshLexiconSimilarValuesAsync(lexiconId);
+            return;
+        }
+
+        List<Word> oldWordsToCompare = List.copyOf(oldWords);
+        List<Word> newWordsToCompare = List.copyOf(newWords);
+        try {
+            refreshExecutor.execute(() -> {
+                // A lexicon refresh that hasn't started yet covers these changes
+                if (pendingRefreshLexiconIds.contains(lexiconId)) {
+                    return;
+                }
+
+                try {
+                    refreshChangedWordSimilarValues(lexiconId, oldWordsToCompare, newWordsToCompare);
+                } catch (RuntimeException ex) {
+                    log.error("Failed to refresh similar values for changed words in lexicon {}", lexiconId, ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            log.warn("Unable to schedule similar values refresh for changed words in lexicon {}", lexiconId);
+        }
+    }
+
+    // Fills in the rows for words that were found without an up-to-date one. Only those words are computed, since a
+    // word shared with another lexicon is never covered by a lexicon refresh, and recomputing the whole lexicon every
+    // time a session finds such a word would never catch up.
+    public void refreshWordSimilarValuesAsync(String lexiconId, Collection<String> wordIds) {
+        if (!precomputeEnabled) {
+            return;
+        }
+
+        List<String> wordIdsToRefresh = wordIds.stream()
+                .distinct()
+                .filter(wordId -> pendingRefreshWords.add(new PendingWord(lexiconId, wordId)))
+                .toList();
+        if (wordIdsToRefresh.isEmpty()) {
+            return;
+        }
+
+        try {
+            refreshExecutor.execute(() -> {
+                wordIdsToRefresh.forEach(wordId -> pendingRefreshWords.remove(new PendingWord(lexiconId, wordId)));
+                try {
+                    refreshWordSimilarValues(lexiconId, wordIdsToRefresh);
+                } catch (RuntimeException ex) {
+                    log.error("Failed to refresh similar values for {} words in lexicon {}", wordIdsToRefresh.size(), lexiconId, ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            wordIdsToRefresh.forEach(wordId -> pendingRefreshWords.remove(new PendingWord(lexiconId, wordId)));
+            log.warn("Unable to schedule similar values refresh for {} words in lexicon {}", wordIdsToRefresh.size(), lexiconId);
+        }
+    }
+
+    void refreshLexiconSimilarValues(String lexiconId) {
+        int savedCnt = saveSimilarValues(lexiconId, wordDao.getWordsUniqueToLexicon(lexiconId));
+
+        log.info("Refreshed {} similar value rows for lexicon {}", savedCnt, lexiconId);
+    }
+
+    void refreshChangedWordSimilarValues(String lexiconId, List<Word> oldWords, List<Word> newWords) {
+        Map<String, Word> newWordsById = newWords.stream()
+                .collect(Collectors.toMap(Word::id, word -> word, (word1, word2) -> word2));
+        Map<String, Word> oldWordsById = oldWords.stream()
+                .collect(Collectors.toMap(Word::id, word -> word, (word1, word2) -> word1));
+
+        // Values that changed, by element. An element value that is the same before and after doesn't affect other rows.
+        Map<WordElement, Set<String>> removedValues = new HashMap<>();
+        Map<WordElement, Set<String>> addedValues = new HashMap<>();
+        for (WordElement wordElement : WordElement.values()) {
+            for (Word oldWord : oldWords) {
+                addChangedValue(removedValues, wordElement, oldWord, newWordsById.get(oldWord.id()));
+            }
+            for (Word newWord : newWords) {
+                addChangedValue(addedValues, wordElement, newWord, oldWordsById.get(newWord.id()));
+            }
+        }
+
+        Set<String> wordIdsToRefresh = new LinkedHashSet<>(newWordsById.keySet());
+        if (!removedValues.isEmpty() || !addedValues.isEmpty()) {
+            for (WordSimilarValues wordSimilarValues : wordSimilarValuesDao.loadLexiconSimilarValues(lexiconId)) {
+                if (!oldWordsById.containsKey(wordSimilarValues.wordId()) && !newWordsById.containsKey(wordSimilarValues.wordId())
+                        && canChange(wordSimilarValues,
+                                removedValues.getOrDefault(wordSimilarValues.wordElement(), Set.of()),
+                                addedValues.getOrDefault(wordSimilarValues.wordElement(), Set.of()))) {
+                    wordIdsToRefresh.add(wordSimilarValues.wordId());
+                }
+            }
+        }
+
+        int savedCnt = saveSimilarValues(lexiconId, List.copyOf(wordIdsToRefresh));
+
+        log.debug("Refreshed {} similar value rows for {} changed words in lexicon {}", savedCnt, newWordsById.size() + oldWordsById.size(), lexiconId);
+    }
+
+    private static void addChangedValue(Map<WordElement, Set<String>> changedValues, WordElement wordElement, Word word, Word otherWord) {
+        String value = word.elements().get(wordElement.getId());
+        String otherValue = otherWord == null ? null : otherWord.elements().get(wordElement.getId());
+        if (value != null && !value.isBlank() && !value.equals(otherValue)) {
+            changedValues.computeIfAbsent(wordElement, k -> new HashSet<>()).add(value);
+        }
+    }
+
+    // A list can only change if it holds a removed value, or if an added value is at least as close as its furthest
+    // value. Values past MAX_DISTANCE only pad out lists that are short of matches, so they're ignored.
+    private static boolean canChange(WordSimilarValues wordSimilarValues, Set<String> removedValues, Set<String> addedValues) {
+        List<String> similarValues = wordSimilarValues.similarValues();
+        if (similarValues.stream().anyMatch(removedValues::contains)) {
+            return true;
+        }
+
+        if (addedValues.isEmpty()) {
+            return false;
+        }
+
+        String elementValue = wordSimilarValues.elementValue();
+        int furthestDistance = similarValues.size() < SIMILAR_VALUE_CNT
+                ? MAX_DISTANCE
+                : Math.min(MAX_DISTANCE, LevenshteinDistance.compute(elementValue, similarValues.getLast(), MAX_DISTANCE));
+        return addedValues.stream()
+                .anyMatch(value -> !value.equals(elementValue) && LevenshteinDistance.compute(elementValue, value, MAX_DISTANCE) <= furthestDistance);
+    }
+
+    void refreshWordSimilarValues(String lexiconId, List<String> wordIds) {
+        int savedCnt = saveSimilarValues(lexiconId, wordIds);
+
+        log.debug("Refreshed {} similar value rows for {} words in lexicon {}", savedCnt, wordIds.size(), lexiconId);
+    }
+
+    private int saveSimilarValues(String lexiconId, List<String> wordIds) {
+        Language language = Language.getLanguageById(lexiconService.getLexiconLanguageId(lexiconId));
+        if (language == null || wordIds.isEmpty()) {
+            return 0;
+        }
+
+        List<WordElement> testOnElements = language.getAllTestRelationships().stream()
+                .map(TestRelationship::getTestOn)
+                .distinct()
+                .toList();
+
+        Map<WordElement, DatasetFuzzyMatcher> fuzzyMatchers = new HashMap<>();
+        for (WordElement testOn : testOnElements) {
+            fuzzyMatchers.put(testOn, fuzzyMatcherCache.getMatcher(lexiconId, testOn,
+                    () -> wordDao.getUniqueElementValues(lexiconId, testOn, MAX_VALUES_FOR_FUZZY_MATCHING)));
+        }
+
+        int savedCnt = 0;
+        for (List<String> wordIdBatch : ListUtil.partitionList(wordIds, REFRESH_BATCH_SIZE)) {
+            List<WordSimilarValues> similarValuesToSave = new ArrayList<>();
+
+            for (Word word : wordDao.loadWords(wordIdBatch)) {
+                for (WordElement testOn : testOnElements) {
+                    String elementValue = word.elements().get(testOn.getId());
+                    if (elementValue != null && !elementValue.isBlank()) {
+                        similarValuesToSave.add(new WordSimilarValues(word.id(), testOn, lexiconId, elementValue,
+                                fuzzyMatchers.get(testOn).findSimilarTo(elementValue, SIMILAR_VALUE_CNT, MAX_DISTANCE)));
+                    }
+                }
+            }
+
+            wordSimilarValuesDao.saveSimilarValues(similarValuesToSave);
+            savedCnt += similarValuesToSave.size();
+        }
+
+        return savedCnt;
+    }
+
+    public void deleteWordSimilarValues(Collection<String> wordIds) {
+        wordSimilarValuesDao.deleteSimilarValues(wordIds);
+    }
+
+    public void deleteLexiconSimilarValues(String lexiconId) {
+        wordSimilarValuesDao.deleteLexiconSimilarValues(lexiconId);
+    }
+
+    private record PendingWord(String lexiconId, String wordId) { }
+}
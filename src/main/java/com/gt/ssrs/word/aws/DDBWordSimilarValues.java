@@ -0,0 +1,136 @@
+package com.gt.ssrs.word.aws;
+
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbAttribute;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbImmutable;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbPartitionKey;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.DynamoDbSecondaryPartitionKey;
+
+import java.time.Instant;
+import java.util.List;
+
+@DynamoDbImmutable(builder = DDBWordSimilarValues.Builder.class)
+public class DDBWordSimilarValues {
+
+    public static final String TABLE_NAME = "WordSimilarValues";
+
+    public static final String LEXICON_INDEX_NAME = TABLE_NAME + "-by-lexicon";
+
+    public static final String ID_ATTRIBUTE_NAME = "id";
+    public static final String WORD_ID_ATTRIBUTE_NAME = "wordId";
+    public static final String WORD_ELEMENT_ATTRIBUTE_NAME = "wordElement";
+    public static final String LEXICON_ID_ATTRIBUTE_NAME = "lexiconId";
+    public static final String ELEMENT_VALUE_ATTRIBUTE_NAME = "elementValue";
+    public static final String SIMILAR_VALUES_ATTRIBUTE_NAME = "similarValues";
+    public static final String UPDATE_INSTANT_ATTRIBUTE_NAME = "updateInstant";
+
+    private final String id;
+    private final String wordId;
+    private final String wordElement;
+    private final String lexiconId;
+    private final String elementValue;
+    private final List<String> similarValues;
+    private final Instant updateInstant;
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private DDBWordSimilarValues(Builder builder) {
+        this.id = builder.id;
+        this.wordId = builder.wordId;
+        this.wordElement = builder.wordElement;
+        this.lexiconId = builder.lexiconId;
+        this.elementValue = builder.elementValue;
+        this.similarValues = builder.similarValues;
+        this.updateInstant = builder.updateInstant;
+    }
+
+    @DynamoDbAttribute(ID_ATTRIBUTE_NAME)
+    @DynamoDbPartitionKey
+    public String id() {
+        return id;
+    }
+
+    @DynamoDbAttribute(WORD_ID_ATTRIBUTE_NAME)
+    public String wordId() {
+        return wordId;
+    }
+
+    @DynamoDbAttribute(WORD_ELEMENT_ATTRIBUTE_NAME)
+    public String wordElement() {
+        return wordElement;
+    }
+
+    @DynamoDbAttribute(LEXICON_ID_ATTRIBUTE_NAME)
+    @DynamoDbSecondaryPartitionKey(indexNames = { LEXICON_INDEX_NAME })
+    public String lexiconId() {
+        return lexiconId;
+    }
+
+    @DynamoDbAttribute(ELEMENT_VALUE_ATTRIBUTE_NAME)
+    public String elementValue() {
+        return elementValue;
+    }
+
+    @DynamoDbAttribute(SIMILAR_VALUES_ATTRIBUTE_NAME)
+    public List<String> similarValues() {
+        return similarValues;
+    }
+
+    @DynamoDbAttribute(UPDATE_INSTANT_ATTRIBUTE_NAME)
+    public Instant updateInstant() {
+        return updateInstant;
+    }
+
+    public static class Builder {
+
+        private String id;
+        private String wordId;
+        private String wordElement;
+        private String lexiconId;
+        private String elementValue;
+        private List<String> similarValues;
+        private Instant updateInstant;
+
+        private Builder() { }
+
+        public DDBWordSimilarValues build() {
+            return new DDBWordSimilarValues(this);
+        }
+
+        public Builder id(String id) {
+            this.id = id;
+            return this;
+        }
+
+        public Builder wordId(String wordId) {
+            this.wordId = wordId;
+            return this;
+        }
+
+        public Builder wordElement(String wordElement) {
+            this.wordElement = wordElement;
+            return this;
+        }
+
+        public Builder lexiconId(String lexiconId) {
+            this.lexiconId = lexiconId;
+            return this;
+        }
+
+        public Builder elementValue(String elementValue) {
+            this.elementValue = elementValue;
+            return this;
+        }
+
+        public Builder similarValues(List<String> similarValues) {
+            this.similarValues = similarValues;
+            return this;
+        }
+
+        public Builder updateInstant(Instant updateInstant) {
+            this.updateInstant = updateInstant;
+            return this;
+        }
+    }
+}
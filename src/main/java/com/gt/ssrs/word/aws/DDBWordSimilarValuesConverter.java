@@ -0,0 +1,37 @@
+package com.gt.ssrs.word.aws;
+
+import com.gt.ssrs.language.WordElement;
+import com.gt.ssrs.word.model.WordSimilarValues;
+
+import java.time.Instant;
+import java.util.List;
+
+public class DDBWordSimilarValuesConverter {
+
+    private static final String ID_SEPARATOR = ":";
+
+    public static String computeId(String wordId, WordElement wordElement) {
+        return wordId + ID_SEPARATOR + wordElement.getId();
+    }
+
+    public static DDBWordSimilarValues convertWordSimilarValues(WordSimilarValues wordSimilarValues) {
+        return DDBWordSimilarValues.builder()
+                .id(computeId(wordSimilarValues.wordId(), wordSimilarValues.wordElement()))
+                .wordId(wordSimilarValues.wordId())
+                .wordElement(wordSimilarValues.wordElement().getId())
+                .lexiconId(wordSimilarValues.lexiconId())
+                .elementValue(wordSimilarValues.elementValue())
+                .similarValues(wordSimilarValues.similarValues())
+                .updateInstant(Instant.now())
+                .build();
+    }
+
+    public static WordSimilarValues convertDDBWordSimilarValues(DDBWordSimilarValues ddbWordSimilarValues) {
+        return new WordSimilarValues(
+                ddbWordSimilarValues.wordId(),
+                WordElement.getWordElementById(ddbWordSimilarValues.wordElement()),
+                ddbWordSimilarValues.lexiconId(),
+                ddbWordSimilarValues.elementValue(),
+                ddbWordSimilarValues.similarValues() == null ? List.of() : ddbWordSimilarValues.similarValues());
+    }
+}
@@ -3,7 +3,7 @@ package com.gt.ssrs.word.aws;
 import com.gt.ssrs.exception.DaoException;
 import com.gt.ssrs.language.Language;
 import com.gt.ssrs.language.WordElement;
-import com.gt.ssrs.util.ListUtil;
+import com.gt.ssrs.util.aws.DDBBatchExecutor;
 import com.gt.ssrs.word.WordDao;
 import com.gt.ssrs.model.Word;
 import com.gt.ssrs.model.WordFilterOptions;
@@ -33,18 +33,15 @@ public class WordDaoDDB implements WordDao {
     private static final int AUDIO_FILTER_LIMIT_MULTIPLER = 2;
 
     private final DynamoDbEnhancedClient dynamoDbEnhancedClient;
-    private final int maxReadBatchSize;
-    private final int maxWriteBatchSize;
+    private final DDBBatchExecutor batchExecutor;
 
     private final DynamoDbTable<DDBWord> wordTable;
 
     @Autowired
     public WordDaoDDB(DynamoDbEnhancedClient dynamoDbEnhancedClient,
-                      @Value("${aws.dynamodb.maxReadBatchSize}") int maxReadBatchSize,
-                      @Value("${aws.dynamodb.maxWriteBatchSize}") int maxWriteBatchSize) {
+                      DDBBatchExecutor batchExecutor) {
         this.dynamoDbEnhancedClient = dynamoDbEnhancedClient;
-        this.maxReadBatchSize = maxReadBatchSize;
-        this.maxWriteBatchSize = maxWriteBatchSize;
+        this.batchExecutor = batchExecutor;
 
         this.wordTable = dynamoDbEnhancedClient.table(DDBWord.TABLE_NAME, TableSchema.fromImmutableClass(DDBWord.class));
     }
@@ -68,25 +65,9 @@ public class WordDaoDDB implements WordDao {
     }
 
     private List<DDBWord> loadDdbWords(List<String> wordIds) {
-        List<DDBWord> loadedWords = new ArrayList<>();
-
-        for (List<String> subList : ListUtil.partitionList(wordIds, maxReadBatchSize)) {
-            loadedWords.addAll(loadDdbWordsBatch(subList));
-        }
-
-        return loadedWords;
-    }
-
-    private List<DDBWord> loadDdbWordsBatch(List<String> wordIds) {
-        ReadBatch.Builder<DDBWord> batchBuilder = ReadBatch.builder(DDBWord.class).mappedTableResource(wordTable);
-        wordIds.stream()
-                .distinct()
-                .forEach(wordId -> batchBuilder.addGetItem(Key.builder().partitionValue(wordId).build()));
-
-        BatchGetResultPageIterable resultPages = dynamoDbEnhancedClient.batchGetItem(b -> b.addReadBatch(batchBuilder.build()));
-
-        return resultPages.resultsForTable(wordTable).stream()
-                .toList();
+        return batchExecutor.loadItems(wordTable, wordIds.stream()
+                .map(wordId -> Key.builder().partitionValue(wordId).build())
+                .toList());
     }
 
 
@@ -100,22 +81,7 @@ public class WordDaoDDB implements WordDao {
 
     @Override
     public List<Word> createWords(Language language, String lexiconId, List<Word> words) {
-        List<Word> createdWords = new ArrayList<>();
-
-        for (List<Word> subList : ListUtil.partitionList(words, maxWriteBatchSize)) {
-            createdWords.addAll(createWordsBatch(language, lexiconId, subList));
-        }
-
-        return createdWords;
-    }
-
-    private List<Word> createWordsBatch(Language language, String lexiconId, List<Word> words) {
-        WriteBatch.Builder<DDBWord> batchBuilder = WriteBatch.builder(DDBWord.class).mappedTableResource(wordTable);
-        DDBWordConverter.convertWordBatch(language, words).forEach(wordDDB -> batchBuilder.addPutItem(wordDDB));
-
-        BatchWriteResult result = dynamoDbEnhancedClient.batchWriteItem(b -> b.writeBatches(batchBuilder.build()));
-
-        List<DDBWord> unprocessedWords = result.unprocessedPutItemsForTable(wordTable);
+        List<DDBWord> unprocessedWords = batchExecutor.putItems(wordTable, DDBWordConverter.convertWordBatch(language, words));
         if (!unprocessedWords.isEmpty()) {
             Set<String> unprocessedWordIds = unprocessedWords.stream()
                     .map(wordDDB -> wordDDB.id())
@@ -230,9 +196,9 @@ public class WordDaoDDB implements WordDao {
 
     @Override
     public void deleteWords(Collection<String> wordIds) {
-        for (String wordId : wordIds) {
-            wordTable.deleteItem(Key.builder().partitionValue(wordId).build());
-        }
+        batchExecutor.deleteAllItems(wordTable, wordIds.stream()
+                .map(wordId -> Key.builder().partitionValue(wordId).build())
+                .toList());
     }
 
     @Override
@@ -245,11 +211,10 @@ public class WordDaoDDB implements WordDao {
 
         SdkIterable<Page<DDBWord>> responseIterable = wordTable.index(DDBWord.CREATE_INSTANT_INDEX_NAME).query(request);
 
-        for (Page<DDBWord> ddbWordPage : responseIterable) {
-            for (DDBWord ddbWord : ddbWordPage.items()) {
-                wordTable.deleteItem(Key.builder().partitionValue(ddbWord.id()).build());
-            }
-        }
+        batchExecutor.deleteAllItems(wordTable, responseIterable.stream()
+                .flatMap(page -> page.items().stream())
+                .map(ddbWord -> Key.builder().partitionValue(ddbWord.id()).build())
+                .toList());
     }
 
     @Override
@@ -348,7 +313,7 @@ public class WordDaoDDB implements WordDao {
     public void setAudioFileNameForWords(Map<String, List<String>> audioFileNamesByWordId) {
         List<DDBWord> existingWords = loadDdbWords(List.copyOf(audioFileNamesByWordId.keySet()));
 
-        WriteBatch.Builder<DDBWord> batchBuilder = WriteBatch.builder(DDBWord.class).mappedTableResource(wordTable);
+        List<DDBWord> wordsToSave = new ArrayList<>();
         for (DDBWord existingWord : existingWords) {
             // TODO: check ownership
 
@@ -357,12 +322,12 @@ public class WordDaoDDB implements WordDao {
                 audioFileNamesToSave.addAll(existingWord.audioFiles());
             }
 
-            batchBuilder.addPutItem(DDBWord.builder(existingWord)
+            wordsToSave.add(DDBWord.builder(existingWord)
                     .audioFiles(audioFileNamesToSave)
                     .build());
         }
 
-        dynamoDbEnhancedClient.batchWriteItem(b -> b.addWriteBatch(batchBuilder.build()));
+        batchExecutor.putAllItems(wordTable, wordsToSave);
     }
 
     @Override
@@ -437,6 +402,16 @@ public class WordDaoDDB implements WordDao {
                 .toList();
     }
 
+    @Override
+    public boolean isSimilarElementValueSearchSupported() {
+        return false;
+    }
+
+    @Override
+    public Optional<Map<String, List<String>>> findSimilarElementValues(String lexiconId, WordElement wordElement, Collection<String> targetValues, int limit, int maxDistance) {
+        return Optional.empty();
+    }
+
     private Expression buildFilterFromOptions(WordFilterOptions options) {
         StringBuilder expression = new StringBuilder();
         Map<String, String> expressionNames = new HashMap<>();
@@ -0,0 +1,130 @@
+package com.gt.ssrs.word.aws;
+
+import com.gt.ssrs.language.WordElement;
+import com.gt.ssrs.util.aws.DDBBatchExecutor;
+import com.gt.ssrs.word.WordSimilarValuesDao;
+import com.gt.ssrs.word.model.WordSimilarValues;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.pagination.sync.SdkIterable;
+import software.amazon.awssdk.enhanced.dynamodb.*;
+import software.amazon.awssdk.enhanced.dynamodb.model.*;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+@Component
+public class WordSimilarValuesDaoDDB implements WordSimilarValuesDao {
+
+    private static final Logger log = LoggerFactory.getLogger(WordSimilarValuesDaoDDB.class);
+
+    private final DynamoDbEnhancedClient dynamoDbEnhancedClient;
+    private final DDBBatchExecutor batchExecutor;
+
+    private final DynamoDbTable<DDBWordSimilarValues> wordSimilarValuesTable;
+
+    @Autowired
+    public WordSimilarValuesDaoDDB(DynamoDbEnhancedClient dynamoDbEnhancedClient,
+                                   DDBBatchExecutor batchExecutor) {
+        this.dynamoDbEnhancedClient = dynamoDbEnhancedClient;
+        this.batchExecutor = batchExecutor;
+
+        this.wordSimilarValuesTable = dynamoDbEnhancedClient.table(DDBWordSimilarValues.TABLE_NAME, TableSchema.fromImmutableClass(DDBWordSimilarValues.class));
+    }
+
+    @Override
+    public List<WordSimilarValues> loadSimilarValues(Collection<String> wordIds, Collection<WordElement> wordElements) {
+        List<String> ids = toIds(wordIds, wordElements);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        List<Key> keys = ids.stream()
+                .map(id -> Key.builder().partitionValue(id).build())
+                .toList();
+
+        return batchExecutor.loadItems(wordSimilarValuesTable, keys).stream()
+                .map(DDBWordSimilarValuesConverter::convertDDBWordSimilarValues)
+                .toList();
+    }
+
+    // The lexicon index only holds the keys, so the rows are loaded by ID after querying it
+    @Override
+    public List<WordSimilarValues> loadLexiconSimilarValues(String lexiconId) {
+        List<Key> keys = queryLexiconIds(lexiconId).stream()
+                .map(id -> Key.builder().partitionValue(id).build())
+                .toList();
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+
+        return batchExecutor.loadItems(wordSimilarValuesTable, keys).stream()
+                .map(DDBWordSimilarValuesConverter::convertDDBWordSimilarValues)
+                .toList();
+    }
+
+    @Override
+    public void saveSimilarValues(List<WordSimilarValues> wordSimilarValues) {
+        if (wordSimilarValues == null || wordSimilarValues.isEmpty()) {
+            return;
+        }
+
+        List<DDBWordSimilarValues> ddbWordSimilarValues = wordSimilarValues.stream()
+                .map(similarValues -> DDBWordSimilarValuesConverter.convertWordSimilarValues(similarValues))
+                .toList();
+
+        // Rows that still weren't written are recomputed the next time they are needed
+        List<DDBWordSimilarValues> unprocessed = batchExecutor.putItems(wordSimilarValuesTable, ddbWordSimilarValues);
+        if (!unprocessed.isEmpty()) {
+            log.warn("{} similar value rows were not saved", unprocessed.size());
+        }
+    }
+
+    @Override
+    public void deleteSimilarValues(Collection<String> wordIds) {
+        deleteByIds(toIds(wordIds, Arrays.asList(WordElement.values())));
+    }
+
+    @Override
+    public void deleteLexiconSimilarValues(String lexiconId) {
+        deleteByIds(queryLexiconIds(lexiconId));
+    }
+
+    private List<String> queryLexiconIds(String lexiconId) {
+        QueryEnhancedRequest request = QueryEnhancedRequest.builder()
+                .queryConditional(QueryConditional.keyEqualTo(Key.builder().partitionValue(lexiconId).build()))
+                .attributesToProject(DDBWordSimilarValues.ID_ATTRIBUTE_NAME)
+                .build();
+
+        SdkIterable<Page<DDBWordSimilarValues>> responseIterable = wordSimilarValuesTable.index(DDBWordSimilarValues.LEXICON_INDEX_NAME).query(request);
+
+        return responseIterable.stream()
+                .flatMap(page -> page.items().stream())
+                .map(ddbWordSimilarValues -> ddbWordSimilarValues.id())
+                .toList();
+    }
+
+    private void deleteByIds(List<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        batchExecutor.deleteAllItems(wordSimilarValuesTable, ids.stream()
+                .map(id -> Key.builder().partitionValue(id).build())
+                .toList());
+    }
+
+    private static List<String> toIds(Collection<String> wordIds, Collection<WordElement> wordElements) {
+        if (wordIds == null || wordElements == null) {
+            return List.of();
+        }
+
+        return wordIds.stream()
+                .distinct()
+                .flatMap(wordId -> wordElements.stream().map(wordElement -> DDBWordSimilarValuesConverter.computeId(wordId, wordElement)))
+                .toList();
+    }
+}
@@ -0,0 +1,9 @@
+package com.gt.ssrs.word.model;
+
+import com.gt.ssrs.language.WordElement;
+
+import java.util.List;
+
+// Precomputed fuzzy matches for one element of a word. elementValue is the value the matches were computed for, so a row
+// left over from before the word was edited can be recognized as stale.
+public record WordSimilarValues(String wordId, WordElement wordElement, String lexiconId, String elementValue, List<String> similarValues) { }
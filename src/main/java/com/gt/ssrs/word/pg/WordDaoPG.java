@@ -8,8 +8,10 @@ import com.gt.ssrs.model.WordFilterOptions;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.SqlArrayValue;
 import org.springframework.stereotype.Component;
 
 import java.sql.ResultSet;
@@ -26,6 +28,10 @@ public class WordDaoPG implements WordDao {
     private static final Logger log = LoggerFactory.getLogger(WordDaoPG.class);
 
     private final NamedParameterJdbcTemplate template;
+    private final boolean similarElementValueSearchEnabled;
+
+    private boolean similarElementValueSearchChecked = false;
+    private String findSimilarElementValuesSql = null;
 
     private static final List<String> AVAILABLE_ELEMENTS = List.of(
             "kana",
@@ -95,8 +101,10 @@ public class WordDaoPG implements WordDao {
             "SELECT COUNT(*) FROM words WHERE lexicon_id = :lexiconId";
 
     @Autowired
-    public WordDaoPG(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+    public WordDaoPG(NamedParameterJdbcTemplate namedParameterJdbcTemplate,
+                     @Value("${ssrs.fuzzy.databaseSearch.enabled:true}") boolean similarElementValueSearchEnabled) {
         this.template = namedParameterJdbcTemplate;
+        this.similarElementValueSearchEnabled = similarElementValueSearchEnabled;
     }
 
     private static final String GET_AUDIO_FILES_NAMES_FOR_WORD_SQL = "SELECT audio_file_name FROM word_audio WHERE word_id = :wordId";
@@ -111,6 +119,37 @@ public class WordDaoPG implements WordDao {
             "WHERE lexicon_id = :lexiconId AND " + WORD_ELEMENT_TOKEN + " IS NOT NULL AND " + WORD_ELEMENT_TOKEN + " != '' " +
             "LIMIT :limit";
 
+    // Each target's candidates are the values nearest to it by trigram distance, which can be found with the lexicon and
+    // element trigram GiST index. The candidates are then re-ranked by edit distance (capped at maxDistance + 1);
+    // candidates past maxDistance are kept to pad out short lists. Only the nearest candidates by trigram distance are
+    // ranked, so a value close by edit distance but sharing few trigrams with the target can be missed where the
+    // in-memory fuzzy matcher would find it. Short targets are the worst affected and are left to the in-memory matcher.
+    private static final String FUZZYSTRMATCH_SCHEMA_TOKEN = "$fuzzystrmatchSchema$";
+    private static final String PG_TRGM_SCHEMA_TOKEN = "$pgTrgmSchema$";
+    private static final int SIMILAR_ELEMENT_VALUE_CANDIDATE_MULTIPLIER = 10;
+    private static final String GET_EXTENSION_SCHEMAS_SQL =
+            "SELECT e.extname, n.nspname " +
+            "FROM pg_extension e JOIN pg_namespace n ON n.oid = e.extnamespace " +
+            "WHERE e.extname IN ('fuzzystrmatch', 'pg_trgm')";
+    private static final String FIND_SIMILAR_ELEMENT_VALUES_SQL =
+            "SELECT t.target, c.value " +
+            "FROM unnest(:targets) AS t(target) " +
+            "CROSS JOIN LATERAL (" +
+                "SELECT k.value, MIN(k.trgm_distance) AS trgm_distance, " +
+                    FUZZYSTRMATCH_SCHEMA_TOKEN + ".levenshtein_less_equal(k.value, t.target, :maxDistance) AS distance " +
+                "FROM (" +
+                    "SELECT w." + WORD_ELEMENT_TOKEN + " AS value, w." + WORD_ELEMENT_TOKEN + " OPERATOR(" + PG_TRGM_SCHEMA_TOKEN + ".<->) t.target AS trgm_distance " +
+                    "FROM words w " +
+                    "WHERE w.lexicon_id = :lexiconId AND w." + WORD_ELEMENT_TOKEN + " IS NOT NULL AND w." + WORD_ELEMENT_TOKEN + " != '' AND w." + WORD_ELEMENT_TOKEN + " != t.target " +
+                    "ORDER BY trgm_distance " +
+                    "LIMIT :candidateLimit" +
+                ") k " +
+                "GROUP BY k.value " +
+                "ORDER BY distance, trgm_distance, k.value " +
+                "LIMIT :limit" +
+            ") c " +
+            "ORDER BY t.target, c.distance, c.trgm_distance, c.value";
+
     private static final String DELETE_WORDS_SQL =
             "DELETE FROM word_audio WHERE word_id IN (:wordIds); " +
             "DELETE FROM words WHERE id IN (:wordIds); ";
@@ -399,6 +438,73 @@ public class WordDaoPG implements WordDao {
                 (rs, rowNum) -> rs.getString(wordElement.getId()));
     }
 
+    @Override
+    public boolean isSimilarElementValueSearchSupported() {
+        return getFindSimilarElementValuesSql() != null;
+    }
+
+    @Override
+    public Optional<Map<String, List<String>>> findSimilarElementValues(String lexiconId, WordElement wordElement, Collection<String> targetValues, int limit, int maxDistance) {
+        String sql = getFindSimilarElementValuesSql();
+        if (sql == null) {
+            return Optional.empty();
+        }
+
+        if (targetValues == null || targetValues.isEmpty()) {
+            return Optional.of(Map.of());
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("targets", new SqlArrayValue("text", targetValues.stream().distinct().toArray()))
+                .addValue("lexiconId", lexiconId)
+                .addValue("maxDistance", maxDistance)
+                .addValue("candidateLimit", limit * SIMILAR_ELEMENT_VALUE_CANDIDATE_MULTIPLIER)
+                .addValue("limit", limit);
+
+        return Optional.of(template.query(sql.replace(WORD_ELEMENT_TOKEN, wordElement.getId()), params, (rs) -> {
+            Map<String, List<String>> similarValuesByTarget = new HashMap<>();
+
+            while (rs.next()) {
+                similarValuesByTarget.computeIfAbsent(rs.getString("target"), k -> new ArrayList<>()).add(rs.getString("value"));
+            }
+
+            return similarValuesByTarget;
+        }));
+    }
+
+    // The extensions are looked up once, and the SQL is built with the schemas they are installed in since those are
+    // usually not on the search path (see README)
+    private synchronized String getFindSimilarElementValuesSql() {
+        if (!similarElementValueSearchChecked) {
+            similarElementValueSearchChecked = true;
+
+            if (similarElementValueSearchEnabled) {
+                try {
+                    Map<String, String> extensionSchemas = new HashMap<>();
+                    template.query(GET_EXTENSION_SCHEMAS_SQL, Map.of(), (rs) -> {
+                        extensionSchemas.put(rs.getString("extname"), rs.getString("nspname"));
+                    });
+
+                    if (extensionSchemas.containsKey("fuzzystrmatch") && extensionSchemas.containsKey("pg_trgm")) {
+                        findSimilarElementValuesSql = FIND_SIMILAR_ELEMENT_VALUES_SQL
+                                .replace(FUZZYSTRMATCH_SCHEMA_TOKEN, quoteIdentifier(extensionSchemas.get("fuzzystrmatch")))
+                                .replace(PG_TRGM_SCHEMA_TOKEN, quoteIdentifier(extensionSchemas.get("pg_trgm")));
+                    } else {
+                        log.info("fuzzystrmatch and pg_trgm extensions are not both installed, similar element values will be found in memory");
+                    }
+                } catch (RuntimeException ex) {
+                    log.warn("Unable to check for fuzzystrmatch and pg_trgm extensions, similar element values will be found in memory", ex);
+                }
+            }
+        }
+
+        return findSimilarElementValuesSql;
+    }
+
+    private static String quoteIdentifier(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
     @Override
     public void deleteWords(Collection<String> wordIds) {
         template.update(
@@ -0,0 +1,116 @@
+package com.gt.ssrs.word.pg;
+
+import com.gt.ssrs.language.WordElement;
+import com.gt.ssrs.word.WordSimilarValuesDao;
+import com.gt.ssrs.word.model.WordSimilarValues;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.SqlArrayValue;
+import org.springframework.stereotype.Component;
+
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class WordSimilarValuesDaoPG implements WordSimilarValuesDao {
+
+    private static final Logger log = LoggerFactory.getLogger(WordSimilarValuesDaoPG.class);
+
+    private final NamedParameterJdbcTemplate template;
+
+    @Autowired
+    public WordSimilarValuesDaoPG(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+        this.template = namedParameterJdbcTemplate;
+    }
+
+    private static final String LOAD_SIMILAR_VALUES_SQL =
+            "SELECT word_id, word_element, lexicon_id, element_value, similar_values " +
+            "FROM word_similar_values WHERE word_id IN (:wordIds) AND word_element IN (:wordElements)";
+
+    private static final String LOAD_LEXICON_SIMILAR_VALUES_SQL =
+            "SELECT word_id, word_element, lexicon_id, element_value, similar_values " +
+            "FROM word_similar_values WHERE lexicon_id = :lexiconId";
+
+    // The words row may have been deleted since the values were computed, in which case the row is skipped
+    private static final String SAVE_SIMILAR_VALUES_SQL =
+            "INSERT INTO word_similar_values (word_id, word_element, lexicon_id, element_value, similar_values) " +
+            "SELECT :wordId, :wordElement, :lexiconId, :elementValue, :similarValues " +
+            "WHERE EXISTS (SELECT 1 FROM words WHERE id = :wordId) " +
+            "ON CONFLICT (word_id, word_element) DO UPDATE " +
+            "SET lexicon_id = EXCLUDED.lexicon_id, element_value = EXCLUDED.element_value, similar_values = EXCLUDED.similar_values";
+
+    private static final String DELETE_SIMILAR_VALUES_SQL =
+            "DELETE FROM word_similar_values WHERE word_id IN (:wordIds)";
+
+    private static final String DELETE_LEXICON_SIMILAR_VALUES_SQL =
+            "DELETE FROM word_similar_values WHERE lexicon_id = :lexiconId";
+
+    @Override
+    public List<WordSimilarValues> loadSimilarValues(Collection<String> wordIds, Collection<WordElement> wordElements) {
+        if (wordIds == null || wordIds.isEmpty() || wordElements == null || wordElements.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, Object> params = Map.of(
+                "wordIds", wordIds,
+                "wordElements", wordElements.stream().map(WordElement::getId).toList());
+
+        return template.query(LOAD_SIMILAR_VALUES_SQL, params, WordSimilarValuesDaoPG::mapWordSimilarValues);
+    }
+
+    @Override
+    public List<WordSimilarValues> loadLexiconSimilarValues(String lexiconId) {
+        return template.query(LOAD_LEXICON_SIMILAR_VALUES_SQL, Map.of("lexiconId", lexiconId), WordSimilarValuesDaoPG::mapWordSimilarValues);
+    }
+
+    @Override
+    public void saveSimilarValues(List<WordSimilarValues> wordSimilarValues) {
+        if (wordSimilarValues == null || wordSimilarValues.isEmpty()) {
+            return;
+        }
+
+        MapSqlParameterSource[] paramsList = wordSimilarValues.stream()
+                .map(similarValues -> new MapSqlParameterSource()
+                        .addValue("wordId", similarValues.wordId())
+                        .addValue("wordElement", similarValues.wordElement().getId())
+                        .addValue("lexiconId", similarValues.lexiconId())
+                        .addValue("elementValue", similarValues.elementValue())
+                        .addValue("similarValues", new SqlArrayValue("text", similarValues.similarValues().toArray())))
+                .toArray(MapSqlParameterSource[]::new);
+
+        template.batchUpdate(SAVE_SIMILAR_VALUES_SQL, paramsList);
+    }
+
+    @Override
+    public void deleteSimilarValues(Collection<String> wordIds) {
+        if (wordIds == null || wordIds.isEmpty()) {
+            return;
+        }
+
+        template.update(DELETE_SIMILAR_VALUES_SQL, Map.of("wordIds", wordIds));
+    }
+
+    @Override
+    public void deleteLexiconSimilarValues(String lexiconId) {
+        template.update(DELETE_LEXICON_SIMILAR_VALUES_SQL, Map.of("lexiconId", lexiconId));
+    }
+
+    private static WordSimilarValues mapWordSimilarValues(ResultSet rs, int rowNum) throws SQLException {
+        Array similarValues = rs.getArray("similar_values");
+
+        return new WordSimilarValues(
+                rs.getString("word_id"),
+                WordElement.getWordElementById(rs.getString("word_element")),
+                rs.getString("lexicon_id"),
+                rs.getString("element_value"),
+                similarValues == null ? List.of() : Arrays.asList((String[]) similarValues.getArray()));
+    }
+}
@@ -0,0 +1,45 @@
+package com.gt.ssrs.fuzzy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(SpringExtension.class)
+public class CharacterSignatureTests {
+
+    private static final String CHARACTERS = "あいうえおかきくけこさしすせそ漢字読書abcde";
+
+    @Test
+    public void testDistanceLowerBound() {
+        assertEquals(0, CharacterSignature.distanceLowerBound(CharacterSignature.of(""), CharacterSignature.of("")));
+        assertEquals(0, CharacterSignature.distanceLowerBound(CharacterSignature.of("abc"), CharacterSignature.of("cba")));
+        assertEquals(3, CharacterSignature.distanceLowerBound(CharacterSignature.of(""), CharacterSignature.of("abc")));
+        assertEquals(2, CharacterSignature.distanceLowerBound(CharacterSignature.of("aaaa"), CharacterSignature.of("aa")));
+    }
+
+    @Test
+    public void testDistanceLowerBound_neverExceedsDistance() {
+        Random random = new Random(31);
+
+        for (int i = 0; i < 5000; i++) {
+            String left = randomString(random, random.nextInt(40));
+            String right = randomString(random, random.nextInt(40));
+
+            int lowerBound = CharacterSignature.distanceLowerBound(CharacterSignature.of(left), CharacterSignature.of(right));
+            assertTrue(lowerBound <= LevenshteinDistance.compute(left, right, Integer.MAX_VALUE - 1), left + " / " + right);
+        }
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append(CHARACTERS.charAt(random.nextInt(CHARACTERS.length())));
+        }
+        return sb.toString();
+    }
+}
@@ -5,9 +5,13 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(SpringExtension.class)
@@ -68,6 +72,91 @@ public class DatasetFuzzyMatcherTests {
 
     @Test
     public void testFindSimilarTo() {
+        verifyFindSimilarTo(datasetFuzzyMatcher);
+    }
+
+    @Test
+    public void testFindSimilarTo_bkTree() {
+        verifyFindSimilarTo(new DatasetFuzzyMatcher(dataset, FuzzyIndexMode.BKTree));
+    }
+
+    @Test
+    public void testFindSimilarTo_bkTreeMatchesLinearScan() {
+        Random random = new Random(1234);
+        List<String> generatedDataset = generateKanaValues(random, 2000);
+
+        DatasetFuzzyMatcher linearScanMatcher = new DatasetFuzzyMatcher(generatedDataset, FuzzyIndexMode.LinearScan);
+        DatasetFuzzyMatcher bkTreeMatcher = new DatasetFuzzyMatcher(generatedDataset, FuzzyIndexMode.BKTree);
+
+        for (String target : generateKanaValues(random, 50)) {
+            assertEquals(linearScanMatcher.findSimilarTo(target, 20, 3), bkTreeMatcher.findSimilarTo(target, 20, 3));
+            assertEquals(linearScanMatcher.findSimilarTo(target, 20, 6), bkTreeMatcher.findSimilarTo(target, 20, 6));
+        }
+
+        // targets taken from the dataset should not be returned as similar to themselves
+        for (String target : generatedDataset.subList(0, 50)) {
+            List<String> similar = bkTreeMatcher.findSimilarTo(target, 20, 6);
+
+            assertEquals(linearScanMatcher.findSimilarTo(target, 20, 6), similar);
+            assertFalse(similar.contains(target));
+        }
+    }
+
+    @Test
+    public void testFindSimilarTo_matchesFullSort() {
+        Random random = new Random(5678);
+        List<String> generatedDataset = generateKanaValues(random, 2000).stream().distinct().toList();
+        DatasetFuzzyMatcher matcher = new DatasetFuzzyMatcher(generatedDataset);
+
+        for (String target : generateKanaValues(random, 50)) {
+            for (int count : List.of(1, 5, 20, 3000)) {
+                List<String> expected = generatedDataset.stream()
+                        .filter(datum -> !datum.equals(target))
+                        .sorted(Comparator.comparingInt(datum -> Math.min(LevenshteinDistance.compute(target, datum, Integer.MAX_VALUE - 1), 5)))
+                        .limit(count)
+                        .toList();
+
+                assertEquals(expected, matcher.findSimilarTo(target, count, 4));
+            }
+        }
+    }
+
+    @Test
+    public void testFindSimilarTo_vectorBackend() {
+        verifyFindSimilarTo(new DatasetFuzzyMatcher(dataset, FuzzyIndexMode.LinearScan, FuzzyDistanceBackend.Vector));
+    }
+
+    @Test
+    public void testFindSimilarTo_vectorBackendMatchesScalar() {
+        Random random = new Random(4321);
+        List<String> generatedDataset = generateKanaValues(random, 2000);
+
+        DatasetFuzzyMatcher scalarMatcher = new DatasetFuzzyMatcher(generatedDataset, FuzzyIndexMode.LinearScan, FuzzyDistanceBackend.Scalar);
+        DatasetFuzzyMatcher vectorMatcher = new DatasetFuzzyMatcher(generatedDataset, FuzzyIndexMode.LinearScan, FuzzyDistanceBackend.Vector);
+
+        List<String> targets = new ArrayList<>(generateKanaValues(random, 50));
+        targets.addAll(generatedDataset.subList(0, 50));
+        for (String target : targets) {
+            for (int count : List.of(1, 20, 3000)) {
+                assertEquals(scalarMatcher.findSimilarTo(target, count, 3), vectorMatcher.findSimilarTo(target, count, 3));
+                assertEquals(scalarMatcher.findSimilarTo(target, count, 6), vectorMatcher.findSimilarTo(target, count, 6));
+            }
+        }
+    }
+
+    @Test
+    public void testFindSimilarTo_prefilterStats() {
+        datasetFuzzyMatcher.findSimilarTo(target, 2, 1);
+
+        // "a", "aaabbb" and longer are outside the length buckets. Once "aa" and "aab" fill the candidates at d = 1, a
+        // later value would need d = 0 to displace them, which the signature of "aaba" rules out.
+        assertEquals(new FuzzyMatcherStats(4, 1, 2), datasetFuzzyMatcher.getStats());
+
+        datasetFuzzyMatcher.findSimilarTo(target, 2, 1);
+        assertEquals(new FuzzyMatcherStats(8, 2, 4), datasetFuzzyMatcher.getStats());
+    }
+
+    private void verifyFindSimilarTo(DatasetFuzzyMatcher datasetFuzzyMatcher) {
         List<String> similar;
 
         similar = datasetFuzzyMatcher.findSimilarTo(target, 1, 4);
@@ -95,4 +184,20 @@ public class DatasetFuzzyMatcherTests {
         assertEquals(6, similar.size());
         assertTrue(similar.containsAll(List.of("aa", "aab", "a", "aaba", "aaabbb", "aaabbbb")));
     }
+
+    private static List<String> generateKanaValues(Random random, int count) {
+        String kana = "あいうえおかきくけこさしすせそたちつてとなにぬねの";
+        List<String> values = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            StringBuilder sb = new StringBuilder();
+            int length = 2 + random.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                sb.append(kana.charAt(random.nextInt(kana.length())));
+            }
+            values.add(sb.toString());
+        }
+
+        return values;
+    }
 }
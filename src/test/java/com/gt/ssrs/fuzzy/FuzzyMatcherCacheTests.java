@@ -0,0 +1,113 @@
+package com.gt.ssrs.fuzzy;
+
+import com.gt.ssrs.language.WordElement;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(SpringExtension.class)
+public class FuzzyMatcherCacheTests {
+
+    private static final String LEXICON_ID_1 = UUID.randomUUID().toString();
+    private static final String LEXICON_ID_2 = UUID.randomUUID().toString();
+
+    @Test
+    public void testGetMatcher() {
+        FuzzyMatcherCache cache = new FuzzyMatcherCache(16, 3600, FuzzyIndexMode.LinearScan, FuzzyDistanceBackend.Scalar);
+        AtomicInteger loadCount = new AtomicInteger();
+
+        DatasetFuzzyMatcher matcher = cache.getMatcher(LEXICON_ID_1, WordElement.Kana, countingSupplier(loadCount));
+
+        assertSame(matcher, cache.getMatcher(LEXICON_ID_1, WordElement.Kana, countingSupplier(loadCount)));
+        assertEquals(1, loadCount.get());
+
+        assertNotSame(matcher, cache.getMatcher(LEXICON_ID_1, WordElement.Kanji, countingSupplier(loadCount)));
+        assertNotSame(matcher, cache.getMatcher(LEXICON_ID_2, WordElement.Kana, countingSupplier(loadCount)));
+        assertEquals(3, loadCount.get());
+    }
+
+    @Test
+    public void testGetCachedMatcher() {
+        FuzzyMatcherCache cache = new FuzzyMatcherCache(16, 3600, FuzzyIndexMode.LinearScan, FuzzyDistanceBackend.Scalar);
+        AtomicInteger loadCount = new AtomicInteger();
+
+        assertNull(cache.getCachedMatcher(LEXICON_ID_1, WordElement.Kana));
+
+        DatasetFuzzyMatcher matcher = cache.getMatcher(LEXICON_ID_1, WordElement.Kana, countingSupplier(loadCount));
+
+        assertSame(matcher, cache.getCachedMatcher(LEXICON_ID_1, WordElement.Kana));
+        assertNull(cache.getCachedMatcher(LEXICON_ID_1, WordElement.Kanji));
+        assertEquals(1, loadCount.get());
+    }
+
+    @Test
+    public void testInvalidateLexicon() {
+        FuzzyMatcherCache cache = new FuzzyMatcherCache(16, 3600, FuzzyIndexMode.LinearScan, FuzzyDistanceBackend.Scalar);
+        AtomicInteger loadCount = new AtomicInteger();
+
+        cache.getMatcher(LEXICON_ID_1, WordElement.Kana, countingSupplier(loadCount));
+        cache.getMatcher(LEXICON_ID_1, WordElement.Kanji, countingSupplier(loadCount));
+        DatasetFuzzyMatcher otherLexiconMatcher = cache.getMatcher(LEXICON_ID_2, WordElement.Kana, countingSupplier(loadCount));
+
+        cache.invalidateLexicon(LEXICON_ID_1);
+
+        assertEquals(1, cache.size());
+        assertSame(otherLexiconMatcher, cache.getMatcher(LEXICON_ID_2, WordElement.Kana, countingSupplier(loadCount)));
+        cache.getMatcher(LEXICON_ID_1, WordElement.Kana, countingSupplier(loadCount));
+        assertEquals(4, loadCount.get());
+    }
+
+    @Test
+    public void testInvalidateDuringLoad() {
+        FuzzyMatcherCache cache = new FuzzyMatcherCache(16, 3600, FuzzyIndexMode.LinearScan, FuzzyDistanceBackend.Scalar);
+
+        DatasetFuzzyMatcher matcher = cache.getMatcher(LEXICON_ID_1, WordElement.Kana, () -> {
+            cache.invalidateLexicon(LEXICON_ID_1);
+            return List.of("a", "b");
+        });
+
+        assertNotNull(matcher);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testMaxEntries() {
+        FuzzyMatcherCache cache = new FuzzyMatcherCache(2, 3600, FuzzyIndexMode.LinearScan, FuzzyDistanceBackend.Scalar);
+        AtomicInteger loadCount = new AtomicInteger();
+
+        cache.getMatcher(LEXICON_ID_1, WordElement.Kana, countingSupplier(loadCount));
+        cache.getMatcher(LEXICON_ID_1, WordElement.Kanji, countingSupplier(loadCount));
+        cache.getMatcher(LEXICON_ID_1, WordElement.Meaning, countingSupplier(loadCount));
+
+        assertEquals(2, cache.size());
+        assertEquals(3, loadCount.get());
+    }
+
+    @Test
+    public void testExpiredEntry() {
+        FuzzyMatcherCache cache = new FuzzyMatcherCache(16, 0, FuzzyIndexMode.LinearScan, FuzzyDistanceBackend.Scalar);
+        AtomicInteger loadCount = new AtomicInteger();
+
+        DatasetFuzzyMatcher matcher = cache.getMatcher(LEXICON_ID_1, WordElement.Kana, countingSupplier(loadCount));
+
+        assertNotSame(matcher, cache.getMatcher(LEXICON_ID_1, WordElement.Kana, countingSupplier(loadCount)));
+        assertEquals(2, loadCount.get());
+
+        assertNull(cache.getCachedMatcher(LEXICON_ID_1, WordElement.Kana));
+        assertEquals(0, cache.size());
+    }
+
+    private static Supplier<List<String>> countingSupplier(AtomicInteger loadCount) {
+        return () -> {
+            loadCount.incrementAndGet();
+            return List.of("a", "b", "c");
+        };
+    }
+}
@@ -0,0 +1,142 @@
+package com.gt.ssrs.fuzzy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(SpringExtension.class)
+public class LevenshteinDistanceTests {
+
+    private static final String CHARACTERS = "あいうえおかきくけこさしすせそ漢字読書abcde";
+    private static final int UNBOUNDED = Integer.MAX_VALUE - 1;
+
+    @Test
+    public void testCompute() {
+        assertEquals(0, LevenshteinDistance.compute("", "", 6));
+        assertEquals(3, LevenshteinDistance.compute("", "abc", 6));
+        assertEquals(3, LevenshteinDistance.compute("abc", "", 6));
+        assertEquals(0, LevenshteinDistance.compute("きりだす", "きりだす", 6));
+        assertEquals(1, LevenshteinDistance.compute("きりだす", "りだす", 6));
+        assertEquals(3, LevenshteinDistance.compute("kitten", "sitting", 6));
+        assertEquals(3, LevenshteinDistance.compute("ねがったりかなったり", "あがったりさがったり", 6));
+    }
+
+    @Test
+    public void testCompute_maxDistanceExceeded() {
+        assertEquals(3, LevenshteinDistance.compute("ねがったりかなったり", "あがったりさがったり", 2));
+        assertEquals(2, LevenshteinDistance.compute("a", "abcdefgh", 1));
+        assertEquals(1, LevenshteinDistance.compute("abc", "xyz", 0));
+    }
+
+    @Test
+    public void testBitParallelMatchesDynamicProgramming() {
+        Random random = new Random(42);
+
+        for (int i = 0; i < 5000; i++) {
+            String left = randomString(random, random.nextInt(20));
+            String right = randomString(random, random.nextInt(20));
+            int maxDistance = random.nextInt(8);
+
+            assertEquals(naiveDistance(left, right), LevenshteinDistance.bitParallelDistance(shorter(left, right), longer(left, right), UNBOUNDED), left + " / " + right);
+            assertEquals(Math.min(naiveDistance(left, right), maxDistance + 1), LevenshteinDistance.bitParallelDistance(shorter(left, right), longer(left, right), maxDistance), left + " / " + right);
+            assertEquals(Math.min(naiveDistance(left, right), maxDistance + 1), LevenshteinDistance.dynamicProgrammingDistance(left, right, maxDistance), left + " / " + right);
+        }
+    }
+
+    @Test
+    public void testLongStrings() {
+        Random random = new Random(7);
+
+        for (int length : List.of(63, 64, 65, 100)) {
+            String left = randomString(random, length);
+            String right = mutate(random, left, 10);
+
+            assertEquals(naiveDistance(left, right), LevenshteinDistance.compute(left, right, UNBOUNDED));
+            assertEquals(Math.min(naiveDistance(left, right), 5), LevenshteinDistance.compute(left, right, 4));
+        }
+    }
+
+    @Test
+    public void testConcurrentUse() throws Exception {
+        Random random = new Random(99);
+        List<String[]> pairs = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            pairs.add(new String[] { randomString(random, random.nextInt(12)), randomString(random, 70 + random.nextInt(12)) });
+            pairs.add(new String[] { randomString(random, random.nextInt(12)), randomString(random, random.nextInt(12)) });
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                results.add(executor.submit(() -> {
+                    for (String[] pair : pairs) {
+                        if (LevenshteinDistance.compute(pair[0], pair[1], UNBOUNDED) != naiveDistance(pair[0], pair[1])) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+
+            for (Future<Boolean> result : results) {
+                assertEquals(true, result.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String shorter(String left, String right) {
+        return left.length() <= right.length() ? left : right;
+    }
+
+    private static String longer(String left, String right) {
+        return left.length() <= right.length() ? right : left;
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append(CHARACTERS.charAt(random.nextInt(CHARACTERS.length())));
+        }
+        return sb.toString();
+    }
+
+    private static String mutate(Random random, String value, int edits) {
+        StringBuilder sb = new StringBuilder(value);
+        for (int i = 0; i < edits; i++) {
+            int pos = random.nextInt(sb.length());
+            switch (random.nextInt(3)) {
+                case 0 -> sb.deleteCharAt(pos);
+                case 1 -> sb.insert(pos, CHARACTERS.charAt(random.nextInt(CHARACTERS.length())));
+                default -> sb.setCharAt(pos, CHARACTERS.charAt(random.nextInt(CHARACTERS.length())));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static int naiveDistance(String left, String right) {
+        int[][] d = new int[left.length() + 1][right.length() + 1];
+        for (int i = 0; i <= left.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= right.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= left.length(); i++) {
+            for (int j = 1; j <= right.length(); j++) {
+                int subCost = left.charAt(i - 1) == right.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + subCost);
+            }
+        }
+        return d[left.length()][right.length()];
+    }
+}
@@ -0,0 +1,56 @@
+package com.gt.ssrs.fuzzy;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(SpringExtension.class)
+public class VectorizedLevenshteinTests {
+
+    private static final String CHARACTERS = "あいうえおかきくけこ漢字読書abcde";
+
+    @Test
+    public void testDistancesMatchScalar() {
+        Random random = new Random(17);
+        short[] distances = new short[VectorizedLevenshtein.LANES];
+
+        for (int iteration = 0; iteration < 500; iteration++) {
+            int length = random.nextInt(12);
+            int candidateCnt = 1 + random.nextInt(VectorizedLevenshtein.LANES * 3);
+
+            List<String> candidates = new ArrayList<>();
+            int[] indexes = new int[candidateCnt];
+            for (int i = 0; i < candidateCnt; i++) {
+                candidates.add(randomString(random, length));
+                indexes[i] = i;
+            }
+
+            short[] packed = VectorizedLevenshtein.packGroups(candidates, indexes, length);
+            String target = randomString(random, random.nextInt(12));
+            int maxDistance = random.nextInt(8);
+
+            for (int groupIdx = 0; groupIdx * VectorizedLevenshtein.LANES < candidateCnt; groupIdx++) {
+                VectorizedLevenshtein.distances(target, packed, VectorizedLevenshtein.groupOffset(groupIdx, length), length, maxDistance, distances);
+
+                for (int lane = 0; lane < VectorizedLevenshtein.LANES && groupIdx * VectorizedLevenshtein.LANES + lane < candidateCnt; lane++) {
+                    String candidate = candidates.get(groupIdx * VectorizedLevenshtein.LANES + lane);
+                    assertEquals(LevenshteinDistance.compute(target, candidate, maxDistance), distances[lane], target + " / " + candidate + " / " + maxDistance);
+                }
+            }
+        }
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sb.append(CHARACTERS.charAt(random.nextInt(CHARACTERS.length())));
+        }
+        return sb.toString();
+    }
+}
@@ -4,6 +4,7 @@ import com.gt.ssrs.language.Language;
 import com.gt.ssrs.lexicon.LexiconDao;
 import com.gt.ssrs.model.LexiconMetadata;
 import com.gt.ssrs.util.DDBTestServer;
+import com.gt.ssrs.util.aws.DDBBatchExecutor;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -33,7 +34,9 @@ public class LexiconDaoDDBTests {
     public void setup() {
         ddbTestServer = DDBTestServer.withTable(DDBLexiconMetadata.TABLE_NAME, DDBLexiconMetadata.class);
 
-        lexiconDao = new LexiconDaoDDB(ddbTestServer.dynamoDbEnhancedClient());
+        lexiconDao = new LexiconDaoDDB(
+                ddbTestServer.dynamoDbEnhancedClient(),
+                new DDBBatchExecutor(ddbTestServer.dynamoDbEnhancedClient(), 100, 25, 4, 5, 50, 2000));
     }
 
     @AfterEach
@@ -15,6 +15,7 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -118,6 +119,16 @@ public class WordReviewHistoryServiceTests {
         assertEquals(List.of(WORD_1.id(), WORD_2.id()), wordReviewHistoryService.getIdsForWordsToLearn(TEST_LEXICON_ID, TEST_USERNAME, requestedWordCnt));
     }
 
+    @Test
+    public void testGetLexiconIdsWithWordsToLearn() {
+        String otherLexiconId = UUID.randomUUID().toString();
+        when(wordReviewHistoryDao.getLexiconIdsWithWordsToLearn(TEST_USERNAME, List.of(TEST_LEXICON_ID, otherLexiconId))).thenReturn(Set.of(otherLexiconId));
+
+        assertEquals(Set.of(otherLexiconId), wordReviewHistoryService.getLexiconIdsWithWordsToLearn(TEST_USERNAME, List.of(TEST_LEXICON_ID, otherLexiconId)));
+        assertEquals(Set.of(), wordReviewHistoryService.getLexiconIdsWithWordsToLearn(TEST_USERNAME, List.of()));
+        verify(wordReviewHistoryDao, times(1)).getLexiconIdsWithWordsToLearn(any(), any());
+    }
+
     @Test
     public void testDeleteUserWordReviewHistories() {
         wordReviewHistoryService.deleteUserWordReviewHistories(TEST_LEXICON_ID, TEST_USERNAME, List.of(WORD_1.id(), WORD_2.id()));
@@ -0,0 +1,155 @@
+package com.gt.ssrs.reviewSession;
+
+import com.gt.ssrs.language.TestRelationship;
+import com.gt.ssrs.model.ReviewEvent;
+import com.gt.ssrs.model.ReviewMode;
+import com.gt.ssrs.model.ReviewType;
+import com.gt.ssrs.model.ScheduledReview;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class DueReviewCacheTests {
+
+    private static final String TEST_USERNAME = "testUser";
+    private static final String LEXICON_ID = UUID.randomUUID().toString();
+    private static final double FUTURE_EVENT_ALLOWED_RATIO = .8;
+
+    @MockitoBean private ScheduledReviewDao scheduledReviewDao;
+
+    private DueReviewCache dueReviewCache;
+    private Instant now;
+    private ScheduledReview oldestReview;
+    private ScheduledReview dueReview;
+    private ScheduledReview earlyReview;
+    private ScheduledReview futureReview;
+
+    @BeforeEach
+    public void setup() {
+        dueReviewCache = new DueReviewCache(scheduledReviewDao, true, 1800, 100);
+
+        now = Instant.now();
+        oldestReview = buildScheduledReview(TestRelationship.MeaningToKana, now.minusSeconds(3600), Duration.ofHours(4));
+        dueReview = buildScheduledReview(TestRelationship.KanjiToKana, now.minusSeconds(60), Duration.ofHours(4));
+        earlyReview = buildScheduledReview(TestRelationship.MeaningToKana, now.plusSeconds(60), Duration.ofHours(4));
+        futureReview = buildScheduledReview(TestRelationship.MeaningToKana, now.plusSeconds(1800), Duration.ofHours(1));
+
+        when(scheduledReviewDao.loadScheduledReviews(eq(TEST_USERNAME), eq(LEXICON_ID), eq(""), any()))
+                .thenReturn(List.of(futureReview, dueReview, earlyReview, oldestReview));
+    }
+
+    @Test
+    public void testLoadDueScheduledReviews() {
+        assertEquals(List.of(oldestReview, dueReview), dueReviewCache.loadDueScheduledReviews(TEST_USERNAME, LEXICON_ID, "", Optional.empty(), FUTURE_EVENT_ALLOWED_RATIO, 10));
+        assertEquals(List.of(oldestReview), dueReviewCache.loadDueScheduledReviews(TEST_USERNAME, LEXICON_ID, "", Optional.empty(), FUTURE_EVENT_ALLOWED_RATIO, 1));
+        assertEquals(List.of(dueReview), dueReviewCache.loadDueScheduledReviews(TEST_USERNAME, LEXICON_ID, TestRelationship.KanjiToKana.getId(), Optional.empty(), FUTURE_EVENT_ALLOWED_RATIO, 10));
+
+        // The future review hasn't waited long enough to be done early
+        assertEquals(List.of(oldestReview, dueReview, earlyReview),
+                dueReviewCache.loadDueScheduledReviews(TEST_USERNAME, LEXICON_ID, "", Optional.of(now.plusSeconds(3600)), FUTURE_EVENT_ALLOWED_RATIO, 10));
+
+        // Loaded once, then answered from memory
+        verify(scheduledReviewDao, times(1)).loadScheduledReviews(eq(TEST_USERNAME), eq(LEXICON_ID), eq(""), any());
+        assertTrue(dueReviewCache.isLoaded(TEST_USERNAME, LEXICON_ID));
+    }
+
+    @Test
+    public void testCountDueScheduledReviews() {
+        assertEquals(Map.of(TestRelationship.MeaningToKana.getId(), 1, TestRelationship.KanjiToKana.getId(), 1),
+                dueReviewCache.countDueScheduledReviews(TEST_USERNAME, LEXICON_ID, Optional.empty(), FUTURE_EVENT_ALLOWED_RATIO));
+        assertEquals(Map.of(TestRelationship.MeaningToKana.getId(), 2, TestRelationship.KanjiToKana.getId(), 1),
+                dueReviewCache.countDueScheduledReviews(TEST_USERNAME, LEXICON_ID, Optional.of(now.plusSeconds(3600)), FUTURE_EVENT_ALLOWED_RATIO));
+    }
+
+    @Test
+    public void testOnReviewEventsSaved() {
+        dueReviewCache.loadDueScheduledReviews(TEST_USERNAME, LEXICON_ID, "", Optional.empty(), FUTURE_EVENT_ALLOWED_RATIO, 10);
+
+        dueReviewCache.onReviewEventsSaved(List.of(buildReviewEvent(oldestReview.id()), buildReviewEvent(null)));
+
+        assertEquals(List.of(dueReview), dueReviewCache.loadDueScheduledReviews(TEST_USERNAME, LEXICON_ID, "", Optional.empty(), FUTURE_EVENT_ALLOWED_RATIO, 10));
+        verify(scheduledReviewDao, times(1)).loadScheduledReviews(eq(TEST_USERNAME), eq(LEXICON_ID), eq(""), any());
+    }
+
+    @Test
+    public void testOnScheduledReviewsSaved() {
+        // Not loaded yet, so nothing to update
+        dueReviewCache.onScheduledReviewsSaved(List.of(withScheduledTestTime(futureReview, now.minusSeconds(10), false)));
+        assertFalse(dueReviewCache.isLoaded(TEST_USERNAME, LEXICON_ID));
+        verifyNoInteractions(scheduledReviewDao);
+
+        dueReviewCache.loadDueScheduledReviews(TEST_USERNAME, LEXICON_ID, "", Optional.empty(), FUTURE_EVENT_ALLOWED_RATIO, 10);
+
+        ScheduledReview newReview = buildScheduledReview(TestRelationship.KanjiToKana, now.minusSeconds(120), Duration.ofHours(4));
+        ScheduledReview movedReview = withScheduledTestTime(futureReview, now.minusSeconds(7200), false);
+        dueReviewCache.onScheduledReviewsSaved(List.of(newReview, movedReview, withScheduledTestTime(dueReview, dueReview.scheduledTestTime(), true)));
+
+        assertEquals(List.of(movedReview, oldestReview, newReview),
+                dueReviewCache.loadDueScheduledReviews(TEST_USERNAME, LEXICON_ID, "", Optional.empty(), FUTURE_EVENT_ALLOWED_RATIO, 10));
+    }
+
+    @Test
+    public void testInvalidate() {
+        dueReviewCache.loadDueScheduledReviews(TEST_USERNAME, LEXICON_ID, "", Optional.empty(), FUTURE_EVENT_ALLOWED_RATIO, 10);
+        dueReviewCache.invalidate(TEST_USERNAME, LEXICON_ID);
+        assertFalse(dueReviewCache.isLoaded(TEST_USERNAME, LEXICON_ID));
+
+        dueReviewCache.loadDueScheduledReviews(TEST_USERNAME, LEXICON_ID, "", Optional.empty(), FUTURE_EVENT_ALLOWED_RATIO, 10);
+        dueReviewCache.invalidateLexicon(LEXICON_ID);
+        assertFalse(dueReviewCache.isLoaded(TEST_USERNAME, LEXICON_ID));
+
+        dueReviewCache.loadDueScheduledReviews(TEST_USERNAME, LEXICON_ID, "", Optional.empty(), FUTURE_EVENT_ALLOWED_RATIO, 10);
+        verify(scheduledReviewDao, times(3)).loadScheduledReviews(eq(TEST_USERNAME), eq(LEXICON_ID), eq(""), any());
+    }
+
+    @Test
+    public void testIdleEviction() {
+        DueReviewCache noIdleCache = new DueReviewCache(scheduledReviewDao, true, 0, 100);
+
+        noIdleCache.loadDueScheduledReviews(TEST_USERNAME, LEXICON_ID, "", Optional.empty(), FUTURE_EVENT_ALLOWED_RATIO, 10);
+        noIdleCache.loadDueScheduledReviews(TEST_USERNAME, LEXICON_ID, "", Optional.empty(), FUTURE_EVENT_ALLOWED_RATIO, 10);
+
+        verify(scheduledReviewDao, times(2)).loadScheduledReviews(eq(TEST_USERNAME), eq(LEXICON_ID), eq(""), any());
+    }
+
+    @Test
+    public void testMaxEntries() {
+        DueReviewCache singleEntryCache = new DueReviewCache(scheduledReviewDao, true, 1800, 1);
+        String otherLexiconId = UUID.randomUUID().toString();
+
+        singleEntryCache.loadDueScheduledReviews(TEST_USERNAME, LEXICON_ID, "", Optional.empty(), FUTURE_EVENT_ALLOWED_RATIO, 10);
+        singleEntryCache.loadDueScheduledReviews(TEST_USERNAME, otherLexiconId, "", Optional.empty(), FUTURE_EVENT_ALLOWED_RATIO, 10);
+
+        assertFalse(singleEntryCache.isLoaded(TEST_USERNAME, LEXICON_ID));
+        assertTrue(singleEntryCache.isLoaded(TEST_USERNAME, otherLexiconId));
+    }
+
+    private static ScheduledReview buildScheduledReview(TestRelationship testRelationship, Instant scheduledTestTime, Duration testDelay) {
+        return new ScheduledReview(UUID.randomUUID().toString(), TEST_USERNAME, LEXICON_ID, UUID.randomUUID().toString(), ReviewType.Review,
+                testRelationship.getId(), scheduledTestTime, testDelay, false);
+    }
+
+    private static ScheduledReview withScheduledTestTime(ScheduledReview scheduledReview, Instant scheduledTestTime, boolean completed) {
+        return new ScheduledReview(scheduledReview.id(), scheduledReview.username(), scheduledReview.lexiconId(), scheduledReview.wordId(),
+                scheduledReview.reviewType(), scheduledReview.testRelationshipId(), scheduledTestTime, scheduledReview.testDelay(), completed);
+    }
+
+    private static ReviewEvent buildReviewEvent(String scheduledReviewId) {
+        return new ReviewEvent(null, scheduledReviewId, LEXICON_ID, UUID.randomUUID().toString(), TEST_USERNAME, Instant.now(),
+                ReviewType.Review, ReviewMode.TypingTest, TestRelationship.MeaningToKana, true, false, 1000, false, null);
+    }
+}
@@ -0,0 +1,62 @@
+package com.gt.ssrs.reviewSession;
+
+import com.gt.ssrs.language.Language;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReviewDelayCalculatorTests {
+
+    private static final double STANDARD_INCORRECT_BOOST = 2;
+    private static final double NEAR_MISS_BOOST = 3;
+
+    private final ReviewDelayCalculator reviewDelayCalculator = new ReviewDelayCalculator(STANDARD_INCORRECT_BOOST, NEAR_MISS_BOOST);
+
+    @Test
+    public void testGetNextDelaySecAfterSuccessfulTest() {
+        // testsToDouble is 3 for Japanese
+        assertEquals(2519, reviewDelayCalculator.getNextDelaySecAfterSuccessfulTest(Language.Japanese, 2000, 0, 0));
+        assertEquals(3174, reviewDelayCalculator.getNextDelaySecAfterSuccessfulTest(Language.Japanese, 2000, STANDARD_INCORRECT_BOOST, 10000));
+        assertEquals(4000, reviewDelayCalculator.getNextDelaySecAfterSuccessfulTest(Language.Japanese, 2000, NEAR_MISS_BOOST, 10000));
+    }
+
+    @Test
+    public void testGetNextDelaySecAfterSuccessfulTest_BoostExpired() {
+        // Boosted delay is past the expiration, so the expiration is used while it is longer than the standard delay
+        assertEquals(3000, reviewDelayCalculator.getNextDelaySecAfterSuccessfulTest(Language.Japanese, 2000, NEAR_MISS_BOOST, 3000));
+        assertEquals(2519, reviewDelayCalculator.getNextDelaySecAfterSuccessfulTest(Language.Japanese, 2000, NEAR_MISS_BOOST, 2000));
+    }
+
+    @Test
+    public void testGetNextDelaySecAfterSuccessfulTest_MatchesUncachedCalculation() {
+        Random random = new Random(0);
+        double[] boosts = { 0, 1, STANDARD_INCORRECT_BOOST, NEAR_MISS_BOOST, 2.5 };
+
+        for (int i = 0; i < 100000; i++) {
+            Language language = Language.values()[random.nextInt(Language.values().length)];
+            long currentTestDelaySec = random.nextInt(365 * 86400);
+            double boost = boosts[random.nextInt(boosts.length)];
+            long boostExpirationDelaySec = random.nextInt(365 * 86400);
+
+            assertEquals(getUncachedNextDelaySec(language, currentTestDelaySec, boost, boostExpirationDelaySec),
+                    reviewDelayCalculator.getNextDelaySecAfterSuccessfulTest(language, currentTestDelaySec, boost, boostExpirationDelaySec));
+        }
+    }
+
+    private static long getUncachedNextDelaySec(Language language, long currentTestDelaySec, double boost, long boostExpirationDelaySec) {
+        double testsToDoubleDelay = language.getTestsToDouble() <= 0 ? 1 : language.getTestsToDouble();
+        long standardDelaySec = (long)(currentTestDelaySec * Math.pow(2, 1 / testsToDoubleDelay));
+
+        if (boost > 1) {
+            long boostedDelaySec = (long)(currentTestDelaySec * Math.pow(2, boost / testsToDoubleDelay));
+            if (boostedDelaySec > boostExpirationDelaySec) {
+                return Math.max(standardDelaySec, boostExpirationDelaySec);
+            }
+            return boostedDelaySec;
+        }
+
+        return standardDelaySec;
+    }
+}
@@ -0,0 +1,186 @@
+package com.gt.ssrs.reviewSession;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class ReviewEventProcessingQueueTests {
+
+    private static final String TEST_USERNAME = "testUser";
+    private static final String LEXICON_ID = UUID.randomUUID().toString();
+
+    @MockitoBean private ReviewEventProcessor reviewEventProcessor;
+    @MockitoBean private ReviewEventDao reviewEventDao;
+
+    private ReviewEventProcessingQueue reviewEventProcessingQueue;
+
+    @BeforeEach
+    public void setup() {
+        reviewEventProcessingQueue = new ReviewEventProcessingQueue(reviewEventProcessor, reviewEventDao, true, true, 2, 100, 4);
+    }
+
+    @AfterEach
+    public void teardown() {
+        reviewEventProcessingQueue.shutdown();
+    }
+
+    @Test
+    public void testEnqueue() {
+        reviewEventProcessingQueue.enqueue(TEST_USERNAME, LEXICON_ID);
+
+        verify(reviewEventProcessor, timeout(5000)).processEvents(TEST_USERNAME, LEXICON_ID);
+
+        reviewEventProcessingQueue.shutdown();
+        assertFalse(reviewEventProcessingQueue.isDirty(TEST_USERNAME, LEXICON_ID));
+    }
+
+    @Test
+    public void testEnsureProcessed_Fresh() {
+        // Not yet processed by this instance, so there may be events saved before startup
+        assertTrue(reviewEventProcessingQueue.isDirty(TEST_USERNAME, LEXICON_ID));
+
+        reviewEventProcessingQueue.ensureProcessed(TEST_USERNAME, LEXICON_ID, true);
+        verify(reviewEventProcessor, times(1)).processEvents(TEST_USERNAME, LEXICON_ID);
+        assertFalse(reviewEventProcessingQueue.isDirty(TEST_USERNAME, LEXICON_ID));
+
+        // Clean, so nothing to do
+        reviewEventProcessingQueue.ensureProcessed(TEST_USERNAME, LEXICON_ID, true);
+        verify(reviewEventProcessor, times(1)).processEvents(TEST_USERNAME, LEXICON_ID);
+    }
+
+    @Test
+    public void testEnsureProcessed_NotFresh() {
+        reviewEventProcessingQueue.ensureProcessed(TEST_USERNAME, LEXICON_ID, false);
+
+        // Queued for the background workers rather than processed on the calling thread
+        verify(reviewEventProcessor, timeout(5000)).processEvents(TEST_USERNAME, LEXICON_ID);
+    }
+
+    @Test
+    public void testEnsureProcessed_Failure() {
+        doThrow(new IllegalStateException("failed")).when(reviewEventProcessor).processEvents(TEST_USERNAME, LEXICON_ID);
+
+        assertThrows(IllegalStateException.class, () -> reviewEventProcessingQueue.ensureProcessed(TEST_USERNAME, LEXICON_ID, true));
+        assertTrue(reviewEventProcessingQueue.isDirty(TEST_USERNAME, LEXICON_ID));
+    }
+
+    @Test
+    public void testEnsureProcessed_MultipleLexicons() {
+        List<String> lexiconIds = List.of(LEXICON_ID, UUID.randomUUID().toString(), UUID.randomUUID().toString());
+        reviewEventProcessingQueue.ensureProcessed(TEST_USERNAME, lexiconIds.get(1), true);
+
+        reviewEventProcessingQueue.ensureProcessed(TEST_USERNAME, lexiconIds, true);
+
+        // Only the lexicons that were still dirty are processed again
+        verify(reviewEventProcessor, times(1)).processEvents(TEST_USERNAME, lexiconIds.get(0));
+        verify(reviewEventProcessor, times(1)).processEvents(TEST_USERNAME, lexiconIds.get(1));
+        verify(reviewEventProcessor, times(1)).processEvents(TEST_USERNAME, lexiconIds.get(2));
+        lexiconIds.forEach(lexiconId -> assertFalse(reviewEventProcessingQueue.isDirty(TEST_USERNAME, lexiconId)));
+    }
+
+    @Test
+    public void testEnsureProcessed_MultipleLexiconsFailure() {
+        List<String> lexiconIds = List.of(LEXICON_ID, UUID.randomUUID().toString());
+        doThrow(new IllegalStateException("failed")).when(reviewEventProcessor).processEvents(TEST_USERNAME, LEXICON_ID);
+
+        assertThrows(IllegalStateException.class, () -> reviewEventProcessingQueue.ensureProcessed(TEST_USERNAME, lexiconIds, true));
+
+        // The other lexicon is still processed
+        verify(reviewEventProcessor).processEvents(TEST_USERNAME, lexiconIds.get(1));
+        assertTrue(reviewEventProcessingQueue.isDirty(TEST_USERNAME, LEXICON_ID));
+        assertFalse(reviewEventProcessingQueue.isDirty(TEST_USERNAME, lexiconIds.get(1)));
+    }
+
+    @Test
+    public void testLoadDirtyKeys() {
+        String otherLexiconId = UUID.randomUUID().toString();
+        when(reviewEventDao.loadLexiconIdsWithUnprocessedEvents()).thenReturn(Optional.of(Map.of(TEST_USERNAME, Set.of(LEXICON_ID))));
+
+        reviewEventProcessingQueue.loadDirtyKeys();
+
+        assertTrue(reviewEventProcessingQueue.isDirty(TEST_USERNAME, LEXICON_ID));
+        assertFalse(reviewEventProcessingQueue.isDirty(TEST_USERNAME, otherLexiconId));
+
+        // Only lexicons with unprocessed events are processed
+        reviewEventProcessingQueue.ensureProcessed(TEST_USERNAME, List.of(LEXICON_ID, otherLexiconId), true);
+        verify(reviewEventProcessor, times(1)).processEvents(TEST_USERNAME, LEXICON_ID);
+        verify(reviewEventProcessor, never()).processEvents(TEST_USERNAME, otherLexiconId);
+        assertFalse(reviewEventProcessingQueue.isDirty(TEST_USERNAME, LEXICON_ID));
+
+        // Saving an event makes it dirty again
+        reviewEventProcessingQueue.enqueue(TEST_USERNAME, otherLexiconId);
+        verify(reviewEventProcessor, timeout(5000)).processEvents(TEST_USERNAME, otherLexiconId);
+    }
+
+    @Test
+    public void testLoadDirtyKeys_Failure() {
+        when(reviewEventDao.loadLexiconIdsWithUnprocessedEvents()).thenThrow(new IllegalStateException("failed"));
+
+        reviewEventProcessingQueue.loadDirtyKeys();
+
+        // Unknown, so treated as dirty until processed
+        assertTrue(reviewEventProcessingQueue.isDirty(TEST_USERNAME, LEXICON_ID));
+        reviewEventProcessingQueue.ensureProcessed(TEST_USERNAME, LEXICON_ID, true);
+        assertFalse(reviewEventProcessingQueue.isDirty(TEST_USERNAME, LEXICON_ID));
+    }
+
+    @Test
+    public void testLoadDirtyKeys_NotAvailable() {
+        when(reviewEventDao.loadLexiconIdsWithUnprocessedEvents()).thenReturn(Optional.empty());
+
+        reviewEventProcessingQueue.loadDirtyKeys();
+
+        // Treated as dirty until processed, the same as when loading fails
+        assertTrue(reviewEventProcessingQueue.isDirty(TEST_USERNAME, LEXICON_ID));
+        reviewEventProcessingQueue.ensureProcessed(TEST_USERNAME, LEXICON_ID, true);
+        verify(reviewEventProcessor).processEvents(TEST_USERNAME, LEXICON_ID);
+        assertFalse(reviewEventProcessingQueue.isDirty(TEST_USERNAME, LEXICON_ID));
+    }
+
+    @Test
+    public void testEnsureProcessed_MultipleInstances() {
+        ReviewEventProcessingQueue sharedQueue = new ReviewEventProcessingQueue(reviewEventProcessor, reviewEventDao, true, false, 2, 100, 4);
+        when(reviewEventDao.loadLexiconIdsWithUnprocessedEvents()).thenReturn(Optional.of(Map.of()));
+        sharedQueue.loadDirtyKeys();
+
+        // Clean as far as this instance knows, but another instance may have saved events
+        assertFalse(sharedQueue.isDirty(TEST_USERNAME, LEXICON_ID));
+        sharedQueue.ensureProcessed(TEST_USERNAME, LEXICON_ID, true);
+        sharedQueue.ensureProcessed(TEST_USERNAME, List.of(LEXICON_ID, UUID.randomUUID().toString()), true);
+        verify(reviewEventProcessor, times(2)).processEvents(TEST_USERNAME, LEXICON_ID);
+
+        // Reads that don't need to be fresh still rely on what this instance knows
+        sharedQueue.ensureProcessed(TEST_USERNAME, LEXICON_ID, false);
+        verify(reviewEventProcessor, times(2)).processEvents(TEST_USERNAME, LEXICON_ID);
+
+        sharedQueue.shutdown();
+    }
+
+    @Test
+    public void testAsyncDisabled() {
+        ReviewEventProcessingQueue syncQueue = new ReviewEventProcessingQueue(reviewEventProcessor, reviewEventDao, false, false, 2, 100, 4);
+
+        syncQueue.enqueue(TEST_USERNAME, LEXICON_ID);
+        verifyNoInteractions(reviewEventProcessor);
+
+        // Always processed when checked, since events may have been saved by another instance
+        syncQueue.ensureProcessed(TEST_USERNAME, LEXICON_ID, false);
+        syncQueue.ensureProcessed(TEST_USERNAME, LEXICON_ID, false);
+        verify(reviewEventProcessor, times(2)).processEvents(TEST_USERNAME, LEXICON_ID);
+
+        syncQueue.shutdown();
+    }
+}
@@ -46,6 +46,8 @@ public class ReviewEventProcessorTests {
 
     @MockitoBean private ReviewEventDao reviewEventDao;
     @MockitoBean private ScheduledReviewDao scheduledReviewDao;
+    @MockitoBean private ReviewResultsDao reviewResultsDao;
+    @MockitoBean private DueReviewCache dueReviewCache;
     @MockitoBean private LexiconService lexiconService;
     @MockitoBean private WordService wordService;
     @MockitoBean private WordReviewHistoryService wordReviewHistoryService;
@@ -54,8 +56,8 @@ public class ReviewEventProcessorTests {
 
     @BeforeEach
     public void initTests() {
-        reviewEventProcessor = new ReviewEventProcessor(reviewEventDao, scheduledReviewDao, lexiconService, wordService, wordReviewHistoryService,
-                INITIAL_LEARNING_DELAY_SEC, CORRECT_NEAR_MISS_LEARNING_DELAY_SEC, STANDARD_INCORRECT_BOOST, NEAR_MISS_INCORRECT_BOOST);
+        reviewEventProcessor = new ReviewEventProcessor(reviewEventDao, scheduledReviewDao, reviewResultsDao, dueReviewCache, lexiconService, wordService, wordReviewHistoryService,
+                INITIAL_LEARNING_DELAY_SEC, CORRECT_NEAR_MISS_LEARNING_DELAY_SEC, STANDARD_INCORRECT_BOOST, NEAR_MISS_INCORRECT_BOOST, 10000);
 
         when(lexiconService.getLexiconMetadata(LEXICON_ID)).thenReturn(
                 new LexiconMetadata(LEXICON_ID, TEST_USERNAME, "Test Lexicon", "Test Lexicon", TEST_LANGUAGE.getId(), "", null));
@@ -99,7 +101,7 @@ public class ReviewEventProcessorTests {
         reviewEventProcessor.processEvents(TEST_USERNAME, LEXICON_ID);
 
         ArgumentCaptor<List<ScheduledReview>> scheduledReviewCaptor = ArgumentCaptor.forClass(List.class);
-        verify(scheduledReviewDao, times(1)).createScheduledReviewsBatch(scheduledReviewCaptor.capture());
+        verify(reviewResultsDao, times(1)).saveProcessedResults(eq(TEST_USERNAME), anyList(), scheduledReviewCaptor.capture(), anyList());
         List<ScheduledReview> capturedScheduledReviews = scheduledReviewCaptor.getValue();
 
         assertTrue(capturedScheduledReviews.get(0).wordId().equals(LEARNING_WORD_ID) || capturedScheduledReviews.get(0).wordId().equals(REVIEW_WORD_ID));
@@ -125,7 +127,7 @@ public class ReviewEventProcessorTests {
         }
 
         ArgumentCaptor<List<WordReviewHistory>> historyCaptor = ArgumentCaptor.forClass(List.class);
-        verify(wordReviewHistoryService, times(1)).updateWordReviewHistoryBatch(eq(TEST_USERNAME), historyCaptor.capture());
+        verify(reviewResultsDao, times(1)).saveProcessedResults(eq(TEST_USERNAME), historyCaptor.capture(), anyList(), anyList());
         List<WordReviewHistory> capturedHistories = historyCaptor.getValue();
 
         assertTrue(capturedHistories.get(0).wordId().equals(LEARNING_WORD_ID) || capturedHistories.get(0).wordId().equals(REVIEW_WORD_ID));
@@ -150,8 +152,8 @@ public class ReviewEventProcessorTests {
             }
         }
 
-        verify(reviewEventDao).markEventsAsProcessed(events);
-        verify(reviewEventDao, times(1)).markEventsAsProcessed(anyList());
+        verify(reviewResultsDao).saveProcessedResults(eq(TEST_USERNAME), anyList(), anyList(), eq(events));
+        verify(reviewResultsDao, times(1)).saveProcessedResults(anyString(), anyList(), anyList(), anyList());
     }
 
     @Test
@@ -170,9 +172,7 @@ public class ReviewEventProcessorTests {
 
         reviewEventProcessor.processEvents(TEST_USERNAME, LEXICON_ID);
 
-        verify(scheduledReviewDao, times(0)).createScheduledReviewsBatch(anyList());
-        verify(wordReviewHistoryService, times(0)).updateWordReviewHistoryBatch(eq(TEST_USERNAME), anyList());
-        verify(reviewEventDao).markEventsAsProcessed(events);
+        verify(reviewResultsDao).saveProcessedResults(TEST_USERNAME, List.of(), List.of(), events);
     }
 
 
@@ -189,9 +189,7 @@ public class ReviewEventProcessorTests {
 
         reviewEventProcessor.processEvents(TEST_USERNAME, LEXICON_ID);
 
-        verify(scheduledReviewDao, times(0)).createScheduledReviewsBatch(anyList());
-        verify(wordReviewHistoryService, times(0)).updateWordReviewHistoryBatch(eq(TEST_USERNAME), anyList());
-        verify(reviewEventDao).markEventsAsProcessed(events);
+        verify(reviewResultsDao).saveProcessedResults(TEST_USERNAME, List.of(), List.of(), events);
     }
 
     @Test
@@ -204,7 +202,7 @@ public class ReviewEventProcessorTests {
         reviewEventProcessor.processEvents(TEST_USERNAME, LEXICON_ID);
 
         ArgumentCaptor<List<ScheduledReview>> scheduledReviewCaptor = ArgumentCaptor.forClass(List.class);
-        verify(scheduledReviewDao, times(1)).createScheduledReviewsBatch(scheduledReviewCaptor.capture());
+        verify(reviewResultsDao, times(1)).saveProcessedResults(eq(TEST_USERNAME), anyList(), scheduledReviewCaptor.capture(), anyList());
         List<ScheduledReview> capturedScheduledReviews = scheduledReviewCaptor.getValue();
         assertEquals(1, capturedScheduledReviews.size());
         ScheduledReview capturedScheduledReview = capturedScheduledReviews.get(0);
@@ -218,7 +216,7 @@ public class ReviewEventProcessorTests {
         assertEquals(TEST_LANGUAGE.getReviewTestRelationships().get(2).getId(), capturedScheduledReview.testRelationshipId());
 
         ArgumentCaptor<List<WordReviewHistory>> historyCaptor = ArgumentCaptor.forClass(List.class);
-        verify(wordReviewHistoryService, times(1)).updateWordReviewHistoryBatch(eq(TEST_USERNAME), historyCaptor.capture());
+        verify(reviewResultsDao, times(1)).saveProcessedResults(eq(TEST_USERNAME), historyCaptor.capture(), anyList(), anyList());
         List<WordReviewHistory> capturedHistories = historyCaptor.getValue();
         assertEquals(1, capturedHistories.size());
         WordReviewHistory wordHistory = capturedHistories.get(0);
@@ -250,7 +248,7 @@ public class ReviewEventProcessorTests {
         reviewEventProcessor.processEvents(TEST_USERNAME, LEXICON_ID);
 
         ArgumentCaptor<List<ScheduledReview>> scheduledReviewCaptor = ArgumentCaptor.forClass(List.class);
-        verify(scheduledReviewDao, times(1)).createScheduledReviewsBatch(scheduledReviewCaptor.capture());
+        verify(reviewResultsDao, times(1)).saveProcessedResults(eq(TEST_USERNAME), anyList(), scheduledReviewCaptor.capture(), anyList());
         List<ScheduledReview> capturedScheduledReviews = scheduledReviewCaptor.getValue();
         assertEquals(1, capturedScheduledReviews.size());
         ScheduledReview capturedScheduledReview = capturedScheduledReviews.get(0);
@@ -265,7 +263,7 @@ public class ReviewEventProcessorTests {
         assertEquals(TEST_LANGUAGE.getReviewTestRelationships().get(2).getId(), capturedScheduledReview.testRelationshipId());
 
         ArgumentCaptor<List<WordReviewHistory>> historyCaptor = ArgumentCaptor.forClass(List.class);
-        verify(wordReviewHistoryService, times(1)).updateWordReviewHistoryBatch(eq(TEST_USERNAME), historyCaptor.capture());
+        verify(reviewResultsDao, times(1)).saveProcessedResults(eq(TEST_USERNAME), historyCaptor.capture(), anyList(), anyList());
         List<WordReviewHistory> capturedHistories = historyCaptor.getValue();
         assertEquals(1, capturedHistories.size());
         WordReviewHistory wordHistory = capturedHistories.get(0);
@@ -298,7 +296,7 @@ public class ReviewEventProcessorTests {
         reviewEventProcessor.processEvents(TEST_USERNAME, LEXICON_ID);
 
         ArgumentCaptor<List<WordReviewHistory>> historyCaptor = ArgumentCaptor.forClass(List.class);
-        verify(wordReviewHistoryService, times(1)).updateWordReviewHistoryBatch(eq(TEST_USERNAME), historyCaptor.capture());
+        verify(reviewResultsDao, times(1)).saveProcessedResults(eq(TEST_USERNAME), historyCaptor.capture(), anyList(), anyList());
         List<WordReviewHistory> capturedHistories = historyCaptor.getValue();
         assertEquals(1, capturedHistories.size());
         WordReviewHistory wordHistory = capturedHistories.get(0);
@@ -317,7 +315,7 @@ public class ReviewEventProcessorTests {
         reviewEventProcessor.processEvents(TEST_USERNAME, LEXICON_ID);
 
         ArgumentCaptor<List<ScheduledReview>> scheduledReviewCaptor = ArgumentCaptor.forClass(List.class);
-        verify(scheduledReviewDao, times(1)).createScheduledReviewsBatch(scheduledReviewCaptor.capture());
+        verify(reviewResultsDao, times(1)).saveProcessedResults(eq(TEST_USERNAME), anyList(), scheduledReviewCaptor.capture(), anyList());
         assertEquals(1, scheduledReviewCaptor.getValue().size());
         ScheduledReview capturedScheduledReview = scheduledReviewCaptor.getValue().get(0);
 
@@ -330,7 +328,7 @@ public class ReviewEventProcessorTests {
         assertEquals(Duration.ofSeconds(INITIAL_LEARNING_DELAY_SEC), capturedScheduledReview.testDelay());
 
         ArgumentCaptor<List<WordReviewHistory>> historyCaptor = ArgumentCaptor.forClass(List.class);
-        verify(wordReviewHistoryService, times(1)).updateWordReviewHistoryBatch(eq(TEST_USERNAME), historyCaptor.capture());
+        verify(reviewResultsDao, times(1)).saveProcessedResults(eq(TEST_USERNAME), historyCaptor.capture(), anyList(), anyList());
         assertEquals(1, historyCaptor.getValue().size());
         WordReviewHistory capturedHistory = historyCaptor.getValue().get(0);
 
@@ -343,7 +341,7 @@ public class ReviewEventProcessorTests {
         assertEquals(Duration.ofSeconds(REVIEW_WORD_LAST_DELAY_SEC), capturedHistory.currentBoostExpirationDelay());
         assertEquals(Map.of(TEST_LANGUAGE.getReviewTestRelationships().get(0).getId(), new TestHistory(2, 1, 0)), capturedHistory.testHistory());
 
-        verify(reviewEventDao).markEventsAsProcessed(events);
+        verify(reviewResultsDao).saveProcessedResults(eq(TEST_USERNAME), anyList(), anyList(), eq(events));
     }
 
     @Test
@@ -356,7 +354,7 @@ public class ReviewEventProcessorTests {
         reviewEventProcessor.processEvents(TEST_USERNAME, LEXICON_ID);
 
         ArgumentCaptor<List<ScheduledReview>> scheduledReviewCaptor = ArgumentCaptor.forClass(List.class);
-        verify(scheduledReviewDao, times(1)).createScheduledReviewsBatch(scheduledReviewCaptor.capture());
+        verify(reviewResultsDao, times(1)).saveProcessedResults(eq(TEST_USERNAME), anyList(), scheduledReviewCaptor.capture(), anyList());
         assertEquals(1, scheduledReviewCaptor.getValue().size());
         ScheduledReview capturedScheduledReview = scheduledReviewCaptor.getValue().get(0);
 
@@ -369,7 +367,7 @@ public class ReviewEventProcessorTests {
         assertEquals(Duration.ofSeconds(INITIAL_LEARNING_DELAY_SEC), capturedScheduledReview.testDelay());
 
         ArgumentCaptor<List<WordReviewHistory>> historyCaptor = ArgumentCaptor.forClass(List.class);
-        verify(wordReviewHistoryService, times(1)).updateWordReviewHistoryBatch(eq(TEST_USERNAME), historyCaptor.capture());
+        verify(reviewResultsDao, times(1)).saveProcessedResults(eq(TEST_USERNAME), historyCaptor.capture(), anyList(), anyList());
         assertEquals(1, historyCaptor.getValue().size());
         WordReviewHistory capturedHistory = historyCaptor.getValue().get(0);
 
@@ -382,7 +380,7 @@ public class ReviewEventProcessorTests {
         assertEquals(Duration.ofSeconds(REVIEW_WORD_LAST_DELAY_SEC), capturedHistory.currentBoostExpirationDelay());
         assertEquals(Map.of(TEST_LANGUAGE.getReviewTestRelationships().get(0).getId(), new TestHistory(2, 1, 0)), capturedHistory.testHistory());
 
-        verify(reviewEventDao).markEventsAsProcessed(events);
+        verify(reviewResultsDao).saveProcessedResults(eq(TEST_USERNAME), anyList(), anyList(), eq(events));
     }
 
     @Test
@@ -398,7 +396,7 @@ public class ReviewEventProcessorTests {
         reviewEventProcessor.processEvents(TEST_USERNAME, LEXICON_ID);
 
         ArgumentCaptor<List<ScheduledReview>> scheduledReviewCaptor = ArgumentCaptor.forClass(List.class);
-        verify(scheduledReviewDao, times(1)).createScheduledReviewsBatch(scheduledReviewCaptor.capture());
+        verify(reviewResultsDao, times(1)).saveProcessedResults(eq(TEST_USERNAME), anyList(), scheduledReviewCaptor.capture(), anyList());
         assertEquals(1, scheduledReviewCaptor.getValue().size());
         ScheduledReview capturedScheduledReview = scheduledReviewCaptor.getValue().get(0);
 
@@ -411,7 +409,7 @@ public class ReviewEventProcessorTests {
         assertEquals(Duration.ofSeconds(INITIAL_LEARNING_DELAY_SEC), capturedScheduledReview.testDelay());
 
         ArgumentCaptor<List<WordReviewHistory>> historyCaptor = ArgumentCaptor.forClass(List.class);
-        verify(wordReviewHistoryService, times(1)).updateWordReviewHistoryBatch(eq(TEST_USERNAME), historyCaptor.capture());
+        verify(reviewResultsDao, times(1)).saveProcessedResults(eq(TEST_USERNAME), historyCaptor.capture(), anyList(), anyList());
         assertEquals(1, historyCaptor.getValue().size());
         WordReviewHistory capturedHistory = historyCaptor.getValue().get(0);
 
@@ -424,7 +422,7 @@ public class ReviewEventProcessorTests {
         assertEquals(Duration.ofSeconds(REVIEW_WORD_LAST_DELAY_SEC), capturedHistory.currentBoostExpirationDelay());
         assertEquals(Map.of(TEST_LANGUAGE.getReviewTestRelationships().get(0).getId(), new TestHistory(2, 1, 0)), capturedHistory.testHistory());
 
-        verify(reviewEventDao).markEventsAsProcessed(events);
+        verify(reviewResultsDao).saveProcessedResults(eq(TEST_USERNAME), anyList(), anyList(), eq(events));
     }
 
     @Test
@@ -445,14 +443,14 @@ public class ReviewEventProcessorTests {
         reviewEventProcessor.processEvents(TEST_USERNAME, LEXICON_ID);
 
         ArgumentCaptor<List<ScheduledReview>> scheduledReviewCaptor = ArgumentCaptor.forClass(List.class);
-        verify(scheduledReviewDao, times(1)).createScheduledReviewsBatch(scheduledReviewCaptor.capture());
+        verify(reviewResultsDao, times(1)).saveProcessedResults(eq(TEST_USERNAME), anyList(), scheduledReviewCaptor.capture(), anyList());
         assertEquals(1, scheduledReviewCaptor.getValue().size());
         ScheduledReview capturedScheduledReview = scheduledReviewCaptor.getValue().get(0);
 
         assertEquals(TEST_LANGUAGE.getReviewTestRelationships().get(2).getId(), capturedScheduledReview.testRelationshipId());
 
         ArgumentCaptor<List<WordReviewHistory>> historyCaptor = ArgumentCaptor.forClass(List.class);
-        verify(wordReviewHistoryService, times(1)).updateWordReviewHistoryBatch(eq(TEST_USERNAME), historyCaptor.capture());
+        verify(reviewResultsDao, times(1)).saveProcessedResults(eq(TEST_USERNAME), historyCaptor.capture(), anyList(), anyList());
         assertEquals(1, historyCaptor.getValue().size());
         WordReviewHistory capturedHistory = historyCaptor.getValue().get(0);
 
@@ -476,14 +474,14 @@ public class ReviewEventProcessorTests {
         reviewEventProcessor.processEvents(TEST_USERNAME, LEXICON_ID);
 
         ArgumentCaptor<List<ScheduledReview>> scheduledReviewCaptor = ArgumentCaptor.forClass(List.class);
-        verify(scheduledReviewDao, times(1)).createScheduledReviewsBatch(scheduledReviewCaptor.capture());
+        verify(reviewResultsDao, times(1)).saveProcessedResults(eq(TEST_USERNAME), anyList(), scheduledReviewCaptor.capture(), anyList());
         assertEquals(1, scheduledReviewCaptor.getValue().size());
         ScheduledReview capturedScheduledReview = scheduledReviewCaptor.getValue().get(0);
 
         assertEquals(TEST_LANGUAGE.getReviewTestRelationships().get(0).getId(), capturedScheduledReview.testRelationshipId());
 
         ArgumentCaptor<List<WordReviewHistory>> historyCaptor = ArgumentCaptor.forClass(List.class);
-        verify(wordReviewHistoryService, times(1)).updateWordReviewHistoryBatch(eq(TEST_USERNAME), historyCaptor.capture());
+        verify(reviewResultsDao, times(1)).saveProcessedResults(eq(TEST_USERNAME), historyCaptor.capture(), anyList(), anyList());
         assertEquals(1, historyCaptor.getValue().size());
         WordReviewHistory capturedHistory = historyCaptor.getValue().get(0);
 
@@ -506,7 +504,7 @@ public class ReviewEventProcessorTests {
         reviewEventProcessor.processEvents(TEST_USERNAME, LEXICON_ID);
 
         ArgumentCaptor<List<ScheduledReview>> scheduledReviewCaptor = ArgumentCaptor.forClass(List.class);
-        verify(scheduledReviewDao, times(1)).createScheduledReviewsBatch(scheduledReviewCaptor.capture());
+        verify(reviewResultsDao, times(1)).saveProcessedResults(eq(TEST_USERNAME), anyList(), scheduledReviewCaptor.capture(), anyList());
         assertEquals(1, scheduledReviewCaptor.getValue().size());
         ScheduledReview capturedScheduledReview = scheduledReviewCaptor.getValue().get(0);
 
@@ -515,7 +513,7 @@ public class ReviewEventProcessorTests {
         assertTrue(capturedScheduledReview.testDelay().toMillis() < (REVIEW_WORD_LAST_DELAY_SEC * 1000 * 1.59));
 
         ArgumentCaptor<List<WordReviewHistory>> historyCaptor = ArgumentCaptor.forClass(List.class);
-        verify(wordReviewHistoryService, times(1)).updateWordReviewHistoryBatch(eq(TEST_USERNAME), historyCaptor.capture());
+        verify(reviewResultsDao, times(1)).saveProcessedResults(eq(TEST_USERNAME), historyCaptor.capture(), anyList(), anyList());
         assertEquals(1, historyCaptor.getValue().size());
         WordReviewHistory capturedHistory = historyCaptor.getValue().get(0);
 
@@ -541,7 +539,7 @@ public class ReviewEventProcessorTests {
         reviewEventProcessor.processEvents(TEST_USERNAME, LEXICON_ID);
 
         ArgumentCaptor<List<ScheduledReview>> scheduledReviewCaptor = ArgumentCaptor.forClass(List.class);
-        verify(scheduledReviewDao, times(1)).createScheduledReviewsBatch(scheduledReviewCaptor.capture());
+        verify(reviewResultsDao, times(1)).saveProcessedResults(eq(TEST_USERNAME), anyList(), scheduledReviewCaptor.capture(), anyList());
         assertEquals(1, scheduledReviewCaptor.getValue().size());
         ScheduledReview capturedScheduledReview = scheduledReviewCaptor.getValue().get(0);
 
@@ -549,7 +547,7 @@ public class ReviewEventProcessorTests {
         assertEquals(Duration.ofSeconds(REVIEW_WORD_LAST_DELAY_SEC * 2), capturedScheduledReview.testDelay());
 
         ArgumentCaptor<List<WordReviewHistory>> historyCaptor = ArgumentCaptor.forClass(List.class);
-        verify(wordReviewHistoryService, times(1)).updateWordReviewHistoryBatch(eq(TEST_USERNAME), historyCaptor.capture());
+        verify(reviewResultsDao, times(1)).saveProcessedResults(eq(TEST_USERNAME), historyCaptor.capture(), anyList(), anyList());
         assertEquals(1, historyCaptor.getValue().size());
         WordReviewHistory capturedHistory = historyCaptor.getValue().get(0);
 
@@ -577,7 +575,7 @@ public class ReviewEventProcessorTests {
         reviewEventProcessor.processEvents(TEST_USERNAME, LEXICON_ID);
 
         ArgumentCaptor<List<ScheduledReview>> scheduledReviewCaptor = ArgumentCaptor.forClass(List.class);
-        verify(scheduledReviewDao, times(1)).createScheduledReviewsBatch(scheduledReviewCaptor.capture());
+        verify(reviewResultsDao, times(1)).saveProcessedResults(eq(TEST_USERNAME), anyList(), scheduledReviewCaptor.capture(), anyList());
         assertEquals(1, scheduledReviewCaptor.getValue().size());
         ScheduledReview capturedScheduledReview = scheduledReviewCaptor.getValue().get(0);
 
@@ -585,7 +583,7 @@ public class ReviewEventProcessorTests {
         assertEquals(boostExpirationDuration, capturedScheduledReview.testDelay());
 
         ArgumentCaptor<List<WordReviewHistory>> historyCaptor = ArgumentCaptor.forClass(List.class);
-        verify(wordReviewHistoryService, times(1)).updateWordReviewHistoryBatch(eq(TEST_USERNAME), historyCaptor.capture());
+        verify(reviewResultsDao, times(1)).saveProcessedResults(eq(TEST_USERNAME), historyCaptor.capture(), anyList(), anyList());
         assertEquals(1, historyCaptor.getValue().size());
         WordReviewHistory capturedHistory = historyCaptor.getValue().get(0);
 
@@ -613,7 +611,7 @@ public class ReviewEventProcessorTests {
         reviewEventProcessor.processEvents(TEST_USERNAME, LEXICON_ID);
 
         ArgumentCaptor<List<ScheduledReview>> scheduledReviewCaptor = ArgumentCaptor.forClass(List.class);
-        verify(scheduledReviewDao, times(1)).createScheduledReviewsBatch(scheduledReviewCaptor.capture());
+        verify(reviewResultsDao, times(1)).saveProcessedResults(eq(TEST_USERNAME), anyList(), scheduledReviewCaptor.capture(), anyList());
         assertEquals(1, scheduledReviewCaptor.getValue().size());
         ScheduledReview capturedScheduledReview = scheduledReviewCaptor.getValue().get(0);
 
@@ -622,7 +620,7 @@ public class ReviewEventProcessorTests {
         assertTrue(capturedScheduledReview.testDelay().toMillis() < (REVIEW_WORD_LAST_DELAY_SEC * 1000 * 1.26));
 
         ArgumentCaptor<List<WordReviewHistory>> historyCaptor = ArgumentCaptor.forClass(List.class);
-        verify(wordReviewHistoryService, times(1)).updateWordReviewHistoryBatch(eq(TEST_USERNAME), historyCaptor.capture());
+        verify(reviewResultsDao, times(1)).saveProcessedResults(eq(TEST_USERNAME), historyCaptor.capture(), anyList(), anyList());
         assertEquals(1, historyCaptor.getValue().size());
         WordReviewHistory capturedHistory = historyCaptor.getValue().get(0);
 
@@ -708,6 +706,55 @@ public class ReviewEventProcessorTests {
         }
     }
 
+    @Test
+    public void testGetLexiconReviewForecast() {
+        String wordScheduledInPastId = UUID.randomUUID().toString();
+        String wordScheduledNowWithBoostId = UUID.randomUUID().toString();
+        String wordScheduledBeforeCutoffId = UUID.randomUUID().toString();
+
+        Instant now = Instant.now();
+        Instant cutoff = now.plus(Duration.ofDays(1));
+        Duration testDelay = Duration.ofHours(4);
+
+        when(scheduledReviewDao.loadScheduledReviews(TEST_USERNAME, LEXICON_ID, "", Optional.of(cutoff))).thenReturn(List.of(
+                buildScheduledReview(wordScheduledInPastId, now.minus(Duration.ofDays(1)), testDelay),
+                buildScheduledReview(wordScheduledNowWithBoostId, now, testDelay),
+                buildScheduledReview(wordScheduledBeforeCutoffId, now.plus(Duration.ofHours(12)), testDelay)));
+
+        when(wordReviewHistoryService.getWordReviewHistory(LEXICON_ID, TEST_USERNAME, List.of(wordScheduledInPastId, wordScheduledNowWithBoostId,
+                wordScheduledBeforeCutoffId))).thenReturn(List.of(
+                    buildDBLexiconReviewHistory(wordScheduledInPastId, now.minus(Duration.ofDays(1)).minus(testDelay), LAST_TEST_RELATIONSHIP_ID, testDelay, 0, Duration.ofMillis(0)),
+                    buildDBLexiconReviewHistory(wordScheduledNowWithBoostId, now.minus(testDelay), LAST_TEST_RELATIONSHIP_ID, testDelay, 3, Duration.ofDays(3)),
+                    buildDBLexiconReviewHistory(wordScheduledBeforeCutoffId, now.plus(Duration.ofHours(12)).minus(testDelay), LAST_TEST_RELATIONSHIP_ID, testDelay, 0, Duration.ofMillis(0))));
+
+        when(wordReviewHistoryService.getWordIdsForUserByLearned(LEXICON_ID, TEST_USERNAME)).thenReturn(Map.of(
+                LearnedStatus.Learned, List.of(wordScheduledInPastId, wordScheduledNowWithBoostId, wordScheduledBeforeCutoffId),
+                LearnedStatus.ReadyToLearn, List.of(UUID.randomUUID().toString())));
+
+        LexiconReviewForecast forecast = reviewEventProcessor.getLexiconReviewForecast(LEXICON_ID, TEST_USERNAME, now, cutoff, ReviewForecastInterval.Hour);
+
+        assertEquals(4, forecast.totalWords());
+        assertEquals(3, forecast.learnedWords());
+        assertEquals(24, forecast.scheduledReviewCnts().length);
+        assertEquals(24, forecast.inferredReviewCnts().length);
+
+        // Same reviews as the future review events, counted by hour
+        assertEquals(2, forecast.scheduledReviewCnts()[0]);
+        assertEquals(1, forecast.scheduledReviewCnts()[12]);
+        assertEquals(3, Arrays.stream(forecast.scheduledReviewCnts()).sum());
+        assertEquals(6, Arrays.stream(forecast.inferredReviewCnts()).sum());
+        assertEquals(0, forecast.inferredReviewCnts()[0]);
+    }
+
+    @Test
+    public void testGetLexiconReviewForecast_TooManyIntervals() {
+        Instant now = Instant.now();
+
+        assertThrows(IllegalArgumentException.class, () -> reviewEventProcessor.getLexiconReviewForecast(LEXICON_ID, TEST_USERNAME,
+                now, now.plus(Duration.ofDays(500)), ReviewForecastInterval.Hour));
+        verifyNoInteractions(scheduledReviewDao);
+    }
+
     private ReviewEvent buildLearningEvent(Instant reviewInstant) {
         return buildReviewEvent(null, LEARNING_WORD_ID, reviewInstant, ReviewType.Learn,
                 TEST_LANGUAGE.getReviewTestRelationships().get(TEST_LANGUAGE.getReviewTestRelationships().size() - 1),
@@ -724,7 +771,7 @@ public class ReviewEventProcessorTests {
     private ReviewEvent buildReviewEvent(String scheduledReviewId, String wordId, Instant reviewInstant, ReviewType reviewType,
                                          TestRelationship testRelationship, boolean isCorrect, boolean isNearMiss, boolean override) {
         return new ReviewEvent(UUID.randomUUID().toString(), scheduledReviewId, LEXICON_ID, wordId, TEST_USERNAME, reviewInstant, reviewType,
-                ReviewMode.TypingTest, testRelationship, isCorrect, isNearMiss, TEST_ELAPSED_TIME, override);
+                ReviewMode.TypingTest, testRelationship, isCorrect, isNearMiss, TEST_ELAPSED_TIME, override, null);
     }
 
     private ScheduledReview buildScheduledReview(String wordId, Instant scheduledInstant, Duration scheduledTestDelay) {
@@ -0,0 +1,157 @@
+package com.gt.ssrs.reviewSession;
+
+import com.gt.ssrs.language.TestRelationship;
+import com.gt.ssrs.model.ReviewEvent;
+import com.gt.ssrs.model.ReviewMode;
+import com.gt.ssrs.model.ReviewType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class ReviewEventWriteBufferTests {
+
+    private static final String TEST_USERNAME = "testUser";
+    private static final String LEXICON_ID = UUID.randomUUID().toString();
+
+    @MockitoBean private ReviewEventDao reviewEventDao;
+    @MockitoBean private ScheduledReviewDao scheduledReviewDao;
+    @MockitoBean private ReviewResultsDao reviewResultsDao;
+    @MockitoBean private DueReviewCache dueReviewCache;
+
+    @Test
+    public void testSaveReviewEvent_Disabled() {
+        ReviewEventWriteBuffer writeBuffer = new ReviewEventWriteBuffer(reviewEventDao, scheduledReviewDao, reviewResultsDao, dueReviewCache, false, 10, 500, 100);
+        ReviewEvent event = newEvent("scheduledReviewId");
+        when(reviewEventDao.saveReviewEvent(event)).thenReturn(true);
+
+        assertTrue(writeBuffer.saveReviewEvent(event));
+
+        verify(reviewEventDao).saveReviewEvent(event);
+        verify(scheduledReviewDao).markScheduledReviewComplete("scheduledReviewId");
+        verify(reviewResultsDao, never()).saveReviewEvents(anyList(), anyCollection());
+    }
+
+    @Test
+    public void testSaveReviewEvent_GroupCommit() throws Exception {
+        // Long enough window that all the events end up in one batch
+        ReviewEventWriteBuffer writeBuffer = new ReviewEventWriteBuffer(reviewEventDao, scheduledReviewDao, reviewResultsDao, dueReviewCache, true, 5000, 3, 100);
+        when(reviewResultsDao.saveReviewEvents(anyList(), anyCollection())).then(invoc -> ((List<?>) invoc.getArgument(0)).size());
+
+        List<ReviewEvent> events = List.of(newEvent("scheduledReview1"), newEvent(null), newEvent("scheduledReview2"));
+        List<CompletableFuture<Boolean>> results = events.stream()
+                .map(event -> CompletableFuture.supplyAsync(() -> writeBuffer.saveReviewEvent(event)))
+                .toList();
+
+        for (CompletableFuture<Boolean> result : results) {
+            assertTrue(result.get(5, TimeUnit.SECONDS));
+        }
+
+        ArgumentCaptor<List<ReviewEvent>> eventsCaptor = ArgumentCaptor.captor();
+        ArgumentCaptor<Collection<String>> idsCaptor = ArgumentCaptor.captor();
+        verify(reviewResultsDao).saveReviewEvents(eventsCaptor.capture(), idsCaptor.capture());
+        assertEquals(Set.copyOf(events), Set.copyOf(eventsCaptor.getValue()));
+        assertEquals(Set.of("scheduledReview1", "scheduledReview2"), Set.copyOf(idsCaptor.getValue()));
+        verify(reviewEventDao, never()).saveReviewEvent(any());
+        verifyNoInteractions(scheduledReviewDao);
+
+        ReviewEventWriteBufferStats stats = writeBuffer.getStats();
+        assertEquals(1, stats.flushCnt());
+        assertEquals(3, stats.flushedEventCnt());
+        assertEquals(3, stats.maxBatchSize());
+        assertEquals(0, stats.queueDepth());
+
+        writeBuffer.shutdown();
+    }
+
+    @Test
+    public void testSaveReviewEvent_FlushFailure() {
+        ReviewEventWriteBuffer writeBuffer = new ReviewEventWriteBuffer(reviewEventDao, scheduledReviewDao, reviewResultsDao, dueReviewCache, true, 1, 500, 100);
+        when(reviewResultsDao.saveReviewEvents(anyList(), anyCollection())).thenThrow(new IllegalStateException("failed"));
+
+        assertThrows(IllegalStateException.class, () -> writeBuffer.saveReviewEvent(newEvent("scheduledReviewId")));
+        verify(reviewResultsDao, times(1)).saveReviewEvents(anyList(), anyCollection());
+
+        writeBuffer.shutdown();
+    }
+
+    @Test
+    public void testSaveReviewEvent_FlushFailure_RetriedIndividually() throws Exception {
+        ReviewEventWriteBuffer writeBuffer = new ReviewEventWriteBuffer(reviewEventDao, scheduledReviewDao, reviewResultsDao, dueReviewCache, true, 5000, 2, 100);
+        ReviewEvent goodEvent = newEvent("scheduledReview1");
+        ReviewEvent badEvent = newEvent("scheduledReview2");
+        when(reviewResultsDao.saveReviewEvents(anyList(), anyCollection())).then(invoc -> {
+            List<?> events = invoc.getArgument(0);
+            if (events.contains(badEvent)) {
+                throw new IllegalStateException("failed");
+            }
+            return events.size();
+        });
+
+        CompletableFuture<Boolean> goodResult = CompletableFuture.supplyAsync(() -> writeBuffer.saveReviewEvent(goodEvent));
+        CompletableFuture<Boolean> badResult = CompletableFuture.supplyAsync(() -> writeBuffer.saveReviewEvent(badEvent));
+
+        // Only the caller whose event can't be written gets the error
+        assertTrue(goodResult.get(5, TimeUnit.SECONDS));
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> badResult.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, ex.getCause());
+
+        verify(reviewResultsDao).saveReviewEvents(List.of(goodEvent), List.of("scheduledReview1"));
+        verify(dueReviewCache).onReviewEventsSaved(List.of(goodEvent));
+        verify(dueReviewCache, never()).onReviewEventsSaved(List.of(badEvent));
+
+        writeBuffer.shutdown();
+    }
+
+    @Test
+    public void testShutdown() throws Exception {
+        ReviewEventWriteBuffer writeBuffer = new ReviewEventWriteBuffer(reviewEventDao, scheduledReviewDao, reviewResultsDao, dueReviewCache, true, 1, 500, 100);
+
+        // Hold the first flush so that the second event is still queued when shutdown starts
+        CountDownLatch flushStarted = new CountDownLatch(1);
+        CountDownLatch releaseFlush = new CountDownLatch(1);
+        when(reviewResultsDao.saveReviewEvents(anyList(), anyCollection())).then(invoc -> {
+            flushStarted.countDown();
+            releaseFlush.await(5, TimeUnit.SECONDS);
+            return ((List<?>) invoc.getArgument(0)).size();
+        });
+
+        CompletableFuture<Boolean> firstResult = CompletableFuture.supplyAsync(() -> writeBuffer.saveReviewEvent(newEvent(null)));
+        assertTrue(flushStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> secondResult = CompletableFuture.supplyAsync(() -> writeBuffer.saveReviewEvent(newEvent(null)));
+        while (writeBuffer.getStats().queueDepth() == 0) {
+            Thread.sleep(1);
+        }
+
+        CompletableFuture<Void> shutdown = CompletableFuture.runAsync(writeBuffer::shutdown);
+        releaseFlush.countDown();
+        shutdown.get(5, TimeUnit.SECONDS);
+
+        assertTrue(firstResult.get(5, TimeUnit.SECONDS));
+        assertTrue(secondResult.get(5, TimeUnit.SECONDS));
+        assertEquals(2, writeBuffer.getStats().flushedEventCnt());
+
+        // Written directly once shut down
+        when(reviewEventDao.saveReviewEvent(any())).thenReturn(true);
+        assertTrue(writeBuffer.saveReviewEvent(newEvent(null)));
+        verify(reviewEventDao).saveReviewEvent(any());
+    }
+
+    private static ReviewEvent newEvent(String scheduledReviewId) {
+        return new ReviewEvent(null, scheduledReviewId, LEXICON_ID, UUID.randomUUID().toString(), TEST_USERNAME, Instant.now(),
+                ReviewType.Review, ReviewMode.TypingTest, TestRelationship.MeaningToKana, true, false, 1000, false, null);
+    }
+}
@@ -40,17 +40,20 @@ public class ReviewSessionServiceTests {
     private static final List<String> SIMILAR_ELEMENT_VALUES = List.of("A", "B", "C");
 
     @MockitoBean private ReviewEventDao reviewEventDao;
-    @MockitoBean private ScheduledReviewDao scheduledReviewDao;
+    @MockitoBean private ReviewResultsDao reviewResultsDao;
     @MockitoBean private LexiconService lexiconService;
     @MockitoBean private WordService wordService;
     @MockitoBean private ScheduledReviewService scheduledReviewService;
     @MockitoBean private WordReviewHelper wordReviewHelper;
+    @MockitoBean private ReviewEventProcessingQueue reviewEventProcessingQueue;
+    @MockitoBean private ReviewEventWriteBuffer reviewEventWriteBuffer;
+    @MockitoBean private DueReviewCache dueReviewCache;
 
     private ReviewSessionService reviewSessionService;
 
     @BeforeEach
     public void setup() {
-        reviewSessionService = new ReviewSessionService(reviewEventDao, scheduledReviewDao, lexiconService, wordService, scheduledReviewService, wordReviewHelper);
+        reviewSessionService = new ReviewSessionService(reviewEventDao, reviewResultsDao, lexiconService, wordService, scheduledReviewService, wordReviewHelper, reviewEventProcessingQueue, reviewEventWriteBuffer, dueReviewCache);
 
         when(lexiconService.getLexiconMetadata(TEST_LEXICON_ID)).thenReturn(TEST_LEXICON_METADATA);
 
@@ -80,14 +83,70 @@ public class ReviewSessionServiceTests {
     public void testSaveReviewEvent() {
         String scheduledEventId = UUID.randomUUID().toString();
         Instant eventInstant = Instant.now();
+        String clientEventId = UUID.randomUUID().toString();
 
         ClientReviewEvent reviewEvent = new ClientReviewEvent(scheduledEventId, TEST_LEXICON_ID, TEST_WORD_1_ID, ReviewType.Review, ReviewMode.TypingTest,
-                TestRelationship.MeaningToKana.getId(), true, false, 3000, false);
+                TestRelationship.MeaningToKana.getId(), true, false, 3000, false, clientEventId, null);
 
         reviewSessionService.saveReviewEvent(reviewEvent, TEST_USERNAME, eventInstant);
 
-        verify(reviewEventDao).saveReviewEvent(new ReviewEvent(null, scheduledEventId, TEST_LEXICON_ID, TEST_WORD_1_ID, TEST_USERNAME, eventInstant, ReviewType.Review,
-                ReviewMode.TypingTest, TestRelationship.MeaningToKana, true, false, 3000, false));
+        verify(reviewEventWriteBuffer).saveReviewEvent(new ReviewEvent(null, scheduledEventId, TEST_LEXICON_ID, TEST_WORD_1_ID, TEST_USERNAME, eventInstant, ReviewType.Review,
+                ReviewMode.TypingTest, TestRelationship.MeaningToKana, true, false, 3000, false, clientEventId));
+        verify(reviewEventProcessingQueue).enqueue(TEST_USERNAME, TEST_LEXICON_ID);
+    }
+
+    @Test
+    public void testSaveReviewEvents() {
+        String scheduledEventId = UUID.randomUUID().toString();
+        Instant receivedInstant = Instant.now();
+
+        List<ClientReviewEvent> reviewEvents = List.of(
+                new ClientReviewEvent(scheduledEventId, TEST_LEXICON_ID, TEST_WORD_1_ID, ReviewType.Review, ReviewMode.TypingTest,
+                        TestRelationship.MeaningToKana.getId(), false, false, 3000, false, null, null),
+                new ClientReviewEvent(null, TEST_LEXICON_ID, TEST_WORD_2_ID, ReviewType.Learn, ReviewMode.MultipleChoiceTest,
+                        TestRelationship.KanaToMeaning.getId(), true, false, 2000, false, null, null),
+                new ClientReviewEvent(scheduledEventId, TEST_LEXICON_ID, TEST_WORD_1_ID, ReviewType.Review, ReviewMode.TypingTest,
+                        TestRelationship.MeaningToKana.getId(), true, false, 1000, true, null, null));
+
+        reviewSessionService.saveReviewEvents(reviewEvents, TEST_USERNAME, receivedInstant);
+
+        // Each event gets its own instant so that the order they were sent in is kept
+        verify(reviewResultsDao).saveReviewEvents(List.of(
+                new ReviewEvent(null, scheduledEventId, TEST_LEXICON_ID, TEST_WORD_1_ID, TEST_USERNAME, receivedInstant, ReviewType.Review,
+                        ReviewMode.TypingTest, TestRelationship.MeaningToKana, false, false, 3000, false, null),
+                new ReviewEvent(null, null, TEST_LEXICON_ID, TEST_WORD_2_ID, TEST_USERNAME, receivedInstant.plusNanos(1000), ReviewType.Learn,
+                        ReviewMode.MultipleChoiceTest, TestRelationship.KanaToMeaning, true, false, 2000, false, null),
+                new ReviewEvent(null, scheduledEventId, TEST_LEXICON_ID, TEST_WORD_1_ID, TEST_USERNAME, receivedInstant.plusNanos(2000), ReviewType.Review,
+                        ReviewMode.TypingTest, TestRelationship.MeaningToKana, true, false, 1000, true, null)),
+                List.of(scheduledEventId));
+        verify(reviewEventDao, never()).saveReviewEvents(anyList());
+        verify(reviewEventProcessingQueue, times(1)).enqueue(TEST_USERNAME, TEST_LEXICON_ID);
+    }
+
+    @Test
+    public void testSaveReviewEvents_ClientEventInstants() {
+        Instant receivedInstant = Instant.now();
+        Instant answeredInstant = receivedInstant.minus(Duration.ofHours(2));
+
+        List<ClientReviewEvent> reviewEvents = List.of(
+                new ClientReviewEvent(null, TEST_LEXICON_ID, TEST_WORD_1_ID, ReviewType.Learn, ReviewMode.TypingTest,
+                        TestRelationship.MeaningToKana.getId(), true, false, 3000, false, null, answeredInstant),
+                new ClientReviewEvent(null, TEST_LEXICON_ID, TEST_WORD_2_ID, ReviewType.Learn, ReviewMode.TypingTest,
+                        TestRelationship.MeaningToKana.getId(), true, false, 3000, false, null, answeredInstant.minusSeconds(1)),
+                new ClientReviewEvent(null, TEST_LEXICON_ID, TEST_WORD_3_ID, ReviewType.Learn, ReviewMode.TypingTest,
+                        TestRelationship.MeaningToKana.getId(), true, false, 3000, false, null, receivedInstant.plusSeconds(60)));
+
+        reviewSessionService.saveReviewEvents(reviewEvents, TEST_USERNAME, receivedInstant);
+
+        // Client instants are kept unless they are out of order or after the batch was received
+        verify(reviewResultsDao).saveReviewEvents(List.of(
+                new ReviewEvent(null, null, TEST_LEXICON_ID, TEST_WORD_1_ID, TEST_USERNAME, answeredInstant, ReviewType.Learn,
+                        ReviewMode.TypingTest, TestRelationship.MeaningToKana, true, false, 3000, false, null),
+                new ReviewEvent(null, null, TEST_LEXICON_ID, TEST_WORD_2_ID, TEST_USERNAME, answeredInstant.plusNanos(1000), ReviewType.Learn,
+                        ReviewMode.TypingTest, TestRelationship.MeaningToKana, true, false, 3000, false, null),
+                new ReviewEvent(null, null, TEST_LEXICON_ID, TEST_WORD_3_ID, TEST_USERNAME, receivedInstant, ReviewType.Learn,
+                        ReviewMode.TypingTest, TestRelationship.MeaningToKana, true, false, 3000, false, null)),
+                List.of());
     }
 
     @Test
@@ -146,7 +205,7 @@ public class ReviewSessionServiceTests {
                 buildScheduledWordReview(TEST_WORD_1_ID, 1, scheduledInstant),
                 buildScheduledWordReview(TEST_WORD_2_ID, 2, scheduledInstant),
                 buildScheduledWordReview(TEST_WORD_3_ID, 0, scheduledInstant));
-        when(scheduledReviewService.getCurrentScheduledReviewForLexicon(TEST_LEXICON_ID, TEST_USERNAME, Optional.empty(), Optional.empty())).thenReturn(scheduledReviews);
+        when(scheduledReviewService.getCurrentScheduledReviewForLexicon(TEST_LEXICON_ID, TEST_USERNAME, Optional.empty(), Optional.empty(), 999)).thenReturn(scheduledReviews);
 
         List<Word> wordsToReview = List.of(buildWord(TEST_WORD_1_ID, false),
                                            buildWord(TEST_WORD_2_ID, false),
@@ -181,7 +240,7 @@ public class ReviewSessionServiceTests {
                 buildScheduledWordReview(TEST_WORD_1_ID, 1, scheduledInstant),
                 buildScheduledWordReview(TEST_WORD_2_ID, 2, scheduledInstant),
                 buildScheduledWordReview(TEST_WORD_3_ID, 0, scheduledInstant));
-        when(scheduledReviewService.getCurrentScheduledReviewForLexicon(TEST_LEXICON_ID, TEST_USERNAME, Optional.empty(), Optional.empty())).thenReturn(scheduledReviews);
+        when(scheduledReviewService.getCurrentScheduledReviewForLexicon(TEST_LEXICON_ID, TEST_USERNAME, Optional.empty(), Optional.empty(), 1)).thenReturn(scheduledReviews.subList(0, 1));
 
         Word word = buildWord(TEST_WORD_1_ID, false);
         List<Word> wordsToReview = List.of(word);
@@ -210,7 +269,7 @@ public class ReviewSessionServiceTests {
         Instant scheduledInstant = Instant.now().minusSeconds(60);
         List<ScheduledReview> scheduledReviews = List.of(
                 buildScheduledWordReview(TEST_WORD_1_ID, 1, scheduledInstant));
-        when(scheduledReviewService.getCurrentScheduledReviewForLexicon(TEST_LEXICON_ID, TEST_USERNAME, Optional.of(TEST_LANGUAGE.getReviewTestRelationships().get(1).getId()), Optional.empty())).thenReturn(scheduledReviews);
+        when(scheduledReviewService.getCurrentScheduledReviewForLexicon(TEST_LEXICON_ID, TEST_USERNAME, Optional.of(TEST_LANGUAGE.getReviewTestRelationships().get(1).getId()), Optional.empty(), 999)).thenReturn(scheduledReviews);
 
         Word word = buildWord(TEST_WORD_1_ID, false);
         List<Word> wordsToReview = List.of(word);
@@ -22,7 +22,11 @@ import java.util.UUID;
 
 import static org.assertj.core.api.Fail.fail;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -88,10 +92,11 @@ public class ScheduledReviewServiceTests {
 
     @MockitoBean private ScheduledReviewDao scheduledReviewDao;
     @MockitoBean private LexiconService lexiconService;
+    @MockitoBean private DueReviewCache dueReviewCache;
 
     @BeforeEach
     public void setup() {
-        scheduledReviewService = new ScheduledReviewService(lexiconService, scheduledReviewDao, FUTURE_EVENT_ALLOWED_RATIO);
+        scheduledReviewService = new ScheduledReviewService(lexiconService, scheduledReviewDao, dueReviewCache, FUTURE_EVENT_ALLOWED_RATIO);
 
         when(lexiconService.getLexiconLanguageId(TEST_LEXICON_ID)).thenReturn(TEST_LANGUAGE.getId());
         when(lexiconService.getLexiconMetadata(TEST_LEXICON_ID)).thenReturn(TEST_LEXICON_METADATA);
@@ -176,6 +181,30 @@ public class ScheduledReviewServiceTests {
                 scheduledReviewCount);
     }
 
+    @Test
+    public void testGetScheduledReviewCounts_MultipleLexicons() {
+        String otherLexiconId = UUID.randomUUID().toString();
+        Optional<Instant> cutoff = Optional.of(Instant.now().plus(1, ChronoUnit.DAYS));
+        Map<String, Map<String, Integer>> counts = Map.of(
+                TEST_LEXICON_ID, Map.of(TestRelationship.MeaningToKana.getId(), 3),
+                otherLexiconId, Map.of(TestRelationship.KanaToMeaning.getId(), 1, TestRelationship.MeaningToKana.getId(), 2));
+
+        when(scheduledReviewDao.countScheduledReviews(TEST_USERNAME, List.of(TEST_LEXICON_ID, otherLexiconId), cutoff, FUTURE_EVENT_ALLOWED_RATIO)).thenReturn(counts);
+
+        assertEquals(counts, scheduledReviewService.getScheduledReviewCounts(TEST_USERNAME, List.of(TEST_LEXICON_ID, otherLexiconId), cutoff));
+        assertEquals(Map.of(), scheduledReviewService.getScheduledReviewCounts(TEST_USERNAME, List.of(), cutoff));
+        verify(scheduledReviewDao, times(1)).countScheduledReviews(anyString(), anyCollection(), any(), anyDouble());
+    }
+
+    @Test
+    public void testIsEarlyReviewAllowed() {
+        Instant now = Instant.now();
+
+        // 80% of the delay has to pass before the review can be done early
+        assertTrue(buildScheduledReview(TEST_WORD_1.id(), 0, now.plusSeconds(19), Duration.ofSeconds(100), false).isEarlyReviewAllowed(now, FUTURE_EVENT_ALLOWED_RATIO));
+        assertFalse(buildScheduledReview(TEST_WORD_1.id(), 0, now.plusSeconds(21), Duration.ofSeconds(100), false).isEarlyReviewAllowed(now, FUTURE_EVENT_ALLOWED_RATIO));
+    }
+
     @Test
     public void testLoadEarliestScheduledReview() {
         String earliestReviewId = UUID.randomUUID().toString();
@@ -330,6 +359,23 @@ public class ScheduledReviewServiceTests {
         verifyScheduledWordReview(scheduledReviews.get(2), scheduledWordReviews.get(1));
     }
 
+    @Test
+    public void testGetCurrentScheduledReviewForLexicon_WithLimit() {
+        Instant cutoff = Instant.now().plus(1, ChronoUnit.HOURS);
+        String reviewRelationshipId = TEST_LANGUAGE.getReviewTestRelationships().get(0).getId();
+        List<ScheduledReview> dbScheduledReviews = List.of(
+                buildScheduledReview(TEST_WORD_1.id(), 0, Instant.now().minusSeconds(90)),
+                buildScheduledReview(TEST_WORD_2.id(), 0, Instant.now().minusSeconds(60)));
+
+        when(scheduledReviewDao.loadDueScheduledReviews(TEST_USERNAME, TEST_LEXICON_ID, reviewRelationshipId, Optional.of(cutoff), FUTURE_EVENT_ALLOWED_RATIO, 2)).thenReturn(dbScheduledReviews);
+
+        List<ScheduledReview> scheduledWordReviews = scheduledReviewService.getCurrentScheduledReviewForLexicon(TEST_LEXICON_ID, TEST_USERNAME, Optional.of(reviewRelationshipId), Optional.of(cutoff), 2);
+
+        // Filtering, ordering and the limit are all done by the DAO
+        assertEquals(dbScheduledReviews, scheduledWordReviews);
+        verify(scheduledReviewDao, never()).loadScheduledReviews(any(), any(), any(), any());
+    }
+
     private static ScheduledReview buildScheduledReview(String wordId, int reviewRelationshipIndex, Instant scheduledTime) {
         return buildScheduledReview(wordId, reviewRelationshipIndex, scheduledTime, Duration.ofSeconds(60), false);
     }
@@ -1,10 +1,14 @@
 package com.gt.ssrs.reviewSession;
 
+import com.gt.ssrs.fuzzy.FuzzyDistanceBackend;
+import com.gt.ssrs.fuzzy.FuzzyIndexMode;
+import com.gt.ssrs.fuzzy.FuzzyMatcherCache;
 import com.gt.ssrs.language.Language;
 import com.gt.ssrs.language.TestRelationship;
 import com.gt.ssrs.language.WordElement;
 import com.gt.ssrs.lexicon.LexiconService;
 import com.gt.ssrs.word.WordService;
+import com.gt.ssrs.word.WordSimilarValuesService;
 import com.gt.ssrs.word.model.TestOnWordPair;
 import com.gt.ssrs.model.ReviewMode;
 import com.gt.ssrs.model.Word;
@@ -49,17 +53,20 @@ public class WordReviewHelperTests {
     @MockitoBean private WordReviewHistoryService wordReviewHistoryService;
     @MockitoBean private LexiconService lexiconService;
     @MockitoBean private WordService wordService;
+    @MockitoBean private WordSimilarValuesService wordSimilarValuesService;
     private final int testBaseTimeSec = 10;
     private final int testAdditionalTimePerChar = 2;
     private int minTypingTestChars = 8;
     private int minTypingTestAddlChars = 2;
     private int maxTypingTestAddlChars = 6;
 
+    private FuzzyMatcherCache fuzzyMatcherCache;
     private WordReviewHelper wordReviewHelper;
 
     @BeforeEach
     public void setup() {
-        wordReviewHelper = new WordReviewHelper(wordReviewHistoryService, wordService, lexiconService, testBaseTimeSec, testAdditionalTimePerChar, minTypingTestChars, minTypingTestAddlChars, maxTypingTestAddlChars);
+        fuzzyMatcherCache = new FuzzyMatcherCache(16, 3600, FuzzyIndexMode.LinearScan, FuzzyDistanceBackend.Scalar);
+        wordReviewHelper = new WordReviewHelper(wordReviewHistoryService, wordService, lexiconService, fuzzyMatcherCache, wordSimilarValuesService, testBaseTimeSec, testAdditionalTimePerChar, minTypingTestChars, minTypingTestAddlChars, maxTypingTestAddlChars, 0, 1);
     }
 
     @Test
@@ -118,9 +125,154 @@ public class WordReviewHelperTests {
 
         verify(wordService, times(1)).getUniqueElementValues(LEXICON_ID, WordElement.Kana, WordReviewHelper.MAX_VALUES_FOR_FUZZY_MATCHING);
         verify(wordService, times(1)).getUniqueElementValues(LEXICON_ID, WordElement.Kanji, WordReviewHelper.MAX_VALUES_FOR_FUZZY_MATCHING);
+        verify(wordSimilarValuesService, times(1)).refreshWordSimilarValuesAsync(LEXICON_ID, List.of(WORD_1.id(), WORD_2.id(), WORD_3.id()));
         verifyNoMoreInteractions(lexiconService);
     }
 
+    @Test
+    public void testFindSimilarWordElementValues_DatabaseSearch() {
+        List<TestOnWordPair> words = List.of(
+                new TestOnWordPair(WordElement.Kana, WORD_1),
+                new TestOnWordPair(WordElement.Kana, WORD_2),
+                new TestOnWordPair(WordElement.Kanji, WORD_3));
+        List<String> similarKana = List.of("よゆう", "かます");
+
+        when(wordService.isSimilarElementValueSearchSupported()).thenReturn(true);
+        when(wordService.findSimilarElementValues(LEXICON_ID, WordElement.Kana, List.of(KANA_ELEMENT_VALUE, KANA_ELEMENT_VALUE + "2"), WordReviewHelper.SIMILAR_WORD_CNT, WordReviewHelper.MAX_DISTANCE))
+                .thenReturn(Optional.of(Map.of(KANA_ELEMENT_VALUE, similarKana)));
+        when(wordService.getUniqueElementValues(LEXICON_ID, WordElement.Kanji, WordReviewHelper.MAX_VALUES_FOR_FUZZY_MATCHING)).thenReturn(SIMILAR_ELEMENT_VALUES);
+
+        // Kanji already has a cached matcher, so only kana is searched for in the database
+        fuzzyMatcherCache.getMatcher(LEXICON_ID, WordElement.Kanji, () -> SIMILAR_ELEMENT_VALUES);
+
+        Map<WordElement, Map<Word, List<String>>> result = wordReviewHelper.findSimilarWordElementValues(LEXICON_ID, words);
+
+        assertEquals(Map.of(WORD_1, similarKana, WORD_2, List.of()), result.get(WordElement.Kana));
+        assertEquals(SIMILAR_ELEMENT_VALUES.size(), result.get(WordElement.Kanji).get(WORD_3).size());
+
+        verify(wordService, times(1)).findSimilarElementValues(eq(LEXICON_ID), any(), anyCollection(), anyInt(), anyInt());
+        verify(wordService, never()).getUniqueElementValues(eq(LEXICON_ID), any(), anyInt());
+    }
+
+    @Test
+    public void testFindSimilarWordElementValues_DatabaseSearch_NotAvailable() {
+        List<TestOnWordPair> words = List.of(new TestOnWordPair(WordElement.Kana, WORD_2));
+
+        when(wordService.isSimilarElementValueSearchSupported()).thenReturn(true);
+        when(wordService.findSimilarElementValues(eq(LEXICON_ID), any(), anyCollection(), anyInt(), anyInt())).thenReturn(Optional.empty());
+        when(wordService.getUniqueElementValues(LEXICON_ID, WordElement.Kana, WordReviewHelper.MAX_VALUES_FOR_FUZZY_MATCHING)).thenReturn(SIMILAR_ELEMENT_VALUES);
+
+        Map<WordElement, Map<Word, List<String>>> result = wordReviewHelper.findSimilarWordElementValues(LEXICON_ID, words);
+
+        // The search wasn't available, so the values are matched in memory instead
+        assertEquals(SIMILAR_ELEMENT_VALUES.size(), result.get(WordElement.Kana).get(WORD_2).size());
+        verify(wordService, times(1)).getUniqueElementValues(LEXICON_ID, WordElement.Kana, WordReviewHelper.MAX_VALUES_FOR_FUZZY_MATCHING);
+    }
+
+    @Test
+    public void testFindSimilarWordElementValues_DatabaseSearch_ShortValue() {
+        List<TestOnWordPair> words = List.of(
+                new TestOnWordPair(WordElement.Kana, WORD_1),
+                new TestOnWordPair(WordElement.Kanji, WORD_1));
+        List<String> similarKana = List.of("よゆう", "かます");
+
+        when(wordService.isSimilarElementValueSearchSupported()).thenReturn(true);
+        when(wordService.findSimilarElementValues(LEXICON_ID, WordElement.Kana, List.of(KANA_ELEMENT_VALUE), WordReviewHelper.SIMILAR_WORD_CNT, WordReviewHelper.MAX_DISTANCE))
+                .thenReturn(Optional.of(Map.of(KANA_ELEMENT_VALUE, similarKana)));
+        when(wordService.getUniqueElementValues(LEXICON_ID, WordElement.Kanji, WordReviewHelper.MAX_VALUES_FOR_FUZZY_MATCHING)).thenReturn(SIMILAR_ELEMENT_VALUES);
+
+        Map<WordElement, Map<Word, List<String>>> result = wordReviewHelper.findSimilarWordElementValues(LEXICON_ID, words);
+
+        // The single character kanji is too short to search for by trigram, so it's matched in memory
+        assertEquals(similarKana, result.get(WordElement.Kana).get(WORD_1));
+        assertEquals(SIMILAR_ELEMENT_VALUES.size(), result.get(WordElement.Kanji).get(WORD_1).size());
+
+        verify(wordService, times(1)).findSimilarElementValues(eq(LEXICON_ID), any(), anyCollection(), anyInt(), anyInt());
+        verify(wordService, times(1)).getUniqueElementValues(LEXICON_ID, WordElement.Kanji, WordReviewHelper.MAX_VALUES_FOR_FUZZY_MATCHING);
+    }
+
+    @Test
+    public void testFindSimilarWordElementValues_Precomputed() {
+        List<TestOnWordPair> words = List.of(
+                new TestOnWordPair(WordElement.Kana, WORD_1),
+                new TestOnWordPair(WordElement.Kana, WORD_2));
+        List<String> precomputedSimilarKana = List.of("よゆう", "かます");
+
+        when(wordSimilarValuesService.loadSimilarValues(words)).thenReturn(Map.of(WordElement.Kana, Map.of(WORD_1.id(), precomputedSimilarKana)));
+        when(wordService.getUniqueElementValues(LEXICON_ID, WordElement.Kana, WordReviewHelper.MAX_VALUES_FOR_FUZZY_MATCHING)).thenReturn(SIMILAR_ELEMENT_VALUES);
+
+        Map<Word, List<String>> kanaWords = wordReviewHelper.findSimilarWordElementValues(LEXICON_ID, words).get(WordElement.Kana);
+
+        assertEquals(precomputedSimilarKana, kanaWords.get(WORD_1));
+        assertEquals(SIMILAR_ELEMENT_VALUES.size(), kanaWords.get(WORD_2).size());
+        verify(wordSimilarValuesService, times(1)).refreshWordSimilarValuesAsync(LEXICON_ID, List.of(WORD_2.id()));
+
+        when(wordSimilarValuesService.loadSimilarValues(words)).thenReturn(Map.of(WordElement.Kana, Map.of(WORD_1.id(), precomputedSimilarKana, WORD_2.id(), precomputedSimilarKana)));
+
+        kanaWords = wordReviewHelper.findSimilarWordElementValues(LEXICON_ID, words).get(WordElement.Kana);
+
+        assertEquals(precomputedSimilarKana, kanaWords.get(WORD_1));
+        assertEquals(precomputedSimilarKana, kanaWords.get(WORD_2));
+        verify(wordService, times(1)).getUniqueElementValues(LEXICON_ID, WordElement.Kana, WordReviewHelper.MAX_VALUES_FOR_FUZZY_MATCHING);
+        verify(wordSimilarValuesService, times(1)).refreshWordSimilarValuesAsync(eq(LEXICON_ID), anyCollection());
+    }
+
+    @Test
+    public void testFindSimilarWordElementValues_BlankValue() {
+        Word wordWithoutKanji = new Word(UUID.randomUUID().toString(), LEXICON_ID, TEST_USERNAME,
+                Map.of("kana", KANA_ELEMENT_VALUE, "meaning", "test meaning", "kanji", ""),
+                "n", List.of(), Instant.EPOCH, Instant.now());
+        List<TestOnWordPair> words = List.of(new TestOnWordPair(WordElement.Kanji, wordWithoutKanji));
+
+        when(wordService.getUniqueElementValues(LEXICON_ID, WordElement.Kanji, WordReviewHelper.MAX_VALUES_FOR_FUZZY_MATCHING)).thenReturn(SIMILAR_ELEMENT_VALUES);
+
+        assertTrue(wordReviewHelper.findSimilarWordElementValues(LEXICON_ID, words).get(WordElement.Kanji).containsKey(wordWithoutKanji));
+
+        // A blank value never gets a precomputed row, so it isn't refreshed
+        verify(wordSimilarValuesService, never()).refreshWordSimilarValuesAsync(any(), anyCollection());
+    }
+
+    @Test
+    public void testFindSimilarWordElementValues_Parallel() {
+        List<TestOnWordPair> words = new ArrayList<>();
+        List<String> kanaElements = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            Word word = new Word(UUID.randomUUID().toString(), LEXICON_ID, TEST_USERNAME,
+                    Map.of("kana", KANA_ELEMENT_VALUE + i, "meaning", "test meaning" + i),
+                    "n", List.of(), Instant.EPOCH, Instant.now());
+            words.add(new TestOnWordPair(WordElement.Kana, word));
+            kanaElements.add(KANA_ELEMENT_VALUE + i);
+        }
+        kanaElements.addAll(SIMILAR_ELEMENT_VALUES);
+
+        when(wordService.getUniqueElementValues(LEXICON_ID, WordElement.Kana, WordReviewHelper.MAX_VALUES_FOR_FUZZY_MATCHING)).thenReturn(kanaElements);
+
+        WordReviewHelper parallelWordReviewHelper = new WordReviewHelper(wordReviewHistoryService, wordService, lexiconService, new FuzzyMatcherCache(16, 3600, FuzzyIndexMode.LinearScan, FuzzyDistanceBackend.Scalar), wordSimilarValuesService, testBaseTimeSec, testAdditionalTimePerChar, minTypingTestChars, minTypingTestAddlChars, maxTypingTestAddlChars, 1, 4);
+        try {
+            assertEquals(wordReviewHelper.findSimilarWordElementValues(LEXICON_ID, words), parallelWordReviewHelper.findSimilarWordElementValues(LEXICON_ID, words));
+        } finally {
+            parallelWordReviewHelper.shutdown();
+        }
+    }
+
+    @Test
+    public void testFindSimilarWordElementValues_CachedMatcher() {
+        List<TestOnWordPair> words = List.of(new TestOnWordPair(WordElement.Kana, WORD_1));
+
+        when(wordService.getUniqueElementValues(LEXICON_ID, WordElement.Kana, WordReviewHelper.MAX_VALUES_FOR_FUZZY_MATCHING)).thenReturn(SIMILAR_ELEMENT_VALUES);
+
+        Map<WordElement, Map<Word, List<String>>> firstResult = wordReviewHelper.findSimilarWordElementValues(LEXICON_ID, words);
+        Map<WordElement, Map<Word, List<String>>> secondResult = wordReviewHelper.findSimilarWordElementValues(LEXICON_ID, words);
+
+        assertEquals(firstResult, secondResult);
+        verify(wordService, times(1)).getUniqueElementValues(LEXICON_ID, WordElement.Kana, WordReviewHelper.MAX_VALUES_FOR_FUZZY_MATCHING);
+
+        fuzzyMatcherCache.invalidateLexicon(LEXICON_ID);
+        wordReviewHelper.findSimilarWordElementValues(LEXICON_ID, words);
+
+        verify(wordService, times(2)).getUniqueElementValues(LEXICON_ID, WordElement.Kana, WordReviewHelper.MAX_VALUES_FOR_FUZZY_MATCHING);
+    }
+
     @Test
     public void testGetWordAllowedTime() {
         assertEquals(24, wordReviewHelper.getWordAllowedTime(TEST_LANGUAGE, WORD_1, ReviewMode.TypingTest, TestRelationship.MeaningToKana));   // Base time 10 + 8 chars @ 2 each
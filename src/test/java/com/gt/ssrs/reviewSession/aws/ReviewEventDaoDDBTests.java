@@ -0,0 +1,132 @@
+package com.gt.ssrs.reviewSession.aws;
+
+import com.gt.ssrs.language.TestRelationship;
+import com.gt.ssrs.model.ReviewEvent;
+import com.gt.ssrs.model.ReviewMode;
+import com.gt.ssrs.model.ReviewType;
+import com.gt.ssrs.reviewSession.ReviewEventDao;
+import com.gt.ssrs.util.DDBTestServer;
+import com.gt.ssrs.util.aws.DDBBatchExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(SpringExtension.class)
+public class ReviewEventDaoDDBTests {
+
+    private static final String TEST_USERNAME = "testUsername";
+    private static final String LEXICON_ID = UUID.randomUUID().toString();
+    private static final int MAX_WRITE_BATCH_SIZE = 25;
+
+    private DDBTestServer<DDBReviewEvent> ddbTestServer;
+
+    private ReviewEventDao reviewEventDao;
+
+    @BeforeEach
+    public void setup() {
+        ddbTestServer = DDBTestServer.withTable(DDBReviewEvent.TABLE_NAME, DDBReviewEvent.class);
+
+        reviewEventDao = new ReviewEventDaoDDB(
+                ddbTestServer.dynamoDbEnhancedClient(),
+                new DDBBatchExecutor(ddbTestServer.dynamoDbEnhancedClient(), 100, MAX_WRITE_BATCH_SIZE, 4, 5, 50, 2000),
+                1);
+    }
+
+    @AfterEach
+    public void teardown() throws Exception {
+        ddbTestServer.close();
+    }
+
+    @Test
+    public void testSaveReviewEvents() {
+        // More events than fit in one batch
+        Instant eventInstant = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        List<ReviewEvent> events = new ArrayList<>();
+        for (int index = 0; index < MAX_WRITE_BATCH_SIZE + 5; index++) {
+            events.add(new ReviewEvent(UUID.randomUUID().toString(), null, LEXICON_ID, UUID.randomUUID().toString(), TEST_USERNAME,
+                    eventInstant.plusMillis(index), ReviewType.Review, ReviewMode.TypingTest, TestRelationship.MeaningToKana,
+                    index % 2 == 0, false, 1000, false, null));
+        }
+
+        assertEquals(events.size(), reviewEventDao.saveReviewEvents(events));
+
+        List<ReviewEvent> savedEvents = new ArrayList<>(ddbTestServer.dynamoDbTable().scan().items().stream()
+                .map(ddbReviewEvent -> DDBReviewEventConverter.convertDDBReviewEvent(ddbReviewEvent))
+                .toList());
+        savedEvents.sort(Comparator.comparing(ReviewEvent::eventInstant));
+
+        assertEquals(events, savedEvents);
+    }
+
+    @Test
+    public void testSaveReviewEvents_Empty() {
+        assertEquals(0, reviewEventDao.saveReviewEvents(List.of()));
+    }
+
+    @Test
+    public void testLoadLexiconIdsWithUnprocessedEvents() {
+        reviewEventDao.saveReviewEvents(List.of(newEvent(LEXICON_ID)));
+
+        // Not preloaded, since it would scan the table
+        assertEquals(Optional.empty(), reviewEventDao.loadLexiconIdsWithUnprocessedEvents());
+    }
+
+    @Test
+    public void testSaveReviewEvent_ClientEventId() {
+        String clientEventId = UUID.randomUUID().toString();
+        ReviewEvent event = new ReviewEvent(null, null, LEXICON_ID, UUID.randomUUID().toString(), TEST_USERNAME, Instant.now(),
+                ReviewType.Review, ReviewMode.TypingTest, TestRelationship.MeaningToKana, true, false, 1000, false, clientEventId);
+
+        assertTrue(reviewEventDao.saveReviewEvent(event));
+        reviewEventDao.markEventsAsProcessed(reviewEventDao.loadUnprocessedReviewEventsForUser(TEST_USERNAME, LEXICON_ID));
+
+        // Resending the event, alone or in a batch, is treated as saved without saving it again
+        assertTrue(reviewEventDao.saveReviewEvent(event));
+        assertEquals(1, reviewEventDao.saveReviewEvents(List.of(event)));
+
+        assertEquals(1, ddbTestServer.dynamoDbTable().scan().items().stream().count());
+        assertEquals(List.of(), reviewEventDao.loadUnprocessedReviewEventsForUser(TEST_USERNAME, LEXICON_ID));
+    }
+
+    @Test
+    public void testSaveReviewEvents_ClientEventIds() {
+        ReviewEvent savedEvent = newClientEvent();
+        assertTrue(reviewEventDao.saveReviewEvent(savedEvent));
+
+        // The resent event and the repeat within the batch are counted as saved, and only the new events are written
+        ReviewEvent newEvent = newClientEvent();
+        assertEquals(4, reviewEventDao.saveReviewEvents(List.of(newEvent, savedEvent, newEvent, newEvent(LEXICON_ID))));
+
+        assertEquals(3, ddbTestServer.dynamoDbTable().scan().items().stream().count());
+        assertEquals(Set.of(savedEvent.clientEventId(), newEvent.clientEventId()), reviewEventDao.loadUnprocessedReviewEventsForUser(TEST_USERNAME, LEXICON_ID).stream()
+                .map(ReviewEvent::clientEventId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+    }
+
+    private static ReviewEvent newClientEvent() {
+        return new ReviewEvent(null, null, LEXICON_ID, UUID.randomUUID().toString(), TEST_USERNAME, Instant.now(),
+                ReviewType.Review, ReviewMode.TypingTest, TestRelationship.MeaningToKana, true, false, 1000, false, UUID.randomUUID().toString());
+    }
+
+    private static ReviewEvent newEvent(String lexiconId) {
+        return new ReviewEvent(UUID.randomUUID().toString(), null, lexiconId, UUID.randomUUID().toString(), TEST_USERNAME,
+                Instant.now(), ReviewType.Review, ReviewMode.TypingTest, TestRelationship.MeaningToKana, true, false, 1000, false, null);
+    }
+}
@@ -0,0 +1,197 @@
+package com.gt.ssrs.util.aws;
+
+import com.gt.ssrs.exception.DaoException;
+import com.gt.ssrs.word.aws.DDBWordSimilarValues;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+import software.amazon.awssdk.services.dynamodb.paginators.BatchGetItemIterable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class DDBBatchExecutorTests {
+
+    private static final int MAX_READ_BATCH_SIZE = 3;
+    private static final int MAX_WRITE_BATCH_SIZE = 2;
+    private static final int MAX_ATTEMPTS = 3;
+
+    @MockitoBean private DynamoDbClient dynamoDbClient;
+
+    private DynamoDbEnhancedClient dynamoDbEnhancedClient;
+    private DynamoDbTable<DDBWordSimilarValues> table;
+    private DDBBatchExecutor batchExecutor;
+
+    @BeforeEach
+    public void setup() {
+        dynamoDbEnhancedClient = DynamoDbEnhancedClient.builder().dynamoDbClient(dynamoDbClient).build();
+        table = dynamoDbEnhancedClient.table(DDBWordSimilarValues.TABLE_NAME, TableSchema.fromImmutableClass(DDBWordSimilarValues.class));
+        batchExecutor = new DDBBatchExecutor(dynamoDbEnhancedClient, MAX_READ_BATCH_SIZE, MAX_WRITE_BATCH_SIZE, 4, MAX_ATTEMPTS, 1, 5);
+
+        when(dynamoDbClient.batchGetItemPaginator(any(BatchGetItemRequest.class)))
+                .then(invoc -> new BatchGetItemIterable(dynamoDbClient, invoc.getArgument(0)));
+    }
+
+    @Test
+    public void testPutItems() {
+        // Every item is left unprocessed the first time it is sent
+        Set<String> throttledIds = ConcurrentHashMap.newKeySet();
+        Set<String> savedIds = ConcurrentHashMap.newKeySet();
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class))).then(invoc -> {
+            List<WriteRequest> unprocessed = new ArrayList<>();
+            for (WriteRequest writeRequest : writeRequests(invoc.getArgument(0))) {
+                String id = writeRequest.putRequest().item().get(DDBWordSimilarValues.ID_ATTRIBUTE_NAME).s();
+                if (throttledIds.add(id)) {
+                    unprocessed.add(writeRequest);
+                } else {
+                    savedIds.add(id);
+                }
+            }
+            return BatchWriteItemResponse.builder().unprocessedItems(Map.of(DDBWordSimilarValues.TABLE_NAME, unprocessed)).build();
+        });
+
+        List<DDBWordSimilarValues> items = List.of(buildItem("1"), buildItem("2"), buildItem("3"), buildItem("4"), buildItem("5"));
+
+        assertEquals(List.of(), batchExecutor.putItems(table, items));
+        assertEquals(Set.of("1", "2", "3", "4", "5"), savedIds);
+        verify(dynamoDbClient, times(6)).batchWriteItem(any(BatchWriteItemRequest.class));
+
+        DDBBatchExecutorStats stats = batchExecutor.getStats();
+        assertEquals(6, stats.batchCnt());
+        assertEquals(3, stats.throttledBatchCnt());
+        assertEquals(5, stats.retriedItemCnt());
+        assertEquals(0, stats.unprocessedItemCnt());
+    }
+
+    @Test
+    public void testPutItems_StillUnprocessed() {
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class))).then(invoc -> BatchWriteItemResponse.builder()
+                .unprocessedItems(Map.of(DDBWordSimilarValues.TABLE_NAME, writeRequests(invoc.getArgument(0))))
+                .build());
+
+        List<DDBWordSimilarValues> items = List.of(buildItem("1"), buildItem("2"));
+
+        assertEquals(List.of("1", "2"), batchExecutor.putItems(table, items).stream().map(DDBWordSimilarValues::id).toList());
+        verify(dynamoDbClient, times(MAX_ATTEMPTS)).batchWriteItem(any(BatchWriteItemRequest.class));
+        assertEquals(2, batchExecutor.getStats().unprocessedItemCnt());
+    }
+
+    @Test
+    public void testPutItems_ThrottlingException() {
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class)))
+                .thenThrow(ProvisionedThroughputExceededException.builder()
+                        .awsErrorDetails(AwsErrorDetails.builder().errorCode("ProvisionedThroughputExceededException").build())
+                        .build())
+                .thenReturn(BatchWriteItemResponse.builder().build());
+
+        assertEquals(List.of(), batchExecutor.putItems(table, List.of(buildItem("1"))));
+        verify(dynamoDbClient, times(2)).batchWriteItem(any(BatchWriteItemRequest.class));
+        assertEquals(1, batchExecutor.getStats().throttledBatchCnt());
+    }
+
+    @Test
+    public void testPutItems_Failure() {
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class))).thenThrow(DynamoDbException.builder().message("failed").build());
+
+        assertThrows(DynamoDbException.class, () -> batchExecutor.putItems(table, List.of(buildItem("1"), buildItem("2"), buildItem("3"))));
+    }
+
+    @Test
+    public void testDeleteItems() {
+        // The first delete of each batch is left unprocessed every time
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class))).then(invoc -> BatchWriteItemResponse.builder()
+                .unprocessedItems(Map.of(DDBWordSimilarValues.TABLE_NAME, writeRequests(invoc.getArgument(0)).subList(0, 1)))
+                .build());
+
+        List<Key> keys = List.of(buildKey("1"), buildKey("2"), buildKey("1"));
+
+        assertEquals(List.of(buildKey("1")), batchExecutor.deleteItems(table, keys));
+        verify(dynamoDbClient, times(MAX_ATTEMPTS)).batchWriteItem(any(BatchWriteItemRequest.class));
+    }
+
+    @Test
+    public void testPutAllItems_StillUnprocessed() {
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class))).then(invoc -> BatchWriteItemResponse.builder()
+                .unprocessedItems(Map.of(DDBWordSimilarValues.TABLE_NAME, writeRequests(invoc.getArgument(0)).subList(0, 1)))
+                .build());
+
+        assertThrows(DaoException.class, () -> batchExecutor.putAllItems(table, List.of(buildItem("1"), buildItem("2"))));
+    }
+
+    @Test
+    public void testDeleteAllItems() {
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class))).thenReturn(BatchWriteItemResponse.builder().build());
+
+        batchExecutor.deleteAllItems(table, List.of(buildKey("1"), buildKey("2"), buildKey("3")));
+        verify(dynamoDbClient, times(2)).batchWriteItem(any(BatchWriteItemRequest.class));
+
+        when(dynamoDbClient.batchWriteItem(any(BatchWriteItemRequest.class))).then(invoc -> BatchWriteItemResponse.builder()
+                .unprocessedItems(Map.of(DDBWordSimilarValues.TABLE_NAME, writeRequests(invoc.getArgument(0))))
+                .build());
+
+        assertThrows(DaoException.class, () -> batchExecutor.deleteAllItems(table, List.of(buildKey("1"))));
+    }
+
+    @Test
+    public void testLoadItems() {
+        // One key of each request is left unprocessed, the rest are found
+        when(dynamoDbClient.batchGetItem(any(BatchGetItemRequest.class))).then(invoc -> {
+            List<Map<String, AttributeValue>> keys = ((BatchGetItemRequest) invoc.getArgument(0)).requestItems().get(DDBWordSimilarValues.TABLE_NAME).keys();
+            List<Map<String, AttributeValue>> unprocessedKeys = keys.size() > 1 ? keys.subList(0, 1) : List.of();
+            List<Map<String, AttributeValue>> items = keys.subList(unprocessedKeys.size(), keys.size()).stream()
+                    .map(key -> table.tableSchema().itemToMap(buildItem(key.get(DDBWordSimilarValues.ID_ATTRIBUTE_NAME).s()), true))
+                    .toList();
+
+            return BatchGetItemResponse.builder()
+                    .responses(Map.of(DDBWordSimilarValues.TABLE_NAME, items))
+                    .unprocessedKeys(unprocessedKeys.isEmpty() ? Map.of() : Map.of(DDBWordSimilarValues.TABLE_NAME, KeysAndAttributes.builder().keys(unprocessedKeys).build()))
+                    .build();
+        });
+
+        List<Key> keys = List.of(buildKey("1"), buildKey("2"), buildKey("3"), buildKey("4"), buildKey("2"));
+
+        List<String> loadedIds = batchExecutor.loadItems(table, keys).stream().map(DDBWordSimilarValues::id).sorted().toList();
+        assertEquals(List.of("1", "2", "3", "4"), loadedIds);
+
+        // The duplicate key is only requested once, and the first batch needs one retry
+        verify(dynamoDbClient, times(3)).batchGetItem(any(BatchGetItemRequest.class));
+    }
+
+    @Test
+    public void testEmpty() {
+        assertEquals(List.of(), batchExecutor.putItems(table, List.of()));
+        assertEquals(List.of(), batchExecutor.deleteItems(table, List.of()));
+        assertEquals(List.of(), batchExecutor.loadItems(table, List.of()));
+
+        verifyNoInteractions(dynamoDbClient);
+    }
+
+    private static List<WriteRequest> writeRequests(BatchWriteItemRequest request) {
+        return request.requestItems().get(DDBWordSimilarValues.TABLE_NAME);
+    }
+
+    private static DDBWordSimilarValues buildItem(String id) {
+        return DDBWordSimilarValues.builder()
+                .id(id)
+                .wordId(id)
+                .build();
+    }
+
+    private static Key buildKey(String id) {
+        return Key.builder().partitionValue(id).build();
+    }
+}
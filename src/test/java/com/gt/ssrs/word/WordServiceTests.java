@@ -3,6 +3,7 @@ package com.gt.ssrs.word;
 import com.gt.ssrs.audio.AudioService;
 import com.gt.ssrs.blob.BlobDao;
 import com.gt.ssrs.exception.UserAccessException;
+import com.gt.ssrs.fuzzy.FuzzyMatcherCache;
 import com.gt.ssrs.language.Language;
 import com.gt.ssrs.lexicon.LexiconService;
 import com.gt.ssrs.model.LexiconMetadata;
@@ -69,12 +70,14 @@ public class WordServiceTests {
     @MockitoBean private AudioService audioService;
     @MockitoBean private WordDao wordDao;
     @MockitoBean private BlobDao blobDao;
+    @MockitoBean private FuzzyMatcherCache fuzzyMatcherCache;
+    @MockitoBean private WordSimilarValuesService wordSimilarValuesService;
 
     private WordService wordService;
 
     @BeforeEach
     public void setup() {
-        wordService = new WordService(lexiconService, wordReviewHistoryService, audioService, wordDao, blobDao);
+        wordService = new WordService(lexiconService, wordReviewHistoryService, audioService, wordDao, blobDao, fuzzyMatcherCache, wordSimilarValuesService);
 
         when(lexiconService.getLexiconMetadata(TEST_LEXICON_METADATA.id())).thenReturn(TEST_LEXICON_METADATA);
         when(lexiconService.getLexiconLanguageId(TEST_LEXICON_METADATA.id())).thenReturn(TEST_LANGUAGE.getId());
@@ -113,6 +116,9 @@ public class WordServiceTests {
         when(wordDao.updateWord(TEST_LANGUAGE, expectedWord)).thenReturn(1);
 
         assertEquals(expectedWord, wordService.updateWord(updatedWordWithoutUsername, TEST_USERNAME));
+        verify(fuzzyMatcherCache).invalidateLexicon(TEST_LEXICON_METADATA.id());
+        verify(wordSimilarValuesService).refreshChangedWordSimilarValuesAsync(TEST_LEXICON_METADATA.id(), List.of(TEST_WORD_1), List.of(expectedWord));
+        verify(wordSimilarValuesService, never()).refreshLexiconSimilarValuesAsync(any());
     }
 
     @Test
@@ -213,6 +219,8 @@ public class WordServiceTests {
                 .filter(word -> word.attributes().equals(wordWithId.attributes()) || word.attributes().equals(wordNoIdNoDuplicate.attributes()))
                 .collect(Collectors.toUnmodifiableList());
         verify(wordReviewHistoryService).createEmptyWordReviewHistoryForWords(TEST_USERNAME, expectedNewHistoryWords);
+        verify(fuzzyMatcherCache).invalidateLexicon(TEST_LEXICON_METADATA.id());
+        verify(wordSimilarValuesService).refreshChangedWordSimilarValuesAsync(TEST_LEXICON_METADATA.id(), List.of(existingWord), savedWords);
     }
 
     @Test
@@ -266,7 +274,11 @@ public class WordServiceTests {
 
         verify(wordDao).loadWords(List.of(deletedWord.id(), deletedWordNoAudio.id(), notOwnedWord.id(), notInLexiconWord.id(), nonExistantId));
         verify(wordDao).deleteWords(List.of(deletedWord.id(), deletedWordNoAudio.id()));
+        verify(wordSimilarValuesService).deleteWordSimilarValues(List.of(deletedWord.id(), deletedWordNoAudio.id()));
         verifyNoMoreInteractions(wordDao);
+
+        verify(fuzzyMatcherCache).invalidateLexicon(TEST_LEXICON_METADATA.id());
+        verify(wordSimilarValuesService).refreshChangedWordSimilarValuesAsync(TEST_LEXICON_METADATA.id(), List.of(deletedWord, deletedWordNoAudio), List.of());
     }
 
     @Test
@@ -0,0 +1,197 @@
+package com.gt.ssrs.word;
+
+import com.gt.ssrs.fuzzy.FuzzyDistanceBackend;
+import com.gt.ssrs.fuzzy.FuzzyIndexMode;
+import com.gt.ssrs.fuzzy.FuzzyMatcherCache;
+import com.gt.ssrs.language.Language;
+import com.gt.ssrs.language.WordElement;
+import com.gt.ssrs.lexicon.LexiconService;
+import com.gt.ssrs.model.Word;
+import com.gt.ssrs.word.model.TestOnWordPair;
+import com.gt.ssrs.word.model.WordSimilarValues;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+public class WordSimilarValuesServiceTests {
+
+    private static final String LEXICON_ID = UUID.randomUUID().toString();
+    private static final String TEST_USERNAME = "testUsername";
+
+    private static final Word WORD_1 = new Word(UUID.randomUUID().toString(), LEXICON_ID, TEST_USERNAME,
+            Map.of("kana", "かたかな", "meaning", "katakana", "kanji", "片仮名"),
+            "n", List.of(), Instant.EPOCH, Instant.now());
+    private static final Word WORD_2 = new Word(UUID.randomUUID().toString(), LEXICON_ID, TEST_USERNAME,
+            Map.of("kana", "ひらがな", "meaning", "hiragana"),
+            "n", List.of(), Instant.EPOCH, Instant.now());
+
+    private static final List<String> SIMILAR_VALUES = List.of("かたな", "かたち");
+
+    @MockitoBean private WordDao wordDao;
+    @MockitoBean private WordSimilarValuesDao wordSimilarValuesDao;
+    @MockitoBean private LexiconService lexiconService;
+
+    private WordSimilarValuesService wordSimilarValuesService;
+
+    @BeforeEach
+    public void setup() {
+        wordSimilarValuesService = new WordSimilarValuesService(wordDao, wordSimilarValuesDao, lexiconService,
+                new FuzzyMatcherCache(16, 3600, FuzzyIndexMode.LinearScan, FuzzyDistanceBackend.Scalar), true);
+    }
+
+    @AfterEach
+    public void teardown() {
+        wordSimilarValuesService.shutdown();
+    }
+
+    @Test
+    public void testLoadSimilarValues() {
+        List<TestOnWordPair> pairs = List.of(
+                new TestOnWordPair(WordElement.Kana, WORD_1),
+                new TestOnWordPair(WordElement.Kanji, WORD_1),
+                new TestOnWordPair(WordElement.Kana, WORD_2));
+
+        when(wordSimilarValuesDao.loadSimilarValues(Set.of(WORD_1.id(), WORD_2.id()), Set.of(WordElement.Kana, WordElement.Kanji))).thenReturn(List.of(
+                new WordSimilarValues(WORD_1.id(), WordElement.Kana, LEXICON_ID, "かたかな", SIMILAR_VALUES),
+                new WordSimilarValues(WORD_1.id(), WordElement.Kanji, LEXICON_ID, "片仮名", SIMILAR_VALUES),
+                new WordSimilarValues(WORD_2.id(), WordElement.Kana, LEXICON_ID, "ひらかな", SIMILAR_VALUES)));
+
+        Map<WordElement, Map<String, List<String>>> similarValues = wordSimilarValuesService.loadSimilarValues(pairs);
+
+        // The row for WORD_2 was computed for an old value, so it is not returned
+        assertEquals(Map.of(
+                WordElement.Kana, Map.of(WORD_1.id(), SIMILAR_VALUES),
+                WordElement.Kanji, Map.of(WORD_1.id(), SIMILAR_VALUES)), similarValues);
+    }
+
+    @Test
+    public void testLoadSimilarValues_DaoFailure() {
+        when(wordSimilarValuesDao.loadSimilarValues(anyCollection(), anyCollection())).thenThrow(new IllegalStateException("failed"));
+
+        assertEquals(Map.of(), wordSimilarValuesService.loadSimilarValues(List.of(new TestOnWordPair(WordElement.Kana, WORD_1))));
+    }
+
+    @Test
+    public void testRefreshLexiconSimilarValues() {
+        when(lexiconService.getLexiconLanguageId(LEXICON_ID)).thenReturn(Language.Japanese.getId());
+        when(wordDao.getWordsUniqueToLexicon(LEXICON_ID)).thenReturn(List.of(WORD_1.id(), WORD_2.id()));
+        when(wordDao.loadWords(List.of(WORD_1.id(), WORD_2.id()))).thenReturn(List.of(WORD_1, WORD_2));
+        when(wordDao.getUniqueElementValues(eq(LEXICON_ID), any(), eq(WordSimilarValuesService.MAX_VALUES_FOR_FUZZY_MATCHING))).thenReturn(List.of("かたかな", "ひらがな", "かたな"));
+
+        wordSimilarValuesService.refreshLexiconSimilarValues(LEXICON_ID);
+
+        ArgumentCaptor<List<WordSimilarValues>> captor = ArgumentCaptor.captor();
+        verify(wordSimilarValuesDao).saveSimilarValues(captor.capture());
+
+        // WORD_2 has no kanji, so there are two rows for it and three for WORD_1
+        List<WordSimilarValues> saved = captor.getValue();
+        assertEquals(5, saved.size());
+
+        WordSimilarValues word1Kana = saved.stream()
+                .filter(similarValues -> similarValues.wordId().equals(WORD_1.id()) && similarValues.wordElement() == WordElement.Kana)
+                .findFirst()
+                .orElseThrow();
+        assertEquals(LEXICON_ID, word1Kana.lexiconId());
+        assertEquals("かたかな", word1Kana.elementValue());
+        assertEquals(List.of("かたな", "ひらがな"), word1Kana.similarValues());
+    }
+
+    @Test
+    public void testRefreshWordSimilarValues() {
+        when(lexiconService.getLexiconLanguageId(LEXICON_ID)).thenReturn(Language.Japanese.getId());
+        when(wordDao.loadWords(List.of(WORD_2.id()))).thenReturn(List.of(WORD_2));
+        when(wordDao.getUniqueElementValues(eq(LEXICON_ID), any(), eq(WordSimilarValuesService.MAX_VALUES_FOR_FUZZY_MATCHING))).thenReturn(List.of("かたかな", "ひらがな", "かたな"));
+
+        wordSimilarValuesService.refreshWordSimilarValues(LEXICON_ID, List.of(WORD_2.id()));
+
+        ArgumentCaptor<List<WordSimilarValues>> captor = ArgumentCaptor.captor();
+        verify(wordSimilarValuesDao).saveSimilarValues(captor.capture());
+
+        // Only the requested word is computed, without looking up the rest of the lexicon
+        assertEquals(Set.of(WORD_2.id()), captor.getValue().stream().map(WordSimilarValues::wordId).collect(Collectors.toSet()));
+        verify(wordDao, never()).getWordsUniqueToLexicon(any());
+    }
+
+    @Test
+    public void testRefreshChangedWordSimilarValues() {
+        Word changedWord1 = new Word(WORD_1.id(), LEXICON_ID, TEST_USERNAME,
+                Map.of("kana", "かたがな", "meaning", "katakana", "kanji", "片仮名"),
+                "n", List.of(), Instant.EPOCH, Instant.now());
+        String closeWordId = UUID.randomUUID().toString();
+        String farWordId = UUID.randomUUID().toString();
+
+        when(lexiconService.getLexiconLanguageId(LEXICON_ID)).thenReturn(Language.Japanese.getId());
+        when(wordDao.getUniqueElementValues(eq(LEXICON_ID), any(), eq(WordSimilarValuesService.MAX_VALUES_FOR_FUZZY_MATCHING))).thenReturn(List.of("かたがな", "ひらがな", "かたな"));
+        when(wordSimilarValuesDao.loadLexiconSimilarValues(LEXICON_ID)).thenReturn(List.of(
+                new WordSimilarValues(WORD_1.id(), WordElement.Kana, LEXICON_ID, "かたかな", SIMILAR_VALUES),
+                new WordSimilarValues(closeWordId, WordElement.Kana, LEXICON_ID, "かたな", List.of("かたかな", "ひらがな")),
+                new WordSimilarValues(closeWordId, WordElement.Meaning, LEXICON_ID, "katana", List.of("katakana")),
+                new WordSimilarValues(farWordId, WordElement.Kana, LEXICON_ID, "ぜんぜんちがうことばです", List.of("かたな"))));
+
+        wordSimilarValuesService.refreshChangedWordSimilarValues(LEXICON_ID, List.of(WORD_1), List.of(changedWord1));
+
+        // The close word's kana list holds the old value. Its meaning list and the far word can't change, since the
+        // meaning is the same and the new kana is too far from the far word's kana.
+        verify(wordDao).loadWords(List.of(WORD_1.id(), closeWordId));
+        verify(wordDao, never()).getWordsUniqueToLexicon(any());
+    }
+
+    @Test
+    public void testRefreshChangedWordSimilarValuesAsync_ManyWords() {
+        List<Word> newWords = IntStream.range(0, 501)
+                .mapToObj(index -> new Word(UUID.randomUUID().toString(), LEXICON_ID, TEST_USERNAME, Map.of("kana", "かな" + index),
+                        "n", List.of(), Instant.EPOCH, Instant.now()))
+                .toList();
+        when(lexiconService.getLexiconLanguageId(LEXICON_ID)).thenReturn(Language.Japanese.getId());
+
+        wordSimilarValuesService.refreshChangedWordSimilarValuesAsync(LEXICON_ID, List.of(), newWords);
+
+        // Too many words changed to refresh them individually, so the whole lexicon is refreshed instead
+        verify(wordDao, timeout(5000)).getWordsUniqueToLexicon(LEXICON_ID);
+        verify(wordSimilarValuesDao, never()).loadLexiconSimilarValues(any());
+    }
+
+    @Test
+    public void testRefreshWordSimilarValuesAsync() {
+        when(lexiconService.getLexiconLanguageId(LEXICON_ID)).thenReturn(Language.Japanese.getId());
+        when(wordDao.loadWords(List.of(WORD_1.id()))).thenReturn(List.of(WORD_1));
+        when(wordDao.getUniqueElementValues(eq(LEXICON_ID), any(), eq(WordSimilarValuesService.MAX_VALUES_FOR_FUZZY_MATCHING))).thenReturn(List.of("かたかな", "ひらがな", "かたな"));
+
+        wordSimilarValuesService.refreshWordSimilarValuesAsync(LEXICON_ID, List.of(WORD_1.id(), WORD_1.id()));
+
+        verify(wordSimilarValuesDao, timeout(5000)).saveSimilarValues(anyList());
+        verify(wordDao).loadWords(List.of(WORD_1.id()));
+    }
+
+    @Test
+    public void testPrecomputeDisabled() {
+        WordSimilarValuesService disabledService = new WordSimilarValuesService(wordDao, wordSimilarValuesDao, lexiconService,
+                new FuzzyMatcherCache(16, 3600, FuzzyIndexMode.LinearScan, FuzzyDistanceBackend.Scalar), false);
+
+        assertEquals(Map.of(), disabledService.loadSimilarValues(List.of(new TestOnWordPair(WordElement.Kana, WORD_1))));
+        disabledService.refreshLexiconSimilarValuesAsync(LEXICON_ID);
+        disabledService.refreshWordSimilarValuesAsync(LEXICON_ID, List.of(WORD_1.id()));
+        disabledService.refreshChangedWordSimilarValuesAsync(LEXICON_ID, List.of(), List.of(WORD_1));
+        disabledService.shutdown();
+
+        verifyNoInteractions(wordSimilarValuesDao);
+        verifyNoInteractions(wordDao);
+    }
+}
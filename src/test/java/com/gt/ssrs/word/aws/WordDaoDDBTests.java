@@ -6,6 +6,7 @@ import com.gt.ssrs.language.WordElement;
 import com.gt.ssrs.model.Word;
 import com.gt.ssrs.model.WordFilterOptions;
 import com.gt.ssrs.util.DDBTestServer;
+import com.gt.ssrs.util.aws.DDBBatchExecutor;
 import com.gt.ssrs.word.WordDao;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -45,8 +46,7 @@ public class WordDaoDDBTests {
 
         wordDao = new WordDaoDDB(
                 ddbTestServer.dynamoDbEnhancedClient(),
-                MAX_READ_BATCH_SIZE,
-                MAX_WRITE_BATCH_SIZE);
+                new DDBBatchExecutor(ddbTestServer.dynamoDbEnhancedClient(), MAX_READ_BATCH_SIZE, MAX_WRITE_BATCH_SIZE, 4, 5, 50, 2000));
     }
 
     @AfterEach
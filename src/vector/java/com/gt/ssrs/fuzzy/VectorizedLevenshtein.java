@@ -0,0 +1,129 @@
+package com.gt.ssrs.fuzzy;
+
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.List;
+
+// One-to-many edit distance kernel using the incubating Vector API. A group of LANES candidates with the same length is
+// stored transposed (character j of the candidate in lane k at j * LANES + k), so each cell of the DP matrix is
+// calculated for every candidate in the group with a single vector operation. Only the band of cells within maxDistance
+// of the diagonal is calculated, and all values are capped at maxDistance + 1 so they fit in 16-bit lanes.
+//
+// This class fails to initialize if the jdk.incubator.vector module is not available (e.g. the JVM was not started with
+// --add-modules jdk.incubator.vector), so DatasetFuzzyMatcher checks for that before using it.
+final class VectorizedLevenshtein {
+
+    static final int MAX_SUPPORTED_DISTANCE = 1024;
+
+    private static final VectorSpecies<Short> SPECIES = ShortVector.SPECIES_PREFERRED;
+    static final int LANES = SPECIES.length();
+
+    private static final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    private VectorizedLevenshtein() { }
+
+    // Packs the values at the given dataset indexes, which must all have the given length, into groups of LANES
+    static short[] packGroups(List<String> dataset, int[] indexes, int length) {
+        int groupCnt = (indexes.length + LANES - 1) / LANES;
+        short[] packed = new short[groupCnt * length * LANES];
+
+        for (int pos = 0; pos < indexes.length; pos++) {
+            String value = dataset.get(indexes[pos]);
+            int groupOffset = (pos / LANES) * length * LANES;
+            int lane = pos % LANES;
+
+            for (int j = 0; j < length; j++) {
+                packed[groupOffset + j * LANES + lane] = (short)value.charAt(j);
+            }
+        }
+
+        return packed;
+    }
+
+    static int groupOffset(int groupIdx, int length) {
+        return groupIdx * length * LANES;
+    }
+
+    // Writes the edit distance between the target and each candidate in the group starting at groupOffset to distances,
+    // or maxDistance + 1 for candidates whose distance is greater than maxDistance
+    static void distances(String target, short[] packed, int groupOffset, int length, int maxDistance, short[] distances) {
+        short cap = (short)(maxDistance + 1);
+        ShortVector capVector = ShortVector.broadcast(SPECIES, cap);
+
+        if (length - target.length() > maxDistance || target.length() - length > maxDistance) {
+            capVector.intoArray(distances, 0);
+            return;
+        }
+
+        Scratch rows = scratch.get();
+        short[] prev = rows.row0((length + 1) * LANES);
+        short[] cur = rows.row1((length + 1) * LANES);
+
+        for (int j = 0; j <= length; j++) {
+            ShortVector.broadcast(SPECIES, (short)Math.min(j, cap)).intoArray(prev, j * LANES);
+        }
+
+        for (int i = 1; i <= target.length(); i++) {
+            ShortVector targetChar = ShortVector.broadcast(SPECIES, (short)target.charAt(i - 1));
+            int jLo = Math.max(1, i - maxDistance);
+            int jHi = Math.min(length, i + maxDistance);
+
+            // Cells just outside the band are further than maxDistance from the diagonal, so they are capped
+            ShortVector left = jLo == 1 ? ShortVector.broadcast(SPECIES, (short)Math.min(i, cap)) : capVector;
+            left.intoArray(cur, (jLo - 1) * LANES);
+            ShortVector diag = ShortVector.fromArray(SPECIES, prev, (jLo - 1) * LANES);
+            ShortVector rowMin = left;
+
+            for (int j = jLo; j <= jHi; j++) {
+                ShortVector up = ShortVector.fromArray(SPECIES, prev, j * LANES);
+                VectorMask<Short> isMatch = ShortVector.fromArray(SPECIES, packed, groupOffset + (j - 1) * LANES).eq(targetChar);
+
+                ShortVector subCost = diag.add((short)1, isMatch.not());
+                ShortVector cell = up.min(left).add((short)1).min(subCost).min(capVector);
+                cell.intoArray(cur, j * LANES);
+
+                rowMin = rowMin.min(cell);
+                diag = up;
+                left = cell;
+            }
+
+            if (jHi < length) {
+                capVector.intoArray(cur, (jHi + 1) * LANES);
+            }
+
+            // Row minimums never decrease, so stop once every candidate in the group is past maxDistance
+            if (rowMin.reduceLanes(VectorOperators.MIN) >= cap) {
+                capVector.intoArray(distances, 0);
+                return;
+            }
+
+            short[] temp = prev;
+            prev = cur;
+            cur = temp;
+        }
+
+        ShortVector.fromArray(SPECIES, prev, length * LANES).intoArray(distances, 0);
+    }
+
+    private static class Scratch {
+        private short[] row0 = new short[0];
+        private short[] row1 = new short[0];
+
+        private short[] row0(int size) {
+            if (row0.length < size) {
+                row0 = new short[Math.max(size, row0.length * 2)];
+            }
+            return row0;
+        }
+
+        private short[] row1(int size) {
+            if (row1.length < size) {
+                row1 = new short[Math.max(size, row1.length * 2)];
+            }
+            return row1;
+        }
+    }
+}